@@ -0,0 +1,64 @@
+package dao;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import models.JournalSummary;
+
+/**
+ * JMH benchmark for search-as-you-type queries on JournalIndex, over a hundred thousand generated entries.
+ * Run with: mvn -P benchmarks test-compile exec:exec -Djmh.include=JournalIndexBenchmark
+ * @author Isabella Castillo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalIndexBenchmark {
+
+    private static final int ENTRIES = 100_000;
+    private static final int WORDS_PER_ENTRY = 150;
+    private static final String[] WORDS = {"walked", "park", "anxious", "sleeping", "family", "dinner", "work", "meeting", "tired", "happy", "rain",
+            "morning", "coffee", "friends", "running", "stressed", "calm", "breathing", "exercise", "reading", "music", "weekend", "thoughts", "grateful"};
+
+    private JournalIndex index;
+
+
+    /**
+     * Indexes entries of random words (with a few rarer generated words mixed in) spread over a few years.
+     */
+    @Setup
+    public void setup() {
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        index = new JournalIndex();
+
+        for (int i = 1; i <= ENTRIES; i++) {
+
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < WORDS_PER_ENTRY; w++) {
+                text.append(random.nextInt(10) == 0 ? "word" + random.nextInt(5000) : WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            index.put(i, WORDS[random.nextInt(WORDS.length)] + " day", text.toString(), start.plusMinutes(i * 15L));
+        }
+    }
+
+
+    @Benchmark
+    public List<JournalSummary> commonPrefix() { return index.search("wa", 50); }
+
+
+    @Benchmark
+    public List<JournalSummary> twoWordsTyping() { return index.search("anxious mee", 50); }
+
+
+    @Benchmark
+    public List<JournalSummary> rareWord() { return index.search("word1234 ", 50); }
+}
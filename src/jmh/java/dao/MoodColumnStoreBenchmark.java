@@ -0,0 +1,77 @@
+package dao;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import models.MoodEntry;
+
+/**
+ * JMH benchmark comparing a six month mood count over MoodColumnStore with the same count over a list of MoodEntry objects,
+ * for a million entries spread over a few years.
+ * Run with: mvn -P benchmarks test-compile exec:exec -Djmh.include=MoodColumnStoreBenchmark
+ * @author Isabella Castillo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoodColumnStoreBenchmark {
+
+    private static final int ENTRIES = 1_000_000;
+
+    private MoodColumnStore store;
+    private List<MoodEntry> entries;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+
+    /**
+     * Creates a million entries (about one every two minutes) with a few dozen distinct tags.
+     */
+    @Setup
+    public void setup() {
+
+        Random random = new Random(42);
+        LocalDateTime first = LocalDateTime.of(2022, 1, 1, 0, 0);
+        store = new MoodColumnStore();
+        entries = new ArrayList<>(ENTRIES);
+
+        for (int i = 1; i <= ENTRIES; i++) {
+
+            LocalDateTime time = first.plusSeconds(i * 100L);
+            int moodID = 1 + random.nextInt(15);
+            String tag = random.nextInt(4) == 0 ? null : "tag" + random.nextInt(40);
+
+            store.put(i, TimeColumns.toEpoch(time), moodID, tag);
+            entries.add(new MoodEntry(i, moodID, tag, time));
+        }
+        end = first.plusSeconds(ENTRIES * 100L);
+        start = end.minusMonths(6);
+    }
+
+
+    @Benchmark
+    public void countOverEntryObjects(Blackhole bh) {
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (MoodEntry entry : entries) {
+            if (!entry.getDateAndTime().isBefore(start) && !entry.getDateAndTime().isAfter(end)) { counts.merge(entry.getMoodID(), 1, Integer::sum); }
+        }
+        bh.consume(counts);
+    }
+
+
+    @Benchmark
+    public void countOverColumns(Blackhole bh) {
+
+        int[] counts = new int[16];
+        bh.consume(store.countMoods(start, end, counts));
+        bh.consume(counts);
+    }
+}
@@ -0,0 +1,75 @@
+package models;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark comparing TimestampCodec with the DateTimeFormatter the DAOs used before, over a million rows.
+ * Run with: mvn -P benchmarks test-compile exec:exec -Djmh.include=TimestampCodecBenchmark
+ * @author Isabella Castillo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampCodecBenchmark {
+
+    private static final int ROWS = 1_000_000;
+    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private String[] texts;
+    private LocalDateTime[] times;
+
+
+    /**
+     * Creates a million random timestamps spread over a few years, same as the generated test data.
+     */
+    @Setup
+    public void setup() {
+
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2022, 1, 1, 0, 0);
+        texts = new String[ROWS];
+        times = new LocalDateTime[ROWS];
+
+        for (int i = 0; i < ROWS; i++) {
+            times[i] = start.plusSeconds(random.nextInt(3 * 365 * 24 * 60 * 60));
+            texts[i] = times[i].format(DB_DATE_FORMAT);
+        }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseWithFormatter(Blackhole bh) {
+        for (String text : texts) { bh.consume(LocalDateTime.parse(text, DB_DATE_FORMAT)); }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseWithCodec(Blackhole bh) {
+        for (String text : texts) { bh.consume(TimestampCodec.parse(text)); }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void formatWithFormatter(Blackhole bh) {
+        for (LocalDateTime time : times) { bh.consume(time.format(DB_DATE_FORMAT)); }
+    }
+
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void formatWithCodec(Blackhole bh) {
+        for (LocalDateTime time : times) { bh.consume(TimestampCodec.format(time)); }
+    }
+}
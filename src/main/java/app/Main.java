@@ -4,7 +4,9 @@ import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.image.ImageView;
@@ -13,7 +15,12 @@ import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.stage.Stage;
+import java.sql.SQLException;
 
+import controller.ControllerExecutor;
+import dao.ReferenceCatalog;
+import dao.WriteBehindQueue;
+import models.DatabaseConnection;
 import view.*;
 
 /**
@@ -32,6 +39,25 @@ public class Main extends Application {
     private ResourcesView resourcesView;
     private Button activeButton = null;
 
+    // The predefined moods and exercises, loaded before the window is built and handed to the views
+    private ReferenceCatalog catalog = ReferenceCatalog.empty();
+    private String catalogError;
+
+
+    /**
+     * Loads the predefined moods and exercises before the window is built.
+     * Runs on the launcher thread rather than the JavaFX thread, so the views get the catalog without any of them touching the database.
+     */
+    @Override
+    public void init() {
+
+        try {
+            catalog = ReferenceCatalog.get();
+        } catch (SQLException e) {
+            catalogError = "Error: Could not load moods and exercises: " + e.getMessage();
+        }
+    }
+
 
     /**
      * Main method for the setting up the UI.
@@ -66,10 +92,10 @@ public class Main extends Application {
         mainLayout.setCenter(contentWrapper);
 
         // Initialize and show views
-        moodTrackerView = new MoodTrackerView();
+        moodTrackerView = new MoodTrackerView(catalog);
         journalView = new JournalView();
-        dataVisualizationView = new DataVisualizationView();
-        guidedMeditationView = new GuidedMeditationView();
+        dataVisualizationView = new DataVisualizationView(catalog);
+        guidedMeditationView = new GuidedMeditationView(catalog);
         resourcesView = new ResourcesView();
         showView(moodTrackerView.getView());
 
@@ -83,6 +109,14 @@ public class Main extends Application {
         primaryStage.setScene(scene);
         primaryStage.setMaximized(true);
         primaryStage.show();
+
+        // The app still opens without the moods and exercises (the journal and resources don't need them), but the user is told why the rest is empty
+        if (catalogError != null) {
+
+            Alert alertDialog = new Alert(Alert.AlertType.ERROR, catalogError, ButtonType.OK);
+            alertDialog.getDialogPane().getStyleClass().add("card");
+            alertDialog.showAndWait();
+        }
     }
 
 
@@ -193,6 +227,18 @@ public class Main extends Application {
     }
 
 
+    /**
+     * Stops the controller executor, commits any queued writes and closes the pooled database connections when the window is closed.
+     */
+    @Override
+    public void stop() {
+
+        ControllerExecutor.shutdown();
+        WriteBehindQueue.shutdown();
+        DatabaseConnection.close();
+    }
+
+
     /**
      * Launch method.
      *
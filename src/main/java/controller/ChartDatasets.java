@@ -0,0 +1,134 @@
+package controller;
+
+import java.sql.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+
+import dao.Cancellation;
+import models.ExerciseMoodStats;
+import models.MoodBucket;
+import models.MoodCategoryCount;
+import models.MoodSeries;
+
+/**
+ * The datasets of the four visualization charts for one date range, all prepared at the same time on the controller executor.
+ * Preparing them together means opening the charts costs the slowest one's time rather than the sum of all four, and each result
+ * lands in the chart cache for when its chart is shown. Asking for a dataset that is already ready goes back through the cache,
+ * so writes made since it was prepared are picked up. Cancelling stops whatever hasn't finished, including a running query.
+ * Ranges longer than a few months show mood over time as time buckets rather than every entry, so only the buckets are prepared for those.
+ * @author Isabella Castillo
+ */
+public final class ChartDatasets {
+
+    // Longest range the mood over time chart plots every entry for (the longest preset range, six months)
+    static final Period MAX_UNBUCKETED_RANGE = Period.ofMonths(6).plusDays(1);
+
+    private final DataVisualizationController controller;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+    private final int maxBuckets;
+    private final boolean bucketed;
+    private final Cancellation cancellation = new Cancellation();
+    private final CompletableFuture<MoodSeries> moodSeries;
+    private final CompletableFuture<List<MoodBucket>> moodBuckets;
+    private final CompletableFuture<List<ExerciseMoodStats>> exerciseMoodStats;
+    private final CompletableFuture<Map<Integer, Integer>> moodCounts;
+    private final CompletableFuture<List<MoodCategoryCount>> moodCategoryCounts;
+
+
+    /**
+     * Starts preparing every dataset (use DataVisualizationController.prepareDatasets).
+     *
+     * @param controller The controller computing (and caching) the datasets.
+     * @param start      Range start time.
+     * @param end        Range end time.
+     * @param maxBuckets The most time buckets the mood over time chart has room for.
+     */
+    ChartDatasets(DataVisualizationController controller, LocalDateTime start, LocalDateTime end, int maxBuckets) {
+
+        this.controller = controller;
+        this.start = start;
+        this.end = end;
+        this.maxBuckets = maxBuckets;
+        this.bucketed = start.plus(MAX_UNBUCKETED_RANGE).isBefore(end);
+
+        // Only the form of mood over time the chart will show is prepared, the other is still loaded if asked for
+        moodSeries = bucketed ? null : prepare(this::loadMoodSeries);
+        moodBuckets = bucketed ? prepare(this::loadMoodBuckets) : null;
+        exerciseMoodStats = prepare(this::loadExerciseMoodStats);
+        moodCounts = prepare(this::loadMoodCounts);
+        moodCategoryCounts = prepare(this::loadMoodCategoryCounts);
+    }
+
+
+    /**
+     * Set of getters for the datasets, each completes once ready (or exceptionally with a CancellationException once cancelled).
+     */
+    public CompletableFuture<MoodSeries> getMoodSeries() { return latest(moodSeries, this::loadMoodSeries); }
+    public CompletableFuture<List<MoodBucket>> getMoodBuckets() { return latest(moodBuckets, this::loadMoodBuckets); }
+    public CompletableFuture<List<ExerciseMoodStats>> getExerciseMoodStats() { return latest(exerciseMoodStats, this::loadExerciseMoodStats); }
+    public CompletableFuture<Map<Integer, Integer>> getMoodCounts() { return latest(moodCounts, this::loadMoodCounts); }
+    public CompletableFuture<List<MoodCategoryCount>> getMoodCategoryCounts() { return latest(moodCategoryCounts, this::loadMoodCategoryCounts); }
+
+
+    /**
+     * Checks if the range is long enough that mood over time should be shown as time buckets (getMoodBuckets) instead of every entry (getMoodSeries).
+     *
+     * @return boolean Returns T/F based on if the mood over time chart should use buckets.
+     */
+    public boolean isMoodOverTimeBucketed() { return bucketed; }
+
+
+    /**
+     * Cancels the datasets not ready yet, stopping their work and any query still running for them.
+     * Datasets that are already ready stay usable.
+     */
+    public void cancel() {
+
+        cancellation.cancel();
+        if (moodSeries != null) { moodSeries.cancel(false); }
+        if (moodBuckets != null) { moodBuckets.cancel(false); }
+        exerciseMoodStats.cancel(false);
+        moodCounts.cancel(false);
+        moodCategoryCounts.cancel(false);
+    }
+
+
+    /**
+     * Set of tasks computing each dataset through the controller (and so through the chart cache).
+     */
+    private MoodSeries loadMoodSeries() throws SQLException { return controller.getMoodSeries(start, end); }
+    private List<MoodBucket> loadMoodBuckets() throws SQLException { return controller.getMoodBuckets(start, end, maxBuckets); }
+    private List<ExerciseMoodStats> loadExerciseMoodStats() throws SQLException { return controller.getExerciseMoodStats(start, end, cancellation); }
+    private Map<Integer, Integer> loadMoodCounts() throws SQLException { return controller.countMoodsInRange(start, end); }
+    private List<MoodCategoryCount> loadMoodCategoryCounts() throws SQLException { return controller.countMoodCategoriesByTimeOfDay(start, end); }
+
+
+    /**
+     * Gets a dataset still being prepared as is, or asks again for one already done (a cache hit unless a write has dropped it since) or never prepared.
+     */
+    private <T> CompletableFuture<T> latest(CompletableFuture<T> prepared, ControllerExecutor.Task<T> task) { return prepared == null || prepared.isDone() ? prepare(task) : prepared; }
+
+
+    /**
+     * Runs one dataset's task on the controller executor unless the datasets were cancelled before it started.
+     * A query stopped by the cancel fails with a SQLException, which is passed on as a CancellationException instead so it isn't shown as an error.
+     */
+    private <T> CompletableFuture<T> prepare(ControllerExecutor.Task<T> task) {
+
+        CompletableFuture<T> prepared = new CompletableFuture<>();
+
+        ControllerExecutor.submit(() -> {
+            cancellation.throwIfCancelled();
+            return task.call();
+        }).whenComplete((result, error) -> {
+
+            if (error == null) { prepared.complete(result); }
+            else if (cancellation.isCancelled()) { prepared.completeExceptionally(new CancellationException("Cancelled")); }
+            else { prepared.completeExceptionally(error); }
+        });
+        return prepared;
+    }
+}
@@ -0,0 +1,101 @@
+package controller;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import models.Settings;
+
+/**
+ * Shared executor the controllers' async methods run their DAO calls on, so the JavaFX thread never waits on the database.
+ * Uses a virtual thread per task by default. A bounded pool of platform threads can be chosen instead with the
+ * 'mindscape.executor' system property set to 'platform' (or the MINDSCAPE_EXECUTOR environment variable), sized by
+ * 'mindscape.executor.threads' (or MINDSCAPE_EXECUTOR_THREADS, default 4).
+ * @author Isabella Castillo
+ */
+public final class ControllerExecutor {
+
+    private static final int DEFAULT_PLATFORM_THREADS = 4;
+
+    private static ExecutorService executor;
+
+    /**
+     * A DAO call to run in the background.
+     */
+    @FunctionalInterface
+    public interface Task<T> {
+        T call() throws SQLException;
+    }
+
+    // To prevent accidental object instantiation
+    private ControllerExecutor() {}
+
+
+    /**
+     * Runs a DAO call on the executor.
+     * A SQLException thrown by the task completes the future exceptionally with that SQLException as the cause.
+     *
+     * @param  task                 The DAO call to run.
+     * @return CompletableFuture<T> Returns a future completed with the task's result (on a background thread).
+     */
+    public static <T> CompletableFuture<T> submit(Task<T> task) {
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        try {
+
+            getExecutor().execute(() -> {
+
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+
+    /**
+     * Stops the executor (used when the application shuts down), letting running tasks finish.
+     * A later submit() starts a fresh executor.
+     */
+    public static synchronized void shutdown() {
+
+        if (executor != null) {
+            executor.shutdown();
+            executor = null;
+        }
+    }
+
+
+    /**
+     * Gets the shared executor, creating it from the configured settings on first use.
+     */
+    private static synchronized ExecutorService getExecutor() {
+
+        if (executor == null) {
+
+            if ("platform".equalsIgnoreCase(Settings.get("mindscape.executor", "MINDSCAPE_EXECUTOR", "virtual"))) {
+
+                int threads = Settings.getInt("mindscape.executor.threads", "MINDSCAPE_EXECUTOR_THREADS", DEFAULT_PLATFORM_THREADS);
+                AtomicInteger count = new AtomicInteger();
+
+                // Daemon threads so an unfinished query never keeps the application open
+                executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+                    Thread thread = new Thread(runnable, "controller-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+            } else {
+                executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("controller-", 1).factory());
+            }
+        }
+        return executor;
+    }
+}
@@ -3,13 +3,22 @@ package controller;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
+import dao.AnalyticsDAO;
+import dao.Cancellation;
+import dao.ChartCache;
+import dao.MoodColumnStore;
 import dao.MoodDAO;
 import dao.ExerciseDAO;
+import dao.ReferenceCatalog;
 import models.Mood;
+import models.MoodBucket;
 import models.MoodEntry;
-import models.Exercise;
+import models.MoodSeries;
 import models.ExerciseEntry;
+import models.ExerciseMoodStats;
+import models.MoodCategoryCount;
 
 /**
  * Controller class for main program to handle user events, call DAO methods, and interact with the program.
@@ -20,25 +29,16 @@ public class DataVisualizationController {
     // Creating necessary objects
     private final MoodDAO moodDAO = new MoodDAO();
     private final ExerciseDAO exerciseDAO = new ExerciseDAO();
+    private final AnalyticsDAO analyticsDAO = new AnalyticsDAO();
 
 
     /**
-     * Gets the 15 predefined moods from the database.
+     * Gets the 15 predefined moods (from the reference catalog, so no database round trip after the first load).
      * 
      * @return List<Mood>   Returns list of moods.
      * @throws SQLException If an error occurs.
      */
-    public List<Mood> getMoodList() throws SQLException { return moodDAO.getMoodList(); }
-
-
-    /**
-     * Finds a mood object by its assigned ID.
-     * 
-     * @param  id           The unique ID assigned to specific mood.
-     * @return Mood         Returns mood object of that unique int ID.
-     * @throws SQLException If an error occurs.
-     */
-    public Mood getMoodByID(int id) throws SQLException { return moodDAO.getMoodByID(id); }
+    public List<Mood> getMoodList() throws SQLException { return ReferenceCatalog.get().getMoods(); }
 
 
     /**
@@ -53,12 +53,137 @@ public class DataVisualizationController {
 
 
     /**
-     * Gets all exercises from the database.
+     * Gets the mood entries within a specific date range as a column-oriented series.
+     * Copied out of the in-memory mood store, so it costs a few arrays instead of a MoodEntry (and a database row) per entry,
+     * and kept in the chart cache until a mood in the range changes.
+     * 
+     * @param  start        Range start time.
+     * @param  end          Range end time.
+     * @return MoodSeries   Returns the entries in the range, oldest first.
+     * @throws SQLException If an error occurs while loading the store.
+     */
+    public MoodSeries getMoodSeries(LocalDateTime start, LocalDateTime end) throws SQLException {
+        return ChartCache.get().get("moodSeries", ChartCache.Source.MOODS, start, end, () -> MoodColumnStore.get().slice(start, end));
+    }
+
+
+    /**
+     * Sums up the mood entries within a specific date range per time bucket (hour, day, week or month, picked from the span).
+     * Read from the rollup tables and kept in the chart cache, so ranges of years cost a few hundred rows however many entries they hold.
+     * 
+     * @param  start            Range start time.
+     * @param  end              Range end time.
+     * @param  maxBuckets       The most buckets wanted, such as the chart's width divided by the pixels per bucket.
+     * @return List<MoodBucket> Returns the buckets holding at least one entry, oldest first (read-only, as it's shared through the cache).
+     * @throws SQLException     If an error occurs.
+     */
+    public List<MoodBucket> getMoodBuckets(LocalDateTime start, LocalDateTime end, int maxBuckets) throws SQLException {
+        return ChartCache.get().get("moodBuckets/" + maxBuckets, ChartCache.Source.MOODS, start, end, () -> Collections.unmodifiableList(moodDAO.getMoodBuckets(start, end, maxBuckets)));
+    }
+
+
+    /**
+     * Gets the time of the oldest mood or exercise entry, the start of an "all time" range.
+     * 
+     * @return LocalDateTime Returns the time of the oldest entry, or null if nothing has been logged.
+     * @throws SQLException  If an error occurs.
+     */
+    public LocalDateTime getFirstEntryTime() throws SQLException {
+
+        LocalDateTime firstMood = moodDAO.getFirstMoodEntryTime();
+        LocalDateTime firstExercise = exerciseDAO.getFirstExerciseEntryTime();
+
+        if (firstMood == null || firstExercise == null) { return firstMood != null ? firstMood : firstExercise; }
+        return firstMood.isBefore(firstExercise) ? firstMood : firstExercise;
+    }
+
+
+    /**
+     * Gets the time of the oldest mood or exercise entry, the start of an "all time" range.
+     * Used by the "All" range button, which waits for the oldest entry before updating the charts.
+     *
+     * @return CompletableFuture<LocalDateTime> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<LocalDateTime> getFirstEntryTimeAsync() { return ControllerExecutor.submit(this::getFirstEntryTime); }
+
+
+    /**
+     * Counts how many times each mood was logged within a specific date range.
+     * Counted over the in-memory mood store's arrays, so no rows are read and nothing is allocated per entry, then kept in the chart cache.
+     * 
+     * @param  start                 Range start time.
+     * @param  end                   Range end time.
+     * @return Map<Integer, Integer> Returns the number of entries per mood ID (read-only, as it's shared through the cache).
+     * @throws SQLException          If an error occurs while loading the store.
+     */
+    public Map<Integer, Integer> countMoodsInRange(LocalDateTime start, LocalDateTime end) throws SQLException {
+
+        return ChartCache.get().get("moodCounts", ChartCache.Source.MOODS, start, end, () -> {
+
+            int[] counts = new int[Byte.MAX_VALUE + 1];
+            MoodColumnStore.get().countMoods(start, end, counts);
+
+            Map<Integer, Integer> moodCounts = new HashMap<>();
+            for (int moodID = 0; moodID < counts.length; moodID++) {
+                if (counts[moodID] > 0) { moodCounts.put(moodID, counts[moodID]); }
+            }
+            return Collections.unmodifiableMap(moodCounts);
+        });
+    }
+
+
+    /**
+     * Counts how many moods of each category were logged by day and by night within a specific date range.
+     * Counted over the in-memory mood store's arrays, then grouped into categories by AnalyticsDAO and kept in the chart cache.
+     * 
+     * @param  start                   Range start time.
+     * @param  end                     Range end time.
+     * @return List<MoodCategoryCount> Returns the day and night counts of every mood category (read-only, as it's shared through the cache).
+     * @throws SQLException            If an error occurs while loading the store.
+     */
+    public List<MoodCategoryCount> countMoodCategoriesByTimeOfDay(LocalDateTime start, LocalDateTime end) throws SQLException {
+
+        return ChartCache.get().get("moodCategories", ChartCache.Source.MOODS, start, end, () -> {
+
+            int[] dayCounts = new int[Byte.MAX_VALUE + 1];
+            int[] nightCounts = new int[Byte.MAX_VALUE + 1];
+            MoodColumnStore.get().countMoodsByTimeOfDay(start, end, AnalyticsDAO.DAY_START_HOUR, AnalyticsDAO.NIGHT_START_HOUR, dayCounts, nightCounts);
+
+            return Collections.unmodifiableList(AnalyticsDAO.groupByCategory(dayCounts, nightCounts, getMoodList().size()));
+        });
+    }
+
+
+    /**
+     * Works out the statistics (count, mean, standard deviation and a confidence interval for the change) of the moods chosen
+     * before and after each exercise done within a specific date range. Kept in the chart cache until an exercise started in the range changes.
      * 
-     * @return List<Exercise> Returns a list of all exercises.
-     * @throws SQLException   If an error occurs.
+     * @param  start                   Range start time.
+     * @param  end                     Range end time.
+     * @return List<ExerciseMoodStats> Returns the statistics of each exercise done in the range (read-only, as it's shared through the cache).
+     * @throws SQLException            If an error occurs.
      */
-    public List<Exercise> getAllExercises() throws SQLException { return exerciseDAO.getExerciseList(); }
+    public List<ExerciseMoodStats> getExerciseMoodStats(LocalDateTime start, LocalDateTime end) throws SQLException { return getExerciseMoodStats(start, end, new Cancellation()); }
+
+
+    /**
+     * Works out the statistics of the moods chosen before and after each exercise done within a specific date range, stopping if the work is cancelled.
+     */
+    List<ExerciseMoodStats> getExerciseMoodStats(LocalDateTime start, LocalDateTime end, Cancellation cancellation) throws SQLException {
+        return ChartCache.get().get("exerciseStats", ChartCache.Source.EXERCISES, start, end, () -> Collections.unmodifiableList(analyticsDAO.getExerciseMoodStats(start, end, cancellation)));
+    }
+
+
+    /**
+     * Starts preparing the datasets of all four charts for a date range at once, in the background.
+     * Cancel the result once the range is no longer wanted, so its remaining work (and any running query) is stopped.
+     *
+     * @param  start         Range start time.
+     * @param  end           Range end time.
+     * @param  maxBuckets    The most time buckets the mood over time chart has room for, used when the range is too long to plot every entry.
+     * @return ChartDatasets Returns the datasets being prepared.
+     */
+    public ChartDatasets prepareDatasets(LocalDateTime start, LocalDateTime end, int maxBuckets) { return new ChartDatasets(this, start, end, maxBuckets); }
 
 
     /**
@@ -70,4 +195,5 @@ public class DataVisualizationController {
      * @throws SQLException         If an error occurs.
      */
     public List<ExerciseEntry> getExerciseEntriesByDateRange(LocalDateTime start, LocalDateTime end) throws SQLException { return exerciseDAO.getExerciseEntriesByDateRange(start, end); }
+
 }
@@ -3,12 +3,10 @@ package controller;
 import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import dao.ExerciseDAO;
-import dao.MoodDAO;
-import models.Exercise;
 import models.ExerciseEntry;
-import models.Mood;
 
 /**
  * Controller class for main program to handle user events, call DAO methods, and interact with the program.
@@ -18,26 +16,7 @@ public class GuidedMeditationController {
 
     // Creating necessary objects
     private final ExerciseDAO exerciseDAO = new ExerciseDAO();
-    private final MoodDAO moodDAO = new MoodDAO();
-    private ExerciseEntry currEntry;
-
-
-    /**
-     * Gets all the exercises in database.
-     *
-     * @return List<Exercise> Returns a list of all exercises.
-     * @throws SQLException   If an error occurs.
-     */
-    public List<Exercise> getAllExercises() throws SQLException { return exerciseDAO.getExerciseList(); }
-
-
-    /**
-     * Gets all the moods in database.
-     *
-     * @return List<Mood>   Returns a list of all moods.
-     * @throws SQLException If an error occurs.
-     */
-    public List<Mood> getMoodList() throws SQLException { return moodDAO.getMoodList(); }
+    private volatile ExerciseEntry currEntry;
 
 
     /**
@@ -61,6 +40,17 @@ public class GuidedMeditationController {
     }
 
 
+    /**
+     * Starts a new exercise session.
+     * Runs on the controller executor, so starting a session never holds up the meditation screen.
+     *
+     * @param  exerciseID                 The unique ID for the exercise chosen.
+     * @param  moodBeforeID               The unique ID for the mood before chosen.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> startExerciseAsync(int exerciseID, int moodBeforeID) { return ControllerExecutor.submit(() -> startExercise(exerciseID, moodBeforeID)); }
+
+
     /**
      * Stops the current exercise session.
      *
@@ -81,4 +71,14 @@ public class GuidedMeditationController {
 
         return updateCheck1 && updateCheck2;
     }
+
+
+    /**
+     * Stops the current exercise session.
+     * Runs on the controller executor like startExerciseAsync, the mood and end time are saved before the future completes.
+     *
+     * @param  moodAfterID                The unique ID for the mood after chosen.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> stopExerciseAsync(int moodAfterID) { return ControllerExecutor.submit(() -> stopExercise(moodAfterID)); }
 }
@@ -2,9 +2,16 @@ package controller;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import dao.ChangeEvent;
+import dao.ChangeEvents;
 import dao.JournalDAO;
+import dao.JournalIndex;
 import models.JournalEntry;
+import models.JournalSearchResult;
+import models.JournalSummary;
 
 /**
  * Controller class for journal feature to handle user events, call DAO methods, and interact with the program.
@@ -25,6 +32,99 @@ public class JournalController {
     public List<JournalEntry> getAllJournalEntries() throws SQLException { return journalDAO.getAllJournalEntries(); }
 
 
+    /**
+     * Counts the journal entries in the database.
+     *
+     * @return int          Returns the number of journal entries.
+     * @throws SQLException If an error occurs.
+     */
+    public int countJournalEntries() throws SQLException { return journalDAO.countJournalEntries(); }
+
+
+    /**
+     * Counts the journal entries in the database.
+     * Runs on the controller executor, the journal table is sized with it before any page is loaded.
+     *
+     * @return CompletableFuture<Integer> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Integer> countJournalEntriesAsync() { return ControllerExecutor.submit(this::countJournalEntries); }
+
+
+    /**
+     * Subscribes to every committed insert, edit and delete of a journal entry (the search index is kept current the same way).
+     * The subscriber is called on the thread that committed the write.
+     *
+     * @param  subscriber                Called with each change, holding the entry as stored.
+     * @return ChangeEvents.Subscription Returns the subscription, for unsubscribing.
+     */
+    public ChangeEvents.Subscription subscribeToJournalEntryChanges(Consumer<? super ChangeEvent<JournalEntry>> subscriber) { return ChangeEvents.subscribe(JournalEntry.class, subscriber); }
+
+
+    /**
+     * Gets one page of journal entry summaries (newest first) starting right after the given summary.
+     *
+     * @param  after                The last summary of the previous page, or null for the first page.
+     * @param  limit                The max number of summaries in the page.
+     * @return List<JournalSummary> Returns the page of summaries.
+     * @throws SQLException         If an error occurs.
+     */
+    public List<JournalSummary> getJournalSummaryPage(JournalSummary after, int limit) throws SQLException { return journalDAO.getJournalSummaryPage(after, limit); }
+
+
+    /**
+     * Gets one page of journal entry summaries (newest first) starting right after the given summary.
+     * Used by the journal table to load its pages in the background as it scrolls.
+     *
+     * @param  after                                   The last summary of the previous page, or null for the first page.
+     * @param  limit                                   The max number of summaries in the page.
+     * @return CompletableFuture<List<JournalSummary>> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<List<JournalSummary>> getJournalSummaryPageAsync(JournalSummary after, int limit) { return ControllerExecutor.submit(() -> getJournalSummaryPage(after, limit)); }
+
+
+    /**
+     * Searches the entries from the in-memory index as the user types, matching the last word as a prefix.
+     * Useful for updating results on every keystroke, since only the first search has to read from the database.
+     *
+     * @param  query                The search text as typed so far.
+     * @param  limit                The max number of results.
+     * @return List<JournalSummary> Returns the best matching summaries, most relevant first.
+     * @throws SQLException         If an error occurs while loading the index.
+     */
+    public List<JournalSummary> quickSearchJournal(String query, int limit) throws SQLException { return JournalIndex.get().search(query, limit); }
+
+
+    /**
+     * Searches the entries from the in-memory index as the user types, matching the last word as a prefix.
+     * Runs on the controller executor, so the search box stays responsive while typing.
+     *
+     * @param  query                                   The search text as typed so far.
+     * @param  limit                                   The max number of results.
+     * @return CompletableFuture<List<JournalSummary>> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<List<JournalSummary>> quickSearchJournalAsync(String query, int limit) { return ControllerExecutor.submit(() -> quickSearchJournal(query, limit)); }
+
+
+    /**
+     * Gets the HTML body of a journal entry for the editor (recently opened bodies are cached).
+     *
+     * @param  id           The unique ID of the journal entry.
+     * @return String       Returns the HTML body, or null if there isn't an entry with that ID.
+     * @throws SQLException If an error occurs.
+     */
+    public String getJournalBody(int id) throws SQLException { return journalDAO.getJournalBody(id); }
+
+
+    /**
+     * Gets the HTML body of a journal entry for the editor (recently opened bodies are cached).
+     * Runs on the controller executor, the body is only read once an entry is opened.
+     *
+     * @param  id                        The unique ID of the journal entry.
+     * @return CompletableFuture<String> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<String> getJournalBodyAsync(int id) { return ControllerExecutor.submit(() -> getJournalBody(id)); }
+
+
     /**
      * Searches the database of entries by keyword.
      *
@@ -35,6 +135,28 @@ public class JournalController {
     public List<JournalEntry> searchJournalEntries(String keyword) throws SQLException { return journalDAO.searchJournalEntries(keyword); }
 
 
+    /**
+     * Runs a ranked full-text search, supporting "quoted phrases" and prefix* words, with a highlighted snippet per result.
+     *
+     * @param  query                     The search text as typed by the user.
+     * @param  limit                     The max number of results to return.
+     * @return List<JournalSearchResult> Returns the results, most relevant first.
+     * @throws SQLException              If an error occurs.
+     */
+    public List<JournalSearchResult> searchJournal(String query, int limit) throws SQLException { return journalDAO.searchJournal(query, limit); }
+
+
+    /**
+     * Runs a ranked full-text search, supporting "quoted phrases" and prefix* words, with a highlighted snippet per result.
+     * Runs on the controller executor, the journal table shows these results when the search button is pressed.
+     *
+     * @param  query                                        The search text as typed by the user.
+     * @param  limit                                        The max number of results to return.
+     * @return CompletableFuture<List<JournalSearchResult>> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<List<JournalSearchResult>> searchJournalAsync(String query, int limit) { return ControllerExecutor.submit(() -> searchJournal(query, limit)); }
+
+
     /**
      * Inserts a journal entry into the database.
      *
@@ -45,6 +167,16 @@ public class JournalController {
     public boolean insertJournalEntry(JournalEntry entry) throws SQLException { return journalDAO.insertJournalEntry(entry); }
 
 
+    /**
+     * Inserts a journal entry into the database.
+     * Goes through the write-behind queue, so saves made close together share one commit.
+     *
+     * @param  entry                      The journal entry object a to add to database.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> insertJournalEntryAsync(JournalEntry entry) { return journalDAO.enqueueInsertJournalEntry(entry); }
+
+
     /**
      * Updates a known journal entry in the database.
      *
@@ -55,6 +187,16 @@ public class JournalController {
     public boolean updateJournalEntry(JournalEntry entry) throws SQLException { return journalDAO.updateJournalEntry(entry); }
 
 
+    /**
+     * Updates a known journal entry in the database.
+     * Queued like insertJournalEntryAsync, the future completes once the update is committed.
+     *
+     * @param  entry                      The journal entry object to update to the database.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> updateJournalEntryAsync(JournalEntry entry) { return journalDAO.enqueueUpdateJournalEntry(entry); }
+
+
     /**
      * Deletes a journal entry in the database.
      *
@@ -63,4 +205,14 @@ public class JournalController {
      * @throws SQLException If an error occurs.
      */
     public boolean deleteJournalEntry(int id) throws SQLException { return journalDAO.deleteJournalEntry(id); }
+
+
+    /**
+     * Deletes a journal entry in the database.
+     * Runs on the controller executor rather than the write-behind queue, so the entry is gone once the future completes.
+     *
+     * @param  id                         Unique journal entry ID for the journal entry we are deleting.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> deleteJournalEntryAsync(int id) { return ControllerExecutor.submit(() -> deleteJournalEntry(id)); }
 }
\ No newline at end of file
@@ -2,9 +2,12 @@ package controller;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import dao.ChangeEvent;
+import dao.ChangeEvents;
 import dao.MoodDAO;
-import models.Mood;
 import models.MoodEntry;
 
 /**
@@ -18,31 +21,62 @@ public class MoodTrackerController {
 
 
     /**
-     * Gets the 15 predefined moods from the database.
+     * Finds all mood entries and returns them in descending order (most recent first).
      * 
-     * @return List<Mood>   Returns list of moods.
-     * @throws SQLException If an error occurs.
+     * @return List<MoodEntry> Returns a list of entries in descending order.
+     * @throws SQLException    If an error occurs.
      */
-    public List<Mood> getMoodList() throws SQLException { return moodDAO.getMoodList(); }
+    public List<MoodEntry> getAllMoodEntries() throws SQLException { return moodDAO.getAllMoodEntries(); }
 
 
     /**
-     * Finds a mood object by its assigned ID.
-     * 
-     * @param  id           Unique ID assigned to specific mood.
-     * @return Mood         Returns mood object of that specific int ID.
+     * Gets one page of mood entries in descending order (most recent first), starting right after the given entry.
+     *
+     * @param  after           The last entry of the previous page, or null for the first page.
+     * @param  limit           The max number of entries in the page.
+     * @return List<MoodEntry> Returns the page of entries.
+     * @throws SQLException    If an error occurs.
+     */
+    public List<MoodEntry> getMoodEntryPage(MoodEntry after, int limit) throws SQLException { return moodDAO.getMoodEntryPage(after, limit); }
+
+
+    /**
+     * Gets one page of mood entries in descending order (most recent first), starting right after the given entry.
+     * Used by the mood log table to load its pages in the background as it scrolls.
+     *
+     * @param  after                              The last entry of the previous page, or null for the first page.
+     * @param  limit                              The max number of entries in the page.
+     * @return CompletableFuture<List<MoodEntry>> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<List<MoodEntry>> getMoodEntryPageAsync(MoodEntry after, int limit) { return ControllerExecutor.submit(() -> getMoodEntryPage(after, limit)); }
+
+
+    /**
+     * Counts the mood entries in the database.
+     *
+     * @return int          Returns the number of mood entries.
      * @throws SQLException If an error occurs.
      */
-    public Mood getMoodByID(int id) throws SQLException { return moodDAO.getMoodByID(id); }
+    public int countMoodEntries() throws SQLException { return moodDAO.countMoodEntries(); }
 
 
     /**
-     * Finds all mood entries and returns them in descending order (most recent first).
-     * 
-     * @return List<MoodEntry> Returns a list of entries in descending order.
-     * @throws SQLException    If an error occurs.
+     * Counts the mood entries in the database.
+     * Runs on the controller executor, the mood log table is sized with it before any page is loaded.
+     *
+     * @return CompletableFuture<Integer> Returns a future completed with the result, or exceptionally with the SQLException.
      */
-    public List<MoodEntry> getAllMoodEntries() throws SQLException { return moodDAO.getAllMoodEntries(); }
+    public CompletableFuture<Integer> countMoodEntriesAsync() { return ControllerExecutor.submit(this::countMoodEntries); }
+
+
+    /**
+     * Subscribes to every committed insert, edit and delete of a mood entry, so a view can apply just that change.
+     * The subscriber is called on the thread that committed the write.
+     *
+     * @param  subscriber                Called with each change, holding the entry as stored.
+     * @return ChangeEvents.Subscription Returns the subscription, for unsubscribing.
+     */
+    public ChangeEvents.Subscription subscribeToMoodEntryChanges(Consumer<? super ChangeEvent<MoodEntry>> subscriber) { return ChangeEvents.subscribe(MoodEntry.class, subscriber); }
 
 
     /**
@@ -55,6 +89,16 @@ public class MoodTrackerController {
     public boolean insertMoodEntry(MoodEntry entry) throws SQLException { return moodDAO.insertMoodEntry(entry); }
 
 
+    /**
+     * Inserts a users mood entry with the given moodID, optional tag, and timestamp.
+     * Goes through the write-behind queue, so moods logged close together share one commit.
+     *
+     * @param  entry                      The entry object to add to database.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> insertMoodEntryAsync(MoodEntry entry) { return moodDAO.enqueueInsertMoodEntry(entry); }
+
+
     /**
      * Updates mood entries by ID.
      * 
@@ -65,6 +109,16 @@ public class MoodTrackerController {
     public boolean updateMoodEntry(MoodEntry entry) throws SQLException { return moodDAO.updateMoodEntry(entry); }
 
 
+    /**
+     * Updates mood entries by ID.
+     * Queued like insertMoodEntryAsync, the future completes once the update is committed.
+     *
+     * @param  entry                      The entry object to add updates to database.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> updateMoodEntryAsync(MoodEntry entry) { return moodDAO.enqueueUpdateMoodEntry(entry); }
+
+
     /**
      * Deletes mood entries by ID.
      * 
@@ -73,4 +127,14 @@ public class MoodTrackerController {
      * @throws SQLException If an error occurs.
      */
     public boolean deleteMoodEntry(int entryID) throws SQLException { return moodDAO.deleteMoodEntry(entryID); }
+
+
+    /**
+     * Deletes mood entries by ID.
+     * Runs on the controller executor rather than the write-behind queue, so the entry is gone once the future completes.
+     *
+     * @param  entryID                    Unique entry ID for the mood we are deleting.
+     * @return CompletableFuture<Boolean> Returns a future completed with the result, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> deleteMoodEntryAsync(int entryID) { return ControllerExecutor.submit(() -> deleteMoodEntry(entryID)); }
 }
\ No newline at end of file
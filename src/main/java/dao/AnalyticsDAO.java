@@ -0,0 +1,136 @@
+package dao;
+
+import java.sql.*;
+import java.time.*;
+import java.util.*;
+
+import models.DatabaseConnection;
+import models.ExerciseMoodAccumulator;
+import models.ExerciseMoodStats;
+import models.MoodCategoryCount;
+
+/**
+ * Data Access Object for the charts, returning statistics worked out from the entries instead of the entries themselves.
+ * Exercise statistics are folded up as the sessions are read, and mood counts taken from MoodColumnStore are grouped into the charts' categories here.
+ * @author Isabella Castillo
+ */
+public class AnalyticsDAO {
+
+    // Moods are grouped into categories of this many consecutive IDs (Hopeless - Anxious, Distracted - Tired, Hopeful - Elated)
+    public static final int MOOD_CATEGORY_SIZE = 5;
+
+    // Hours counted as day, the rest of the 24 are night
+    public static final int DAY_START_HOUR = 6;
+    public static final int NIGHT_START_HOUR = 18;
+
+    // Resamples drawn for the exercise confidence intervals and the share of them each interval covers
+    static final int BOOTSTRAP_RESAMPLES = 1000;
+    static final double CONFIDENCE = 0.95;
+
+
+    /**
+     * Adds up day and night counts kept per mood into counts per mood category.
+     * Useful for grouping the counts taken from MoodColumnStore the way the mood variation chart expects.
+     *
+     * @param  dayCountsByMood         Day counts indexed by mood ID.
+     * @param  nightCountsByMood       Night counts indexed by mood ID.
+     * @param  moodCount               The number of moods (mood IDs run from 1 to this).
+     * @return List<MoodCategoryCount> Returns the day and night counts of each mood category, in order of mood ID.
+     */
+    public static List<MoodCategoryCount> groupByCategory(int[] dayCountsByMood, int[] nightCountsByMood, int moodCount) {
+
+        int categories = (moodCount + MOOD_CATEGORY_SIZE - 1) / MOOD_CATEGORY_SIZE;
+        int[] dayCounts = new int[categories];
+        int[] nightCounts = new int[categories];
+
+        for (int moodID = 1; moodID <= moodCount && moodID < dayCountsByMood.length; moodID++) {
+
+            dayCounts[(moodID - 1) / MOOD_CATEGORY_SIZE] += dayCountsByMood[moodID];
+            nightCounts[(moodID - 1) / MOOD_CATEGORY_SIZE] += nightCountsByMood[moodID];
+        }
+        return toCategoryCounts(dayCounts, nightCounts, moodCount);
+    }
+
+
+    /**
+     * Works out the statistics of the moods chosen before and after each exercise done in a date range (see ExerciseMoodStats).
+     * The sessions are read in one pass and folded into running statistics per exercise as they arrive, so memory grows with the
+     * number of exercises rather than sessions. The confidence intervals are then bootstrapped, each exercise's resamples in parallel.
+     * Unlike the mood chart (MoodDAO.getMoodBuckets) nothing here is split into time buckets: the exercise chart is one pair of bars
+     * per exercise for the whole range rather than a series over time, so a multi-year range still comes back as one row per exercise.
+     *
+     * @param  start                   Range start time.
+     * @param  end                     Range end time.
+     * @return List<ExerciseMoodStats> Returns the statistics of each exercise done in the range, in order of exercise ID.
+     * @throws SQLException            If an error occurs.
+     */
+    public List<ExerciseMoodStats> getExerciseMoodStats(LocalDateTime start, LocalDateTime end) throws SQLException { return getExerciseMoodStats(start, end, new Cancellation()); }
+
+
+    /**
+     * Works out the statistics of the moods chosen before and after each exercise done in a date range, stopping if the work is cancelled.
+     *
+     * @param  start                   Range start time.
+     * @param  end                     Range end time.
+     * @param  cancellation            Cancels the query while it runs, or the bootstrapping between exercises.
+     * @return List<ExerciseMoodStats> Returns the statistics of each exercise done in the range, in order of exercise ID.
+     * @throws SQLException            If an error occurs (including the query being stopped by a cancel).
+     */
+    public List<ExerciseMoodStats> getExerciseMoodStats(LocalDateTime start, LocalDateTime end, Cancellation cancellation) throws SQLException {
+
+        Map<Integer, ExerciseMoodAccumulator> accumulators = new TreeMap<>();
+        TimeColumns.Column timeColumn = TimeColumns.column("start_epoch", "start_time");
+        String query = "SELECT exercise_id, mood_before_id, mood_after_id FROM exercise_entries WHERE " + timeColumn.name() + " BETWEEN ? AND ?";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setFetchSize(RowStream.DEFAULT_FETCH_SIZE);
+            timeColumn.bind(pstmt, 1, start);
+            timeColumn.bind(pstmt, 2, end);
+            cancellation.register(pstmt);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    accumulators.computeIfAbsent(rs.getInt("exercise_id"), ExerciseMoodAccumulator::new)
+                                .add(getNullableInt(rs, "mood_before_id"), getNullableInt(rs, "mood_after_id"));
+                }
+            } finally {
+                cancellation.unregister(pstmt);
+            }
+        }
+
+        List<ExerciseMoodStats> stats = new ArrayList<>(accumulators.size());
+        for (ExerciseMoodAccumulator accumulator : accumulators.values()) {
+            cancellation.throwIfCancelled();
+            stats.add(accumulator.toStats(BOOTSTRAP_RESAMPLES, CONFIDENCE));
+        }
+        return stats;
+    }
+
+
+    /**
+     * Reads an integer column that may be NULL (getInt alone reads NULL as 0).
+     */
+    private static Integer getNullableInt(ResultSet rs, String column) throws SQLException {
+
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+
+
+    /**
+     * Builds the list of categories (first and last mood ID and counts) from counts indexed by category.
+     */
+    private static List<MoodCategoryCount> toCategoryCounts(int[] dayCounts, int[] nightCounts, int moodCount) {
+
+        List<MoodCategoryCount> counts = new ArrayList<>(dayCounts.length);
+
+        for (int category = 0; category < dayCounts.length; category++) {
+
+            int firstMoodID = category * MOOD_CATEGORY_SIZE + 1;
+            counts.add(new MoodCategoryCount(firstMoodID, Math.min(firstMoodID + MOOD_CATEGORY_SIZE - 1, moodCount), dayCounts[category], nightCounts[category]));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,88 @@
+package dao;
+
+import java.sql.*;
+import java.util.*;
+
+import models.DatabaseConnection;
+
+/**
+ * Helper for the DAOs to insert many rows in one transaction using JDBC batches.
+ * Work is sent to SQLite in chunks so a very large import doesn't build one enormous batch in memory.
+ * @author Isabella Castillo
+ */
+final class BatchInsert {
+
+    static final int CHUNK_SIZE = 500;
+
+    // To prevent accidental object instantiation
+    private BatchInsert() {}
+
+
+    /**
+     * Sets the parameters of an insert statement for one item.
+     *
+     * @param <T> The type of object being inserted.
+     */
+    interface Binder<T> {
+        void bind(PreparedStatement pstmt, T item) throws SQLException;
+    }
+
+
+    /**
+     * Inserts every item with the given query in a single transaction, chunked by CHUNK_SIZE.
+     * The rows are always committed by this call, so it refuses to run inside a transaction the calling thread already has open on the writer
+     * (the DAOs publish the new rows as soon as it returns, which is only safe once they are committed).
+     *
+     * @param  query         The single row INSERT statement.
+     * @param  items         The items to insert.
+     * @param  binder        Sets the statement parameters for one item.
+     * @return List<Integer> Returns the generated keys in the same order as the items.
+     * @throws SQLException  If an error occurs or a transaction is already open (nothing from this call is committed).
+     */
+    static <T> List<Integer> insertAll(String query, List<T> items, Binder<T> binder) throws SQLException {
+
+        List<Integer> keys = new ArrayList<>(items.size());
+        if (items.isEmpty()) { return keys; }
+
+        try (Connection conn = DatabaseConnection.connect()) {
+
+            if (!conn.getAutoCommit()) {
+                throw new SQLException("Batch inserts commit on their own and can't run inside an open transaction.");
+            }
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(query); Statement lastID = conn.createStatement()) {
+
+                for (int start = 0; start < items.size(); start += CHUNK_SIZE) {
+
+                    List<T> chunk = items.subList(start, Math.min(start + CHUNK_SIZE, items.size()));
+
+                    for (T item : chunk) {
+                        binder.bind(pstmt, item);
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+
+                    // The writer is held for the whole transaction and the tables use AUTOINCREMENT, so each chunk's keys run consecutively up to the last rowid
+                    try (ResultSet rs = lastID.executeQuery("SELECT last_insert_rowid()")) {
+
+                        rs.next();
+                        int last = rs.getInt(1);
+                        for (int key = last - chunk.size() + 1; key <= last; key++) {
+                            keys.add(key);
+                        }
+                    }
+                }
+
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return keys;
+    }
+}
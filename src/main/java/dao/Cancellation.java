@@ -0,0 +1,83 @@
+package dao;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Lets background work that is no longer wanted (such as charts for a range the user already switched away from) be stopped early.
+ * DAO methods taking a Cancellation register the statement they are running, so cancel() stops the query inside SQLite
+ * through Statement.cancel() instead of waiting for it to finish, and the work between queries checks throwIfCancelled().
+ * cancel() and unregister() hold the same lock, as cancelling a SQLite statement interrupts its whole connection,
+ * and a statement cancelled after it was unregistered would stop whatever runs next on that pooled connection.
+ * @author Isabella Castillo
+ */
+public final class Cancellation {
+
+    private final Set<Statement> running = new HashSet<>();
+    private volatile boolean cancelled;
+
+
+    /**
+     * Cancels the work, stopping any registered statement that is still running.
+     * Cancelling more than once does nothing.
+     */
+    public synchronized void cancel() {
+
+        cancelled = true;
+        for (Statement stmt : running) { cancelQuietly(stmt); }
+    }
+
+
+    /**
+     * Checks if the work has been cancelled.
+     *
+     * @return boolean Returns T/F based on if cancel() has been called.
+     */
+    public boolean isCancelled() { return cancelled; }
+
+
+    /**
+     * Stops the work here if it has been cancelled.
+     *
+     * @throws CancellationException If cancel() has been called.
+     */
+    public void throwIfCancelled() {
+        if (cancelled) { throw new CancellationException("Cancelled"); }
+    }
+
+
+    /**
+     * Registers a statement about to run so cancel() can stop it, call unregister once it's done.
+     *
+     * @param  stmt                  The statement.
+     * @throws CancellationException If the work was already cancelled (the statement isn't run at all).
+     */
+    synchronized void register(Statement stmt) {
+
+        if (cancelled) { throw new CancellationException("Cancelled"); }
+        running.add(stmt);
+    }
+
+
+    /**
+     * Unregisters a statement that has finished running.
+     * Once this returns, cancel() can no longer reach the statement, so its connection is safe to hand back to the pool.
+     *
+     * @param stmt The statement.
+     */
+    synchronized void unregister(Statement stmt) { running.remove(stmt); }
+
+
+    /**
+     * Cancels a statement, only logging errors as it may have just finished or been closed.
+     */
+    private static void cancelQuietly(Statement stmt) {
+
+        try {
+            stmt.cancel();
+        } catch (SQLException e) {
+            System.err.println("Statement cancel failed: " + e.getMessage());
+        }
+    }
+}
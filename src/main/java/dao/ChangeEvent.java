@@ -0,0 +1,35 @@
+package dao;
+
+/**
+ * A committed insert, edit or delete of one row, published by the DAOs through ChangeEvents.
+ * The entity is the row as stored (read back from the database), so it always holds its generated key.
+ * @author Isabella Castillo
+ */
+public final class ChangeEvent<T> {
+
+    /**
+     * What happened to the row.
+     */
+    public enum Type { INSERTED, UPDATED, DELETED }
+
+    private final Type type;
+    private final T entity;
+
+    /**
+     * ChangeEvent object.
+     *
+     * @param type   What happened to the row.
+     * @param entity The row after the insert or edit, or as it was before the delete.
+     */
+    ChangeEvent(Type type, T entity) {
+
+        this.type = type;
+        this.entity = entity;
+    }
+
+    /**
+     * Set of getters for parameters within the ChangeEvent object.
+     */
+    public Type getType() { return type; }
+    public T getEntity() { return entity; }
+}
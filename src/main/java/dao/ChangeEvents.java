@@ -0,0 +1,70 @@
+package dao;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process bus the DAOs publish every committed write to, so views, caches and aggregates can apply just that change
+ * instead of querying everything again. Subscribers are registered per entity class (MoodEntry, JournalEntry, ExerciseEntry)
+ * and called in the order they subscribed, on the thread that committed the write, right after the commit.
+ * Subscribers must be quick and hand anything slow (or any UI work) to another thread.
+ * @author Isabella Castillo
+ */
+public final class ChangeEvents {
+
+    /**
+     * Stops a subscriber from getting any more events.
+     */
+    @FunctionalInterface
+    public interface Subscription {
+        void unsubscribe();
+    }
+
+    private static final Map<Class<?>, List<Consumer<? super ChangeEvent<?>>>> subscribers = new ConcurrentHashMap<>();
+
+    // To prevent accidental object instantiation
+    private ChangeEvents() {}
+
+
+    /**
+     * Subscribes to the committed writes of one kind of entity.
+     *
+     * @param  type         The entity class (ie MoodEntry.class).
+     * @param  subscriber   Called with each event.
+     * @return Subscription Returns the subscription, for unsubscribing.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Subscription subscribe(Class<T> type, Consumer<? super ChangeEvent<T>> subscriber) {
+
+        Consumer<? super ChangeEvent<?>> listener = event -> subscriber.accept((ChangeEvent<T>) event);
+        List<Consumer<? super ChangeEvent<?>>> listeners = subscribers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>());
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+
+    /**
+     * Publishes a committed write to every subscriber of the entity's class.
+     * A subscriber that throws is only logged, so it can't fail a write that is already committed or keep the others from hearing of it.
+     *
+     * @param type   What happened to the row.
+     * @param entity The row as stored.
+     */
+    static <T> void publish(ChangeEvent.Type type, T entity) {
+
+        List<Consumer<? super ChangeEvent<?>>> listeners = subscribers.get(entity.getClass());
+        if (listeners == null) { return; }
+
+        ChangeEvent<T> event = new ChangeEvent<>(type, entity);
+        for (Consumer<? super ChangeEvent<?>> listener : listeners) {
+
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                System.err.println("Change event subscriber failed: " + e.getMessage());
+            }
+        }
+    }
+}
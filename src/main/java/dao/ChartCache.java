@@ -0,0 +1,169 @@
+package dao;
+
+import java.sql.*;
+import java.time.*;
+import java.util.*;
+
+import models.ExerciseEntry;
+import models.MoodEntry;
+
+/**
+ * Least recently used cache of computed chart datasets, keyed by chart and time window, so switching back to a range already viewed
+ * doesn't query or count anything again. Cached datasets are thrown away precisely when a MoodDAO or ExerciseDAO write lands inside
+ * their window (each committed write is heard through ChangeEvents with the row it touched), and every other dataset stays cached.
+ * Hits and misses are counted so the cache's effect can be checked.
+ * @author Isabella Castillo
+ */
+public final class ChartCache {
+
+    /**
+     * The table a chart dataset is computed from, writes to one only invalidate the datasets of that table.
+     */
+    public enum Source { MOODS, EXERCISES }
+
+    /**
+     * Computes a dataset on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    // Enough for every chart over every preset range a few times over
+    static final int DEFAULT_CAPACITY = 32;
+
+    private static ChartCache instance;
+
+    private final int capacity;
+    private final LinkedHashMap<Key, Object> datasets;
+
+    // Bumped on every write to a source, a dataset computed while its source was written to isn't cached as it may already be stale
+    private final long[] writeCounts = new long[Source.values().length];
+
+    private long hits;
+    private long misses;
+
+    // Subscribed as soon as the class is used, which is always before the first dataset is cached.
+    // Subscribers are called in the order they subscribed, and mood datasets are computed from MoodColumnStore, so the store subscribes first:
+    // otherwise a dataset loaded between the two could count the store from before the write and still be cached as current
+    static {
+        MoodColumnStore.subscribe();
+        ChangeEvents.subscribe(MoodEntry.class, ChartCache::moodWritten);
+        ChangeEvents.subscribe(ExerciseEntry.class, ChartCache::exerciseWritten);
+    }
+
+    /**
+     * A chart dataset's key, its window is kept in epoch seconds so writes can be checked against it directly.
+     */
+    private record Key(String chart, Source source, long startEpoch, long endEpoch) {}
+
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity The max number of datasets kept, the least recently used is dropped past this.
+     */
+    ChartCache(int capacity) {
+
+        this.capacity = capacity;
+
+        // Access order, so the eldest entry is always the least recently used
+        this.datasets = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) { return size() > ChartCache.this.capacity; }
+        };
+    }
+
+
+    /**
+     * Gets the shared cache the DAOs report their writes to.
+     *
+     * @return ChartCache Returns the shared cache.
+     */
+    public static synchronized ChartCache get() {
+
+        if (instance == null) { instance = new ChartCache(DEFAULT_CAPACITY); }
+        return instance;
+    }
+
+
+    /**
+     * Gets a chart dataset from the cache, or computes and caches it on a miss.
+     * The loader runs outside the cache's lock, so a slow query doesn't hold up other charts.
+     *
+     * @param  chart        The name of the chart (or dataset) the result is for.
+     * @param  source       The table the dataset is computed from.
+     * @param  start        Window start time.
+     * @param  end          Window end time.
+     * @param  loader       Computes the dataset on a miss (the result must not be changed afterwards, it's shared by every later hit).
+     * @return T            Returns the cached or newly computed dataset.
+     * @throws SQLException If the loader throws, nothing is cached in that case.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String chart, Source source, LocalDateTime start, LocalDateTime end, Loader<T> loader) throws SQLException {
+
+        Key key = new Key(chart, source, TimeColumns.toEpoch(start), TimeColumns.toEpoch(end));
+        long writeCount;
+
+        synchronized (this) {
+
+            Object dataset = datasets.get(key);
+            if (dataset != null) {
+                hits++;
+                return (T) dataset;
+            }
+            misses++;
+            writeCount = writeCounts[source.ordinal()];
+        }
+
+        T dataset = loader.load();
+
+        synchronized (this) {
+            if (dataset != null && writeCount == writeCounts[source.ordinal()]) { datasets.put(key, dataset); }
+        }
+        return dataset;
+    }
+
+
+    /**
+     * Drops every cached dataset of a source whose window holds the given time.
+     *
+     * @param source The table written to.
+     * @param epoch  The time of the row written, in epoch seconds.
+     */
+    synchronized void invalidate(Source source, long epoch) {
+
+        writeCounts[source.ordinal()]++;
+        datasets.keySet().removeIf(key -> key.source() == source && key.startEpoch() <= epoch && epoch <= key.endEpoch());
+    }
+
+
+    /**
+     * Drops every cached dataset (useful after writes made outside the DAOs, such as a restore).
+     */
+    public synchronized void clear() {
+
+        for (int i = 0; i < writeCounts.length; i++) { writeCounts[i]++; }
+        datasets.clear();
+    }
+
+
+    /**
+     * Set of getters for the cache's size and counters.
+     */
+    public synchronized int size() { return datasets.size(); }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+
+
+    /**
+     * Drops the mood datasets whose window holds the time of a committed mood entry write.
+     */
+    private static void moodWritten(ChangeEvent<MoodEntry> event) { get().invalidate(Source.MOODS, TimeColumns.toEpoch(event.getEntity().getDateAndTime())); }
+
+
+    /**
+     * Drops the exercise datasets whose window holds the start time of a committed exercise entry write.
+     */
+    private static void exerciseWritten(ChangeEvent<ExerciseEntry> event) { get().invalidate(Source.EXERCISES, TimeColumns.toEpoch(event.getEntity().getStartTime())); }
+}
@@ -3,11 +3,14 @@ package dao;
 import java.sql.*;
 import java.util.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import models.DatabaseConnection;
 import models.Exercise;
 import models.ExerciseEntry;
+import models.TimestampCodec;
 
 /**
  * Data Access Object for main program to manage exercises and exercise entries.
@@ -15,8 +18,6 @@ import models.ExerciseEntry;
  */
 public class ExerciseDAO {
 
-    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-
 
     /**
      * Retrieves the 3 predefined exercises from the database.
@@ -30,7 +31,7 @@ public class ExerciseDAO {
         List<Exercise> exercises = new ArrayList<>();
         String query = "SELECT * FROM exercises ORDER BY exercise_id";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 exercises.add(new Exercise(rs.getInt("exercise_id"), rs.getString("exercise_name"), rs.getString("exercise_description")));
@@ -52,7 +53,7 @@ public class ExerciseDAO {
 
         String query = "SELECT * FROM exercises WHERE exercise_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -77,14 +78,13 @@ public class ExerciseDAO {
 
         String query = "SELECT * FROM exercise_entries WHERE log_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, logID);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return new ExerciseEntry(rs.getInt("log_id"), rs.getInt("exercise_id"), rs.getInt("mood_before_id"), rs.getInt("mood_after_id"),
-                            LocalDateTime.parse(rs.getString("start_time"), DB_DATE_FORMAT), LocalDateTime.parse(rs.getString("end_time"), DB_DATE_FORMAT));
+                return mapExerciseEntry(rs);
             }
         }
         return null;
@@ -101,19 +101,56 @@ public class ExerciseDAO {
     public List<ExerciseEntry> getAllExerciseEntries() throws SQLException {
 
         List<ExerciseEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM exercise_entries ORDER BY start_time DESC";
+        String query = "SELECT * FROM exercise_entries ORDER BY " + TimeColumns.column("start_epoch", "start_time").name() + " DESC";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                entries.add(new ExerciseEntry(rs.getInt("log_id"), rs.getInt("exercise_id"), rs.getInt("mood_before_id"), rs.getInt("mood_after_id"),
-                            LocalDateTime.parse(rs.getString("start_time"), DB_DATE_FORMAT), LocalDateTime.parse(rs.getString("end_time"), DB_DATE_FORMAT)));
+                entries.add(mapExerciseEntry(rs));
             }
         }
         return entries;
     }
 
 
+    /**
+     * Passes every exercise entry to the action one at a time, newest first, without building a list.
+     * Useful for exports and effectiveness statistics, memory use stays flat no matter how many entries there are.
+     *
+     * @param  action       Called once per entry.
+     * @throws SQLException If an error occurs.
+     */
+    public void forEachExerciseEntry(Consumer<ExerciseEntry> action) throws SQLException {
+
+        String query = "SELECT * FROM exercise_entries ORDER BY " + TimeColumns.column("start_epoch", "start_time").name() + " DESC";
+        RowStream.forEach(query, null, ExerciseDAO::mapExerciseEntry, action);
+    }
+
+
+    /**
+     * Opens a lazy stream over every exercise entry, newest first.
+     * The stream holds a database connection until it is closed, so always use it in a try-with-resources block.
+     *
+     * @return Stream<ExerciseEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException          If an error occurs.
+     */
+    public Stream<ExerciseEntry> streamExerciseEntries() throws SQLException { return streamExerciseEntries(RowStream.DEFAULT_FETCH_SIZE); }
+
+
+    /**
+     * Opens a lazy stream over every exercise entry, newest first, fetching the given number of rows at a time.
+     *
+     * @param  fetchSize             Rows to fetch from the database per round trip.
+     * @return Stream<ExerciseEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException          If an error occurs.
+     */
+    public Stream<ExerciseEntry> streamExerciseEntries(int fetchSize) throws SQLException {
+
+        String query = "SELECT * FROM exercise_entries ORDER BY " + TimeColumns.column("start_epoch", "start_time").name() + " DESC";
+        return RowStream.stream(query, null, fetchSize, ExerciseDAO::mapExerciseEntry);
+    }
+
+
     /**
      * Gets a list of exercise entries within a specific range within the database.
      * Useful for data analysis and future charting/graphing.
@@ -126,23 +163,40 @@ public class ExerciseDAO {
     public List<ExerciseEntry> getExerciseEntriesByDateRange(LocalDateTime start, LocalDateTime end) throws SQLException {
 
         List<ExerciseEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM exercise_entries WHERE start_time BETWEEN ? AND ? ORDER BY start_time";
+        TimeColumns.Column timeColumn = TimeColumns.column("start_epoch", "start_time");
+        String query = "SELECT * FROM exercise_entries WHERE " + timeColumn.name() + " BETWEEN ? AND ? ORDER BY " + timeColumn.name();
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
-            pstmt.setString(1, start.format(DB_DATE_FORMAT));
-            pstmt.setString(2, end.format(DB_DATE_FORMAT));
+            timeColumn.bind(pstmt, 1, start);
+            timeColumn.bind(pstmt, 2, end);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                entries.add(new ExerciseEntry(rs.getInt("log_id"), rs.getInt("exercise_id"), rs.getInt("mood_before_id"), rs.getInt("mood_after_id"), 
-                            LocalDateTime.parse(rs.getString("start_time"), DB_DATE_FORMAT), LocalDateTime.parse(rs.getString("end_time"), DB_DATE_FORMAT)));
+                entries.add(mapExerciseEntry(rs));
             }
         }
         return entries;
     }
 
 
+    /**
+     * Gets the start time of the oldest exercise entry.
+     * Useful for showing a user's whole history, such as an "all time" chart range.
+     *
+     * @return LocalDateTime Returns the start time of the oldest entry, or null if there are no entries.
+     * @throws SQLException  If an error occurs.
+     */
+    public LocalDateTime getFirstExerciseEntryTime() throws SQLException {
+
+        String query = "SELECT MIN(start_time) FROM exercise_entries";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() && rs.getString(1) != null ? TimestampCodec.parse(rs.getString(1)) : null;
+        }
+    }
+
+
     /**
      * Inserts exercise entry objects into the database.
      * Useful for inserting new ExerciseEntry objects into the database.
@@ -153,7 +207,7 @@ public class ExerciseDAO {
      */
     public int insertExerciseEntry(ExerciseEntry entry) throws SQLException {
 
-        String query = "INSERT INTO exercise_entries (exercise_id, mood_before_id, mood_after_id, start_time, end_time) VALUES (?, ?, ?, ?, ?)";
+        String query = "INSERT INTO exercise_entries (exercise_id, mood_before_id, mood_after_id, start_time, end_time, start_epoch, end_epoch) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
 
@@ -177,13 +231,17 @@ public class ExerciseDAO {
                 pstmt.setNull(3, Types.INTEGER);
             }
 
-            pstmt.setString(4, entry.getStartTime().format(DB_DATE_FORMAT));
-            pstmt.setString(5, entry.getEndTime().format(DB_DATE_FORMAT));
+            pstmt.setString(4, TimestampCodec.format(entry.getStartTime()));
+            pstmt.setString(5, TimestampCodec.format(entry.getEndTime()));
+            pstmt.setLong(6, TimeColumns.toEpoch(entry.getStartTime()));
+            pstmt.setLong(7, TimeColumns.toEpoch(entry.getEndTime()));
 
             pstmt.executeUpdate();
             try (ResultSet rs = pstmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getInt(1);
+                    int id = rs.getInt(1);
+                    ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(id, entry));
+                    return id;
                 } else {
                     throw new SQLException("Inserting exercise entry failed, no ID was obtained.");
                 }
@@ -192,6 +250,39 @@ public class ExerciseDAO {
     }
 
 
+    /**
+     * Inserts many exercise entries in a single transaction using JDBC batches.
+     * Useful for importing or backfilling a large exercise history.
+     *
+     * @param  entries       The ExerciseEntry objects to add to the database.
+     * @return List<Integer> Returns the generated log IDs, in the same order as the entries given.
+     * @throws SQLException  If an error occurs (no entries are inserted if any fail).
+     */
+    public List<Integer> insertExerciseEntries(List<ExerciseEntry> entries) throws SQLException {
+
+        String query = "INSERT INTO exercise_entries (exercise_id, mood_before_id, mood_after_id, start_time, end_time, start_epoch, end_epoch) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        List<Integer> ids = BatchInsert.insertAll(query, entries, (pstmt, entry) -> {
+
+            pstmt.setInt(1, entry.getExerciseID());
+
+            // Null moods are stored as null, same as insertExerciseEntry
+            if (entry.getMoodBeforeID() != null) { pstmt.setInt(2, entry.getMoodBeforeID()); } else { pstmt.setNull(2, Types.INTEGER); }
+            if (entry.getMoodAfterID() != null) { pstmt.setInt(3, entry.getMoodAfterID()); } else { pstmt.setNull(3, Types.INTEGER); }
+
+            pstmt.setString(4, TimestampCodec.format(entry.getStartTime()));
+            pstmt.setString(5, TimestampCodec.format(entry.getEndTime()));
+            pstmt.setLong(6, TimeColumns.toEpoch(entry.getStartTime()));
+            pstmt.setLong(7, TimeColumns.toEpoch(entry.getEndTime()));
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(ids.get(i), entries.get(i)));
+        }
+        return ids;
+    }
+
+
     /**
      * Updates the mood before the exercise.
      * Useful for post-exercise logging in which the user forgets to add their mood and they want to later.
@@ -203,15 +294,13 @@ public class ExerciseDAO {
      */
     public boolean updateMoodBeforeExercise(int logID, int newMoodBeforeID) throws SQLException {
 
-        String query = "UPDATE exercise_entries SET mood_before_id = ? WHERE log_id = ?";
-
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        String query = "UPDATE exercise_entries SET mood_before_id = ? WHERE log_id = ? RETURNING *";
 
+        // Will return true upon successful update
+        return executeReportingWrite(query, ChangeEvent.Type.UPDATED, pstmt -> {
             pstmt.setInt(1, newMoodBeforeID);
             pstmt.setInt(2, logID);
-            return pstmt.executeUpdate() > 0; // Will return true upon successful update
-        }
-
+        });
     }
 
 
@@ -226,14 +315,13 @@ public class ExerciseDAO {
      */
     public boolean updateMoodAfterExercise(int logID, int newMoodAfterID) throws SQLException {
 
-        String query = "UPDATE exercise_entries SET mood_after_id = ? WHERE log_id = ?";
-
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        String query = "UPDATE exercise_entries SET mood_after_id = ? WHERE log_id = ? RETURNING *";
 
+        // Will return true upon successful update
+        return executeReportingWrite(query, ChangeEvent.Type.UPDATED, pstmt -> {
             pstmt.setInt(1, newMoodAfterID);
             pstmt.setInt(2, logID);
-            return pstmt.executeUpdate() > 0; // Will return true upon successful update
-        }
+        });
     }
 
 
@@ -247,13 +335,10 @@ public class ExerciseDAO {
      */
     public boolean deleteExerciseEntry(int logID) throws SQLException {
 
-        String query = "DELETE FROM exercise_entries WHERE log_id = ?";
-
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        String query = "DELETE FROM exercise_entries WHERE log_id = ? RETURNING *";
 
-            pstmt.setInt(1, logID);
-            return pstmt.executeUpdate() > 0; // Will return true upon successful deletion
-        }
+        // Will return true upon successful deletion
+        return executeReportingWrite(query, ChangeEvent.Type.DELETED, pstmt -> pstmt.setInt(1, logID));
     }
 
     /**
@@ -267,13 +352,56 @@ public class ExerciseDAO {
      */
     public boolean updateExerciseEndTime(int logID, LocalDateTime endTime) throws SQLException {
 
-        String query = "UPDATE exercise_entries SET end_time = ? WHERE log_id = ?";
+        String query = "UPDATE exercise_entries SET end_time = ?, end_epoch = ? WHERE log_id = ? RETURNING *";
+
+        return executeReportingWrite(query, ChangeEvent.Type.UPDATED, pstmt -> {
+            pstmt.setString(1, TimestampCodec.format(endTime));
+            pstmt.setLong(2, TimeColumns.toEpoch(endTime));
+            pstmt.setInt(3, logID);
+        });
+    }
+
+
+    /**
+     * Runs an UPDATE or DELETE that returns each row it touched, publishing each row as a change of the given type.
+     * In autocommit mode SQLite only commits once the statement is done, so the rows are collected first and only published
+     * after the statement is closed (subscribers must never see a write that could still fail to commit).
+     *
+     * @return boolean Returns true if at least one row was written.
+     */
+    private static boolean executeReportingWrite(String query, ChangeEvent.Type type, RowStream.Parameters parameters) throws SQLException {
+
+        List<ExerciseEntry> written = new ArrayList<>();
 
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
-            pstmt.setString(1, endTime.format(DB_DATE_FORMAT));
-            pstmt.setInt(2, logID);
-            return pstmt.executeUpdate() > 0;
+            parameters.bind(pstmt);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) { written.add(mapExerciseEntry(rs)); }
+            }
+        }
+
+        for (ExerciseEntry entry : written) {
+            ChangeEvents.publish(type, entry);
         }
+        return !written.isEmpty();
+    }
+
+
+    /**
+     * Copies an entry given to an insert as it was stored (with its new log ID, to the second).
+     */
+    private static ExerciseEntry withID(int logID, ExerciseEntry entry) {
+        return new ExerciseEntry(logID, entry.getExerciseID(), entry.getMoodBeforeID(), entry.getMoodAfterID(),
+                entry.getStartTime().truncatedTo(ChronoUnit.SECONDS), entry.getEndTime().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+
+    /**
+     * Converts the current row of an exercise_entries query into an ExerciseEntry.
+     */
+    private static ExerciseEntry mapExerciseEntry(ResultSet rs) throws SQLException {
+        return new ExerciseEntry(rs.getInt("log_id"), rs.getInt("exercise_id"), rs.getInt("mood_before_id"), rs.getInt("mood_after_id"),
+                TimeColumns.read(rs, "start_epoch", "start_time"), TimeColumns.read(rs, "end_epoch", "end_time"));
     }
 }
\ No newline at end of file
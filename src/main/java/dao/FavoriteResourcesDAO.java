@@ -25,7 +25,7 @@ public class FavoriteResourcesDAO {
         List<FavoriteResource> favorites = new ArrayList<>();
         String query = "SELECT * FROM favorite_resources ORDER BY name";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
                 favorites.add(new FavoriteResource(rs.getInt("resource_id"), rs.getString("name"), rs.getString("address"), rs.getString("phone_number"), rs.getString("website")));
@@ -47,7 +47,7 @@ public class FavoriteResourcesDAO {
 
         String query = "SELECT * FROM favorite_resources WHERE resource_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, resourceID);
             ResultSet rs = pstmt.executeQuery();
@@ -73,7 +73,7 @@ public class FavoriteResourcesDAO {
         List<FavoriteResource> results = new ArrayList<>();
         String query = "SELECT * FROM favorite_resources WHERE LOWER(name) LIKE LOWER(?) OR LOWER(address) LIKE LOWER(?)";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             String pattern = "%" + keyword + "%";
             pstmt.setString(1, pattern);
@@ -101,7 +101,7 @@ public class FavoriteResourcesDAO {
 
         String query = "SELECT COUNT(*) AS count FROM favorite_resources WHERE name = ? AND address = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setString(1, name);
             pstmt.setString(2, address);
@@ -122,7 +122,8 @@ public class FavoriteResourcesDAO {
      */
     public boolean insertFavorite(FavoriteResource resource) throws SQLException {
 
-        String query = "INSERT INTO favorite_resources (name, address, phone_number, website) VALUES (?, ?, ?, ?)";
+        // Duplicates (same name and address) are ignored by the unique index, so they return false instead of throwing
+        String query = "INSERT OR IGNORE INTO favorite_resources (name, address, phone_number, website) VALUES (?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
@@ -0,0 +1,67 @@
+package dao;
+
+import java.util.*;
+
+/**
+ * Helper for turning what a user typed into a search box into an FTS5 MATCH expression.
+ * Words in double quotes are matched as a phrase and a word ending in '*' is matched as a prefix. Every other character is
+ * quoted, so no input can produce an FTS5 syntax error (or use column filters and operators the user didn't mean).
+ * @author Isabella Castillo
+ */
+final class FtsQuery {
+
+    // To prevent accidental object instantiation
+    private FtsQuery() {}
+
+
+    /**
+     * Builds a MATCH expression that requires every word or phrase of the input (in any order).
+     *
+     * @param  input       The search text as typed.
+     * @param  prefixWords True to match every unquoted word as a prefix (as if it ended in '*'), useful for search as you type.
+     * @return String      Returns the MATCH expression, or null if the input has nothing that can be searched for.
+     */
+    static String build(String input, boolean prefixWords) {
+
+        if (input == null) { return null; }
+
+        List<String> terms = new ArrayList<>();
+        int i = 0;
+
+        while (i < input.length()) {
+
+            char c = input.charAt(i);
+
+            if (Character.isWhitespace(c)) { i++; continue; }
+
+            // Quoted phrase, running to the closing quote (or to the end if it was never closed)
+            if (c == '"') {
+
+                int close = input.indexOf('"', i + 1);
+                int end = close < 0 ? input.length() : close;
+                addTerm(terms, input.substring(i + 1, end), false);
+                i = end + 1;
+                continue;
+            }
+
+            int end = i;
+            while (end < input.length() && !Character.isWhitespace(input.charAt(end)) && input.charAt(end) != '"') { end++; }
+
+            String word = input.substring(i, end);
+            boolean prefix = prefixWords || word.endsWith("*");
+            addTerm(terms, word.replaceAll("\\*+$", ""), prefix);
+            i = end;
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+
+    /**
+     * Adds a quoted term, skipping text with no letters or digits since the tokenizer would leave nothing to match.
+     */
+    private static void addTerm(List<String> terms, String text, boolean prefix) {
+
+        if (text.codePoints().noneMatch(Character::isLetterOrDigit)) { return; }
+        terms.add("\"" + text.replace("\"", "\"\"") + "\"" + (prefix ? "*" : ""));
+    }
+}
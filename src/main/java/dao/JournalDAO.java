@@ -3,10 +3,17 @@ package dao;
 import java.sql.*;
 import java.util.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import models.DatabaseConnection;
+import models.HtmlText;
 import models.JournalEntry;
+import models.JournalSearchResult;
+import models.JournalSummary;
+import models.TimestampCodec;
 
 /**
  * Data Access Object for main program to manage journal entries.
@@ -14,7 +21,29 @@ import models.JournalEntry;
  */
 public class JournalDAO {
 
-    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    // bm25 column weights, a match in the title counts for more than the same match in the text
+    private static final double TITLE_WEIGHT = 5.0;
+    private static final double TEXT_WEIGHT = 1.0;
+
+    // Number of tokens shown in a search result snippet
+    private static final int SNIPPET_TOKENS = 16;
+
+    // Columns read for lists and search results, everything but the HTML (which only the editor needs)
+    private static final String LIST_COLUMNS = "journal.journal_id, journal.title, journal.text_plain, journal.entry_date_and_time, journal.entry_epoch";
+
+    // Columns of a JournalSummary, all held in idx_journal_summary so listing never reads the entry rows
+    private static final String SUMMARY_COLUMNS = "journal.journal_id, journal.title, journal.text_preview, journal.entry_date_and_time, journal.entry_epoch";
+
+    // Recently opened bodies by journal ID, least recently used dropped first (shared by every JournalDAO)
+    private static final int BODY_CACHE_SIZE = 32;
+    private static final Map<Integer, String> bodyCache = new LinkedHashMap<>(BODY_CACHE_SIZE, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) { return size() > BODY_CACHE_SIZE; }
+    };
+
+    // Bumped on every edit or delete, so a body read from the database while one was happening isn't cached
+    private static long bodyCacheGeneration = 0;
 
 
     /**
@@ -27,18 +56,195 @@ public class JournalDAO {
     public List<JournalEntry> getAllJournalEntries() throws SQLException {
 
         List<JournalEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM journal ORDER BY entry_date_and_time DESC";
+        String query = "SELECT * FROM journal ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                entries.add(new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT)));
+                entries.add(mapJournalEntry(rs));
             }
         }
         return entries;
     }
 
 
+    /**
+     * Passes every journal entry to the action one at a time, newest first, without building a list.
+     * Useful for exports, memory use stays flat no matter how many entries there are.
+     *
+     * @param  action       Called once per entry.
+     * @throws SQLException If an error occurs.
+     */
+    public void forEachJournalEntry(Consumer<JournalEntry> action) throws SQLException {
+
+        String query = "SELECT * FROM journal ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
+        RowStream.forEach(query, null, JournalDAO::mapJournalEntry, action);
+    }
+
+
+    /**
+     * Opens a lazy stream over every journal entry, newest first.
+     * The stream holds a database connection until it is closed, so always use it in a try-with-resources block.
+     *
+     * @return Stream<JournalEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException         If an error occurs.
+     */
+    public Stream<JournalEntry> streamJournalEntries() throws SQLException { return streamJournalEntries(RowStream.DEFAULT_FETCH_SIZE); }
+
+
+    /**
+     * Opens a lazy stream over every journal entry, newest first, fetching the given number of rows at a time.
+     *
+     * @param  fetchSize            Rows to fetch from the database per round trip.
+     * @return Stream<JournalEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException         If an error occurs.
+     */
+    public Stream<JournalEntry> streamJournalEntries(int fetchSize) throws SQLException {
+
+        String query = "SELECT * FROM journal ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
+        return RowStream.stream(query, null, fetchSize, JournalDAO::mapJournalEntry);
+    }
+
+
+    /**
+     * Gets one page of journal entries sorted from newest to oldest, starting right after the given entry.
+     * Uses keyset pagination on (time, journal ID), so every page is an index seek no matter how deep into the history it is.
+     * Useful for the journal table, which loads pages as the user scrolls.
+     * Only the plain text of each entry is read, use getJournalEntryByID for the HTML when an entry is opened in the editor.
+     *
+     * @param  after              The last entry of the previous page, or null for the first page.
+     * @param  limit              The max number of entries in the page.
+     * @return List<JournalEntry> Returns the page of entries (without their HTML), fewer than the limit (or empty) once the end is reached.
+     * @throws SQLException       If an error occurs.
+     */
+    public List<JournalEntry> getJournalEntryPage(JournalEntry after, int limit) throws SQLException {
+
+        List<JournalEntry> entries = new ArrayList<>();
+        TimeColumns.Column timeColumn = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        String query = "SELECT " + LIST_COLUMNS + " FROM journal " + (after == null ? "" : "WHERE (" + timeColumn.name() + ", journal_id) < (?, ?) ")
+                       + "ORDER BY " + timeColumn.name() + " DESC, journal_id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (after != null) {
+                timeColumn.bind(pstmt, index++, after.getEntryDateTime());
+                pstmt.setInt(index++, after.getJournalID());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    entries.add(mapJournalListing(rs));
+                }
+            }
+        }
+        return entries;
+    }
+
+
+    /**
+     * Counts the journal entries in the database.
+     * Useful for sizing paged tables without loading any entries.
+     *
+     * @return int          Returns the number of journal entries.
+     * @throws SQLException If an error occurs.
+     */
+    public int countJournalEntries() throws SQLException {
+
+        String query = "SELECT COUNT(*) FROM journal";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+
+    /**
+     * Gets a summary (ID, title, preview and date) of every journal entry, sorted from the newest to oldest.
+     * Useful for listing entries, the bodies are never read so the cost depends on the number of entries and not their length.
+     *
+     * @return List<JournalSummary> Returns a list of all journal entry summaries.
+     * @throws SQLException         If an error occurs.
+     */
+    public List<JournalSummary> getAllJournalSummaries() throws SQLException { return getJournalSummaryPage(null, Integer.MAX_VALUE); }
+
+
+    /**
+     * Gets one page of journal entry summaries sorted from newest to oldest, starting right after the given summary.
+     * Uses the same keyset pagination as getJournalEntryPage, answered entirely from the covering summary index.
+     * Useful for the journal table, which loads pages as the user scrolls.
+     *
+     * @param  after                The last summary of the previous page, or null for the first page.
+     * @param  limit                The max number of summaries in the page.
+     * @return List<JournalSummary> Returns the page of summaries, fewer than the limit (or empty) once the end is reached.
+     * @throws SQLException         If an error occurs.
+     */
+    public List<JournalSummary> getJournalSummaryPage(JournalSummary after, int limit) throws SQLException {
+
+        List<JournalSummary> summaries = new ArrayList<>();
+        TimeColumns.Column timeColumn = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        String query = "SELECT " + SUMMARY_COLUMNS + " FROM journal " + (after == null ? "" : "WHERE (" + timeColumn.name() + ", journal_id) < (?, ?) ")
+                       + "ORDER BY " + timeColumn.name() + " DESC, journal_id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (after != null) {
+                timeColumn.bind(pstmt, index++, after.getEntryDateTime());
+                pstmt.setInt(index++, after.getJournalID());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    summaries.add(mapJournalSummary(rs));
+                }
+            }
+        }
+        return summaries;
+    }
+
+
+    /**
+     * Gets the HTML body of a journal entry, from a small cache of recently opened entries when possible.
+     * Useful for opening an entry from the list in the editor.
+     *
+     * @param  id           The unique journal entry ID.
+     * @return String       Returns the HTML body, or null if there is no entry with that ID.
+     * @throws SQLException If an error occurs.
+     */
+    public String getJournalBody(int id) throws SQLException {
+
+        long generation;
+
+        synchronized (bodyCache) {
+
+            String cached = bodyCache.get(id);
+            if (cached != null) { return cached; }
+            generation = bodyCacheGeneration;
+        }
+
+        String body = null;
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement("SELECT text_entry FROM journal WHERE journal_id = ?")) {
+
+            pstmt.setInt(1, id);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) { body = rs.getString(1); }
+            }
+        }
+
+        synchronized (bodyCache) {
+            if (body != null && generation == bodyCacheGeneration) { bodyCache.put(id, body); }
+        }
+        return body;
+    }
+
+
     /**
      * Gets a journal entry by it's specific journal ID.
      * Useful for targetting specific entries for editing/deletion.
@@ -51,13 +257,13 @@ public class JournalDAO {
 
         String query = "SELECT * FROM journal WHERE journal_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT));
+                return mapJournalEntry(rs);
             } 
         }
         // When not found
@@ -66,27 +272,69 @@ public class JournalDAO {
 
 
     /**
-     * Searches the database of entries (title and text) by keyword.
-     * Useful for user searches.
+     * Searches the database of entries (title and text) by keyword, using the full-text index.
+     * Useful for user searches, every word typed must appear in the entry (matched case insensitively as the start of a word).
      * 
-     * @param  keyword            Word that represents our search value for query.
-     * @return List<JournalEntry> Returns the valid search results in a list.
+     * @param  keyword            Word (or words) that represents our search value for query.
+     * @return List<JournalEntry> Returns the valid search results in a list, most relevant first.
      * @throws SQLException       If an error occurs.
      */
     public List<JournalEntry> searchJournalEntries(String keyword) throws SQLException {
 
         List<JournalEntry> results = new ArrayList<>();
-        String query = "SELECT * FROM journal WHERE title LIKE ? OR text_entry LIKE ? ORDER BY entry_date_and_time DESC";
+        String match = FtsQuery.build(keyword, true);
+        if (match == null) { return results; }
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        String query = "SELECT journal.* FROM journal_fts JOIN journal ON journal.journal_id = journal_fts.rowid "
+                + "WHERE journal_fts MATCH ? ORDER BY bm25(journal_fts, " + TITLE_WEIGHT + ", " + TEXT_WEIGHT + ")";
 
-            String pattern = "%" + keyword + "%";
-            pstmt.setString(1, pattern);
-            pstmt.setString(2, pattern);
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setString(1, match);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                results.add(new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT)));
+                results.add(mapJournalEntry(rs));
+            }
+        }
+        return results;
+    }
+
+
+    /**
+     * Runs a full-text search over entry titles and text, ranked by bm25 with title matches weighted above text matches.
+     * Words in double quotes are matched as a phrase ("felt calm"), and a word ending in '*' matches any word starting with it (medit*).
+     * Useful for a search results list, as each result carries a snippet of the text with the matches highlighted.
+     * Results hold only the plain text of their entries, not the HTML.
+     *
+     * @param  query                     The search text as typed by the user.
+     * @param  limit                     The max number of results to return.
+     * @return List<JournalSearchResult> Returns the results, most relevant first (empty if the query has nothing to search for).
+     * @throws SQLException              If an error occurs.
+     */
+    public List<JournalSearchResult> searchJournal(String query, int limit) throws SQLException {
+
+        List<JournalSearchResult> results = new ArrayList<>();
+        String match = FtsQuery.build(query, false);
+        if (match == null) { return results; }
+
+        String sql = "SELECT " + LIST_COLUMNS + ", snippet(journal_fts, 1, ?, ?, '…', " + SNIPPET_TOKENS + ") AS snippet, "
+                + "bm25(journal_fts, " + TITLE_WEIGHT + ", " + TEXT_WEIGHT + ") AS score "
+                + "FROM journal_fts JOIN journal ON journal.journal_id = journal_fts.rowid "
+                + "WHERE journal_fts MATCH ? ORDER BY score LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, JournalSearchResult.MATCH_START);
+            pstmt.setString(2, JournalSearchResult.MATCH_END);
+            pstmt.setString(3, match);
+            pstmt.setInt(4, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    results.add(new JournalSearchResult(mapJournalListing(rs), rs.getString("snippet"), rs.getDouble("score")));
+                }
             }
         }
         return results;
@@ -105,16 +353,17 @@ public class JournalDAO {
     public List<JournalEntry> getJournalEntriesByDateRange(LocalDateTime start, LocalDateTime end) throws SQLException {
 
         List<JournalEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM journal WHERE entry_date_and_time BETWEEN ? AND ? ORDER BY entry_date_and_time";
+        TimeColumns.Column timeColumn = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        String query = "SELECT * FROM journal WHERE " + timeColumn.name() + " BETWEEN ? AND ? ORDER BY " + timeColumn.name();
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
-            pstmt.setString(1, start.format(DB_DATE_FORMAT));
-            pstmt.setString(2, end.format(DB_DATE_FORMAT));
+            timeColumn.bind(pstmt, 1, start);
+            timeColumn.bind(pstmt, 2, end);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                entries.add(new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT)));
+                entries.add(mapJournalEntry(rs));
             }
         }
         return entries;
@@ -131,15 +380,58 @@ public class JournalDAO {
      */
     public boolean insertJournalEntry(JournalEntry entry) throws SQLException {
 
-        String query = "INSERT INTO journal (title, text_entry, entry_date_and_time) VALUES (?, ?, ?)";
+        try (Connection conn = DatabaseConnection.connect()) {
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            int id = insertJournalEntry(conn, entry);
+            ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(id, entry));
+            return id > 0;
+        }
+    }
+
+
+    /**
+     * Queues a journal entry insert on the write-behind queue instead of committing it right away.
+     * Useful for saving from the UI without waiting on a transaction of its own.
+     *
+     * @param  entry                      The JournalEntry to add to the database.
+     * @return CompletableFuture<Boolean> Returns a future completed with true once the insert is committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> enqueueInsertJournalEntry(JournalEntry entry) {
+
+        // The new ID is kept so the entry can be published with it once the insert is committed
+        int[] id = new int[1];
+
+        return WriteBehindQueue.submit(conn -> (id[0] = insertJournalEntry(conn, entry)) > 0).whenComplete((inserted, error) -> {
+            if (error == null) { ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(id[0], entry)); }
+        });
+    }
+
+
+    /**
+     * Inserts many journal entries in a single transaction using JDBC batches.
+     * Useful for importing a large set of entries at once.
+     *
+     * @param  entries       The JournalEntry objects to add to the database.
+     * @return List<Integer> Returns the generated journal IDs, in the same order as the entries given.
+     * @throws SQLException  If an error occurs (no entries are inserted if any fail).
+     */
+    public List<Integer> insertJournalEntries(List<JournalEntry> entries) throws SQLException {
+
+        String query = "INSERT INTO journal (title, text_entry, text_plain, entry_date_and_time, entry_epoch) VALUES (?, ?, ?, ?, ?)";
+
+        List<Integer> ids = BatchInsert.insertAll(query, entries, (pstmt, entry) -> {
 
             pstmt.setString(1, entry.getTitle());
             pstmt.setString(2, entry.getTextEntry());
-            pstmt.setString(3, entry.getEntryDateTime().format(DB_DATE_FORMAT));
-            return pstmt.executeUpdate() > 0; // Returns true if inserted successfully
+            pstmt.setString(3, HtmlText.toPlainText(entry.getTextEntry()));
+            pstmt.setString(4, TimestampCodec.format(entry.getEntryDateTime()));
+            pstmt.setLong(5, TimeColumns.toEpoch(entry.getEntryDateTime()));
+        });
+
+        for (int i = 0; i < ids.size(); i++) {
+            ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(ids.get(i), entries.get(i)));
         }
+        return ids;
     }
 
 
@@ -153,18 +445,37 @@ public class JournalDAO {
      */
     public boolean updateJournalEntry(JournalEntry entry) throws SQLException {
 
-        String query = "UPDATE journal SET title = ?, text_entry = ? WHERE journal_id = ?";
+        try (Connection conn = DatabaseConnection.connect()) {
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            JournalEntry updated = updateJournalEntry(conn, entry);
+            if (updated != null) { ChangeEvents.publish(ChangeEvent.Type.UPDATED, updated); }
+            return updated != null;
 
-            pstmt.setString(1, entry.getTitle());
-            pstmt.setString(2, entry.getTextEntry());
-            pstmt.setInt(3, entry.getJournalID());
-            return pstmt.executeUpdate() > 0; // Returns true if updated successfully
+        } finally {
+            evictBody(entry.getJournalID());
         }
     }
 
 
+    /**
+     * Queues a journal entry update on the write-behind queue instead of committing it right away.
+     *
+     * @param  entry                      The JournalEntry holding the ID of the entry and its new title and text.
+     * @return CompletableFuture<Boolean> Returns a future completed with whether a row was updated once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> enqueueUpdateJournalEntry(JournalEntry entry) {
+
+        // The cached body is dropped once the update is committed, so a read made before then can't be cached after it
+        JournalEntry[] stored = new JournalEntry[1];
+
+        return WriteBehindQueue.submit(conn -> (stored[0] = updateJournalEntry(conn, entry)) != null).whenComplete((updated, error) -> {
+
+            evictBody(entry.getJournalID());
+            if (Boolean.TRUE.equals(updated)) { ChangeEvents.publish(ChangeEvent.Type.UPDATED, stored[0]); }
+        });
+    }
+
+
     /**
      * Deletes a journal entry in the database.
      * Useful for using together with search functions to find and delete entries by user request.
@@ -175,12 +486,122 @@ public class JournalDAO {
      */
     public boolean deleteJournalEntry(int id) throws SQLException {
 
-        String query = "DELETE FROM journal WHERE journal_id = ?";
+        String query = "DELETE FROM journal WHERE journal_id = ? RETURNING *";
+
+        JournalEntry deleted;
 
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, id);
-            return pstmt.executeUpdate() > 0; // Returns true if deleted successfully
+
+            // The deleted row comes back so it can be published
+            try (ResultSet rs = pstmt.executeQuery()) {
+                deleted = rs.next() ? mapJournalEntry(rs) : null;
+            }
+
+        } finally {
+            evictBody(id);
         }
+
+        // Only published once the statement is closed, as that is when SQLite commits it. Returns true if deleted successfully
+        if (deleted == null) { return false; }
+        ChangeEvents.publish(ChangeEvent.Type.DELETED, deleted);
+        return true;
+    }
+
+
+    /**
+     * Inserts a journal entry using the given connection (either a connection of its own or the write-behind transaction).
+     *
+     * @return int Returns the generated journal ID.
+     */
+    private static int insertJournalEntry(Connection conn, JournalEntry entry) throws SQLException {
+
+        String query = "INSERT INTO journal (title, text_entry, text_plain, entry_date_and_time, entry_epoch) VALUES (?, ?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setString(1, entry.getTitle());
+            pstmt.setString(2, entry.getTextEntry());
+            pstmt.setString(3, HtmlText.toPlainText(entry.getTextEntry()));
+            pstmt.setString(4, TimestampCodec.format(entry.getEntryDateTime()));
+            pstmt.setLong(5, TimeColumns.toEpoch(entry.getEntryDateTime()));
+
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                } else {
+                    throw new SQLException("Inserting journal entry failed, no ID was obtained.");
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Updates a journal entry's title and text using the given connection.
+     *
+     * @return JournalEntry Returns the updated entry as stored, or null if no entry has that ID.
+     */
+    private static JournalEntry updateJournalEntry(Connection conn, JournalEntry entry) throws SQLException {
+
+        String query = "UPDATE journal SET title = ?, text_entry = ?, text_plain = ? WHERE journal_id = ? RETURNING *";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setString(1, entry.getTitle());
+            pstmt.setString(2, entry.getTextEntry());
+            pstmt.setString(3, HtmlText.toPlainText(entry.getTextEntry()));
+            pstmt.setInt(4, entry.getJournalID());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapJournalEntry(rs) : null;
+            }
+        }
+    }
+
+
+    /**
+     * Drops an entry's body from the cache once an edit or delete of it has been committed.
+     */
+    private static void evictBody(int id) {
+
+        synchronized (bodyCache) {
+            bodyCache.remove(id);
+            bodyCacheGeneration++;
+        }
+    }
+
+
+    /**
+     * Copies an entry given to an insert as it was stored (with its new ID, to the second) and the plain text stored alongside it.
+     */
+    private static JournalEntry withID(int id, JournalEntry entry) {
+        return new JournalEntry(id, entry.getTitle(), entry.getTextEntry(), HtmlText.toPlainText(entry.getTextEntry()), entry.getEntryDateTime().truncatedTo(ChronoUnit.SECONDS));
+    }
+
+
+    /**
+     * Converts the current row of a journal query into a JournalEntry.
+     */
+    private static JournalEntry mapJournalEntry(ResultSet rs) throws SQLException {
+        return new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"), rs.getString("text_plain"), TimeColumns.read(rs, "entry_epoch", "entry_date_and_time"));
+    }
+
+
+    /**
+     * Converts the current row of a SUMMARY_COLUMNS query into a JournalSummary.
+     */
+    private static JournalSummary mapJournalSummary(ResultSet rs) throws SQLException {
+        return new JournalSummary(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_preview"), TimeColumns.read(rs, "entry_epoch", "entry_date_and_time"));
+    }
+
+
+    /**
+     * Converts the current row of a LIST_COLUMNS query into a JournalEntry holding only the plain text.
+     */
+    private static JournalEntry mapJournalListing(ResultSet rs) throws SQLException {
+        return new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), null, rs.getString("text_plain"), TimeColumns.read(rs, "entry_epoch", "entry_date_and_time"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,458 @@
+package dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.*;
+import java.util.function.Consumer;
+
+import models.JournalEntry;
+import models.JournalSummary;
+
+/**
+ * In-memory inverted index over journal titles and text, for search that runs on every keystroke without a database round trip.
+ * Words are lowercased, common stop words are left out and simple suffixes are stemmed ('walking', 'walked' and 'walks' all index as 'walk').
+ * The index is loaded from the database the first time it is used and is then kept up to date through ChangeEvents after every
+ * committed insert, edit and delete. Queries match every word, the last one as a prefix while it is still being typed
+ * (of the words as written, so a half typed 'walke' still finds 'walked' although it is indexed as 'walk'),
+ * and the best results are picked with a bounded heap so a query never sorts more than the results it returns.
+ * @author Isabella Castillo
+ */
+public final class JournalIndex {
+
+    // A word in the title counts as much as this many in the text
+    private static final int TITLE_WEIGHT = 3;
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "had", "has", "have", "i", "in",
+            "is", "it", "me", "my", "of", "on", "or", "so", "that", "the", "this", "to", "was", "were", "with");
+
+    private static JournalIndex instance;
+
+    // Term dictionary of the stemmed words, and one of the words as written kept sorted so prefixes are a range lookup
+    private final HashMap<String, Postings> terms = new HashMap<>();
+    private final TreeMap<String, Postings> surfaces = new TreeMap<>();
+
+    // Entries are stored in numbered slots (reused after deletes) so postings hold small ints instead of boxed IDs
+    private final Map<Integer, Integer> slotsByID = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private JournalSummary[] summaries = new JournalSummary[64];
+    private Postings[][] slotTerms = new Postings[64][];
+    private Postings[][] slotSurfaces = new Postings[64][];
+    private int slotCount = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Subscribed as soon as the class is used, so no write committed before the index is loaded can be missed
+    static { ChangeEvents.subscribe(JournalEntry.class, JournalIndex::entryChanged); }
+
+
+    /**
+     * Creates an empty index, filled in with put().
+     */
+    JournalIndex() {}
+
+
+    /**
+     * Gets the shared index, loading every journal entry from the database the first time it is called.
+     *
+     * @return JournalIndex Returns the shared index.
+     * @throws SQLException If an error occurs while loading.
+     */
+    public static synchronized JournalIndex get() throws SQLException {
+
+        if (instance == null) {
+
+            JournalIndex index = new JournalIndex();
+
+            // The HTML is only read for entries written before the plain text column was filled in (it is stripped when read)
+            String query = "SELECT journal_id, title, text_plain, CASE WHEN text_plain IS NULL THEN text_entry END AS text_entry, "
+                         + "entry_date_and_time, entry_epoch FROM journal";
+
+            RowStream.forEach(query, null, rs -> new JournalEntry(rs.getInt("journal_id"), rs.getString("title"), rs.getString("text_entry"),
+                    rs.getString("text_plain"), TimeColumns.read(rs, "entry_epoch", "entry_date_and_time")),
+                    entry -> index.put(entry.getJournalID(), entry.getTitle(), entry.getTextPlain(), entry.getEntryDateTime()));
+
+            instance = index;
+        }
+        return instance;
+    }
+
+
+    /**
+     * Updates the shared index (if it has been loaded) after a journal entry was inserted, edited or deleted and committed.
+     * Waits for a load that is in progress, so the change can't be missed by it.
+     */
+    private static void entryChanged(ChangeEvent<JournalEntry> event) {
+
+        JournalIndex index = loaded();
+        if (index == null) { return; }
+
+        JournalEntry entry = event.getEntity();
+        switch (event.getType()) {
+            case INSERTED, UPDATED -> index.put(entry.getJournalID(), entry.getTitle(), entry.getTextPlain(), entry.getEntryDateTime());
+            case DELETED -> index.remove(entry.getJournalID());
+        }
+    }
+
+
+    /**
+     * Gets the shared index without loading it.
+     */
+    private static synchronized JournalIndex loaded() { return instance; }
+
+
+    /**
+     * Finds the entries containing every word of the query, best matches first.
+     * The last word is matched as a prefix unless the query ends in a space, so results follow the user as they type.
+     *
+     * @param  query                The search text as typed.
+     * @param  limit                The max number of results.
+     * @return List<JournalSummary> Returns summaries of the best matching entries (empty if nothing matches).
+     */
+    public List<JournalSummary> search(String query, int limit) {
+
+        List<String> words = new ArrayList<>();
+        tokenize(query, words::add);
+        if (words.isEmpty() || limit <= 0) { return List.of(); }
+
+        boolean lastIsPrefix = !Character.isWhitespace(query.charAt(query.length() - 1));
+
+        lock.readLock().lock();
+
+        try {
+
+            // Each word becomes the group of postings that satisfy it (several for a prefix), stop words are skipped
+            List<List<Postings>> groups = new ArrayList<>();
+
+            for (int i = 0; i < words.size(); i++) {
+
+                String word = words.get(i);
+                boolean prefix = lastIsPrefix && i == words.size() - 1;
+                if (!prefix && STOP_WORDS.contains(word)) { continue; }
+
+                List<Postings> group = new ArrayList<>();
+                Postings exact = terms.get(stem(word));
+                if (exact != null) { group.add(exact); }
+
+                // The word typed so far can stop partway through a suffix the stem drops, so prefixes are matched against the words as written
+                if (prefix) { group.addAll(surfaces.subMap(word, true, word + Character.MAX_VALUE, false).values()); }
+                if (group.isEmpty()) { return List.of(); }
+                groups.add(group);
+            }
+            if (groups.isEmpty()) { return List.of(); }
+
+            // Starting from the rarest word keeps the candidate set as small as possible
+            groups.sort(Comparator.comparingInt(JournalIndex::groupSize));
+            return topResults(groups, limit);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Gets the number of entries in the index.
+     *
+     * @return int Returns the entry count.
+     */
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return slotsByID.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry to the index, replacing it if it is already there (a null time keeps the time it was indexed with).
+     */
+    void put(int id, String title, String text, LocalDateTime time) {
+
+        // Counting each term (and word as written) of the entry, title words weighted above text words
+        Map<String, Integer> counts = new HashMap<>();
+        Map<String, Integer> surfaceCounts = new HashMap<>();
+        tokenize(title, word -> count(word, TITLE_WEIGHT, counts, surfaceCounts));
+        tokenize(text, word -> count(word, 1, counts, surfaceCounts));
+
+        lock.writeLock().lock();
+
+        try {
+
+            Integer current = slotsByID.get(id);
+            if (time == null && current == null) { return; } // Not indexed, so there is no date to keep
+            if (time == null) { time = summaries[current].getEntryDateTime(); }
+            JournalSummary summary = new JournalSummary(id, title, preview(text), time);
+
+            removeLocked(id);
+            int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+
+            if (slot >= summaries.length) {
+                summaries = Arrays.copyOf(summaries, summaries.length * 2);
+                slotTerms = Arrays.copyOf(slotTerms, slotTerms.length * 2);
+                slotSurfaces = Arrays.copyOf(slotSurfaces, slotSurfaces.length * 2);
+            }
+
+            summaries[slot] = summary;
+            slotTerms[slot] = addPostings(terms, counts, slot);
+            slotSurfaces[slot] = addPostings(surfaces, surfaceCounts, slot);
+            slotsByID.put(id, slot);
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry from the index (nothing happens if it isn't there).
+     */
+    void remove(int id) {
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry while the write lock is held, dropping any terms no other entry uses.
+     */
+    private void removeLocked(int id) {
+
+        Integer slot = slotsByID.remove(id);
+        if (slot == null) { return; }
+
+        removePostings(terms, slotTerms[slot], slot);
+        removePostings(surfaces, slotSurfaces[slot], slot);
+
+        summaries[slot] = null;
+        slotTerms[slot] = null;
+        slotSurfaces[slot] = null;
+        freeSlots.push(slot);
+    }
+
+
+    /**
+     * Counts one word of an entry under its stem and as written (stop words aren't indexed).
+     */
+    private static void count(String word, int weight, Map<String, Integer> counts, Map<String, Integer> surfaceCounts) {
+
+        if (STOP_WORDS.contains(word)) { return; }
+        counts.merge(stem(word), weight, Integer::sum);
+        surfaceCounts.merge(word, weight, Integer::sum);
+    }
+
+
+    /**
+     * Adds an entry's counts to a dictionary, creating postings for new words.
+     *
+     * @return Postings[] Returns the postings the entry was added to, for removing it again.
+     */
+    private static Postings[] addPostings(Map<String, Postings> dictionary, Map<String, Integer> counts, int slot) {
+
+        Postings[] entryPostings = new Postings[counts.size()];
+        int i = 0;
+
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+
+            Postings postings = dictionary.computeIfAbsent(count.getKey(), Postings::new);
+            postings.add(slot, count.getValue());
+            entryPostings[i++] = postings;
+        }
+        return entryPostings;
+    }
+
+
+    /**
+     * Takes an entry out of its postings in a dictionary.
+     * Only the entry's own words can have been left without entries, so only those are looked at and dropped.
+     */
+    private static void removePostings(Map<String, Postings> dictionary, Postings[] entryPostings, int slot) {
+
+        for (Postings postings : entryPostings) {
+            postings.remove(slot);
+            if (postings.size == 0) { dictionary.remove(postings.term); }
+        }
+    }
+
+
+    /**
+     * Scores the entries matching every group and keeps the best ones in a min-heap of at most 'limit' entries.
+     * A group adds the weighted count (times the rarity) of the first of its terms found in an entry.
+     */
+    private List<JournalSummary> topResults(List<List<Postings>> groups, int limit) {
+
+        int[] matched = new int[slotCount];
+        float[] scores = new float[slotCount];
+        int[] candidates = new int[Math.min(slotCount, groupSize(groups.get(0)))];
+        int candidateCount = 0;
+        double total = slotsByID.size();
+
+        for (int g = 0; g < groups.size(); g++) {
+
+            for (Postings postings : groups.get(g)) {
+
+                float idf = (float) Math.log(1 + total / postings.size);
+
+                for (int p = 0; p < postings.size; p++) {
+
+                    int slot = postings.slots[p];
+                    if (matched[slot] != g) { continue; }
+
+                    matched[slot] = g + 1;
+                    scores[slot] += postings.counts[p] * idf;
+                    if (g == 0) { candidates[candidateCount++] = slot; }
+                }
+            }
+        }
+
+        // Weakest result at the head so it is the one replaced, ties going to the newer entry
+        Comparator<Integer> byScore = Comparator.<Integer>comparingDouble(slot -> scores[slot]).thenComparing(slot -> summaries[slot].getEntryDateTime());
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.min(limit, Math.max(1, candidateCount)) + 1, byScore);
+
+        for (int c = 0; c < candidateCount; c++) {
+
+            int slot = candidates[c];
+            if (matched[slot] != groups.size()) { continue; }
+
+            // Most candidates of a common word can't beat the weakest kept result, so they are skipped without touching the heap
+            if (best.size() == limit && byScore.compare(slot, best.peek()) <= 0) { continue; }
+
+            best.add(slot);
+            if (best.size() > limit) { best.poll(); }
+        }
+
+        JournalSummary[] results = new JournalSummary[best.size()];
+        for (int i = results.length - 1; i >= 0; i--) {
+            results[i] = summaries[best.poll()];
+        }
+        return Arrays.asList(results);
+    }
+
+
+    /**
+     * Gets the total number of postings in a group, an estimate of how many entries it matches.
+     */
+    private static int groupSize(List<Postings> group) {
+
+        int size = 0;
+        for (Postings postings : group) { size += postings.size; }
+        return size;
+    }
+
+
+    /**
+     * Splits text into lowercase words made of letters and digits (apostrophes inside a word are dropped, so "don't" is "dont").
+     */
+    static void tokenize(String text, Consumer<String> action) {
+
+        if (text == null) { return; }
+
+        StringBuilder word = new StringBuilder();
+
+        for (int i = 0; i <= text.length(); i++) {
+
+            char c = i < text.length() ? text.charAt(i) : ' ';
+
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if ((c == '\'' || c == '’') && word.length() > 0) {
+                continue;
+            } else if (word.length() > 0) {
+                action.accept(word.toString());
+                word.setLength(0);
+            }
+        }
+    }
+
+
+    /**
+     * Strips common English suffixes so different forms of a word are indexed together.
+     * Deliberately simple (a few plural, past tense and -ing/-ly rules) and never leaves a stem shorter than three letters.
+     */
+    static String stem(String word) {
+
+        int length = word.length();
+        if (length <= 3) { return word; }
+
+        if (word.endsWith("ies") && length > 4) { return word.substring(0, length - 3) + "y"; }
+        if (word.endsWith("sses")) { return word.substring(0, length - 2); }
+        if (word.endsWith("ing") && length > 5) { return undouble(word.substring(0, length - 3)); }
+        if (word.endsWith("ed") && length > 4) { return undouble(word.substring(0, length - 2)); }
+        if (word.endsWith("ly") && length > 4) { return word.substring(0, length - 2); }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) { return word.substring(0, length - 1); }
+        return word;
+    }
+
+
+    /**
+     * Drops the doubled last consonant left by removing a suffix ("stopp" to "stop"), keeping ll, ss and zz ("fell", "pass").
+     */
+    private static String undouble(String stem) {
+
+        int length = stem.length();
+        if (length < 4) { return stem; }
+
+        char last = stem.charAt(length - 1);
+        boolean doubled = last == stem.charAt(length - 2) && "aeiouylsz".indexOf(last) < 0;
+        return doubled ? stem.substring(0, length - 1) : stem;
+    }
+
+
+    /**
+     * Cuts plain text down to the preview shown in lists, counting characters like SQLite's substr does.
+     */
+    private static String preview(String text) {
+
+        if (text == null) { return null; }
+        int length = text.codePointCount(0, text.length());
+        return length <= JournalSummary.PREVIEW_LENGTH ? text : text.substring(0, text.offsetByCodePoints(0, JournalSummary.PREVIEW_LENGTH));
+    }
+
+
+    /**
+     * The entries (slots) containing one term and how many times, stored as parallel int arrays.
+     */
+    private static final class Postings {
+
+        private final String term;
+        private int[] slots = new int[4];
+        private int[] counts = new int[4];
+        private int size = 0;
+
+        private Postings(String term) { this.term = term; }
+
+        private void add(int slot, int count) {
+
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            slots[size] = slot;
+            counts[size] = count;
+            size++;
+        }
+
+        private void remove(int slot) {
+
+            for (int i = 0; i < size; i++) {
+
+                if (slots[i] == slot) {
+
+                    // Order doesn't matter, so the last posting fills the gap
+                    size--;
+                    slots[i] = slots[size];
+                    counts[i] = counts[size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package dao;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.*;
+
+import models.DatabaseConnection;
+import models.MoodEntry;
+import models.MoodSeries;
+import models.TimestampCodec;
+
+/**
+ * In-memory copy of the whole mood history kept column by column: parallel arrays of times, mood IDs and tags, sorted by time.
+ * Tags are dictionary encoded (each distinct tag is stored once and entries hold its index), so an entry costs 17 bytes instead of
+ * a MoodEntry, a boxed time and a String. Ranges are found by binary search and counted by loops over the arrays, so the chart
+ * aggregations allocate nothing per entry. Edits and deletes find their entry the same way, by the time the change event carries
+ * (mood times are never edited), so no per-entry lookup table is kept. Loaded from the database the first time it is used and then kept up to date through ChangeEvents
+ * after every committed insert, edit and delete.
+ * @author Isabella Castillo
+ */
+public final class MoodColumnStore {
+
+    private static MoodColumnStore instance;
+
+    // Columns, all sorted by time (then entry ID) and filled up to 'size'
+    private int[] entryIDs = new int[256];
+    private long[] epochs = new long[256];
+    private byte[] moodIDs = new byte[256];
+    private int[] tagIDs = new int[256];
+    private int size = 0;
+
+    // Tag dictionary, index 0 is no tag. The array is only ever appended to, so slices can share it
+    private String[] tags = new String[16];
+    private int tagCount = 1;
+    private final Map<String, Integer> tagIDsByText = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Subscribed as soon as the class is used, so no write committed before the store is loaded can be missed
+    static { ChangeEvents.subscribe(MoodEntry.class, MoodColumnStore::entryChanged); }
+
+
+    /**
+     * Makes sure the store is subscribed to ChangeEvents, which happens when the class is first used, without loading any entries.
+     * ChartCache calls this before subscribing itself, so every mood write reaches the store before the datasets built from it are thrown away.
+     */
+    static void subscribe() {}
+
+
+    /**
+     * Creates an empty store, filled in with put().
+     */
+    MoodColumnStore() {}
+
+
+    /**
+     * Gets the shared store, loading every mood entry from the database the first time it is called.
+     *
+     * @return MoodColumnStore Returns the shared store.
+     * @throws SQLException    If an error occurs while loading.
+     */
+    public static synchronized MoodColumnStore get() throws SQLException {
+
+        if (instance == null) {
+
+            MoodColumnStore store = new MoodColumnStore();
+            String query = "SELECT entry_id, mood_id, tag, entry_date_and_time, entry_epoch FROM mood_entries";
+
+            try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+                pstmt.setFetchSize(RowStream.DEFAULT_FETCH_SIZE);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+
+                    // Rows are appended unsorted and sorted once at the end
+                    while (rs.next()) {
+
+                        long epoch = rs.getLong("entry_epoch");
+                        if (rs.wasNull()) { epoch = TimeColumns.toEpoch(TimestampCodec.parse(rs.getString("entry_date_and_time"))); }
+                        store.append(rs.getInt("entry_id"), epoch, rs.getInt("mood_id"), rs.getString("tag"));
+                    }
+                }
+            }
+            store.sort();
+            instance = store;
+        }
+        return instance;
+    }
+
+
+    /**
+     * Applies a committed insert, edit or delete of a mood entry to the shared store (if it has been loaded), waiting for a load that is in progress.
+     */
+    private static void entryChanged(ChangeEvent<MoodEntry> event) {
+
+        MoodColumnStore store = loaded();
+        if (store == null) { return; }
+
+        MoodEntry entry = event.getEntity();
+        switch (event.getType()) {
+            case INSERTED -> store.put(entry.getEntryID(), TimeColumns.toEpoch(entry.getDateAndTime()), entry.getMoodID(), entry.getTag());
+            case UPDATED -> store.update(entry.getEntryID(), TimeColumns.toEpoch(entry.getDateAndTime()), entry.getMoodID(), entry.getTag());
+            case DELETED -> store.remove(entry.getEntryID(), TimeColumns.toEpoch(entry.getDateAndTime()));
+        }
+    }
+
+
+    /**
+     * Gets the shared store without loading it.
+     */
+    private static synchronized MoodColumnStore loaded() { return instance; }
+
+
+    /**
+     * Gets the number of entries in the store.
+     *
+     * @return int Returns the entry count.
+     */
+    public int size() {
+
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Copies the entries in a time range (inclusive) into a series.
+     * Useful for plotting, the copy is a handful of arrays no matter how many entries are in the range.
+     *
+     * @param  start      Range start time.
+     * @param  end        Range end time.
+     * @return MoodSeries Returns the entries in the range, oldest first.
+     */
+    public MoodSeries slice(LocalDateTime start, LocalDateTime end) {
+
+        lock.readLock().lock();
+
+        try {
+
+            int from = lowerBound(TimeColumns.toEpoch(start));
+            int to = Math.max(from, upperBound(TimeColumns.toEpoch(end)));
+
+            return new MoodSeries(Arrays.copyOfRange(entryIDs, from, to), Arrays.copyOfRange(epochs, from, to), Arrays.copyOfRange(moodIDs, from, to),
+                    Arrays.copyOfRange(tagIDs, from, to), tags);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Counts how many times each mood was logged in a time range (inclusive).
+     *
+     * @param  start  Range start time.
+     * @param  end    Range end time.
+     * @param  counts Array indexed by mood ID that each entry's count is added to (must be longer than the largest mood ID).
+     * @return int    Returns the number of entries in the range.
+     */
+    public int countMoods(LocalDateTime start, LocalDateTime end, int[] counts) {
+
+        lock.readLock().lock();
+
+        try {
+
+            int from = lowerBound(TimeColumns.toEpoch(start));
+            int to = upperBound(TimeColumns.toEpoch(end));
+
+            for (int i = from; i < to; i++) {
+                counts[moodIDs[i]]++;
+            }
+            return Math.max(0, to - from);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Counts how many times each mood was logged during the day and during the night in a time range (inclusive).
+     *
+     * @param  start          Range start time.
+     * @param  end            Range end time.
+     * @param  dayStartHour   The hour the day starts at (inclusive).
+     * @param  nightStartHour The hour the night starts at (inclusive), running until dayStartHour.
+     * @param  dayCounts      Array indexed by mood ID that day entries are added to.
+     * @param  nightCounts    Array indexed by mood ID that night entries are added to.
+     * @return int            Returns the number of entries in the range.
+     */
+    public int countMoodsByTimeOfDay(LocalDateTime start, LocalDateTime end, int dayStartHour, int nightStartHour, int[] dayCounts, int[] nightCounts) {
+
+        lock.readLock().lock();
+
+        try {
+
+            int from = lowerBound(TimeColumns.toEpoch(start));
+            int to = upperBound(TimeColumns.toEpoch(end));
+
+            for (int i = from; i < to; i++) {
+
+                int hour = (int) (Math.floorMod(epochs[i], 86_400L) / 3_600);
+
+                if (hour >= dayStartHour && hour < nightStartHour) {
+                    dayCounts[moodIDs[i]]++;
+                } else {
+                    nightCounts[moodIDs[i]]++;
+                }
+            }
+            return Math.max(0, to - from);
+
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    /**
+     * Adds an entry at its place in time (a new entry is almost always the latest, so this is usually an append).
+     */
+    void put(int entryID, long epoch, int moodID, String tag) {
+
+        lock.writeLock().lock();
+
+        try {
+
+            removeLocked(entryID, epoch);
+            ensureCapacity(size + 1);
+
+            // Inserting after any entries with the same time and a lower ID, keeping the order the database sorts in
+            int index = upperBound(epoch);
+            while (index > 0 && epochs[index - 1] == epoch && entryIDs[index - 1] > entryID) { index--; }
+
+            int moved = size - index;
+            System.arraycopy(entryIDs, index, entryIDs, index + 1, moved);
+            System.arraycopy(epochs, index, epochs, index + 1, moved);
+            System.arraycopy(moodIDs, index, moodIDs, index + 1, moved);
+            System.arraycopy(tagIDs, index, tagIDs, index + 1, moved);
+
+            set(index, entryID, epoch, moodID, tag);
+            size++;
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Changes an entry's mood and tag (nothing happens if it isn't there).
+     * The entry is found by its time, which edits never change.
+     */
+    void update(int entryID, long epoch, int moodID, String tag) {
+
+        lock.writeLock().lock();
+
+        try {
+
+            int index = indexOf(entryID, epoch);
+            if (index < 0) { return; }
+
+            moodIDs[index] = toMoodByte(moodID);
+            tagIDs[index] = tagID(tag);
+
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry (nothing happens if it isn't there).
+     */
+    void remove(int entryID, long epoch) {
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(entryID, epoch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    /**
+     * Removes an entry while the write lock is held.
+     */
+    private void removeLocked(int entryID, long epoch) {
+
+        int index = indexOf(entryID, epoch);
+        if (index < 0) { return; }
+
+        int moved = size - index - 1;
+        System.arraycopy(entryIDs, index + 1, entryIDs, index, moved);
+        System.arraycopy(epochs, index + 1, epochs, index, moved);
+        System.arraycopy(moodIDs, index + 1, moodIDs, index, moved);
+        System.arraycopy(tagIDs, index + 1, tagIDs, index, moved);
+
+        size--;
+    }
+
+
+    /**
+     * Adds a row while loading, before the columns are sorted.
+     */
+    void append(int entryID, long epoch, int moodID, String tag) {
+
+        ensureCapacity(size + 1);
+        set(size++, entryID, epoch, moodID, tag);
+    }
+
+
+    /**
+     * Sorts the columns by time (then entry ID) once loading has finished.
+     * The row order is found with a merge sort over int row numbers (no boxing), then each column is rearranged once.
+     * Rows usually come back from the database in time order already, in which case nothing is done.
+     */
+    void sort() {
+
+        if (isSorted()) { return; }
+
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) { order[i] = i; }
+        int[] buffer = new int[size];
+
+        // Bottom up: merging runs of 1, 2, 4... rows, swapping which array holds the merged runs each pass
+        for (int width = 1; width < size; width *= 2) {
+
+            for (int low = 0; low < size; low += 2 * width) {
+                merge(order, buffer, low, Math.min(low + width, size), Math.min(low + 2 * width, size));
+            }
+            int[] merged = buffer;
+            buffer = order;
+            order = merged;
+        }
+
+        int[] sortedIDs = new int[entryIDs.length];
+        long[] sortedEpochs = new long[epochs.length];
+        byte[] sortedMoods = new byte[moodIDs.length];
+        int[] sortedTags = new int[tagIDs.length];
+
+        for (int i = 0; i < size; i++) {
+
+            sortedIDs[i] = entryIDs[order[i]];
+            sortedEpochs[i] = epochs[order[i]];
+            sortedMoods[i] = moodIDs[order[i]];
+            sortedTags[i] = tagIDs[order[i]];
+        }
+        entryIDs = sortedIDs;
+        epochs = sortedEpochs;
+        moodIDs = sortedMoods;
+        tagIDs = sortedTags;
+    }
+
+
+    /**
+     * Merges the sorted runs of row numbers [low, middle) and [middle, high) of 'from' into the same place in 'to'.
+     */
+    private void merge(int[] from, int[] to, int low, int middle, int high) {
+
+        int left = low;
+        int right = middle;
+
+        for (int i = low; i < high; i++) {
+
+            // Taking from the left on ties keeps the sort stable
+            if (left < middle && (right >= high || compareRows(from[left], from[right]) <= 0)) {
+                to[i] = from[left++];
+            } else {
+                to[i] = from[right++];
+            }
+        }
+    }
+
+
+    /**
+     * Checks if the rows are already in time (then entry ID) order.
+     */
+    private boolean isSorted() {
+
+        for (int i = 1; i < size; i++) {
+            if (compareRows(i - 1, i) > 0) { return false; }
+        }
+        return true;
+    }
+
+
+    /**
+     * Compares two rows by time, then entry ID.
+     */
+    private int compareRows(int a, int b) {
+
+        int byTime = Long.compare(epochs[a], epochs[b]);
+        return byTime != 0 ? byTime : Integer.compare(entryIDs[a], entryIDs[b]);
+    }
+
+
+    /**
+     * Writes one row of the columns.
+     */
+    private void set(int index, int entryID, long epoch, int moodID, String tag) {
+
+        entryIDs[index] = entryID;
+        epochs[index] = epoch;
+        moodIDs[index] = toMoodByte(moodID);
+        tagIDs[index] = tagID(tag);
+    }
+
+
+    /**
+     * Finds an entry's index by binary searching for its time and scanning the entries that share it.
+     *
+     * @return int Returns the index, or -1 if the entry isn't in the store (at that time).
+     */
+    private int indexOf(int entryID, long epoch) {
+
+        for (int i = lowerBound(epoch); i < size && epochs[i] == epoch; i++) {
+            if (entryIDs[i] == entryID) { return i; }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Finds the first index with a time at or after the given one.
+     */
+    private int lowerBound(long epoch) {
+
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+
+            int mid = (low + high) >>> 1;
+            if (epochs[mid] < epoch) { low = mid + 1; } else { high = mid; }
+        }
+        return low;
+    }
+
+
+    /**
+     * Finds the first index with a time after the given one.
+     */
+    private int upperBound(long epoch) {
+
+        int low = 0;
+        int high = size;
+
+        while (low < high) {
+
+            int mid = (low + high) >>> 1;
+            if (epochs[mid] <= epoch) { low = mid + 1; } else { high = mid; }
+        }
+        return low;
+    }
+
+
+    /**
+     * Gets the dictionary index of a tag, adding it if it is new.
+     */
+    private int tagID(String tag) {
+
+        if (tag == null) { return 0; }
+
+        Integer id = tagIDsByText.get(tag);
+        if (id != null) { return id; }
+
+        if (tagCount == tags.length) { tags = Arrays.copyOf(tags, tags.length * 2); }
+        tags[tagCount] = tag;
+        tagIDsByText.put(tag, tagCount);
+        return tagCount++;
+    }
+
+
+    /**
+     * Grows every column to hold at least the given number of entries.
+     */
+    private void ensureCapacity(int capacity) {
+
+        if (capacity <= epochs.length) { return; }
+
+        int grown = Math.max(capacity, epochs.length * 2);
+        entryIDs = Arrays.copyOf(entryIDs, grown);
+        epochs = Arrays.copyOf(epochs, grown);
+        moodIDs = Arrays.copyOf(moodIDs, grown);
+        tagIDs = Arrays.copyOf(tagIDs, grown);
+    }
+
+
+    /**
+     * Narrows a mood ID to the byte it is stored as (the moods are a fixed set of small IDs).
+     */
+    private static byte toMoodByte(int moodID) {
+
+        if (moodID < 0 || moodID > Byte.MAX_VALUE) { throw new IllegalArgumentException("Mood ID out of range: " + moodID); }
+        return (byte) moodID;
+    }
+}
@@ -3,11 +3,17 @@ package dao;
 import java.sql.*;
 import java.util.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import models.DatabaseConnection;
 import models.Mood;
+import models.MoodBucket;
 import models.MoodEntry;
+import models.TimeBucket;
+import models.TimestampCodec;
 
 /**
  * Data Access Object for main program to manage moods and mood entries.
@@ -15,7 +21,6 @@ import models.MoodEntry;
  */
 public class MoodDAO {
 
-    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
      * Retrieves the 15 predefined moods from the database.
@@ -29,7 +34,7 @@ public class MoodDAO {
         List<Mood> moods = new ArrayList<>();
         String query = "SELECT mood_id, mood FROM moods ORDER BY mood_id";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
 
@@ -54,13 +59,13 @@ public class MoodDAO {
 
         String query = "SELECT * FROM mood_entries WHERE entry_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
 
             if (rs.next()) {
-                return new MoodEntry(rs.getInt("entry_id"), rs.getInt("mood_id"), rs.getString("tag"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT));
+                return mapMoodEntry(rs);
             }
         }
         // When not found
@@ -80,7 +85,7 @@ public class MoodDAO {
 
         String query = "SELECT * FROM moods WHERE mood_id = ?";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, id);
             ResultSet rs = pstmt.executeQuery();
@@ -104,18 +109,110 @@ public class MoodDAO {
     public List<MoodEntry> getAllMoodEntries() throws SQLException {
 
         List<MoodEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM mood_entries ORDER BY entry_date_and_time DESC";
+        String query = "SELECT * FROM mood_entries ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                entries.add(new MoodEntry(rs.getInt("entry_id"), rs.getInt("mood_id"), rs.getString("tag"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT)));
+                entries.add(mapMoodEntry(rs));
+            }
+        }
+        return entries;
+    }
+
+
+    /**
+     * Passes every mood entry to the action one at a time in descending order (most recent first), without building a list.
+     * Useful for exports and statistics over the whole history, memory use stays flat no matter how many entries there are.
+     *
+     * @param  action       Called once per entry.
+     * @throws SQLException If an error occurs.
+     */
+    public void forEachMoodEntry(Consumer<MoodEntry> action) throws SQLException {
+
+        String query = "SELECT * FROM mood_entries ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
+        RowStream.forEach(query, null, MoodDAO::mapMoodEntry, action);
+    }
+
+
+    /**
+     * Opens a lazy stream over every mood entry in descending order (most recent first).
+     * The stream holds a database connection until it is closed, so always use it in a try-with-resources block.
+     *
+     * @return Stream<MoodEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException      If an error occurs.
+     */
+    public Stream<MoodEntry> streamMoodEntries() throws SQLException { return streamMoodEntries(RowStream.DEFAULT_FETCH_SIZE); }
+
+
+    /**
+     * Opens a lazy stream over every mood entry in descending order (most recent first), fetching the given number of rows at a time.
+     *
+     * @param  fetchSize         Rows to fetch from the database per round trip.
+     * @return Stream<MoodEntry> Returns a stream of entries that must be closed after use.
+     * @throws SQLException      If an error occurs.
+     */
+    public Stream<MoodEntry> streamMoodEntries(int fetchSize) throws SQLException {
+
+        String query = "SELECT * FROM mood_entries ORDER BY " + TimeColumns.column("entry_epoch", "entry_date_and_time").name() + " DESC";
+        return RowStream.stream(query, null, fetchSize, MoodDAO::mapMoodEntry);
+    }
+
+
+    /**
+     * Gets one page of mood entries in descending order (most recent first), starting right after the given entry.
+     * Uses keyset pagination on (time, entry ID), so every page is an index seek no matter how deep into the history it is.
+     * Useful for the mood log table, which loads pages as the user scrolls.
+     *
+     * @param  after           The last entry of the previous page, or null for the first page.
+     * @param  limit           The max number of entries in the page.
+     * @return List<MoodEntry> Returns the page of entries, fewer than the limit (or empty) once the end is reached.
+     * @throws SQLException    If an error occurs.
+     */
+    public List<MoodEntry> getMoodEntryPage(MoodEntry after, int limit) throws SQLException {
+
+        List<MoodEntry> entries = new ArrayList<>();
+        TimeColumns.Column timeColumn = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        String query = "SELECT * FROM mood_entries " + (after == null ? "" : "WHERE (" + timeColumn.name() + ", entry_id) < (?, ?) ")
+                       + "ORDER BY " + timeColumn.name() + " DESC, entry_id DESC LIMIT ?";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            int index = 1;
+            if (after != null) {
+                timeColumn.bind(pstmt, index++, after.getDateAndTime());
+                pstmt.setInt(index++, after.getEntryID());
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    entries.add(mapMoodEntry(rs));
+                }
             }
         }
         return entries;
     }
 
 
+    /**
+     * Counts the mood entries in the database.
+     * Useful for sizing paged tables without loading any entries.
+     *
+     * @return int          Returns the number of mood entries.
+     * @throws SQLException If an error occurs.
+     */
+    public int countMoodEntries() throws SQLException {
+
+        String query = "SELECT COUNT(*) FROM mood_entries";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+
     /**
      * Finds mood entries with specific date and range.
      * Useful for data analysis and chart/graph creation later on.
@@ -128,16 +225,17 @@ public class MoodDAO {
     public List<MoodEntry> getMoodEntriesByDateRange(LocalDateTime start, LocalDateTime end) throws SQLException {
 
         List<MoodEntry> entries = new ArrayList<>();
-        String query = "SELECT * FROM mood_entries WHERE entry_date_and_time BETWEEN ? AND ? ORDER BY entry_date_and_time";
-        
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+        TimeColumns.Column timeColumn = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        String query = "SELECT * FROM mood_entries WHERE " + timeColumn.name() + " BETWEEN ? AND ? ORDER BY " + timeColumn.name();
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
-            pstmt.setString(1, start.format(DB_DATE_FORMAT));
-            pstmt.setString(2, end.format(DB_DATE_FORMAT));
+            timeColumn.bind(pstmt, 1, start);
+            timeColumn.bind(pstmt, 2, end);
             ResultSet rs = pstmt.executeQuery();
 
             while (rs.next()) {
-                entries.add(new MoodEntry(rs.getInt("entry_id"), rs.getInt("mood_id"), rs.getString("tag"), LocalDateTime.parse(rs.getString("entry_date_and_time"), DB_DATE_FORMAT)));
+                entries.add(mapMoodEntry(rs));
             }
         }
         return entries;
@@ -157,7 +255,7 @@ public class MoodDAO {
         Map<String, Integer> moodFrequency = new LinkedHashMap<>();
         String query = "SELECT m.mood, COUNT(*) AS count " + "FROM mood_entries me " + "JOIN moods m ON me.mood_id = m.mood_id " + "GROUP BY m.mood " + "ORDER BY count DESC " + "LIMIT ?";
 
-        try (Connection conn = DatabaseConnection.connect();
+        try (Connection conn = DatabaseConnection.connectReadOnly();
              PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, limit);
@@ -171,6 +269,82 @@ public class MoodDAO {
     }
 
 
+    /**
+     * Sums up the mood entries in a date range per time bucket, read from the rollup tables (see MoodRollups) instead of the entries.
+     * The bucket size is the finest that keeps the number of buckets within maxBuckets (see TimeBucket.forSpan), so a range of
+     * years comes back as a few hundred rows at most however many entries it holds. The range is matched to the hour.
+     *
+     * @param  start            Range start time.
+     * @param  end              Range end time.
+     * @param  maxBuckets       The most buckets wanted, such as the chart's width divided by the pixels per bucket.
+     * @return List<MoodBucket> Returns the buckets holding at least one entry, oldest first.
+     * @throws SQLException     If an error occurs.
+     */
+    public List<MoodBucket> getMoodBuckets(LocalDateTime start, LocalDateTime end, int maxBuckets) throws SQLException {
+
+        List<MoodBucket> buckets = new ArrayList<>();
+        if (end.isBefore(start)) { return buckets; }
+
+        TimeBucket size = TimeBucket.forSpan(start, end, maxBuckets);
+        String startDay = start.toLocalDate().toString();
+        String endDay = end.toLocalDate().toString();
+        String totals = "SUM(entry_count) AS entry_count, SUM(mood_id * entry_count) AS mood_total, MIN(mood_id) AS lowest, MAX(mood_id) AS highest";
+
+        // Hours come from the hourly counts, anything coarser from the daily counts plus the hourly counts of the partial days at each end
+        String query = size == TimeBucket.HOUR
+                ? "SELECT " + TimeColumns.bucketStart(size, "day", "day || printf(' %02d', hour)") + " AS bucket, " + totals
+                + " FROM mood_hourly WHERE (day, hour) >= (?, ?) AND (day, hour) <= (?, ?) GROUP BY bucket ORDER BY bucket"
+                : "SELECT " + TimeColumns.bucketStart(size, "day", "day") + " AS bucket, " + totals + " FROM ("
+                + "SELECT day, mood_id, entry_count FROM mood_hourly WHERE day = ? AND hour >= ? AND (day < ? OR hour <= ?) UNION ALL "
+                + "SELECT day, mood_id, entry_count FROM mood_hourly WHERE day = ? AND hour <= ? AND day > ? UNION ALL "
+                + "SELECT day, mood_id, entry_count FROM mood_daily WHERE day > ? AND day < ?) GROUP BY bucket ORDER BY bucket";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setString(1, startDay);
+            pstmt.setInt(2, start.getHour());
+            pstmt.setString(3, endDay);
+            pstmt.setInt(4, end.getHour());
+
+            if (size != TimeBucket.HOUR) {
+                pstmt.setString(5, endDay);
+                pstmt.setInt(6, end.getHour());
+                pstmt.setString(7, startDay);
+                pstmt.setString(8, startDay);
+                pstmt.setString(9, endDay);
+            }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+
+                    int entryCount = rs.getInt("entry_count");
+                    buckets.add(new MoodBucket(size, TimestampCodec.parse(rs.getString("bucket")), entryCount, rs.getDouble("mood_total") / entryCount,
+                                               rs.getInt("lowest"), rs.getInt("highest")));
+                }
+            }
+        }
+        return buckets;
+    }
+
+
+    /**
+     * Gets the time of the oldest mood entry.
+     * Useful for showing a user's whole history, such as an "all time" chart range.
+     *
+     * @return LocalDateTime Returns the time of the oldest entry, or null if there are no entries.
+     * @throws SQLException  If an error occurs.
+     */
+    public LocalDateTime getFirstMoodEntryTime() throws SQLException {
+
+        String query = "SELECT MIN(entry_date_and_time) FROM mood_entries";
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query); ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() && rs.getString(1) != null ? TimestampCodec.parse(rs.getString(1)) : null;
+        }
+    }
+
+
     /**
      * Inserts a users mood entry with the given moodID, optional tag, and timestamp.
      * Useful for inserting a new mood entry into the database.
@@ -181,16 +355,57 @@ public class MoodDAO {
      */
     public boolean insertMoodEntry(MoodEntry entry) throws SQLException {
 
-        String query = "INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (?, ?, ?)";
+        try (Connection conn = DatabaseConnection.connect()) {
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            int id = insertMoodEntry(conn, entry);
+            ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(id, entry));
+            return id > 0;
+        }
+    }
+
+
+    /**
+     * Queues a mood entry insert on the write-behind queue instead of committing it right away.
+     * Useful for logging moods from the UI, inserts that arrive close together are committed in one transaction.
+     *
+     * @param  entry                      The MoodEntry to add to the database.
+     * @return CompletableFuture<Boolean> Returns a future completed with true once the insert is committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> enqueueInsertMoodEntry(MoodEntry entry) {
+
+        // The entry (with its new ID) is only published once the insert is committed
+        int[] id = new int[1];
+
+        return WriteBehindQueue.submit(conn -> (id[0] = insertMoodEntry(conn, entry)) > 0).whenComplete((inserted, error) -> {
+            if (error == null) { ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(id[0], entry)); }
+        });
+    }
+
+
+    /**
+     * Inserts many mood entries in a single transaction using JDBC batches.
+     * Useful for importing or backfilling a large mood history.
+     *
+     * @param  entries       The MoodEntry objects to add to the database.
+     * @return List<Integer> Returns the generated entry IDs, in the same order as the entries given.
+     * @throws SQLException  If an error occurs (no entries are inserted if any fail).
+     */
+    public List<Integer> insertMoodEntries(List<MoodEntry> entries) throws SQLException {
+
+        String query = "INSERT INTO mood_entries (mood_id, tag, entry_date_and_time, entry_epoch) VALUES (?, ?, ?, ?)";
+
+        List<Integer> ids = BatchInsert.insertAll(query, entries, (pstmt, entry) -> {
 
             pstmt.setInt(1, entry.getMoodID());
             pstmt.setString(2, entry.getTag());
-            pstmt.setString(3, entry.getDateAndTime().format(DB_DATE_FORMAT));
-            return pstmt.executeUpdate() > 0; // Returns true if at least 1 row in table affected
+            pstmt.setString(3, TimestampCodec.format(entry.getDateAndTime()));
+            pstmt.setLong(4, TimeColumns.toEpoch(entry.getDateAndTime()));
+        });
 
+        for (int i = 0; i < ids.size(); i++) {
+            ChangeEvents.publish(ChangeEvent.Type.INSERTED, withID(ids.get(i), entries.get(i)));
         }
+        return ids;
     }
 
     /**
@@ -203,16 +418,29 @@ public class MoodDAO {
      */
     public boolean updateMoodEntry(MoodEntry entry) throws SQLException {
 
-        String query = "UPDATE mood_entries SET mood_id = ?, tag = ? WHERE entry_id = ?";
+        try (Connection conn = DatabaseConnection.connect()) {
 
-        try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+            MoodEntry updated = updateMoodEntry(conn, entry);
+            if (updated != null) { ChangeEvents.publish(ChangeEvent.Type.UPDATED, updated); }
+            return updated != null;
+        }
+    }
 
-            pstmt.setInt(1, entry.getMoodID());
-            pstmt.setString(2, entry.getTag());
-            pstmt.setInt(3, entry.getEntryID());
-            return pstmt.executeUpdate() > 0; // Returns true if at least one row updated
 
-        }
+    /**
+     * Queues a mood entry update on the write-behind queue instead of committing it right away.
+     *
+     * @param  entry                      The MoodEntry holding the ID of the entry and its new values.
+     * @return CompletableFuture<Boolean> Returns a future completed with whether a row was updated once committed, or exceptionally with the SQLException.
+     */
+    public CompletableFuture<Boolean> enqueueUpdateMoodEntry(MoodEntry entry) {
+
+        // The row as stored (its time is never edited), published once the update is committed
+        MoodEntry[] stored = new MoodEntry[1];
+
+        return WriteBehindQueue.submit(conn -> (stored[0] = updateMoodEntry(conn, entry)) != null).whenComplete((updated, error) -> {
+            if (Boolean.TRUE.equals(updated)) { ChangeEvents.publish(ChangeEvent.Type.UPDATED, stored[0]); }
+        });
     }
 
 
@@ -226,12 +454,87 @@ public class MoodDAO {
      */
     public boolean deleteMoodEntry(int entryID) throws SQLException {
 
-        String query = "DELETE FROM mood_entries WHERE entry_id = ?";
+        String query = "DELETE FROM mood_entries WHERE entry_id = ? RETURNING *";
+
+        MoodEntry deleted;
 
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(query)) {
 
             pstmt.setInt(1, entryID);
-            return pstmt.executeUpdate() > 0; // Returns true if at least one row deleted
+
+            // The deleted row comes back so it can be published
+            try (ResultSet rs = pstmt.executeQuery()) {
+                deleted = rs.next() ? mapMoodEntry(rs) : null;
+            }
         }
+
+        // Only published once the statement is closed, as that is when SQLite commits it. Returns true if at least one row deleted
+        if (deleted == null) { return false; }
+        ChangeEvents.publish(ChangeEvent.Type.DELETED, deleted);
+        return true;
+    }
+
+
+    /**
+     * Inserts a mood entry using the given connection (either a connection of its own or the write-behind transaction).
+     *
+     * @return int Returns the generated entry ID.
+     */
+    private static int insertMoodEntry(Connection conn, MoodEntry entry) throws SQLException {
+
+        String query = "INSERT INTO mood_entries (mood_id, tag, entry_date_and_time, entry_epoch) VALUES (?, ?, ?, ?)";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+
+            pstmt.setInt(1, entry.getMoodID());
+            pstmt.setString(2, entry.getTag());
+            pstmt.setString(3, TimestampCodec.format(entry.getDateAndTime()));
+            pstmt.setLong(4, TimeColumns.toEpoch(entry.getDateAndTime()));
+
+            pstmt.executeUpdate();
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    return rs.getInt(1);
+                } else {
+                    throw new SQLException("Inserting mood entry failed, no ID was obtained.");
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Updates a mood entry's mood and tag using the given connection.
+     *
+     * @return MoodEntry Returns the updated entry as stored, or null if no entry has that ID.
+     */
+    private static MoodEntry updateMoodEntry(Connection conn, MoodEntry entry) throws SQLException {
+
+        String query = "UPDATE mood_entries SET mood_id = ?, tag = ? WHERE entry_id = ? RETURNING *";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, entry.getMoodID());
+            pstmt.setString(2, entry.getTag());
+            pstmt.setInt(3, entry.getEntryID());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapMoodEntry(rs) : null;
+            }
+        }
+    }
+
+
+    /**
+     * Copies an entry given to an insert as it was stored (with its new ID, to the second).
+     */
+    private static MoodEntry withID(int id, MoodEntry entry) { return new MoodEntry(id, entry.getMoodID(), entry.getTag(), entry.getDateAndTime().truncatedTo(ChronoUnit.SECONDS)); }
+
+
+    /**
+     * Converts the current row of a mood_entries query into a MoodEntry.
+     */
+    private static MoodEntry mapMoodEntry(ResultSet rs) throws SQLException {
+        return new MoodEntry(rs.getInt("entry_id"), rs.getInt("mood_id"), rs.getString("tag"), TimeColumns.read(rs, "entry_epoch", "entry_date_and_time"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,122 @@
+package dao;
+
+import java.sql.*;
+import java.util.*;
+
+import models.Exercise;
+import models.Mood;
+
+/**
+ * Immutable in-memory copy of the predefined moods and exercises, which never change once the database is set up.
+ * Both tables are read once (by Main before the views are built, off the JavaFX thread) and
+ * are then held in arrays indexed by ID and a map of moods keyed by name, so lookups never go back to the database.
+ * Main hands the loaded catalog to the views, which look moods and exercises up here instead of keeping copies of their own.
+ * @author Isabella Castillo
+ */
+public final class ReferenceCatalog {
+
+    private static ReferenceCatalog instance;
+
+    private final List<Mood> moods;
+    private final List<Exercise> exercises;
+    private final Mood[] moodsByID;
+    private final Exercise[] exercisesByID;
+    private final Map<String, Mood> moodsByName = new HashMap<>();
+
+
+    /**
+     * Builds the lookup structures from the loaded rows.
+     */
+    private ReferenceCatalog(List<Mood> moods, List<Exercise> exercises) {
+
+        this.moods = List.copyOf(moods);
+        this.exercises = List.copyOf(exercises);
+
+        // Sizing each array by the largest ID so an ID is its own index (IDs are small and start at 1)
+        moodsByID = new Mood[moods.stream().mapToInt(Mood::getMoodID).max().orElse(0) + 1];
+        for (Mood mood : moods) {
+            moodsByID[mood.getMoodID()] = mood;
+            moodsByName.put(mood.getMoodName(), mood);
+        }
+
+        exercisesByID = new Exercise[exercises.stream().mapToInt(Exercise::getExerciseID).max().orElse(0) + 1];
+        for (Exercise exercise : exercises) {
+            exercisesByID[exercise.getExerciseID()] = exercise;
+        }
+    }
+
+
+    /**
+     * Gets the catalog, loading the moods and exercises from the database the first time it is called.
+     *
+     * @return ReferenceCatalog Returns the shared catalog.
+     * @throws SQLException     If an error occurs while loading.
+     */
+    public static synchronized ReferenceCatalog get() throws SQLException {
+
+        if (instance == null) {
+            instance = new ReferenceCatalog(new MoodDAO().getMoodList(), new ExerciseDAO().getExerciseList());
+        }
+        return instance;
+    }
+
+
+    /**
+     * Gets a catalog with no moods or exercises, for when the real one couldn't be loaded.
+     * Every lookup on it finds nothing, so the views can still be built and show empty choices.
+     *
+     * @return ReferenceCatalog Returns an empty catalog.
+     */
+    public static ReferenceCatalog empty() { return new ReferenceCatalog(List.of(), List.of()); }
+
+
+    /**
+     * Gets all moods in ID order.
+     *
+     * @return List<Mood> Returns an unmodifiable list of the moods.
+     */
+    public List<Mood> getMoods() { return moods; }
+
+
+    /**
+     * Finds the name of a mood by its ID, as shown in tables, chart labels and tooltips.
+     *
+     * @param  id     The unique ID of the mood.
+     * @return String Returns the mood name, or null if there isn't one with that ID.
+     */
+    public String getMoodName(int id) {
+
+        Mood mood = id >= 0 && id < moodsByID.length ? moodsByID[id] : null;
+        return mood == null ? null : mood.getMoodName();
+    }
+
+
+    /**
+     * Finds the ID of a mood by its name, as picked in the mood dropdowns.
+     *
+     * @param  name The mood name (case sensitive).
+     * @return int  Returns the mood ID, or -1 if there isn't one with that name.
+     */
+    public int getMoodID(String name) {
+
+        Mood mood = name == null ? null : moodsByName.get(name);
+        return mood == null ? -1 : mood.getMoodID();
+    }
+
+
+    /**
+     * Gets all exercises in ID order.
+     *
+     * @return List<Exercise> Returns an unmodifiable list of the exercises.
+     */
+    public List<Exercise> getExercises() { return exercises; }
+
+
+    /**
+     * Finds an exercise by its ID.
+     *
+     * @param  id       The unique ID of the exercise.
+     * @return Exercise Returns the exercise, or null if there isn't one with that ID.
+     */
+    public Exercise getExercise(int id) { return id >= 0 && id < exercisesByID.length ? exercisesByID[id] : null; }
+}
@@ -0,0 +1,137 @@
+package dao;
+
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.*;
+
+import models.DatabaseConnection;
+
+/**
+ * Helper for the DAOs to hand rows to callers one at a time instead of collecting a whole table into a List.
+ * Rows are read straight off an open ResultSet, so memory use stays the same no matter how many entries a user has.
+ * @author Isabella Castillo
+ */
+final class RowStream {
+
+    // Rows the driver is asked to fetch per round trip, small enough to keep memory flat and large enough to not slow scans down
+    static final int DEFAULT_FETCH_SIZE = 256;
+
+    /**
+     * Converts the current row of a result set into an object.
+     */
+    @FunctionalInterface
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Sets any parameters on a prepared query before it runs.
+     */
+    @FunctionalInterface
+    interface Parameters {
+        void bind(PreparedStatement pstmt) throws SQLException;
+    }
+
+    // To prevent accidental object instantiation
+    private RowStream() {}
+
+
+    /**
+     * Runs a read-only query and passes each row to the action as it is read.
+     * The reader connection is returned to the pool once the last row has been handled (or the action throws).
+     *
+     * @param  query        The SELECT query to run.
+     * @param  parameters   Sets the query parameters, can be null when there are none.
+     * @param  mapper       Converts each row into an object.
+     * @param  action       Called once per row, in query order.
+     * @throws SQLException If an error occurs.
+     */
+    static <T> void forEach(String query, Parameters parameters, RowMapper<T> mapper, Consumer<? super T> action) throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setFetchSize(DEFAULT_FETCH_SIZE);
+            if (parameters != null) { parameters.bind(pstmt); }
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+
+                while (rs.next()) {
+                    action.accept(mapper.map(rs));
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Runs a read-only query and returns a lazy stream over its rows.
+     * The stream holds a pooled reader connection until it is closed, so callers must close it (try-with-resources).
+     * SQL errors hit while reading rows are rethrown as IllegalStateException with the SQLException as the cause.
+     *
+     * @param  query        The SELECT query to run.
+     * @param  parameters   Sets the query parameters, can be null when there are none.
+     * @param  fetchSize    Rows to fetch per round trip (0 for the driver default).
+     * @param  mapper       Converts each row into an object.
+     * @return Stream<T>    Returns an ordered stream of the mapped rows that must be closed after use.
+     * @throws SQLException If an error occurs while running the query.
+     */
+    static <T> Stream<T> stream(String query, Parameters parameters, int fetchSize, RowMapper<T> mapper) throws SQLException {
+
+        Connection conn = DatabaseConnection.connectReadOnly();
+        PreparedStatement pstmt = null;
+        ResultSet rs;
+
+        try {
+
+            pstmt = conn.prepareStatement(query);
+            pstmt.setFetchSize(fetchSize);
+            if (parameters != null) { parameters.bind(pstmt); }
+            rs = pstmt.executeQuery();
+
+        } catch (SQLException | RuntimeException e) {
+
+            // Nothing has been handed out yet so everything opened here is closed before rethrowing
+            closeQuietly(pstmt, conn);
+            throw e;
+        }
+
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+
+                try {
+
+                    if (!rs.next()) { return false; }
+                    action.accept(mapper.map(rs));
+                    return true;
+
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error reading row: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        PreparedStatement statement = pstmt;
+        return StreamSupport.stream(rows, false).onClose(() -> closeQuietly(rs, statement, conn));
+    }
+
+
+    /**
+     * Closes each resource in order, ignoring errors so the rest still get closed.
+     */
+    private static void closeQuietly(AutoCloseable... resources) {
+
+        for (AutoCloseable resource : resources) {
+
+            if (resource == null) { continue; }
+
+            try {
+                resource.close();
+            } catch (Exception e) {
+                System.err.println("Failed to close " + resource.getClass().getSimpleName() + ": " + e.getMessage());
+            }
+        }
+    }
+}
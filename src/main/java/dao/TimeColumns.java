@@ -0,0 +1,128 @@
+package dao;
+
+import java.sql.*;
+import java.time.*;
+
+import models.TimeBucket;
+import models.TimestampBackfill;
+import models.TimestampCodec;
+
+/**
+ * Helper for the DAOs to read and write the integer epoch time columns.
+ * Epoch values are the wall clock time in seconds since 1970 read as UTC, matching SQLite's strftime('%s', ...) of the TEXT columns.
+ * @author Isabella Castillo
+ */
+final class TimeColumns {
+
+    // To prevent accidental object instantiation
+    private TimeColumns() {}
+
+
+    /**
+     * Converts a date and time into the epoch seconds stored in the database.
+     *
+     * @param  dateTime The date and time to convert.
+     * @return long     Returns the epoch seconds.
+     */
+    static long toEpoch(LocalDateTime dateTime) { return dateTime.toEpochSecond(ZoneOffset.UTC); }
+
+
+    /**
+     * Converts stored epoch seconds back into a date and time.
+     *
+     * @param  epoch         The epoch seconds from the database.
+     * @return LocalDateTime Returns the date and time.
+     */
+    static LocalDateTime fromEpoch(long epoch) { return LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC); }
+
+
+    /**
+     * Checks if queries should filter and sort on the epoch columns.
+     * This stays false while older rows are still being converted, so no row is missed by a range query.
+     *
+     * @return boolean Returns T/F based on if every row has its epoch columns filled in.
+     */
+    static boolean useEpoch() { return TimestampBackfill.isComplete(); }
+
+
+    /**
+     * The time column a query filters and sorts on, with the type its parameters are bound as.
+     * Picked once per query: the backfill can finish between building the SQL and binding its parameters, and INTEGER epochs bound
+     * against the TEXT column (or text against the epoch column) compare as unequal types, so a range would silently match every row.
+     *
+     * @param name  The column name to use in the query.
+     * @param epoch True for the integer epoch column, false for the TEXT column.
+     */
+    record Column(String name, boolean epoch) {
+
+        /**
+         * Binds a date and time parameter in the form matching this column.
+         *
+         * @param  pstmt        The statement being prepared.
+         * @param  index        The parameter index.
+         * @param  dateTime     The date and time to bind.
+         * @throws SQLException If an error occurs.
+         */
+        void bind(PreparedStatement pstmt, int index, LocalDateTime dateTime) throws SQLException {
+
+            if (epoch) {
+                pstmt.setLong(index, toEpoch(dateTime));
+            } else {
+                pstmt.setString(index, TimestampCodec.format(dateTime));
+            }
+        }
+    }
+
+
+    /**
+     * Picks which column a query should filter and sort on.
+     * Any parameters compared with it must be bound through the returned column, not by checking useEpoch() again.
+     *
+     * @param  epochColumn The integer epoch column.
+     * @param  textColumn  The TEXT column holding the same time.
+     * @return Column      Returns the column to use.
+     */
+    static Column column(String epochColumn, String textColumn) {
+
+        boolean epoch = useEpoch();
+        return new Column(epoch ? epochColumn : textColumn, epoch);
+    }
+
+
+    /**
+     * Reads a date and time from a row, using the epoch column when it has been filled in and the TEXT column otherwise.
+     *
+     * @param  rs            The result set positioned on the row.
+     * @param  epochColumn   The integer epoch column.
+     * @param  textColumn    The TEXT column holding the same time.
+     * @return LocalDateTime Returns the date and time.
+     * @throws SQLException  If an error occurs.
+     */
+    static LocalDateTime read(ResultSet rs, String epochColumn, String textColumn) throws SQLException {
+
+        long epoch = rs.getLong(epochColumn);
+        if (!rs.wasNull()) { return fromEpoch(epoch); }
+
+        return TimestampCodec.parse(rs.getString(textColumn));
+    }
+
+
+    /**
+     * Builds the SQL expression for the start of the bucket a row falls in, as 'yyyy-MM-dd HH:mm:ss' text ready for TimestampCodec.parse.
+     * Weeks start on Monday and months on the 1st.
+     *
+     * @param  size   The bucket size.
+     * @param  day    SQL expression for the row's day as 'yyyy-MM-dd'.
+     * @param  hour   SQL expression for the row's day and hour as 'yyyy-MM-dd HH'.
+     * @return String Returns the SQL expression.
+     */
+    static String bucketStart(TimeBucket size, String day, String hour) {
+
+        return switch (size) {
+            case HOUR -> hour + " || ':00:00'";
+            case DAY -> day + " || ' 00:00:00'";
+            case WEEK -> "date(" + day + ", '-6 days', 'weekday 1') || ' 00:00:00'";
+            case MONTH -> "substr(" + day + ", 1, 7) || '-01 00:00:00'";
+        };
+    }
+}
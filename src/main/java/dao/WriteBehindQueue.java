@@ -0,0 +1,220 @@
+package dao;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import models.DatabaseConnection;
+import models.Settings;
+
+/**
+ * Write-behind stage for the DAOs' single row inserts and updates, so logging a mood doesn't pay a whole transaction (and fsync) per row.
+ * Writes are queued and acknowledged straight away with a future, and a background writer commits everything pending in
+ * one transaction. It waits at most the latency window after the first queued write (the 'mindscape.writebehind.window.ms'
+ * system property or MINDSCAPE_WRITEBEHIND_WINDOW_MS, default 10) and commits early once the batch size is reached
+ * ('mindscape.writebehind.batch' or MINDSCAPE_WRITEBEHIND_BATCH, default 256).
+ * A future only completes once the transaction holding its write has committed, and shutdown() commits whatever is left.
+ * @author Isabella Castillo
+ */
+public final class WriteBehindQueue {
+
+    private static final long DEFAULT_WINDOW_MS = 10;
+    private static final int DEFAULT_BATCH_SIZE = 256;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    /**
+     * A write to run inside the writer's transaction.
+     */
+    @FunctionalInterface
+    interface Write {
+        boolean apply(Connection conn) throws SQLException;
+    }
+
+    /**
+     * A queued write and the future its result is handed back through.
+     */
+    private record Pending(Write write, CompletableFuture<Boolean> result) {}
+
+    // Queued by shutdown() to tell the writer to commit what it has and stop
+    private static final Pending STOP = new Pending(conn -> true, new CompletableFuture<>());
+
+    private static final long windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, Settings.getLong("mindscape.writebehind.window.ms", "MINDSCAPE_WRITEBEHIND_WINDOW_MS", DEFAULT_WINDOW_MS)));
+    private static final int batchSize = Math.max(1, Settings.getInt("mindscape.writebehind.batch", "MINDSCAPE_WRITEBEHIND_BATCH", DEFAULT_BATCH_SIZE));
+
+    private static BlockingQueue<Pending> queue;
+    private static Thread writer;
+    private static boolean hookAdded = false;
+
+    // To prevent accidental object instantiation
+    private WriteBehindQueue() {}
+
+
+    /**
+     * Queues a write for the next group commit, starting the writer on first use.
+     *
+     * @param  write                      The write to run.
+     * @return CompletableFuture<Boolean> Returns a future completed with the write's result once it is committed,
+     *                                    or exceptionally with the SQLException if it (or its transaction) failed.
+     */
+    static synchronized CompletableFuture<Boolean> submit(Write write) {
+
+        if (writer == null) { start(); }
+
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        queue.add(new Pending(write, result));
+        return result;
+    }
+
+
+    /**
+     * Gets a future that completes once every write queued before this call has been committed.
+     * Useful before reading back rows that were just queued, without waiting on their individual futures.
+     *
+     * @return CompletableFuture<Void> Returns a future completed when the queue has caught up.
+     */
+    public static CompletableFuture<Void> flush() {
+
+        // Writes are committed in queue order, so a no-op queued now finishes after everything ahead of it
+        return submit(conn -> true).thenApply(done -> null);
+    }
+
+
+    /**
+     * Commits everything still queued and stops the writer (used when the application shuts down).
+     * Waits for the final commit so nothing acknowledged is lost. A later write starts a fresh writer.
+     */
+    public static void shutdown() {
+
+        Thread stopping;
+
+        synchronized (WriteBehindQueue.class) {
+
+            if (writer == null) { return; }
+            queue.add(STOP);
+            stopping = writer;
+            writer = null;
+            queue = null;
+        }
+
+        try {
+            stopping.join(SHUTDOWN_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * Starts the writer thread on a fresh queue, and registers a JVM shutdown hook (once) so queued writes are
+     * still committed if the application exits without calling shutdown().
+     */
+    private static void start() {
+
+        BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+        queue = pending;
+        writer = Thread.ofPlatform().name("write-behind").daemon(true).start(() -> run(pending));
+
+        if (!hookAdded) {
+            Runtime.getRuntime().addShutdownHook(new Thread(WriteBehindQueue::shutdown, "write-behind-shutdown"));
+            hookAdded = true;
+        }
+    }
+
+
+    /**
+     * Writer loop: waits for a write, gathers whatever else arrives within the window (up to the batch size) and commits it all together.
+     */
+    private static void run(BlockingQueue<Pending> pending) {
+
+        List<Pending> batch = new ArrayList<>();
+        boolean stopping = false;
+
+        while (!stopping) {
+
+            try {
+
+                Pending next = pending.take();
+                long deadline = System.nanoTime() + windowNanos;
+
+                while (next != STOP) {
+
+                    batch.add(next);
+                    if (batch.size() >= batchSize) { break; }
+
+                    // Once the window has passed only writes that are already waiting are taken
+                    long remaining = deadline - System.nanoTime();
+                    next = remaining > 0 ? pending.poll(remaining, TimeUnit.NANOSECONDS) : pending.poll();
+                    if (next == null) { break; }
+                }
+                stopping = next == STOP;
+
+            } catch (InterruptedException e) {
+
+                // Not expected (shutdown uses STOP), but if it happens commit what is waiting rather than drop it
+                pending.drainTo(batch);
+                batch.remove(STOP);
+                stopping = true;
+            }
+
+            commit(batch);
+            batch.clear();
+        }
+    }
+
+
+    /**
+     * Runs a batch of writes in one transaction and completes their futures once it commits.
+     * Each write gets its own savepoint, so one that fails is undone and reported on its own without failing the rest.
+     */
+    private static void commit(List<Pending> batch) {
+
+        if (batch.isEmpty()) { return; }
+
+        Object[] outcomes = new Object[batch.size()];
+
+        try (Connection conn = DatabaseConnection.connect()) {
+
+            conn.setAutoCommit(false);
+
+            try {
+
+                for (int i = 0; i < batch.size(); i++) {
+
+                    Savepoint savepoint = conn.setSavepoint();
+
+                    try {
+                        outcomes[i] = batch.get(i).write().apply(conn);
+                        conn.releaseSavepoint(savepoint);
+                    } catch (SQLException | RuntimeException e) {
+                        conn.rollback(savepoint);
+                        outcomes[i] = e;
+                    }
+                }
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+        } catch (SQLException | RuntimeException e) {
+
+            // Nothing in the batch was committed
+            for (Pending pending : batch) {
+                pending.result().completeExceptionally(e);
+            }
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+
+            if (outcomes[i] instanceof Exception e) {
+                batch.get(i).result().completeExceptionally(e);
+            } else {
+                batch.get(i).result().complete((Boolean) outcomes[i]);
+            }
+        }
+    }
+}
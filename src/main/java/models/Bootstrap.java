@@ -0,0 +1,88 @@
+package models;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Confidence intervals for a mean found by bootstrapping: the sample is redrawn with replacement many times and the middle share
+ * of the redrawn means is the interval. Makes no assumption about how moods are spread, which matters for a handful of sessions.
+ * The sample is given as distinct values and how often each occurs, so it takes the same memory however many values there are.
+ * @author Isabella Castillo
+ */
+public final class Bootstrap {
+
+    // To prevent accidental object instantiation
+    private Bootstrap() {}
+
+
+    /**
+     * Finds a percentile bootstrap confidence interval for the mean of a sample.
+     * Resamples are drawn in parallel, each from its own random generator split in turn off one seeded from the seed,
+     * so the same sample and seed always give the same interval and nearby seeds (ie neighbouring exercise IDs) don't share draws.
+     *
+     * @param  values     The distinct values in the sample.
+     * @param  counts     How many times each value occurs (same length as values).
+     * @param  resamples  The number of times the sample is redrawn.
+     * @param  confidence The share of redrawn means the interval covers (ie 0.95).
+     * @param  seed       Seed for the random draws.
+     * @return double[]   Returns the low and high ends of the interval, both the mean if the sample has fewer than 2 values (or no resamples are asked for).
+     */
+    public static double[] meanInterval(int[] values, int[] counts, int resamples, double confidence, long seed) {
+
+        // Running totals of the counts, a draw picks the first value whose total is past a random position in the sample
+        int[] cumulative = new int[counts.length];
+        int size = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            size += counts[i];
+            sum += (double) values[i] * counts[i];
+            cumulative[i] = size;
+        }
+
+        if (size < 2 || resamples < 1) {
+            double mean = size == 0 ? 0 : sum / size;
+            return new double[] { mean, mean };
+        }
+
+        // Splitting the generators up front in resample order, so which resample gets which doesn't depend on the parallel scheduling
+        SplittableRandom seeded = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[resamples];
+        for (int resample = 0; resample < resamples; resample++) {
+            randoms[resample] = seeded.split();
+        }
+
+        int sampleSize = size;
+        double[] means = IntStream.range(0, resamples).parallel().mapToDouble(resample -> {
+
+            SplittableRandom random = randoms[resample];
+            long total = 0;
+            for (int draw = 0; draw < sampleSize; draw++) {
+                total += values[firstAtLeast(cumulative, random.nextInt(sampleSize) + 1)];
+            }
+            return (double) total / sampleSize;
+
+        }).sorted().toArray();
+
+        // Cutting the same share off each end
+        double tail = (1 - confidence) / 2;
+        int low = (int) Math.floor(tail * (resamples - 1));
+        int high = (int) Math.ceil((1 - tail) * (resamples - 1));
+        return new double[] { means[low], means[high] };
+    }
+
+
+    /**
+     * Binary searches running totals for the first index whose total is at least the target (values with a count of 0 are never picked).
+     */
+    private static int firstAtLeast(int[] cumulative, int target) {
+
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulative[middle] < target) { low = middle + 1; }
+            else { high = middle; }
+        }
+        return low;
+    }
+}
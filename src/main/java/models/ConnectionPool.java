@@ -0,0 +1,335 @@
+package models;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of long-lived SQLite connections with a single writer and several readers.
+ * Connections are leased out as wrappers whose close() hands the connection back to the pool instead of closing the file.
+ * @author Isabella Castillo
+ */
+public class ConnectionPool {
+
+    private static final long VALIDATION_INTERVAL_MS = 30_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final StorageProfile profile;
+    private final int readerCount;
+    private final long acquireTimeoutMs;
+
+    private final ReentrantLock writerLock = new ReentrantLock(true);
+    private PooledConnection writer;
+    private final BlockingQueue<PooledConnection> idleReaders;
+    private final Semaphore readerPermits;
+    private volatile boolean closed = false;
+
+
+    /**
+     * ConnectionPool object.
+     *
+     * @param url              The JDBC url of the SQLite database.
+     * @param profile          The storage settings applied to every connection the pool opens.
+     * @param readerCount      The maximum amount of reader connections kept open at once.
+     * @param acquireTimeoutMs How long a caller will wait for a free connection before giving up.
+     */
+    public ConnectionPool(String url, StorageProfile profile, int readerCount, long acquireTimeoutMs) {
+
+        if (readerCount < 1) { throw new IllegalArgumentException("Reader count must be at least 1."); }
+
+        this.url = url;
+        this.profile = profile;
+        this.readerCount = readerCount;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleReaders = new ArrayBlockingQueue<>(readerCount);
+        this.readerPermits = new Semaphore(readerCount, true);
+    }
+
+
+    /**
+     * Leases the single writer connection.
+     * The writer is re-entrant for the thread holding it, so a DAO call made while a transaction is open reuses the same connection.
+     *
+     * @return Connection   Returns a leased connection that is given back to the pool when closed.
+     * @throws SQLException If the pool is closed, the wait times out, or the connection cannot be opened.
+     */
+    public Connection acquireWriter() throws SQLException {
+
+        ensureOpen();
+
+        try {
+            if (!writerLock.tryLock(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for the database writer connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the database writer connection.", e);
+        }
+
+        try {
+
+            // Only the outermost lease needs to check health, nested leases share the open connection
+            if (writerLock.getHoldCount() == 1) {
+                writer = checkHealth(writer, false);
+            }
+            return lease(writer, this::releaseWriter);
+
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Leases one of the reader connections, opening a new one if none are idle and the pool has room.
+     *
+     * @return Connection   Returns a leased read-only connection that is given back to the pool when closed.
+     * @throws SQLException If the pool is closed, the wait times out, or the connection cannot be opened.
+     */
+    public Connection acquireReader() throws SQLException {
+
+        ensureOpen();
+
+        try {
+            if (!readerPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out waiting for a database reader connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database reader connection.", e);
+        }
+
+        try {
+
+            PooledConnection reader = checkHealth(idleReaders.poll(), true);
+            return lease(reader, this::releaseReader);
+
+        } catch (SQLException | RuntimeException e) {
+            readerPermits.release();
+            throw e;
+        }
+    }
+
+
+    /**
+     * Closes every pooled connection. Leases still held are closed when they are handed back.
+     */
+    public void close() {
+
+        closed = true;
+
+        PooledConnection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.closeQuietly();
+        }
+
+        if (writerLock.tryLock()) {
+            try {
+                if (writer != null) { writer.closeQuietly(); writer = null; }
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+
+
+    /**
+     * Set of getters for the pool configuration.
+     */
+    public String getUrl() { return url; }
+    public StorageProfile getProfile() { return profile; }
+    public int getReaderCount() { return readerCount; }
+    public int getIdleReaderCount() { return idleReaders.size(); }
+
+
+    /**
+     * Opens a physical connection to the database and applies the storage profile to it.
+     *
+     * @param  readOnly     T/F on if the connection will only be used for queries.
+     * @return Connection   Returns the physical connection.
+     * @throws SQLException If an error occurs.
+     */
+    private Connection open(boolean readOnly) throws SQLException {
+
+        Connection conn = DriverManager.getConnection(url);
+
+        try {
+
+            profile.apply(conn, !readOnly);
+
+            if (readOnly) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA query_only = ON");
+                }
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return conn;
+    }
+
+
+    /**
+     * Makes sure a pooled connection is still usable, replacing it if it was closed or fails validation.
+     * Validation only runs when the connection has been idle longer than the validation interval.
+     */
+    private PooledConnection checkHealth(PooledConnection pooled, boolean readOnly) throws SQLException {
+
+        if (pooled != null) {
+
+            boolean stale = System.currentTimeMillis() - pooled.lastUsed > VALIDATION_INTERVAL_MS;
+
+            if (!pooled.connection.isClosed() && (!stale || pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS))) {
+                return pooled;
+            }
+            pooled.closeQuietly();
+        }
+        return new PooledConnection(open(readOnly));
+    }
+
+
+    /**
+     * Hands the writer back, resetting any transaction state left behind by the caller.
+     */
+    private void releaseWriter(PooledConnection pooled) {
+
+        try {
+            if (writerLock.getHoldCount() == 1) {
+
+                if (!reset(pooled) || closed) {
+                    pooled.closeQuietly();
+                    writer = null;
+                }
+            }
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+
+    /**
+     * Hands a reader back to the idle queue, or closes it if it can no longer be used.
+     */
+    private void releaseReader(PooledConnection pooled) {
+
+        try {
+            if (!reset(pooled) || closed || !idleReaders.offer(pooled)) {
+                pooled.closeQuietly();
+            }
+        } finally {
+            readerPermits.release();
+        }
+    }
+
+
+    /**
+     * Rolls back anything left uncommitted and turns auto-commit back on.
+     *
+     * @return boolean Returns true if the connection is clean and can be reused.
+     */
+    private boolean reset(PooledConnection pooled) {
+
+        try {
+
+            if (pooled.connection.isClosed()) { return false; }
+
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            return true;
+
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+
+    private void ensureOpen() throws SQLException {
+
+        if (closed) { throw new SQLException("Connection pool has been closed."); }
+    }
+
+
+    /**
+     * Wraps a pooled connection in a proxy whose close() returns it to the pool.
+     * Every other call is forwarded to the physical connection.
+     */
+    private Connection lease(PooledConnection pooled, Releaser releaser) {
+
+        InvocationHandler handler = new InvocationHandler() {
+
+            private boolean released = false;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                switch (method.getName()) {
+
+                    case "close":
+                        if (!released) { released = true; releaser.release(pooled); }
+                        return null;
+
+                    case "isClosed":
+                        return released || pooled.connection.isClosed();
+
+                    case "unwrap":
+                        if (((Class<?>) args[0]).isInstance(pooled.connection)) { return pooled.connection; }
+                        break;
+
+                    case "isWrapperFor":
+                        if (((Class<?>) args[0]).isInstance(pooled.connection)) { return true; }
+                        break;
+
+                    case "equals":
+                        return proxy == args[0];
+
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+
+                    case "toString":
+                        return "Pooled[" + pooled.connection + "]";
+                }
+
+                if (released) { throw new SQLException("Connection has already been returned to the pool."); }
+
+                try {
+                    return method.invoke(pooled.connection, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class }, handler);
+    }
+
+
+    /**
+     * Callback used by a lease to hand its connection back.
+     */
+    private interface Releaser {
+        void release(PooledConnection pooled);
+    }
+
+
+    /**
+     * Physical connection plus the bookkeeping the pool needs for health checks.
+     */
+    private static final class PooledConnection {
+
+        private final Connection connection;
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        private PooledConnection(Connection connection) { this.connection = connection; }
+
+        private void closeQuietly() {
+            try { connection.close(); } catch (SQLException ignored) { }
+        }
+    }
+}
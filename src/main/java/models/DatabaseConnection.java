@@ -4,11 +4,21 @@ import java.sql.*;
 
 /**
  * Class to establish a method to connect to local SQLite database hosted on user's system.
+ * Connections are leased from a shared pool, so closing them hands them back rather than closing the database file.
+ * The database file and storage profile can be set with the 'mindscape.db.path' and 'mindscape.db.profile' system properties
+ * (or the MINDSCAPE_DB_PATH and MINDSCAPE_DB_PROFILE environment variables).
  * @author Isabella Castillo
  */
 public class DatabaseConnection {
 
-    private static final String DATABASE_URL = "jdbc:sqlite:src/main/java/database/mindscape.sqlite";
+    private static final String DEFAULT_DATABASE_PATH = "src/main/java/database/mindscape.sqlite";
+    private static final StorageProfile DEFAULT_PROFILE = StorageProfile.BALANCED;
+    private static final int READER_COUNT = 4;
+    private static final long ACQUIRE_TIMEOUT_MS = 30_000;
+
+    private static String databasePath = Settings.get("mindscape.db.path", "MINDSCAPE_DB_PATH", DEFAULT_DATABASE_PATH);
+    private static StorageProfile profile = profileNamed(Settings.get("mindscape.db.profile", "MINDSCAPE_DB_PROFILE", DEFAULT_PROFILE.getProfileName()));
+    private static ConnectionPool pool;
 
     // To prevent accidental object instantiation
     private DatabaseConnection() {}
@@ -17,12 +27,119 @@ public class DatabaseConnection {
      * Establishes a connection to local, user-hosted SQLite database.
      * Can be used like: Connection conn = DatabaseConnection.connect();
      * This method should not be instantiated (ie, using keyword 'new').
+     * The returned connection is the pool's single writer, so it is safe for both queries and updates.
      *
      * @return Connection   Returns a connection to the local database.
      * @throws SQLException If an error occurs.
      */
     public static Connection connect() throws SQLException {
 
-        return DriverManager.getConnection(DATABASE_URL);
+        return getPool().acquireWriter();
+    }
+
+
+    /**
+     * Establishes a read-only connection to the local database from the pool's readers.
+     * Can be used like: Connection conn = DatabaseConnection.connectReadOnly();
+     * Queries made through these connections don't wait behind the writer connection.
+     *
+     * @return Connection   Returns a read-only connection to the local database.
+     * @throws SQLException If an error occurs.
+     */
+    public static Connection connectReadOnly() throws SQLException {
+
+        return getPool().acquireReader();
+    }
+
+
+    /**
+     * Points the application at a different database file and/or storage profile.
+     * Open pooled connections are closed, and new ones are opened with the new settings on next use.
+     *
+     * @param path    The path to the SQLite database file.
+     * @param profile The storage profile to apply to new connections.
+     */
+    public static synchronized void configure(String path, StorageProfile profile) {
+
+        close();
+        DatabaseConnection.databasePath = path;
+        DatabaseConnection.profile = profile;
+    }
+
+
+    /**
+     * Closes every pooled connection (used when the application shuts down).
+     * A later call to connect() opens a fresh pool.
+     */
+    public static synchronized void close() {
+
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+
+    /**
+     * Set of getters for the current database settings.
+     */
+    public static synchronized String getDatabasePath() { return databasePath; }
+    public static synchronized StorageProfile getProfile() { return profile; }
+
+
+    /**
+     * Gets the shared pool, creating it and migrating the schema on first use.
+     * Any rows still missing epoch times or plain journal text are converted afterwards in the background.
+     *
+     * @return ConnectionPool Returns the shared connection pool.
+     * @throws SQLException   If the schema could not be migrated.
+     */
+    private static synchronized ConnectionPool getPool() throws SQLException {
+
+        if (pool == null) {
+
+            ConnectionPool newPool = new ConnectionPool("jdbc:sqlite:" + databasePath, profile, READER_COUNT, ACQUIRE_TIMEOUT_MS);
+
+            try (Connection conn = newPool.acquireWriter()) {
+                SchemaMigrator.migrate(conn);
+            } catch (SQLException e) {
+                newPool.close();
+                throw e;
+            }
+            pool = newPool;
+
+            // If the check fails the DAOs simply stay on the TEXT time columns
+            try {
+                TimestampBackfill.start();
+            } catch (SQLException e) {
+                System.err.println("Could not start timestamp backfill: " + e.getMessage());
+            }
+
+            // If this fails, entries without plain text are only found by title until the next start
+            try {
+                JournalTextBackfill.start();
+            } catch (SQLException e) {
+                System.err.println("Could not start journal text backfill: " + e.getMessage());
+            }
+        }
+        return pool;
+    }
+
+
+    /**
+     * Looks up the configured storage profile, falling back to the default (with a warning) when the name is unknown,
+     * so a mistyped setting can't stop the class from loading and take every DAO down with it.
+     *
+     * @param  name           The profile name from the settings.
+     * @return StorageProfile Returns the named profile, or the default profile if there is none by that name.
+     */
+    static StorageProfile profileNamed(String name) {
+
+        try {
+            return StorageProfile.fromName(name);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + ", using the " + DEFAULT_PROFILE.getProfileName() + " profile instead.");
+            return DEFAULT_PROFILE;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,84 @@
+package models;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Reduces a long series of points to the few that are worth drawing, so charts plot a number of points matched to their width
+ * instead of one per entry. Uses Largest-Triangle-Three-Buckets: the points are split into equal buckets and from each bucket the
+ * point forming the largest triangle with the point kept before it and the average of the next bucket is kept. That keeps peaks and
+ * dips (the points a line chart's shape depends on) where plain every-nth sampling would skip them.
+ * @author Isabella Castillo
+ */
+public final class Downsampling {
+
+    // To prevent accidental object instantiation
+    private Downsampling() {}
+
+
+    /**
+     * Picks the points to draw from a series sorted by x.
+     *
+     * @param  size      The number of points in the series.
+     * @param  x         Gets the x value of the point at an index (must not decrease as the index grows).
+     * @param  y         Gets the y value of the point at an index.
+     * @param  maxPoints The number of points to keep (every point is kept if the series is no longer than this, or if it is below 3).
+     * @return int[]     Returns the indexes of the kept points in ascending order, always including the first and last point.
+     */
+    public static int[] largestTriangleThreeBuckets(int size, IntToDoubleFunction x, IntToDoubleFunction y, int maxPoints) {
+
+        if (size <= maxPoints || maxPoints < 3) {
+
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) { all[i] = i; }
+            return all;
+        }
+
+        int[] kept = new int[maxPoints];
+        int keptCount = 0;
+        kept[keptCount++] = 0;
+
+        // The first and last points are always kept, the rest are split into maxPoints - 2 buckets
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int previous = 0;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+
+            int bucketStart = (int) (bucket * bucketSize) + 1;
+            int bucketEnd = (int) ((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket (just the last point for the final bucket)
+            int nextStart = bucketEnd;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x.applyAsDouble(i);
+                averageY += y.applyAsDouble(i);
+            }
+            int nextCount = Math.max(1, nextEnd - nextStart);
+            averageX /= nextCount;
+            averageY /= nextCount;
+
+            // Keeping the point of this bucket that makes the largest triangle with the previous kept point and the next bucket's average
+            double previousX = x.applyAsDouble(previous);
+            double previousY = y.applyAsDouble(previous);
+            double largestArea = -1;
+            int chosen = bucketStart;
+
+            for (int i = bucketStart; i < bucketEnd; i++) {
+
+                double area = Math.abs((previousX - averageX) * (y.applyAsDouble(i) - previousY) - (previousX - x.applyAsDouble(i)) * (averageY - previousY));
+
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            kept[keptCount++] = chosen;
+            previous = chosen;
+        }
+        kept[keptCount] = size - 1;
+        return kept;
+    }
+}
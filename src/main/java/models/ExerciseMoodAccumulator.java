@@ -0,0 +1,70 @@
+package models;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds one exercise's ExerciseMoodStats from its sessions as they are read, without keeping the sessions.
+ * Besides the running statistics only how often each mood change occurred is kept (moods run 1-15, so at most 29 changes),
+ * which is all the bootstrap needs to redraw the sample.
+ * @author Isabella Castillo
+ */
+public final class ExerciseMoodAccumulator {
+
+    private final int exerciseID;
+    private int sessions;
+    private final RunningStats moodBefore = new RunningStats();
+    private final RunningStats moodAfter = new RunningStats();
+    private final RunningStats moodChange = new RunningStats();
+    private final Map<Integer, Integer> changeCounts = new TreeMap<>();
+
+
+    /**
+     * Creates an empty accumulator.
+     *
+     * @param exerciseID The ID of the exercise.
+     */
+    public ExerciseMoodAccumulator(int exerciseID) { this.exerciseID = exerciseID; }
+
+
+    /**
+     * Adds a session of the exercise.
+     *
+     * @param moodBeforeID The mood ID chosen before the exercise, or null if none was.
+     * @param moodAfterID  The mood ID chosen after the exercise, or null if none was.
+     */
+    public void add(Integer moodBeforeID, Integer moodAfterID) {
+
+        sessions++;
+        if (moodBeforeID != null) { moodBefore.add(moodBeforeID); }
+        if (moodAfterID != null) { moodAfter.add(moodAfterID); }
+
+        if (moodBeforeID != null && moodAfterID != null) {
+            int change = moodAfterID - moodBeforeID;
+            moodChange.add(change);
+            changeCounts.merge(change, 1, Integer::sum);
+        }
+    }
+
+
+    /**
+     * Finishes the statistics, bootstrapping the confidence interval for the mean change.
+     *
+     * @param  resamples         The number of times the changes are redrawn.
+     * @param  confidence        The share of redrawn means the interval covers (ie 0.95).
+     * @return ExerciseMoodStats Returns the statistics of the sessions added (seeded by exercise ID, so the interval is the same each time).
+     */
+    public ExerciseMoodStats toStats(int resamples, double confidence) {
+
+        int[] values = new int[changeCounts.size()];
+        int[] counts = new int[changeCounts.size()];
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : changeCounts.entrySet()) {
+            values[i] = entry.getKey();
+            counts[i++] = entry.getValue();
+        }
+
+        double[] interval = Bootstrap.meanInterval(values, counts, resamples, confidence, exerciseID);
+        return new ExerciseMoodStats(exerciseID, sessions, moodBefore, moodAfter, moodChange, interval[0], interval[1]);
+    }
+}
@@ -0,0 +1,50 @@
+package models;
+
+/**
+ * Object class for the statistics of the moods logged before and after one exercise over a date range.
+ * The change is worked out per session (after minus before) from the sessions with both moods, with a bootstrap confidence interval for its mean.
+ * @author Isabella Castillo
+ */
+public class ExerciseMoodStats {
+
+    private int exerciseID;
+    private int sessions;
+    private RunningStats moodBefore;
+    private RunningStats moodAfter;
+    private RunningStats moodChange;
+    private double moodChangeLow;
+    private double moodChangeHigh;
+
+    /**
+     * ExerciseMoodStats object.
+     *
+     * @param exerciseID     The ID of the exercise.
+     * @param sessions       The number of times the exercise was done.
+     * @param moodBefore     Statistics of the mood IDs chosen before the exercise (sessions without one are left out).
+     * @param moodAfter      Statistics of the mood IDs chosen after the exercise (sessions without one are left out).
+     * @param moodChange     Statistics of the change in mood ID over each session with both moods.
+     * @param moodChangeLow  The low end of the confidence interval for the mean change.
+     * @param moodChangeHigh The high end of the confidence interval for the mean change.
+     */
+    public ExerciseMoodStats(int exerciseID, int sessions, RunningStats moodBefore, RunningStats moodAfter, RunningStats moodChange, double moodChangeLow, double moodChangeHigh) {
+
+        this.exerciseID = exerciseID;
+        this.sessions = sessions;
+        this.moodBefore = moodBefore;
+        this.moodAfter = moodAfter;
+        this.moodChange = moodChange;
+        this.moodChangeLow = moodChangeLow;
+        this.moodChangeHigh = moodChangeHigh;
+    }
+
+    /**
+     * Set of getters for parameters within the ExerciseMoodStats object.
+     */
+    public int getExerciseID() { return exerciseID; }
+    public int getSessions() { return sessions; }
+    public RunningStats getMoodBefore() { return moodBefore; }
+    public RunningStats getMoodAfter() { return moodAfter; }
+    public RunningStats getMoodChange() { return moodChange; }
+    public double getMoodChangeLow() { return moodChangeLow; }
+    public double getMoodChangeHigh() { return moodChangeHigh; }
+}
@@ -0,0 +1,192 @@
+package models;
+
+/**
+ * Converts the HTML saved by the journal editor into plain text for searching, statistics and previews.
+ * Works in a single pass over the markup, matching tag names in place rather than cutting them out as strings,
+ * so the only thing allocated is the output text. Block tags (paragraphs, line breaks, list items...) become line breaks,
+ * runs of whitespace collapse to one space, the content of script and style elements is dropped, and common entities are decoded.
+ * @author Isabella Castillo
+ */
+public final class HtmlText {
+
+    // Tags that start a new line of text when stripped
+    private static final String[] BLOCK_TAGS = {"p", "div", "br", "li", "tr", "h1", "h2", "h3", "h4", "h5", "h6", "blockquote", "pre", "ul", "ol", "table"};
+
+    // Tags whose content is never shown as text
+    private static final String[] SKIPPED_TAGS = {"script", "style", "title"};
+
+    // Longest entity name handled, anything longer is treated as plain text
+    private static final int MAX_ENTITY_LENGTH = 10;
+
+    // To prevent accidental object instantiation
+    private HtmlText() {}
+
+
+    /**
+     * Strips the markup from an HTML document or fragment.
+     *
+     * @param  html   The HTML to convert (text without any markup comes back with only its whitespace tidied).
+     * @return String Returns the plain text, or null if the HTML was null.
+     */
+    public static String toPlainText(String html) {
+
+        if (html == null) { return null; }
+
+        StringBuilder out = new StringBuilder(Math.min(html.length(), 1024));
+        int length = html.length();
+        boolean pendingSpace = false;
+        boolean pendingBreak = false;
+        int i = 0;
+
+        while (i < length) {
+
+            char c = html.charAt(i);
+
+            if (c == '<') {
+
+                // Comments can hold '>' so they are skipped to their own end marker
+                if (html.startsWith("!--", i + 1)) {
+
+                    int end = html.indexOf("-->", i + 4);
+                    i = end < 0 ? length : end + 3;
+                    continue;
+                }
+
+                int close = html.indexOf('>', i + 1);
+                if (close < 0) { break; } // Unclosed tag at the end, nothing after it is text
+
+                boolean closing = i + 1 < length && html.charAt(i + 1) == '/';
+                int nameStart = closing ? i + 2 : i + 1;
+                int nameEnd = nameStart;
+                while (nameEnd < close && Character.isLetterOrDigit(html.charAt(nameEnd))) { nameEnd++; }
+
+                if (isAny(html, nameStart, nameEnd, BLOCK_TAGS)) {
+                    pendingBreak = true;
+                } else if (!closing && isAny(html, nameStart, nameEnd, SKIPPED_TAGS)) {
+                    close = skipElement(html, close, nameStart, nameEnd - nameStart);
+                }
+                i = close + 1;
+                continue;
+            }
+
+            if (c == '&') {
+
+                int semicolon = html.indexOf(';', i + 1);
+
+                if (semicolon > i + 1 && semicolon - i - 1 <= MAX_ENTITY_LENGTH) {
+
+                    int decoded = decodeEntity(html, i + 1, semicolon);
+
+                    if (decoded >= 0) {
+
+                        i = semicolon + 1;
+
+                        // Non breaking spaces collapse like any other whitespace
+                        if (decoded == '\u00A0') { pendingSpace = true; continue; }
+                        pendingSpace = flush(out, pendingSpace, pendingBreak);
+                        pendingBreak = false;
+                        out.appendCodePoint(decoded);
+                        continue;
+                    }
+                }
+            }
+
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = true;
+                i++;
+                continue;
+            }
+
+            pendingSpace = flush(out, pendingSpace, pendingBreak);
+            pendingBreak = false;
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+
+    /**
+     * Writes any pending line break or space before the next visible character (never at the very start).
+     */
+    private static boolean flush(StringBuilder out, boolean pendingSpace, boolean pendingBreak) {
+
+        if (out.length() > 0) {
+
+            if (pendingBreak) {
+                out.append('\n');
+            } else if (pendingSpace) {
+                out.append(' ');
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Checks if the tag name between start and end is one of the given names (case insensitive, without a substring).
+     */
+    private static boolean isAny(String html, int start, int end, String[] names) {
+
+        int length = end - start;
+
+        for (String name : names) {
+            if (name.length() == length && html.regionMatches(true, start, name, 0, length)) { return true; }
+        }
+        return false;
+    }
+
+
+    /**
+     * Finds the '>' of the closing tag of a script or style element, so its content is skipped.
+     */
+    private static int skipElement(String html, int from, int nameStart, int nameLength) {
+
+        int i = html.indexOf("</", from);
+
+        while (i >= 0) {
+
+            if (html.regionMatches(true, i + 2, html, nameStart, nameLength)) {
+
+                int close = html.indexOf('>', i);
+                return close < 0 ? html.length() - 1 : close;
+            }
+            i = html.indexOf("</", i + 2);
+        }
+        return html.length() - 1;
+    }
+
+
+    /**
+     * Decodes the entity between '&' and ';'.
+     *
+     * @return int Returns the code point, or -1 if it isn't an entity that is handled.
+     */
+    private static int decodeEntity(String html, int start, int end) {
+
+        if (html.charAt(start) == '#') {
+
+            boolean hex = start + 1 < end && (html.charAt(start + 1) == 'x' || html.charAt(start + 1) == 'X');
+            int digit = hex ? start + 2 : start + 1;
+            if (digit >= end) { return -1; }
+
+            int value = 0;
+            for (int i = digit; i < end; i++) {
+
+                int d = Character.digit(html.charAt(i), hex ? 16 : 10);
+                if (d < 0 || value > 0x10FFFF) { return -1; }
+                value = value * (hex ? 16 : 10) + d;
+            }
+            return value <= 0x10FFFF && value > 0 ? value : -1;
+        }
+
+        int length = end - start;
+        if (length == 3 && html.regionMatches(start, "amp", 0, 3)) { return '&'; }
+        if (length == 2 && html.regionMatches(start, "lt", 0, 2)) { return '<'; }
+        if (length == 2 && html.regionMatches(start, "gt", 0, 2)) { return '>'; }
+        if (length == 4 && html.regionMatches(start, "quot", 0, 4)) { return '"'; }
+        if (length == 4 && html.regionMatches(start, "apos", 0, 4)) { return '\''; }
+        if (length == 4 && html.regionMatches(start, "nbsp", 0, 4)) { return '\u00A0'; }
+        return -1;
+    }
+}
@@ -11,6 +11,7 @@ public class JournalEntry {
     private int journalID;
     private String title;
     private String textEntry;
+    private String textPlain;
     private LocalDateTime entryDateTime;
 
     /**
@@ -22,9 +23,24 @@ public class JournalEntry {
      * @param entryDateTime The date and time of the journal entry.
      */
     public JournalEntry(int journalID, String title, String textEntry, LocalDateTime entryDateTime) {
+        this(journalID, title, textEntry, null, entryDateTime);
+    }
+
+    /**
+     * JournalEntry object with its plain text form, as read from the database.
+     * List and search queries leave out the HTML (textEntry is null) and only fill in the plain text.
+     * 
+     * @param journalID     The ID of the specific journal entry.
+     * @param title         The title of the journal entry.
+     * @param textEntry     The HTML text of the journal entry, or null if it wasn't loaded.
+     * @param textPlain     The text of the journal entry with the markup stripped, or null to derive it from textEntry.
+     * @param entryDateTime The date and time of the journal entry.
+     */
+    public JournalEntry(int journalID, String title, String textEntry, String textPlain, LocalDateTime entryDateTime) {
         this.journalID = journalID;
         this.title = title;
         this.textEntry = textEntry;
+        this.textPlain = textPlain;
         this.entryDateTime = entryDateTime;
     }
 
@@ -35,4 +51,15 @@ public class JournalEntry {
     public String getTitle() { return title; }
     public String getTextEntry() { return textEntry; }
     public LocalDateTime getEntryDateTime() { return entryDateTime; }
+
+    /**
+     * Gets the text of the entry without its HTML markup (stripped on first use if it wasn't read from the database).
+     *
+     * @return String Returns the plain text, or null if neither form of the text was loaded.
+     */
+    public String getTextPlain() {
+
+        if (textPlain == null) { textPlain = HtmlText.toPlainText(textEntry); }
+        return textPlain;
+    }
 }
@@ -0,0 +1,37 @@
+package models;
+
+/**
+ * Object class for a full-text journal search hit, the matching entry along with a highlighted snippet and its relevance.
+ * @author Isabella Castillo
+ */
+public class JournalSearchResult {
+
+    // Markers placed around each matched term in the snippet
+    public static final String MATCH_START = "«";
+    public static final String MATCH_END = "»";
+
+    private JournalEntry entry;
+    private String snippet;
+    private double score;
+
+    /**
+     * JournalSearchResult object.
+     *
+     * @param entry   The matching journal entry.
+     * @param snippet A short piece of the entry text around the matches, with each match wrapped in MATCH_START and MATCH_END.
+     * @param score   The bm25 relevance of the match (lower is more relevant, as SQLite reports it).
+     */
+    public JournalSearchResult(JournalEntry entry, String snippet, double score) {
+
+        this.entry = entry;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    /**
+     * Set of getters for parameters within the JournalSearchResult object.
+     */
+    public JournalEntry getEntry() { return entry; }
+    public String getSnippet() { return snippet; }
+    public double getScore() { return score; }
+}
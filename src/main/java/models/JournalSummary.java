@@ -0,0 +1,43 @@
+package models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Object class for a journal entry as shown in lists, everything but its body.
+ * The body is loaded separately (JournalDAO.getJournalBody) when an entry is opened.
+ * @author Isabella Castillo
+ */
+public class JournalSummary {
+
+    // Number of characters of plain text kept as an entry's preview
+    public static final int PREVIEW_LENGTH = 120;
+
+    private int journalID;
+    private String title;
+    private String preview;
+    private LocalDateTime entryDateTime;
+
+    /**
+     * JournalSummary object.
+     *
+     * @param journalID     The ID of the journal entry.
+     * @param title         The title of the journal entry.
+     * @param preview       The start of the entry's plain text (can be null for entries not converted to plain text yet).
+     * @param entryDateTime The date and time of the journal entry.
+     */
+    public JournalSummary(int journalID, String title, String preview, LocalDateTime entryDateTime) {
+
+        this.journalID = journalID;
+        this.title = title;
+        this.preview = preview;
+        this.entryDateTime = entryDateTime;
+    }
+
+    /**
+     * Set of getters for parameters within the JournalSummary object.
+     */
+    public int getJournalID() { return journalID; }
+    public String getTitle() { return title; }
+    public String getPreview() { return preview; }
+    public LocalDateTime getEntryDateTime() { return entryDateTime; }
+}
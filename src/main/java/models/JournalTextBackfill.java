@@ -0,0 +1,111 @@
+package models;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Class to fill in the plain text column for journal entries that were written before it existed (or by something other than the DAO).
+ * Entries are read and stripped a chunk at a time on a background thread, and each chunk is written back in one short transaction.
+ * Until an entry is converted it can still be found by its title, and its plain text is derived from the HTML when read.
+ * @author Isabella Castillo
+ */
+public class JournalTextBackfill {
+
+    private static final int CHUNK_SIZE = 200;
+
+    private static Thread worker;
+
+    // To prevent accidental object instantiation
+    private JournalTextBackfill() {}
+
+
+    /**
+     * Checks for entries without plain text and starts the background conversion if there are any.
+     * Called each time the connection pool is created, once the schema has been migrated.
+     *
+     * @throws SQLException If an error occurs while checking.
+     */
+    public static synchronized void start() throws SQLException {
+
+        if (worker != null && worker.isAlive()) { return; }
+        if (!hasPendingRows()) { return; }
+
+        worker = new Thread(JournalTextBackfill::run, "journal-text-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+
+    /**
+     * Converts entries chunk by chunk until none are left without plain text.
+     */
+    private static void run() {
+
+        try {
+            while (convertChunk() > 0) {}
+        } catch (SQLException e) {
+
+            // Whatever is left is picked up by the next start()
+            System.err.println("Journal text backfill stopped: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Strips and stores the plain text of one chunk of entries.
+     *
+     * @return int Returns the number of entries converted (0 once there are none left).
+     */
+    private static int convertChunk() throws SQLException {
+
+        Map<Integer, String> texts = new LinkedHashMap<>();
+
+        // Taking the writer only for one chunk at a time so user writes can get in between chunks
+        try (Connection conn = DatabaseConnection.connect()) {
+
+            try (PreparedStatement select = conn.prepareStatement("SELECT journal_id, text_entry FROM journal WHERE text_plain IS NULL LIMIT " + CHUNK_SIZE);
+                 ResultSet rs = select.executeQuery()) {
+
+                while (rs.next()) {
+                    texts.put(rs.getInt("journal_id"), HtmlText.toPlainText(rs.getString("text_entry")));
+                }
+            }
+            if (texts.isEmpty()) { return 0; }
+
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement update = conn.prepareStatement("UPDATE journal SET text_plain = ? WHERE journal_id = ? AND text_plain IS NULL")) {
+
+                for (Map.Entry<Integer, String> text : texts.entrySet()) {
+
+                    // An empty string (not null) marks an entry with no text as done
+                    update.setString(1, text.getValue() == null ? "" : text.getValue());
+                    update.setInt(2, text.getKey());
+                    update.addBatch();
+                }
+                update.executeBatch();
+                conn.commit();
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return texts.size();
+    }
+
+
+    /**
+     * Checks if any journal entry is still missing its plain text.
+     */
+    private static boolean hasPendingRows() throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM journal WHERE text_plain IS NULL)")) {
+
+            return rs.next() && rs.getInt(1) == 1;
+        }
+    }
+}
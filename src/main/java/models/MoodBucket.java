@@ -0,0 +1,47 @@
+package models;
+
+import java.time.LocalDateTime;
+
+/**
+ * Object class for the mood entries logged in one time bucket (such as a day or a week), summed up instead of listed.
+ * @author Isabella Castillo
+ */
+public class MoodBucket {
+
+    private TimeBucket size;
+    private LocalDateTime bucketStart;
+    private int entryCount;
+    private double averageMoodID;
+    private int lowestMoodID;
+    private int highestMoodID;
+
+    /**
+     * MoodBucket object.
+     *
+     * @param size          The size of the bucket.
+     * @param bucketStart   The time the bucket starts.
+     * @param entryCount    The number of entries logged in the bucket.
+     * @param averageMoodID The average mood ID of those entries.
+     * @param lowestMoodID  The lowest mood ID logged in the bucket.
+     * @param highestMoodID The highest mood ID logged in the bucket.
+     */
+    public MoodBucket(TimeBucket size, LocalDateTime bucketStart, int entryCount, double averageMoodID, int lowestMoodID, int highestMoodID) {
+
+        this.size = size;
+        this.bucketStart = bucketStart;
+        this.entryCount = entryCount;
+        this.averageMoodID = averageMoodID;
+        this.lowestMoodID = lowestMoodID;
+        this.highestMoodID = highestMoodID;
+    }
+
+    /**
+     * Set of getters for parameters within the MoodBucket object.
+     */
+    public TimeBucket getSize() { return size; }
+    public LocalDateTime getBucketStart() { return bucketStart; }
+    public int getEntryCount() { return entryCount; }
+    public double getAverageMoodID() { return averageMoodID; }
+    public int getLowestMoodID() { return lowestMoodID; }
+    public int getHighestMoodID() { return highestMoodID; }
+}
@@ -0,0 +1,37 @@
+package models;
+
+/**
+ * Object class for how many moods of one category (a run of consecutive mood IDs, such as Hopeless to Anxious) were logged by day and by night.
+ * @author Isabella Castillo
+ */
+public class MoodCategoryCount {
+
+    private int firstMoodID;
+    private int lastMoodID;
+    private int dayCount;
+    private int nightCount;
+
+    /**
+     * MoodCategoryCount object.
+     *
+     * @param firstMoodID The ID of the first mood in the category.
+     * @param lastMoodID  The ID of the last mood in the category.
+     * @param dayCount    The number of entries logged during the day (6AM to 6PM).
+     * @param nightCount  The number of entries logged during the night (6PM to 6AM).
+     */
+    public MoodCategoryCount(int firstMoodID, int lastMoodID, int dayCount, int nightCount) {
+
+        this.firstMoodID = firstMoodID;
+        this.lastMoodID = lastMoodID;
+        this.dayCount = dayCount;
+        this.nightCount = nightCount;
+    }
+
+    /**
+     * Set of getters for parameters within the MoodCategoryCount object.
+     */
+    public int getFirstMoodID() { return firstMoodID; }
+    public int getLastMoodID() { return lastMoodID; }
+    public int getDayCount() { return dayCount; }
+    public int getNightCount() { return nightCount; }
+}
@@ -0,0 +1,70 @@
+package models;
+
+import java.sql.*;
+
+/**
+ * Class for the mood rollup tables, which hold how many times each mood was logged per day (mood_daily) and per hour (mood_hourly).
+ * Triggers on mood_entries (see SchemaMigrator) add to and take from the counts in the same transaction as every insert, edit and delete,
+ * so charts can read a few hundred counts for a range instead of every entry in it.
+ * Days and hours are cut from the 'yyyy-MM-dd HH:mm:ss' TEXT column, which every row has (the epoch column may still be backfilling).
+ * @author Isabella Castillo
+ */
+public final class MoodRollups {
+
+    // To prevent accidental object instantiation
+    private MoodRollups() {}
+
+
+    /**
+     * Recomputes both rollup tables from mood_entries in one transaction.
+     * Useful after changing mood entries outside the app (or with the triggers dropped), since the counts are otherwise always kept current.
+     *
+     * @throws SQLException If an error occurs (the previous counts are kept).
+     */
+    public static void rebuild() throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connect()) {
+
+            conn.setAutoCommit(false);
+
+            try {
+                rebuild(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+
+    /**
+     * Recomputes both rollup tables using the given connection, inside the caller's transaction.
+     */
+    static void rebuild(Connection conn) throws SQLException {
+
+        try (Statement stmt = conn.createStatement()) {
+
+            stmt.execute("DELETE FROM mood_daily");
+            stmt.execute("DELETE FROM mood_hourly");
+            stmt.execute("INSERT INTO mood_daily (day, mood_id, entry_count) SELECT " + dayOf("entry_date_and_time") + ", mood_id, COUNT(*) "
+                       + "FROM mood_entries GROUP BY 1, 2");
+            stmt.execute("INSERT INTO mood_hourly (day, hour, mood_id, entry_count) SELECT " + dayOf("entry_date_and_time") + ", " + hourOf("entry_date_and_time")
+                       + ", mood_id, COUNT(*) FROM mood_entries GROUP BY 1, 2, 3");
+        }
+    }
+
+
+    /**
+     * Builds the SQL expression for the 'yyyy-MM-dd' day a TEXT time falls on.
+     */
+    static String dayOf(String textExpression) { return "substr(" + textExpression + ", 1, 10)"; }
+
+
+    /**
+     * Builds the SQL expression for the hour (0 to 23) a TEXT time falls in.
+     */
+    static String hourOf(String textExpression) { return "CAST(substr(" + textExpression + ", 12, 2) AS INTEGER)"; }
+}
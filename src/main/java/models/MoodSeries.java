@@ -0,0 +1,57 @@
+package models;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Read-only run of mood entries stored column by column in primitive arrays, oldest first.
+ * Holds a few arrays for the whole run instead of several objects per entry, so large ranges can be plotted and aggregated cheaply.
+ * Times are epoch seconds of the wall clock time (read as UTC, same as the database epoch columns) and tags are indexes into a shared dictionary.
+ * @author Isabella Castillo
+ */
+public class MoodSeries {
+
+    private final int[] entryIDs;
+    private final long[] epochs;
+    private final byte[] moodIDs;
+    private final int[] tagIDs;
+    private final String[] tagDictionary;
+
+    /**
+     * MoodSeries object (the arrays are used as given, not copied).
+     *
+     * @param entryIDs      The ID of each entry.
+     * @param epochs        The time of each entry in epoch seconds, in ascending order.
+     * @param moodIDs       The mood ID of each entry.
+     * @param tagIDs        The index of each entry's tag in the dictionary (0 for no tag).
+     * @param tagDictionary The tags, with null at index 0.
+     */
+    public MoodSeries(int[] entryIDs, long[] epochs, byte[] moodIDs, int[] tagIDs, String[] tagDictionary) {
+
+        this.entryIDs = entryIDs;
+        this.epochs = epochs;
+        this.moodIDs = moodIDs;
+        this.tagIDs = tagIDs;
+        this.tagDictionary = tagDictionary;
+    }
+
+    /**
+     * Set of getters for the entry at an index (0 is the oldest).
+     */
+    public int size() { return epochs.length; }
+    public int getEntryID(int index) { return entryIDs[index]; }
+    public long getEpoch(int index) { return epochs[index]; }
+    public int getMoodID(int index) { return moodIDs[index]; }
+    public String getTag(int index) { return tagDictionary[tagIDs[index]]; }
+    public LocalDateTime getDateAndTime(int index) { return LocalDateTime.ofEpochSecond(epochs[index], 0, ZoneOffset.UTC); }
+
+
+    /**
+     * Builds a MoodEntry for one entry of the series.
+     * Useful when a single entry is needed as an object, such as for a tooltip.
+     *
+     * @param  index     The index of the entry.
+     * @return MoodEntry Returns a new MoodEntry holding the entry's values.
+     */
+    public MoodEntry getEntry(int index) { return new MoodEntry(entryIDs[index], moodIDs[index], getTag(index), getDateAndTime(index)); }
+}
@@ -0,0 +1,45 @@
+package models;
+
+/**
+ * Count, mean and variance of a series of values worked out one value at a time, so nothing but these few numbers is kept.
+ * Uses Welford's update (which doesn't lose precision subtracting two large sums like the textbook formula does) with the
+ * running mean's small corrections Kahan compensated, so long series of similar values stay accurate.
+ * @author Isabella Castillo
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double meanCompensation;
+    private double squaredDeviations;
+
+
+    /**
+     * Adds a value to the statistics.
+     *
+     * @param value The value.
+     */
+    public void add(double value) {
+
+        count++;
+        double deviation = value - mean;
+
+        // Kahan summation of the mean's corrections, carrying forward the low bits each addition drops
+        double correction = deviation / count - meanCompensation;
+        double updatedMean = mean + correction;
+        meanCompensation = (updatedMean - mean) - correction;
+        mean = updatedMean;
+
+        // Welford's update, the deviation from the old mean times the deviation from the new one
+        squaredDeviations += deviation * (value - mean);
+    }
+
+
+    /**
+     * Set of getters for the statistics, the mean and variance are 0 while there are too few values for them.
+     */
+    public long getCount() { return count; }
+    public double getMean() { return mean; }
+    public double getVariance() { return count < 2 ? 0 : squaredDeviations / (count - 1); }
+    public double getStandardDeviation() { return Math.sqrt(getVariance()); }
+}
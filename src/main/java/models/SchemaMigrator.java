@@ -0,0 +1,303 @@
+package models;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Class to bring the database schema up to date when the application starts.
+ * The schema version is kept in SQLite's user_version PRAGMA, and each migration step below runs once, in order, inside its own transaction.
+ * Steps are written to be idempotent so a database that was patched by hand can still be migrated safely.
+ * @author Isabella Castillo
+ */
+public class SchemaMigrator {
+
+    private static final List<Migration> MIGRATIONS = List.of(
+
+            new Migration(1, "Add time range, foreign key, and favorite resource indexes", conn -> execute(conn,
+
+                    // Covering index for mood log and chart range scans (entry_id is the rowid so it comes for free)
+                    "CREATE INDEX IF NOT EXISTS idx_mood_entries_time ON mood_entries (entry_date_and_time, mood_id, tag)",
+                    "CREATE INDEX IF NOT EXISTS idx_mood_entries_mood ON mood_entries (mood_id)",
+
+                    "CREATE INDEX IF NOT EXISTS idx_journal_time ON journal (entry_date_and_time)",
+
+                    // Covering index for exercise range scans used by the effectiveness chart
+                    "CREATE INDEX IF NOT EXISTS idx_exercise_entries_start ON exercise_entries (start_time, exercise_id, mood_before_id, mood_after_id, end_time)",
+                    "CREATE INDEX IF NOT EXISTS idx_exercise_entries_exercise ON exercise_entries (exercise_id)",
+
+                    // Removing any duplicate favorites (keeping the oldest) so the unique index can be built
+                    "DELETE FROM favorite_resources WHERE resource_id NOT IN (SELECT MIN(resource_id) FROM favorite_resources GROUP BY name, address)",
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_favorite_resources_name_address ON favorite_resources (name, address)")),
+
+            new Migration(2, "Add integer epoch time columns", conn -> {
+
+                // Epoch columns hold the same wall clock time as the TEXT columns as seconds since 1970 (read as UTC, so no daylight savings gaps)
+                addColumnIfMissing(conn, "mood_entries", "entry_epoch", "INTEGER");
+                addColumnIfMissing(conn, "journal", "entry_epoch", "INTEGER");
+                addColumnIfMissing(conn, "exercise_entries", "start_epoch", "INTEGER");
+                addColumnIfMissing(conn, "exercise_entries", "end_epoch", "INTEGER");
+
+                execute(conn,
+
+                        "CREATE INDEX IF NOT EXISTS idx_mood_entries_epoch ON mood_entries (entry_epoch, mood_id, tag)",
+                        "CREATE INDEX IF NOT EXISTS idx_journal_epoch ON journal (entry_epoch)",
+                        "CREATE INDEX IF NOT EXISTS idx_exercise_entries_start_epoch ON exercise_entries (start_epoch, exercise_id, mood_before_id, mood_after_id, end_epoch)",
+
+                        // Keeping the epoch columns filled in for anything that still only writes the TEXT columns
+                        epochTrigger("trg_mood_entries_epoch_insert", "INSERT", "mood_entries", "entry_id", "entry_epoch = " + epochOf("NEW.entry_date_and_time"), "NEW.entry_epoch IS NULL"),
+                        epochTrigger("trg_mood_entries_epoch_update", "UPDATE OF entry_date_and_time", "mood_entries", "entry_id", "entry_epoch = " + epochOf("NEW.entry_date_and_time"), null),
+                        epochTrigger("trg_journal_epoch_insert", "INSERT", "journal", "journal_id", "entry_epoch = " + epochOf("NEW.entry_date_and_time"), "NEW.entry_epoch IS NULL"),
+                        epochTrigger("trg_journal_epoch_update", "UPDATE OF entry_date_and_time", "journal", "journal_id", "entry_epoch = " + epochOf("NEW.entry_date_and_time"), null),
+                        epochTrigger("trg_exercise_entries_epoch_insert", "INSERT", "exercise_entries", "log_id",
+                                "start_epoch = " + epochOf("NEW.start_time") + ", end_epoch = " + epochOf("NEW.end_time"), "NEW.start_epoch IS NULL OR NEW.end_epoch IS NULL"),
+                        epochTrigger("trg_exercise_entries_epoch_update", "UPDATE OF start_time, end_time", "exercise_entries", "log_id",
+                                "start_epoch = " + epochOf("NEW.start_time") + ", end_epoch = " + epochOf("NEW.end_time"), null));
+
+                // Existing rows are converted afterwards in small chunks by TimestampBackfill so startup isn't held up
+            }),
+
+            new Migration(3, "Add full-text search index for journal entries", conn -> execute(conn,
+
+                    // External content table, so the text itself is only stored once (in journal) and the index just holds the terms
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS journal_fts USING fts5(title, text_entry, content = 'journal', content_rowid = 'journal_id', tokenize = 'unicode61 remove_diacritics 2')",
+
+                    // Keeping the index in step with every insert, edit and delete
+                    "CREATE TRIGGER IF NOT EXISTS trg_journal_fts_insert AFTER INSERT ON journal BEGIN "
+                            + "INSERT INTO journal_fts (rowid, title, text_entry) VALUES (NEW.journal_id, NEW.title, NEW.text_entry); END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_journal_fts_delete AFTER DELETE ON journal BEGIN "
+                            + "INSERT INTO journal_fts (journal_fts, rowid, title, text_entry) VALUES ('delete', OLD.journal_id, OLD.title, OLD.text_entry); END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_journal_fts_update AFTER UPDATE OF title, text_entry ON journal BEGIN "
+                            + "INSERT INTO journal_fts (journal_fts, rowid, title, text_entry) VALUES ('delete', OLD.journal_id, OLD.title, OLD.text_entry); "
+                            + "INSERT INTO journal_fts (rowid, title, text_entry) VALUES (NEW.journal_id, NEW.title, NEW.text_entry); END",
+
+                    // Indexing the entries that are already there
+                    "INSERT INTO journal_fts (journal_fts) VALUES ('rebuild')")),
+
+            new Migration(4, "Add plain text column for journal entries and index it instead of the HTML", conn -> {
+
+                // Written by the DAO alongside text_entry, existing rows are filled in afterwards by JournalTextBackfill (HTML can't be stripped in SQL)
+                addColumnIfMissing(conn, "journal", "text_plain", "TEXT");
+
+                execute(conn,
+
+                        // Rebuilding the full-text index over the plain text so markup is never matched or shown in snippets
+                        "DROP TRIGGER IF EXISTS trg_journal_fts_insert",
+                        "DROP TRIGGER IF EXISTS trg_journal_fts_delete",
+                        "DROP TRIGGER IF EXISTS trg_journal_fts_update",
+                        "DROP TABLE IF EXISTS journal_fts",
+                        "CREATE VIRTUAL TABLE journal_fts USING fts5(title, text_plain, content = 'journal', content_rowid = 'journal_id', tokenize = 'unicode61 remove_diacritics 2')",
+
+                        "CREATE TRIGGER trg_journal_fts_insert AFTER INSERT ON journal BEGIN "
+                                + "INSERT INTO journal_fts (rowid, title, text_plain) VALUES (NEW.journal_id, NEW.title, NEW.text_plain); END",
+                        "CREATE TRIGGER trg_journal_fts_delete AFTER DELETE ON journal BEGIN "
+                                + "INSERT INTO journal_fts (journal_fts, rowid, title, text_plain) VALUES ('delete', OLD.journal_id, OLD.title, OLD.text_plain); END",
+                        "CREATE TRIGGER trg_journal_fts_update AFTER UPDATE OF title, text_plain ON journal BEGIN "
+                                + "INSERT INTO journal_fts (journal_fts, rowid, title, text_plain) VALUES ('delete', OLD.journal_id, OLD.title, OLD.text_plain); "
+                                + "INSERT INTO journal_fts (rowid, title, text_plain) VALUES (NEW.journal_id, NEW.title, NEW.text_plain); END",
+
+                        "INSERT INTO journal_fts (journal_fts) VALUES ('rebuild')");
+            }),
+
+            new Migration(5, "Add journal preview column and a covering index for the journal list", conn -> {
+
+                addColumnIfMissing(conn, "journal", "text_preview", "TEXT");
+
+                execute(conn,
+
+                        // The preview is always the start of the plain text, kept that way by triggers so no writer has to know about it
+                        "UPDATE journal SET text_preview = " + previewOf("text_plain") + " WHERE text_plain IS NOT NULL",
+                        "CREATE TRIGGER IF NOT EXISTS trg_journal_preview_insert AFTER INSERT ON journal WHEN NEW.text_preview IS NOT " + previewOf("NEW.text_plain")
+                                + " BEGIN UPDATE journal SET text_preview = " + previewOf("NEW.text_plain") + " WHERE journal_id = NEW.journal_id; END",
+                        "CREATE TRIGGER IF NOT EXISTS trg_journal_preview_update AFTER UPDATE OF text_plain ON journal WHEN NEW.text_preview IS NOT " + previewOf("NEW.text_plain")
+                                + " BEGIN UPDATE journal SET text_preview = " + previewOf("NEW.text_plain") + " WHERE journal_id = NEW.journal_id; END",
+
+                        // Covering index for the journal list, so listing never reads the (possibly very long) rows themselves
+                        "CREATE INDEX IF NOT EXISTS idx_journal_summary ON journal (entry_epoch, journal_id, title, entry_date_and_time, text_preview)",
+                        "DROP INDEX IF EXISTS idx_journal_epoch");
+            }),
+
+            new Migration(6, "Add daily and hourly mood rollup tables", conn -> {
+
+                execute(conn,
+
+                        // Keyed so a date range is one primary key range scan, and only non-zero counts are stored
+                        "CREATE TABLE IF NOT EXISTS mood_daily (day TEXT NOT NULL, mood_id INTEGER NOT NULL, entry_count INTEGER NOT NULL, "
+                                + "PRIMARY KEY (day, mood_id)) WITHOUT ROWID",
+                        "CREATE TABLE IF NOT EXISTS mood_hourly (day TEXT NOT NULL, hour INTEGER NOT NULL, mood_id INTEGER NOT NULL, entry_count INTEGER NOT NULL, "
+                                + "PRIMARY KEY (day, hour, mood_id)) WITHOUT ROWID",
+
+                        // An edit only moves a count when the mood or time changed, tag edits leave the rollups alone
+                        "CREATE TRIGGER IF NOT EXISTS trg_mood_rollup_insert AFTER INSERT ON mood_entries BEGIN " + rollupChange("NEW", true) + " END",
+                        "CREATE TRIGGER IF NOT EXISTS trg_mood_rollup_delete AFTER DELETE ON mood_entries BEGIN " + rollupChange("OLD", false) + " END",
+                        "CREATE TRIGGER IF NOT EXISTS trg_mood_rollup_update AFTER UPDATE OF mood_id, entry_date_and_time ON mood_entries "
+                                + "WHEN OLD.mood_id IS NOT NEW.mood_id OR OLD.entry_date_and_time IS NOT NEW.entry_date_and_time BEGIN "
+                                + rollupChange("OLD", false) + " " + rollupChange("NEW", true) + " END");
+
+                MoodRollups.rebuild(conn);
+            })
+    );
+
+    // To prevent accidental object instantiation
+    private SchemaMigrator() {}
+
+
+    /**
+     * Applies every migration newer than the database's current schema version.
+     *
+     * @param  conn         A writer connection to the database.
+     * @return int          Returns the schema version after migrating.
+     * @throws SQLException If a migration step fails (that step is rolled back and the version is left unchanged).
+     */
+    public static int migrate(Connection conn) throws SQLException {
+
+        int version = getCurrentVersion(conn);
+
+        for (Migration migration : MIGRATIONS) {
+
+            if (migration.version <= version) { continue; }
+
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            try {
+
+                migration.step.apply(conn);
+                execute(conn, "PRAGMA user_version = " + migration.version);
+                conn.commit();
+                version = migration.version;
+
+            } catch (SQLException e) {
+                conn.rollback();
+                throw new SQLException("Schema migration " + migration.version + " (" + migration.description + ") failed: " + e.getMessage(), e);
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return version;
+    }
+
+
+    /**
+     * Gets the schema version currently stored in the database.
+     *
+     * @param  conn         A connection to the database.
+     * @return int          Returns the stored schema version (0 for a database that has never been migrated).
+     * @throws SQLException If an error occurs.
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+
+    /**
+     * Gets the version the schema will be at once every migration has run.
+     *
+     * @return int Returns the latest schema version.
+     */
+    public static int getLatestVersion() { return MIGRATIONS.get(MIGRATIONS.size() - 1).version; }
+
+
+    /**
+     * Runs each SQL statement in order on the given connection.
+     */
+    private static void execute(Connection conn, String... statements) throws SQLException {
+
+        try (Statement stmt = conn.createStatement()) {
+
+            for (String sql : statements) {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+
+    /**
+     * Adds a column to a table unless it is already there (ALTER TABLE has no IF NOT EXISTS in SQLite).
+     */
+    private static void addColumnIfMissing(Connection conn, String table, String column, String type) throws SQLException {
+
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+
+            while (rs.next()) {
+                if (rs.getString("name").equalsIgnoreCase(column)) { return; }
+            }
+        }
+        execute(conn, "ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
+
+
+    /**
+     * Builds the SQL expression that converts a 'yyyy-MM-dd HH:mm:ss' TEXT value into epoch seconds.
+     */
+    static String epochOf(String textExpression) { return "CAST(strftime('%s', " + textExpression + ") AS INTEGER)"; }
+
+
+    /**
+     * Builds the SQL expression that cuts a plain text value down to its preview.
+     */
+    private static String previewOf(String textExpression) { return "substr(" + textExpression + ", 1, " + JournalSummary.PREVIEW_LENGTH + ")"; }
+
+
+    /**
+     * Builds the trigger statements that add a mood entry (row NEW) to, or take one (row OLD) from, the daily and hourly counts.
+     * Counts that drop to zero are deleted so the tables only hold days and hours that have entries.
+     */
+    private static String rollupChange(String row, boolean add) {
+
+        String day = MoodRollups.dayOf(row + ".entry_date_and_time");
+        String hour = MoodRollups.hourOf(row + ".entry_date_and_time");
+
+        if (add) {
+
+            return "INSERT INTO mood_daily (day, mood_id, entry_count) VALUES (" + day + ", " + row + ".mood_id, 1) "
+                 + "ON CONFLICT (day, mood_id) DO UPDATE SET entry_count = entry_count + 1; "
+                 + "INSERT INTO mood_hourly (day, hour, mood_id, entry_count) VALUES (" + day + ", " + hour + ", " + row + ".mood_id, 1) "
+                 + "ON CONFLICT (day, hour, mood_id) DO UPDATE SET entry_count = entry_count + 1;";
+        }
+
+        String daily = "day = " + day + " AND mood_id = " + row + ".mood_id";
+        String hourly = "day = " + day + " AND hour = " + hour + " AND mood_id = " + row + ".mood_id";
+
+        return "UPDATE mood_daily SET entry_count = entry_count - 1 WHERE " + daily + "; DELETE FROM mood_daily WHERE " + daily + " AND entry_count <= 0; "
+             + "UPDATE mood_hourly SET entry_count = entry_count - 1 WHERE " + hourly + "; DELETE FROM mood_hourly WHERE " + hourly + " AND entry_count <= 0;";
+    }
+
+
+    /**
+     * Builds a trigger that sets epoch columns on the row that was just inserted or updated.
+     */
+    private static String epochTrigger(String name, String event, String table, String keyColumn, String assignments, String condition) {
+
+        return "CREATE TRIGGER IF NOT EXISTS " + name + " AFTER " + event + " ON " + table + (condition != null ? " WHEN " + condition : "")
+                + " BEGIN UPDATE " + table + " SET " + assignments + " WHERE " + keyColumn + " = NEW." + keyColumn + "; END";
+    }
+
+
+    /**
+     * A single step of work that moves the schema forward.
+     */
+    private interface MigrationStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+
+    /**
+     * A numbered migration with a short description for error messages.
+     */
+    private static final class Migration {
+
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        private Migration(int version, String description, MigrationStep step) {
+
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+    }
+}
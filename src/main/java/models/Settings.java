@@ -0,0 +1,78 @@
+package models;
+
+/**
+ * Class to read the application's settings, each from a system property, then an environment variable, then its default.
+ * Values that can't be read as the type asked for are logged and replaced by the default, so a typo in one setting
+ * never stops the class reading it from loading.
+ * @author Isabella Castillo
+ */
+public final class Settings {
+
+    // To prevent accidental object instantiation
+    private Settings() {}
+
+
+    /**
+     * Reads a text setting.
+     *
+     * @param  property     The system property name.
+     * @param  environment  The environment variable name.
+     * @param  defaultValue The value used when neither is set.
+     * @return String       Returns the setting value.
+     */
+    public static String get(String property, String environment, String defaultValue) {
+
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) { value = System.getenv(environment); }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+
+    /**
+     * Reads a whole number setting.
+     *
+     * @param  property     The system property name.
+     * @param  environment  The environment variable name.
+     * @param  defaultValue The value used when neither is set or the value isn't a whole number.
+     * @return int          Returns the setting value.
+     */
+    public static int getInt(String property, String environment, int defaultValue) {
+
+        return (int) getLong(property, environment, defaultValue, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+
+    /**
+     * Reads a whole number setting that may be larger than an int.
+     *
+     * @param  property     The system property name.
+     * @param  environment  The environment variable name.
+     * @param  defaultValue The value used when neither is set or the value isn't a whole number.
+     * @return long         Returns the setting value.
+     */
+    public static long getLong(String property, String environment, long defaultValue) {
+
+        return getLong(property, environment, defaultValue, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Reads a whole number setting, falling back to the default (with a warning) when it isn't one or is out of range.
+     */
+    private static long getLong(String property, String environment, long defaultValue, long min, long max) {
+
+        String value = get(property, environment, null);
+        if (value == null) { return defaultValue; }
+
+        try {
+
+            long number = Long.parseLong(value);
+            if (number >= min && number <= max) { return number; }
+        } catch (NumberFormatException e) {
+            // Falls through to the warning below
+        }
+
+        System.err.println("Setting " + property + " (" + environment + ") is not a valid number: '" + value + "', using " + defaultValue + " instead.");
+        return defaultValue;
+    }
+}
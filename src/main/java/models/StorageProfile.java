@@ -0,0 +1,108 @@
+package models;
+
+import java.sql.*;
+
+/**
+ * Named sets of SQLite storage settings (PRAGMAs) applied to every connection when it is opened.
+ * Pick one with the 'mindscape.db.profile' system property or the MINDSCAPE_DB_PROFILE environment variable.
+ * @author Isabella Castillo
+ */
+public enum StorageProfile {
+
+    // Every commit is fsynced, for when losing the last write after a power cut is not acceptable
+    DURABLE("durable", "WAL", "FULL", 0L, -8_192, "DEFAULT", 5_000),
+
+    // WAL with NORMAL sync only fsyncs at checkpoints, commits stay atomic and readers never wait on the writer
+    BALANCED("balanced", "WAL", "NORMAL", 268_435_456L, -32_768, "MEMORY", 5_000),
+
+    // For imports and test data generation, trades crash safety for speed
+    BULK_LOAD("bulk-load", "WAL", "OFF", 268_435_456L, -131_072, "MEMORY", 30_000);
+
+    private final String profileName;
+    private final String journalMode;
+    private final String synchronous;
+    private final long mmapSize;
+    private final int cacheSize;
+    private final String tempStore;
+    private final int busyTimeoutMs;
+
+
+    /**
+     * StorageProfile constant.
+     *
+     * @param profileName   The name used to pick the profile from outside the code.
+     * @param journalMode   The journal_mode PRAGMA value.
+     * @param synchronous   The synchronous PRAGMA value.
+     * @param mmapSize      The mmap_size PRAGMA value in bytes (0 turns memory mapping off).
+     * @param cacheSize     The cache_size PRAGMA value (negative values are in KiB).
+     * @param tempStore     The temp_store PRAGMA value.
+     * @param busyTimeoutMs The busy_timeout PRAGMA value in milliseconds.
+     */
+    StorageProfile(String profileName, String journalMode, String synchronous, long mmapSize, int cacheSize, String tempStore, int busyTimeoutMs) {
+
+        this.profileName = profileName;
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSize = mmapSize;
+        this.cacheSize = cacheSize;
+        this.tempStore = tempStore;
+        this.busyTimeoutMs = busyTimeoutMs;
+    }
+
+
+    /**
+     * Applies the profile's PRAGMAs to a freshly opened connection.
+     * The journal mode is stored in the database file itself, so it is only set through the writer connection.
+     *
+     * @param  conn         The connection to configure.
+     * @param  isWriter     T/F on if this is the writer connection.
+     * @throws SQLException If an error occurs.
+     */
+    public void apply(Connection conn, boolean isWriter) throws SQLException {
+
+        try (Statement stmt = conn.createStatement()) {
+
+            stmt.execute("PRAGMA busy_timeout = " + busyTimeoutMs);
+
+            if (isWriter) {
+                stmt.execute("PRAGMA journal_mode = " + journalMode);
+            }
+
+            stmt.execute("PRAGMA synchronous = " + synchronous);
+            stmt.execute("PRAGMA mmap_size = " + mmapSize);
+            stmt.execute("PRAGMA cache_size = " + cacheSize);
+            stmt.execute("PRAGMA temp_store = " + tempStore);
+        }
+    }
+
+
+    /**
+     * Finds a profile by its name (ie "durable", "balanced", "bulk-load"), ignoring case.
+     *
+     * @param  name           The name of the profile.
+     * @return StorageProfile Returns the matching profile.
+     * @throws IllegalArgumentException If no profile has that name.
+     */
+    public static StorageProfile fromName(String name) {
+
+        for (StorageProfile profile : values()) {
+
+            if (profile.profileName.equalsIgnoreCase(name.trim()) || profile.name().equalsIgnoreCase(name.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown storage profile: " + name);
+    }
+
+
+    /**
+     * Set of getters for the settings within the StorageProfile.
+     */
+    public String getProfileName() { return profileName; }
+    public String getJournalMode() { return journalMode; }
+    public String getSynchronous() { return synchronous; }
+    public long getMmapSize() { return mmapSize; }
+    public int getCacheSize() { return cacheSize; }
+    public String getTempStore() { return tempStore; }
+    public int getBusyTimeoutMs() { return busyTimeoutMs; }
+}
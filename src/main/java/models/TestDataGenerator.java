@@ -2,7 +2,6 @@ package models;
 
 import java.sql.*;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.util.Random;
 
 /**
@@ -13,8 +12,8 @@ import java.util.Random;
 public class TestDataGenerator {
 
     // Creating objects needed
-    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final Random random = new Random();
+    private static final int BATCH_SIZE = 500;
 
 
     /**
@@ -24,6 +23,9 @@ public class TestDataGenerator {
 
         try {
 
+            // Using the bulk load profile so inserts aren't fsynced one by one
+            DatabaseConnection.configure(DatabaseConnection.getDatabasePath(), StorageProfile.BULK_LOAD);
+
             // Mocking a 6 month (180 days) period of test data
             clearExistingData();
             generateMoodEntries(160);
@@ -32,6 +34,8 @@ public class TestDataGenerator {
 
         } catch (SQLException e) {
             System.err.println("Error: " + e.getMessage());
+        } finally {
+            DatabaseConnection.close();
         }
     }
 
@@ -68,6 +72,8 @@ public class TestDataGenerator {
         // Try connecting and inserting data into database with randomized dates and times (randomness may not show human trends, but helps with testing)
         try (Connection conn = DatabaseConnection.connect(); PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // Inserting every row in one transaction instead of committing each one
+            conn.setAutoCommit(false);
             LocalDateTime now = LocalDateTime.now();
             String[] tags = {"Work", "Family", null, "Friends", "Health", "Hobby", null, "Exercise", "Sleep", "Food", "Weather", null};
 
@@ -82,9 +88,14 @@ public class TestDataGenerator {
 
                 pstmt.setInt(1, moodId);
                 pstmt.setString(2, tag);
-                pstmt.setString(3, date.format(DB_DATE_FORMAT));
-                pstmt.executeUpdate();
+                pstmt.setString(3, TimestampCodec.format(date));
+                pstmt.addBatch();
+
+                // Sending the batch to the database in chunks so memory stays flat for large counts
+                if ((i + 1) % BATCH_SIZE == 0) { pstmt.executeBatch(); }
             }
+            pstmt.executeBatch();
+            conn.commit();
         }
     }
 
@@ -102,6 +113,8 @@ public class TestDataGenerator {
         // Try connecting and inserting data into database with randomized dates and times (randomness may not show human trends, but helps with testing)
         try (Connection conn = DatabaseConnection.connect();  PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // Inserting every row in one transaction instead of committing each one
+            conn.setAutoCommit(false);
             LocalDateTime now = LocalDateTime.now();
 
             for (int i = 0; i < count; i++) {
@@ -122,10 +135,15 @@ public class TestDataGenerator {
                 pstmt.setInt(1, exerciseId);
                 pstmt.setInt(2, moodBeforeId);
                 pstmt.setInt(3, moodAfterId);
-                pstmt.setString(4, startTime.format(DB_DATE_FORMAT));
-                pstmt.setString(5, endTime.format(DB_DATE_FORMAT));
-                pstmt.executeUpdate();
+                pstmt.setString(4, TimestampCodec.format(startTime));
+                pstmt.setString(5, TimestampCodec.format(endTime));
+                pstmt.addBatch();
+
+                // Sending the batch to the database in chunks so memory stays flat for large counts
+                if ((i + 1) % BATCH_SIZE == 0) { pstmt.executeBatch(); }
             }
+            pstmt.executeBatch();
+            conn.commit();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package models;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Sizes of the time buckets chart data can be grouped into, from finest to coarsest.
+ * Hour buckets start on the hour, day buckets at midnight, week buckets on Monday and month buckets on the 1st.
+ * @author Isabella Castillo
+ */
+public enum TimeBucket {
+
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS),
+    WEEK(ChronoUnit.WEEKS),
+    MONTH(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+
+    /**
+     * TimeBucket constant.
+     *
+     * @param unit The unit of time one bucket covers.
+     */
+    TimeBucket(ChronoUnit unit) { this.unit = unit; }
+
+
+    /**
+     * Picks the finest bucket size that splits a range into no more than the given number of buckets.
+     * Useful for matching the detail of a chart to its width, such as one bucket per few pixels.
+     *
+     * @param  start      Range start time.
+     * @param  end        Range end time.
+     * @param  maxBuckets The most buckets wanted.
+     * @return TimeBucket Returns the finest size that fits, or MONTH if none do.
+     */
+    public static TimeBucket forSpan(LocalDateTime start, LocalDateTime end, int maxBuckets) {
+
+        for (TimeBucket size : values()) {
+
+            // Buckets touched by the range, counting the partial ones at each end
+            if (size.unit.between(start, end) + 2 <= maxBuckets) { return size; }
+        }
+        return MONTH;
+    }
+
+
+    /**
+     * Gets the unit of time one bucket covers.
+     *
+     * @return ChronoUnit Returns the unit.
+     */
+    public ChronoUnit getUnit() { return unit; }
+}
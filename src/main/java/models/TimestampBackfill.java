@@ -0,0 +1,158 @@
+package models;
+
+import java.sql.*;
+
+/**
+ * Class to fill in the integer epoch time columns for rows that were written before they existed.
+ * Rows are converted in small chunks, each in its own short transaction, on a background thread so the application stays usable while it runs.
+ * Until it finishes the DAOs keep filtering on the TEXT columns, so range queries stay correct the whole time.
+ * @author Isabella Castillo
+ */
+public class TimestampBackfill {
+
+    private static final int CHUNK_SIZE = 1_000;
+
+    // Each entry is {table, key column, SET clause, WHERE clause for rows still needing conversion, WHERE clause for rows whose TEXT time doesn't parse}
+    // Only rows whose TEXT time parses count as needing conversion, one that doesn't would otherwise be picked up again by every chunk
+    private static final String[][] TABLES = {
+
+            {"mood_entries", "entry_id", "entry_epoch = " + SchemaMigrator.epochOf("entry_date_and_time"),
+                    missing("entry_epoch", "entry_date_and_time"), unparseable("entry_epoch", "entry_date_and_time")},
+            {"journal", "journal_id", "entry_epoch = " + SchemaMigrator.epochOf("entry_date_and_time"),
+                    missing("entry_epoch", "entry_date_and_time"), unparseable("entry_epoch", "entry_date_and_time")},
+            {"exercise_entries", "log_id", "start_epoch = " + SchemaMigrator.epochOf("start_time") + ", end_epoch = " + SchemaMigrator.epochOf("end_time"),
+                    missing("start_epoch", "start_time") + " OR " + missing("end_epoch", "end_time"),
+                    unparseable("start_epoch", "start_time") + " OR " + unparseable("end_epoch", "end_time")}
+    };
+
+    private static volatile boolean complete = false;
+    private static Thread worker;
+
+    // To prevent accidental object instantiation
+    private TimestampBackfill() {}
+
+
+    /**
+     * Checks for rows that still need converting and starts the background conversion if there are any.
+     * Called each time the connection pool is created, once the schema has been migrated.
+     *
+     * @throws SQLException If an error occurs while checking.
+     */
+    public static synchronized void start() throws SQLException {
+
+        if (worker != null && worker.isAlive()) { return; }
+
+        complete = !hasPendingRows();
+        if (complete) { return; }
+
+        worker = new Thread(TimestampBackfill::run, "timestamp-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+
+    /**
+     * Checks if every row has its epoch columns filled in.
+     * The DAOs only switch their range filters and sorting to the epoch columns once this returns true.
+     *
+     * @return boolean Returns T/F based on if the backfill has finished.
+     */
+    public static boolean isComplete() { return complete; }
+
+
+    /**
+     * Converts every table chunk by chunk, then marks the backfill complete.
+     * Chunks are walked in key order, each starting after the last key of the one before, so every row is visited once
+     * and a row that can't be converted never holds the loop up. Rows whose TEXT time doesn't parse are logged and left as they are.
+     */
+    private static void run() {
+
+        try {
+
+            for (String[] table : TABLES) {
+
+                String query = "UPDATE " + table[0] + " SET " + table[2] + " WHERE " + table[1] + " IN (SELECT " + table[1] + " FROM " + table[0]
+                        + " WHERE " + table[1] + " > ? AND (" + table[3] + ") ORDER BY " + table[1] + " LIMIT " + CHUNK_SIZE + ") RETURNING " + table[1];
+                long lastKey = Long.MIN_VALUE;
+                boolean updated;
+
+                do {
+
+                    updated = false;
+
+                    // Taking the writer only for one chunk at a time so user writes can get in between chunks
+                    try (Connection conn = DatabaseConnection.connect(); PreparedStatement stmt = conn.prepareStatement(query)) {
+
+                        stmt.setLong(1, lastKey);
+                        try (ResultSet rs = stmt.executeQuery()) {
+
+                            while (rs.next()) {
+                                lastKey = Math.max(lastKey, rs.getLong(1));
+                                updated = true;
+                            }
+                        }
+                    }
+                } while (updated);
+
+                logUnparseableRows(table);
+            }
+            complete = !hasPendingRows();
+
+        } catch (SQLException e) {
+
+            // Leaving complete as false keeps the DAOs on the TEXT columns, the next start() will try again
+            System.err.println("Timestamp backfill stopped: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Logs the rows of a table that were skipped because their TEXT time doesn't parse (they keep a NULL epoch).
+     */
+    private static void logUnparseableRows(String[] table) throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + table[1] + " FROM " + table[0] + " WHERE " + table[4])) {
+
+            while (rs.next()) {
+                System.err.println("Timestamp backfill skipped " + table[0] + " row " + rs.getLong(1) + ": its time could not be read.");
+            }
+        }
+    }
+
+
+    /**
+     * Checks if any table still has rows without epoch values.
+     */
+    private static boolean hasPendingRows() throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement()) {
+
+            for (String[] table : TABLES) {
+
+                try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table[0] + " WHERE " + table[3] + ")")) {
+                    if (rs.next() && rs.getInt(1) == 1) { return true; }
+                }
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Builds the WHERE clause for a row missing an epoch value that its TEXT time can fill in.
+     */
+    private static String missing(String epochColumn, String textColumn) {
+
+        return "(" + epochColumn + " IS NULL AND " + SchemaMigrator.epochOf(textColumn) + " IS NOT NULL)";
+    }
+
+
+    /**
+     * Builds the WHERE clause for a row with a TEXT time that doesn't parse, so its epoch value can't be filled in.
+     */
+    private static String unparseable(String epochColumn, String textColumn) {
+
+        return "(" + epochColumn + " IS NULL AND " + textColumn + " IS NOT NULL AND " + SchemaMigrator.epochOf(textColumn) + " IS NULL)";
+    }
+}
@@ -0,0 +1,120 @@
+package models;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Fast parser and formatter for the fixed 'yyyy-MM-dd HH:mm:ss' timestamps stored in the database.
+ * Parsing reads the digits straight out of the string and formatting writes into a reused per-thread buffer,
+ * so neither goes through DateTimeFormatter's parsed field maps or builder objects.
+ * @author Isabella Castillo
+ */
+public final class TimestampCodec {
+
+    private static final int LENGTH = 19;
+
+    // One buffer per thread so formatting never allocates anything but the resulting String
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[LENGTH]);
+
+    // To prevent accidental object instantiation
+    private TimestampCodec() {}
+
+
+    /**
+     * Parses a 'yyyy-MM-dd HH:mm:ss' timestamp.
+     *
+     * @param  text          The timestamp text from the database.
+     * @return LocalDateTime Returns the parsed date and time.
+     * @throws DateTimeParseException If the text isn't in the expected layout or isn't a real date and time.
+     */
+    public static LocalDateTime parse(CharSequence text) {
+
+        if (text == null || text.length() != LENGTH || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            throw new DateTimeParseException("Timestamp must be in the form yyyy-MM-dd HH:mm:ss", text == null ? "" : text, 0);
+        }
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+
+        try {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        } catch (java.time.DateTimeException e) {
+            throw new DateTimeParseException(e.getMessage(), text, 0, e);
+        }
+    }
+
+
+    /**
+     * Formats a date and time as 'yyyy-MM-dd HH:mm:ss' (seconds are truncated, same as the old formatter).
+     *
+     * @param  dateTime The date and time to format (years 0 to 9999).
+     * @return String   Returns the formatted timestamp.
+     */
+    public static String format(LocalDateTime dateTime) {
+
+        char[] buffer = BUFFER.get();
+        formatTo(dateTime, buffer, 0);
+        return new String(buffer, 0, LENGTH);
+    }
+
+
+    /**
+     * Writes a date and time as 'yyyy-MM-dd HH:mm:ss' into a caller supplied buffer.
+     * Useful for bulk exports that build one large buffer.
+     *
+     * @param dateTime The date and time to format (years 0 to 9999).
+     * @param buffer   The buffer to write into, needs 19 free characters from the offset.
+     * @param offset   The index to start writing at.
+     */
+    public static void formatTo(LocalDateTime dateTime, char[] buffer, int offset) {
+
+        int year = dateTime.getYear();
+        if (year < 0 || year > 9999) { throw new IllegalArgumentException("Year out of range for database timestamps: " + year); }
+
+        write(buffer, offset, year, 4);
+        buffer[offset + 4] = '-';
+        write(buffer, offset + 5, dateTime.getMonthValue(), 2);
+        buffer[offset + 7] = '-';
+        write(buffer, offset + 8, dateTime.getDayOfMonth(), 2);
+        buffer[offset + 10] = ' ';
+        write(buffer, offset + 11, dateTime.getHour(), 2);
+        buffer[offset + 13] = ':';
+        write(buffer, offset + 14, dateTime.getMinute(), 2);
+        buffer[offset + 16] = ':';
+        write(buffer, offset + 17, dateTime.getSecond(), 2);
+    }
+
+
+    /**
+     * Reads a fixed number of decimal digits as an int.
+     */
+    private static int digits(CharSequence text, int start, int count) {
+
+        int value = 0;
+
+        for (int i = start; i < start + count; i++) {
+
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) { throw new DateTimeParseException("Expected a digit", text, i); }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+
+    /**
+     * Writes a value as a fixed number of zero padded decimal digits.
+     */
+    private static void write(char[] buffer, int start, int value, int count) {
+
+        for (int i = start + count - 1; i >= start; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package view;
+
+import javafx.geometry.Bounds;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.IntToDoubleFunction;
+
+import models.Downsampling;
+
+/**
+ * Line chart drawn onto a single Canvas instead of a LineChart's scene graph, so a dense series costs a few arrays instead of nodes and listeners per point.
+ * Draws its own axes and grid, plots about one point per pixel of width (see Downsampling) and redraws everything only when resized or given new data.
+ * Hovering is hit-tested against every point (not just the plotted ones) through a grid of screen cells, and moving the highlight
+ * only redraws the small areas around the old and new highlighted point.
+ * @author Isabella Castillo
+ */
+final class CanvasLineChart extends Region {
+
+    // Colors and sizes matching the default JavaFX chart look with the app's line color
+    private static final Color PLOT_BACKGROUND = Color.web("#f4f4f4");
+    private static final Color GRID_LINE = Color.web("#dcdcdc");
+    private static final Color AXIS_LINE = Color.web("#b0b0b0");
+    private static final Color TICK_LABEL = Color.web("#707070");
+    private static final Color LINE = Color.web("#768894");
+    private static final Font TICK_FONT = Font.font("Segoe UI", 14);
+    private static final double LINE_WIDTH = 2;
+    private static final double TICK_LENGTH = 5;
+    private static final double LABEL_GAP = 4;
+    private static final double MARKER_RADIUS = 6;
+
+    // Hovering finds points within this many pixels of the mouse, looked up in square cells of the same size
+    private static final double HOVER_RADIUS = 12;
+    private static final double CELL_SIZE = HOVER_RADIUS;
+
+    private final Canvas canvas = new Canvas();
+
+    // Axis ranges and labels
+    private double xLower, xUpper, xTickUnit = 1;
+    private double yLower, yUpper, yTickUnit = 1;
+    private DoubleFunction<String> xLabels = String::valueOf;
+    private DoubleFunction<String> yLabels = String::valueOf;
+
+    // Every point of the series, sorted by x
+    private double[] xs = new double[0];
+    private double[] ys = new double[0];
+
+    // Screen positions of the plotted (downsampled) points, worked out on each full render
+    private double[] plottedX = new double[0];
+    private double[] plottedY = new double[0];
+
+    // Plot area on the canvas
+    private double plotLeft, plotTop, plotRight, plotBottom;
+
+    // Grid of screen cells over the plot area, the points in cell c are cellPoints[cellStart[c]] up to cellPoints[cellStart[c + 1]]
+    private int columns, rows;
+    private int[] cellStart = new int[1];
+    private int[] cellPoints = new int[0];
+
+    private int hovered = -1;
+    private BiConsumer<MouseEvent, Integer> onHover = (event, index) -> {};
+
+
+    /**
+     * Creates an empty chart, nothing is drawn until it's laid out.
+     *
+     * @param prefWidth  The preferred width of the chart.
+     * @param prefHeight The preferred height of the chart.
+     */
+    CanvasLineChart(double prefWidth, double prefHeight) {
+
+        setPrefSize(prefWidth, prefHeight);
+        getChildren().add(canvas);
+
+        canvas.setOnMouseMoved(this::mouseMoved);
+        canvas.setOnMouseExited(event -> setHovered(event, -1));
+    }
+
+
+    /**
+     * Sets the range and labels of the x axis.
+     *
+     * @param lower    The value at the left edge.
+     * @param upper    The value at the right edge.
+     * @param tickUnit The gap between labeled ticks.
+     * @param labels   Turns a tick value into its label.
+     */
+    void setXAxis(double lower, double upper, double tickUnit, DoubleFunction<String> labels) {
+
+        xLower = lower;
+        xUpper = upper;
+        xTickUnit = tickUnit;
+        xLabels = labels;
+        requestLayout();
+    }
+
+
+    /**
+     * Sets the range and labels of the y axis.
+     *
+     * @param lower    The value at the bottom edge.
+     * @param upper    The value at the top edge.
+     * @param tickUnit The gap between labeled ticks.
+     * @param labels   Turns a tick value into its label.
+     */
+    void setYAxis(double lower, double upper, double tickUnit, DoubleFunction<String> labels) {
+
+        yLower = lower;
+        yUpper = upper;
+        yTickUnit = tickUnit;
+        yLabels = labels;
+        requestLayout();
+    }
+
+
+    /**
+     * Sets the points of the series (copied, so the source can be thrown away) and draws them.
+     *
+     * @param size The number of points.
+     * @param x    Gets the x value of the point at an index (must not decrease as the index grows).
+     * @param y    Gets the y value of the point at an index.
+     */
+    void setData(int size, IntToDoubleFunction x, IntToDoubleFunction y) {
+
+        xs = new double[size];
+        ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            xs[i] = x.applyAsDouble(i);
+            ys[i] = y.applyAsDouble(i);
+        }
+        hovered = -1;
+        render();
+    }
+
+
+    /**
+     * Sets what happens when the point under the mouse changes.
+     *
+     * @param onHover Called with the mouse event and the index of the hovered point (in the data given to setData), or -1 once no point is hovered.
+     */
+    void setOnHover(BiConsumer<MouseEvent, Integer> onHover) { this.onHover = onHover; }
+
+
+    /**
+     * Resizes the canvas to the chart and draws it again.
+     */
+    @Override
+    protected void layoutChildren() {
+
+        canvas.setWidth(Math.max(0, snapSizeX(getWidth())));
+        canvas.setHeight(Math.max(0, snapSizeY(getHeight())));
+        render();
+    }
+
+
+    /**
+     * Draws the whole chart and rebuilds the plotted points and hover index for the current size.
+     */
+    private void render() {
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+
+        // Working out the plot area, leaving room for the widest y label and a row of x labels
+        double yLabelWidth = 0;
+        for (double value = yLower; value <= yUpper; value += yTickUnit) {
+            yLabelWidth = Math.max(yLabelWidth, textBounds(yLabels.apply(value)).getWidth());
+        }
+        double labelHeight = textBounds("0").getHeight();
+
+        plotLeft = snappedLeftInset() + yLabelWidth + LABEL_GAP + TICK_LENGTH;
+        plotTop = snappedTopInset() + labelHeight / 2;
+        plotRight = canvas.getWidth() - snappedRightInset();
+        plotBottom = canvas.getHeight() - snappedBottomInset() - labelHeight - LABEL_GAP - TICK_LENGTH;
+        if (plotRight <= plotLeft || plotBottom <= plotTop) { return; }
+
+        plotPoints();
+        buildCellIndex();
+
+        drawPlot(gc);
+        drawAxes(gc);
+    }
+
+
+    /**
+     * Picks the points to plot (about one per pixel of plot width) and works out their screen positions.
+     */
+    private void plotPoints() {
+
+        int[] kept = Downsampling.largestTriangleThreeBuckets(xs.length, i -> xs[i], i -> ys[i], (int) (plotRight - plotLeft));
+        plottedX = new double[kept.length];
+        plottedY = new double[kept.length];
+
+        for (int i = 0; i < kept.length; i++) {
+            plottedX[i] = toScreenX(xs[kept[i]]);
+            plottedY[i] = toScreenY(ys[kept[i]]);
+        }
+    }
+
+
+    /**
+     * Sorts every point into the screen cell it falls in (a counting sort, so two passes over the points).
+     */
+    private void buildCellIndex() {
+
+        columns = Math.max(1, (int) Math.ceil((plotRight - plotLeft) / CELL_SIZE));
+        rows = Math.max(1, (int) Math.ceil((plotBottom - plotTop) / CELL_SIZE));
+        cellStart = new int[columns * rows + 1];
+        cellPoints = new int[xs.length];
+
+        // Counting the points per cell (points off the plot area aren't indexed), then turning the counts into start positions
+        int[] cells = new int[xs.length];
+        for (int i = 0; i < xs.length; i++) {
+            cells[i] = cellOf(toScreenX(xs[i]), toScreenY(ys[i]));
+            if (cells[i] >= 0) { cellStart[cells[i] + 1]++; }
+        }
+        for (int c = 0; c < columns * rows; c++) { cellStart[c + 1] += cellStart[c]; }
+
+        int[] next = cellStart.clone();
+        for (int i = 0; i < xs.length; i++) {
+            if (cells[i] >= 0) { cellPoints[next[cells[i]]++] = i; }
+        }
+    }
+
+
+    /**
+     * Draws the plot background, grid, line and highlighted point, only within the given area of the plot.
+     */
+    private void drawPlot(GraphicsContext gc, double left, double top, double right, double bottom) {
+
+        left = Math.max(left, plotLeft);
+        top = Math.max(top, plotTop);
+        right = Math.min(right, plotRight);
+        bottom = Math.min(bottom, plotBottom);
+        if (right <= left || bottom <= top) { return; }
+
+        gc.save();
+        gc.beginPath();
+        gc.rect(left, top, right - left, bottom - top);
+        gc.clip();
+
+        gc.setFill(PLOT_BACKGROUND);
+        gc.fillRect(left, top, right - left, bottom - top);
+
+        // Grid lines at every tick
+        gc.setStroke(GRID_LINE);
+        gc.setLineWidth(1);
+        for (double value = xLower; value <= xUpper; value += xTickUnit) {
+            double x = snap(toScreenX(value));
+            if (x >= left - 1 && x <= right + 1) { gc.strokeLine(x, plotTop, x, plotBottom); }
+        }
+        for (double value = yLower; value <= yUpper; value += yTickUnit) {
+            double y = snap(toScreenY(value));
+            if (y >= top - 1 && y <= bottom + 1) { gc.strokeLine(plotLeft, y, plotRight, y); }
+        }
+
+        // Only the run of line segments crossing the area, found by binary search on the (sorted) screen x positions
+        int from = Math.max(0, lowerBound(plottedX, left) - 1);
+        int to = Math.min(plottedX.length, lowerBound(plottedX, right) + 1);
+        if (to - from >= 2) {
+
+            gc.setStroke(LINE);
+            gc.setLineWidth(LINE_WIDTH);
+            gc.strokePolyline(Arrays.copyOfRange(plottedX, from, to), Arrays.copyOfRange(plottedY, from, to), to - from);
+        }
+
+        // Highlighted point, drawn as the LineChart draws its symbols
+        if (hovered >= 0) {
+
+            double x = toScreenX(xs[hovered]);
+            double y = toScreenY(ys[hovered]);
+            gc.setFill(Color.WHITE);
+            gc.fillOval(x - MARKER_RADIUS, y - MARKER_RADIUS, MARKER_RADIUS * 2, MARKER_RADIUS * 2);
+            gc.setFill(LINE);
+            gc.fillOval(x - MARKER_RADIUS + 2, y - MARKER_RADIUS + 2, MARKER_RADIUS * 2 - 4, MARKER_RADIUS * 2 - 4);
+        }
+        gc.restore();
+    }
+
+
+    /**
+     * Draws the whole plot area.
+     */
+    private void drawPlot(GraphicsContext gc) { drawPlot(gc, plotLeft, plotTop, plotRight, plotBottom); }
+
+
+    /**
+     * Draws the axis lines, ticks and tick labels around the plot area.
+     */
+    private void drawAxes(GraphicsContext gc) {
+
+        gc.setStroke(AXIS_LINE);
+        gc.setLineWidth(1);
+        gc.strokeLine(snap(plotLeft), plotTop, snap(plotLeft), plotBottom);
+        gc.strokeLine(plotLeft, snap(plotBottom), plotRight, snap(plotBottom));
+
+        gc.setFont(TICK_FONT);
+        gc.setFill(TICK_LABEL);
+
+        // Y ticks with labels right aligned against the axis
+        gc.setTextAlign(TextAlignment.RIGHT);
+        gc.setTextBaseline(VPos.CENTER);
+        for (double value = yLower; value <= yUpper; value += yTickUnit) {
+
+            double y = snap(toScreenY(value));
+            gc.strokeLine(plotLeft - TICK_LENGTH, y, plotLeft, y);
+            gc.fillText(yLabels.apply(value), plotLeft - TICK_LENGTH - LABEL_GAP, y);
+        }
+
+        // X ticks with labels centered under them
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.TOP);
+        for (double value = xLower; value <= xUpper; value += xTickUnit) {
+
+            double x = snap(toScreenX(value));
+            gc.strokeLine(x, plotBottom, x, plotBottom + TICK_LENGTH);
+            gc.fillText(xLabels.apply(value), x, plotBottom + TICK_LENGTH + LABEL_GAP);
+        }
+    }
+
+
+    /**
+     * Highlights the point nearest the mouse, if any is within the hover radius.
+     */
+    private void mouseMoved(MouseEvent event) {
+
+        double mouseX = event.getX();
+        double mouseY = event.getY();
+        int nearest = -1;
+        double nearestDistance = HOVER_RADIUS * HOVER_RADIUS;
+
+        // The radius is one cell, so checking the mouse's cell and the eight around it covers every point in range
+        int column = (int) Math.floor((mouseX - plotLeft) / CELL_SIZE);
+        int row = (int) Math.floor((mouseY - plotTop) / CELL_SIZE);
+
+        for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+
+                int cell = r * columns + c;
+                for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+
+                    int point = cellPoints[p];
+                    double dx = toScreenX(xs[point]) - mouseX;
+                    double dy = toScreenY(ys[point]) - mouseY;
+                    double distance = dx * dx + dy * dy;
+
+                    // Ties go to the older point so the result doesn't depend on cell order
+                    if (distance < nearestDistance || (distance == nearestDistance && nearest >= 0 && point < nearest)) {
+                        nearestDistance = distance;
+                        nearest = point;
+                    }
+                }
+            }
+        }
+        setHovered(event, nearest);
+    }
+
+
+    /**
+     * Moves the highlight to another point, redrawing only the areas around the old and new point.
+     */
+    private void setHovered(MouseEvent event, int point) {
+
+        if (point == hovered) { return; }
+
+        int previous = hovered;
+        hovered = point;
+
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        if (previous >= 0) { drawPlot(gc, markerBounds(previous)); }
+        if (point >= 0) { drawPlot(gc, markerBounds(point)); }
+
+        onHover.accept(event, point);
+    }
+
+
+    /**
+     * Draws the plot within the area a point's highlight covers (left, top, right, bottom).
+     */
+    private void drawPlot(GraphicsContext gc, double[] area) { drawPlot(gc, area[0], area[1], area[2], area[3]); }
+
+
+    /**
+     * Gets the area (left, top, right, bottom) a point's highlight covers, with a pixel to spare for antialiasing.
+     */
+    private double[] markerBounds(int point) {
+
+        double x = toScreenX(xs[point]);
+        double y = toScreenY(ys[point]);
+        double radius = MARKER_RADIUS + 1;
+        return new double[] { Math.floor(x - radius), Math.floor(y - radius), Math.ceil(x + radius), Math.ceil(y + radius) };
+    }
+
+
+    /**
+     * Gets the cell a screen position falls in, or -1 if it's off the plot area.
+     */
+    private int cellOf(double x, double y) {
+
+        if (x < plotLeft || x > plotRight || y < plotTop || y > plotBottom) { return -1; }
+        int column = Math.min(columns - 1, (int) ((x - plotLeft) / CELL_SIZE));
+        int row = Math.min(rows - 1, (int) ((y - plotTop) / CELL_SIZE));
+        return row * columns + column;
+    }
+
+
+    /**
+     * Gets the index of the first value at or after the key in a sorted array.
+     */
+    private static int lowerBound(double[] values, double key) {
+
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) { low = mid + 1; }
+            else { high = mid; }
+        }
+        return low;
+    }
+
+
+    /**
+     * Set of helpers converting values to screen positions and measuring text.
+     */
+    private double toScreenX(double value) { return plotLeft + (value - xLower) / (xUpper - xLower) * (plotRight - plotLeft); }
+    private double toScreenY(double value) { return plotBottom - (value - yLower) / (yUpper - yLower) * (plotBottom - plotTop); }
+    private static double snap(double position) { return Math.floor(position) + 0.5; }
+    private static Bounds textBounds(String text) { Text measure = new Text(text); measure.setFont(TICK_FONT); return measure.getLayoutBounds(); }
+}
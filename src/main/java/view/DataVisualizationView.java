@@ -10,15 +10,17 @@ import javafx.scene.input.*;
 import javafx.scene.layout.*;
 import javafx.scene.text.TextAlignment;
 import javafx.util.Duration;
-import java.sql.*;
 import java.time.*;
 import java.util.*;
 import java.time.format.DateTimeFormatter;
 
-import models.Mood;
+import dao.ReferenceCatalog;
+import models.MoodBucket;
 import models.MoodEntry;
 import models.Exercise;
-import models.ExerciseEntry;
+import models.ExerciseMoodStats;
+import models.MoodCategoryCount;
+import controller.ChartDatasets;
 import controller.DataVisualizationController;
 
 /**
@@ -37,13 +39,32 @@ public class DataVisualizationView {
     private LocalDateTime currStartDate;
     private LocalDateTime currEndDate;
     private String currTimeRange = "1M";
+
+    // Counts range selections, so a range looked up in the background (All) is dropped if another one was picked in the meantime
+    private int rangeSelection;
     private Tooltip tooltip = new Tooltip();
 
+    // The predefined moods and exercises, loaded before the view was built (names by ID)
+    private final ReferenceCatalog catalog;
+
+    // Datasets of all four charts for the current range, prepared as soon as the range is set
+    private ChartDatasets datasets;
+
+    // Mood over time chart: its width, roughly how many date labels to show, and how wide a time bucket is drawn on long ranges
+    private static final int MOOD_CHART_WIDTH = 600;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final int X_AXIS_TICKS = 8;
+    private static final int PIXELS_PER_BUCKET = 4;
+
 
     /**
      * Creates the view and initializes the layout.
+     *
+     * @param catalog The predefined moods and exercises (for axis labels, slices, tooltips and the exercise chart's bars).
      */
-    public DataVisualizationView() {
+    public DataVisualizationView(ReferenceCatalog catalog) {
+
+        this.catalog = catalog;
 
         // Setting root and title styling
         root.setPadding(new Insets(40));
@@ -56,6 +77,9 @@ public class DataVisualizationView {
         StackPane card = new StackPane(cardContent);
         card.getStyleClass().add("card");
 
+        // Starting on the default range, so the charts' datasets are already being prepared while a chart is picked
+        updateDateRange(currTimeRange);
+
         // Building the initial layout by loading in the button options
         root.getChildren().addAll(title, card);
         loadChartButtons();
@@ -155,7 +179,7 @@ public class DataVisualizationView {
 
 
     /**
-     * Creates time range selection buttons in the chart view (1W, 1M, 3M, 6M).
+     * Creates time range selection buttons in the chart view (1W, 1M, 3M, 6M, All, and Custom with a pair of date pickers).
      * 
      * @param  updateAction The action performed when a time range is selected.
      * @return HBox         Returns an HBox with time range selection buttons.
@@ -180,7 +204,28 @@ public class DataVisualizationView {
         ToggleButton sixMonthsButton = new ToggleButton("6M");
         sixMonthsButton.setToggleGroup(timeRangeGroup);
         sixMonthsButton.getStyleClass().add("action-button");
+
+        ToggleButton allTimeButton = new ToggleButton("All");
+        allTimeButton.setToggleGroup(timeRangeGroup);
+        allTimeButton.getStyleClass().add("action-button");
+
+        ToggleButton customButton = new ToggleButton("Custom");
+        customButton.setToggleGroup(timeRangeGroup);
+        customButton.getStyleClass().add("action-button");
         String selectedStyle = "-fx-border-color: white; -fx-border-width: 1px;";
+        ToggleButton[] allButtons = { oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton, allTimeButton, customButton };
+
+        // Creating the custom range pickers (only shown while Custom is selected), starting on the current range
+        DatePicker fromPicker = new DatePicker(currStartDate.toLocalDate());
+        DatePicker toPicker = new DatePicker(currEndDate.toLocalDate());
+        fromPicker.setPrefWidth(140);
+        toPicker.setPrefWidth(140);
+        Button applyButton = new Button("Apply");
+        applyButton.getStyleClass().add("action-button");
+        HBox customRangeBox = new HBox(10, fromPicker, new Label("to"), toPicker, applyButton);
+        customRangeBox.setAlignment(Pos.CENTER);
+        customRangeBox.setVisible(false);
+        customRangeBox.managedProperty().bind(customRangeBox.visibleProperty());
 
         // Swapping the selected button based on currentTimeRange chosen
         switch (currTimeRange) {
@@ -204,43 +249,98 @@ public class DataVisualizationView {
                 sixMonthsButton.setSelected(true);
                 sixMonthsButton.setStyle(selectedStyle);
                 break;
+
+            case "All":
+                allTimeButton.setSelected(true);
+                allTimeButton.setStyle(selectedStyle);
+                break;
+
+            case "Custom":
+                customButton.setSelected(true);
+                customButton.setStyle(selectedStyle);
+                customRangeBox.setVisible(true);
+                break;
         }
 
         // Setting up button actions based on the time range selected by calling updateDateRange and setting as active button
         oneWeekButton.setOnAction(event -> {
 
             updateDateRange("1W");
-            resetButtonStyles(oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton);
+            resetButtonStyles(allButtons);
             oneWeekButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(false);
             updateAction.run();
         });
 
         oneMonthButton.setOnAction(event -> {
 
             updateDateRange("1M");
-            resetButtonStyles(oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton);
+            resetButtonStyles(allButtons);
             oneMonthButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(false);
             updateAction.run();
         });
 
         threeMonthsButton.setOnAction(event -> {
 
             updateDateRange("3M");
-            resetButtonStyles(oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton);
+            resetButtonStyles(allButtons);
             threeMonthsButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(false);
             updateAction.run();
         });
 
         sixMonthsButton.setOnAction(event -> {
 
             updateDateRange("6M");
-            resetButtonStyles(oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton);
+            resetButtonStyles(allButtons);
             sixMonthsButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(false);
+            updateAction.run();
+        });
+
+        // All time starts at the oldest entry, looked up in the background before the charts update
+        allTimeButton.setOnAction(event -> {
+
+            resetButtonStyles(allButtons);
+            allTimeButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(false);
+            int selection = ++rangeSelection;
+
+            UiTask.whenDone(controller.getFirstEntryTimeAsync(), firstEntryTime -> {
+
+                if (selection != rangeSelection) { return; }
+                LocalDateTime endDate = endOfToday();
+                setDateRange("All", firstEntryTime != null ? firstEntryTime.toLocalDate().atStartOfDay() : endDate.minusMonths(1), endDate);
+                updateAction.run();
+            }, this::showAlert);
+        });
+
+        // Custom only shows the pickers, the range changes once it's applied
+        customButton.setOnAction(event -> {
+
+            resetButtonStyles(allButtons);
+            customButton.setStyle(selectedStyle);
+            customRangeBox.setVisible(true);
+            rangeSelection++;
+        });
+
+        applyButton.setOnAction(event -> {
+
+            LocalDate from = fromPicker.getValue();
+            LocalDate to = toPicker.getValue();
+
+            if (from == null || to == null || to.isBefore(from)) {
+                showAlert("Please pick a start date on or before the end date.");
+                return;
+            }
+
+            setDateRange("Custom", from.atStartOfDay(), to.plusDays(1).atStartOfDay().minusSeconds(1));
             updateAction.run();
         });
 
         // Displaying
-        HBox timeRangeButtons = new HBox(10, oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton);
+        HBox timeRangeButtons = new HBox(10, oneWeekButton, oneMonthButton, threeMonthsButton, sixMonthsButton, allTimeButton, customButton, customRangeBox);
         timeRangeButtons.setAlignment(Pos.CENTER);
         return timeRangeButtons;
     }
@@ -253,127 +353,151 @@ public class DataVisualizationView {
      */
     private void updateDateRange(String timeRange) {
 
-        currTimeRange = timeRange;
-        LocalDateTime currTime = LocalDateTime.now();
+        LocalDateTime currTime = endOfToday();
+        LocalDateTime startDate;
 
         // Switching based on user selection (default to 1 month of data shown upon initial launch)
         switch (timeRange) {
 
             case "1W":
-                currStartDate = currTime.minusWeeks(1);
+                startDate = currTime.minusWeeks(1);
                 break;
 
             case "1M":
-                currStartDate = currTime.minusMonths(1);
+                startDate = currTime.minusMonths(1);
                 break;
 
             case "3M":
-                currStartDate = currTime.minusMonths(3);
+                startDate = currTime.minusMonths(3);
                 break;
 
             case "6M":
-                currStartDate = currTime.minusMonths(6);
+                startDate = currTime.minusMonths(6);
                 break;
 
             default:
-                currStartDate = currTime.minusMonths(1);
+                startDate = currTime.minusMonths(1);
         }
-        currEndDate = currTime;
+        setDateRange(timeRange, startDate, currTime);
+    }
+
+
+    /**
+     * Sets the current date range (a preset, all time or a custom one) and starts preparing the charts for it.
+     *
+     * @param timeRange The name of the time range (1W, 1M, 3M, 6M, All or Custom).
+     * @param startDate Range start time.
+     * @param endDate   Range end time.
+     */
+    private void setDateRange(String timeRange, LocalDateTime startDate, LocalDateTime endDate) {
+
+        rangeSelection++;
+        currTimeRange = timeRange;
+        currStartDate = startDate;
+        currEndDate = endDate;
+
+        // Preparing every chart's dataset for the new range at once, dropping whatever is still being prepared for the old one
+        if (datasets != null) { datasets.cancel(); }
+        datasets = controller.prepareDatasets(currStartDate, currEndDate, MOOD_CHART_WIDTH / PIXELS_PER_BUCKET);
     }
 
 
+    /**
+     * Gets the last second of today, where ranges end.
+     * Ending ranges at the end of today rather than right now means a range keeps the same window (and its cached charts) all day.
+     *
+     * @return LocalDateTime Returns today at 23:59:59.
+     */
+    private static LocalDateTime endOfToday() { return LocalDate.now().plusDays(1).atStartOfDay().minusSeconds(1); }
+
+
     /**
      * Creates a line chart showing mood over time.
+     * Drawn on a canvas (see CanvasLineChart), so long ranges cost the same to show as short ones.
+     * Ranges longer than six months show the average mood per time bucket instead of every entry.
      *
-     * @return LineChart Returns the created chart.
+     * @return CanvasLineChart Returns the created chart.
      */
-    private LineChart<String, Number> createMoodOverTimeChart() {
+    private CanvasLineChart createMoodOverTimeChart() {
 
-        // Creating chart axes
-        CategoryAxis xAxis = new CategoryAxis();
-        xAxis.setStyle("-fx-font-size: 14px;");
-        NumberAxis yAxis = new NumberAxis(0, 16, 1);
-        yAxis.setStyle("-fx-font-size: 14px;");
+        // Setting the x axis in epoch seconds so points sit at their real time, labeled with dates (and years once the range spans them)
+        long startEpoch = currStartDate.toEpochSecond(ZoneOffset.UTC);
+        long endEpoch = currEndDate.toEpochSecond(ZoneOffset.UTC);
+        long tickUnit = Math.max(1, (endEpoch - startEpoch) / SECONDS_PER_DAY / X_AXIS_TICKS) * SECONDS_PER_DAY;
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(currStartDate.getYear() == currEndDate.getYear() ? "MM/dd" : "MM/dd/yy");
 
         // Creating the line chart
-        LineChart<String, Number> lineChart = new LineChart<>(xAxis, yAxis);
-        lineChart.setTitle("");
-        lineChart.setAnimated(false);
-        lineChart.setLegendVisible(false);
-        lineChart.setPrefHeight(700);
-        lineChart.setPrefWidth(600);
+        CanvasLineChart lineChart = new CanvasLineChart(MOOD_CHART_WIDTH, 700);
         lineChart.setPadding(new Insets(0, 30, 10, 30));
+        lineChart.setXAxis(startEpoch, endEpoch, tickUnit, value -> LocalDateTime.ofEpochSecond((long) value, 0, ZoneOffset.UTC).format(formatter));
 
-        // Attempting to access database via controller for info based on date range
-        try {
+        if (datasets.isMoodOverTimeBucketed()) {
 
-            // Getting mood entries in range (ensuring sorted by date)
-            List<MoodEntry> entries = controller.getMoodEntriesByDateRange(currStartDate, currEndDate);
-            if (entries.isEmpty()) { return lineChart; }
-            entries.sort(Comparator.comparing(MoodEntry::getDateAndTime));
+            // Using the buckets prepared for the range (summed up by SQL from the mood rollups), the chart is filled in once they are ready
+            UiTask.whenDone(datasets.getMoodBuckets(), buckets -> {
 
-            // Creating data series
-            XYChart.Series<String, Number> series = new XYChart.Series<>();
-            series.setName("Mood");
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("MM/dd");
+                // Setting y-axis tick labels to show mood names instead of integer values
+                lineChart.setYAxis(0, 16, 1, value -> Objects.requireNonNullElse(catalog.getMoodName((int) value), ""));
 
-            // Getting all moods for y-axis labels (1-15) and putting in hash map
-            List<Mood> allMoods = controller.getMoodList();
-            Map<Integer, String> moodNames = new HashMap<>();
-            for (Mood mood : allMoods) {
+                // Plotting each bucket's average mood at the bucket's start
+                lineChart.setData(buckets.size(), i -> buckets.get(i).getBucketStart().toEpochSecond(ZoneOffset.UTC), i -> buckets.get(i).getAverageMoodID());
 
-                moodNames.put(mood.getMoodID(), mood.getMoodName());
-            }
+                lineChart.setOnHover((event, index) -> {
 
-            // Setting custom y-axis tick labels to show mood names instead of integer values via override of default formatter
-            yAxis.setTickLabelFormatter(new NumberAxis.DefaultFormatter(yAxis) {
+                    if (index < 0) { tooltip.hide(); return; }
+                    MoodBucket bucket = buckets.get(index);
+                    showTooltip(event, bucketLabel(bucket), String.format("Average Mood: %s (%.1f)\nEntries: %d\nLowest: %s\nHighest: %s",
+                            Objects.requireNonNullElse(catalog.getMoodName((int) Math.round(bucket.getAverageMoodID())), ""), bucket.getAverageMoodID(), bucket.getEntryCount(),
+                            Objects.requireNonNullElse(catalog.getMoodName(bucket.getLowestMoodID()), ""), Objects.requireNonNullElse(catalog.getMoodName(bucket.getHighestMoodID()), "")));
+                });
+            }, this::showAlert);
+            return lineChart;
+        }
 
-                @Override
-                public String toString(Number object) {
+        // Using the mood series prepared for the range (already sorted by date), the chart is filled in once it is ready
+        UiTask.whenDone(datasets.getMoodSeries(), points -> {
 
-                    int moodId = object.intValue();
-                    if (moodId >= 1 && moodId <= 15 && moodNames.containsKey(moodId)) {
-                        return moodNames.get(moodId);
-                    }
-                    return "";
-                }
+            // Setting y-axis tick labels to show mood names instead of integer values
+            lineChart.setYAxis(0, 16, 1, value -> Objects.requireNonNullElse(catalog.getMoodName((int) value), ""));
+
+            // Adding all entries, the chart only plots as many as it has room for
+            lineChart.setData(points.size(), points::getEpoch, points::getMoodID);
+
+            // Showing the hovered entry (the entry object is only built when the tooltip is shown)
+            lineChart.setOnHover((event, index) -> {
+
+                if (index < 0) { tooltip.hide(); }
+                else { showTooltipMood(event, catalog.getMoodName(points.getMoodID(index)), points.getEntry(index)); }
             });
+        }, this::showAlert);
+        return lineChart;
+    }
 
-            // Adding all data points
-            Map<Integer, Mood> moodCache = new HashMap<>();
-            for (MoodEntry entry : entries) {
-
-                // Getting mood name and caching
-                Mood mood;
-                if (moodCache.containsKey(entry.getMoodID())) {
-                    mood = moodCache.get(entry.getMoodID());
-                } else {
-                    mood = controller.getMoodByID(entry.getMoodID());
-                    moodCache.put(entry.getMoodID(), mood);
-                }
 
-                // Creating singular data point w hover
-                String dateStr = entry.getDateAndTime().format(formatter);
-                XYChart.Data<String, Number> dataPoint = new XYChart.Data<>(dateStr, entry.getMoodID());
-                dataPoint.setNode(new HBox());
+    /**
+     * Describes the time a bucket covers, such as "Week of 2031-03-10".
+     *
+     * @param  bucket The bucket.
+     * @return String Returns the description.
+     */
+    private String bucketLabel(MoodBucket bucket) {
 
-                dataPoint.getNode().setOnMouseEntered(event -> {
+        LocalDateTime start = bucket.getBucketStart();
 
-                    dataPoint.getNode().setStyle("-fx-background-color: rgba(255,255,255, 0.7); -fx-padding: 5;");
-                    showTooltipMood(event, mood.getMoodName(), entry);
-                });
+        switch (bucket.getSize()) {
 
-                dataPoint.getNode().setOnMouseExited(event -> { dataPoint.getNode().setStyle(""); tooltip.hide(); });
-                series.getData().add(dataPoint);
-            }
+            case HOUR:
+                return start.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00"));
+
+            case DAY:
+                return start.toLocalDate().toString();
 
-            // Adding data series and set styling
-            lineChart.getData().add(series);
-            lineChart.lookupAll(".series0").forEach(node -> node.setStyle("-fx-stroke: #768894; -fx-stroke-width: 2px;"));
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
+            case WEEK:
+                return "Week of " + start.toLocalDate();
+
+            default:
+                return start.format(DateTimeFormatter.ofPattern("MMMM yyyy"));
         }
-        return lineChart;
     }
 
 
@@ -402,7 +526,7 @@ public class DataVisualizationView {
         chartContent.setAlignment(Pos.CENTER);
         Label chartTitle = new Label("Mood Over Time");
         chartTitle.getStyleClass().add("subtitle-label");
-        LineChart<String, Number> lineChart = createMoodOverTimeChart();
+        CanvasLineChart lineChart = createMoodOverTimeChart();
 
         chartContent.getChildren().addAll(chartTitle, lineChart);
         StackPane chartCard = new StackPane(chartContent);
@@ -411,7 +535,7 @@ public class DataVisualizationView {
         // Creating the time range buttons
         HBox timeRangeButtons = createTimeRangeButtons(() -> {
 
-            LineChart<String, Number> updatedChart = createMoodOverTimeChart();
+            CanvasLineChart updatedChart = createMoodOverTimeChart();
             chartContent.getChildren().set(1, updatedChart);
         });
 
@@ -452,27 +576,10 @@ public class DataVisualizationView {
         barChart.setPrefWidth(600);
         barChart.setPadding(new Insets(0, 30, 10, 30));
 
-        // Attempting to access database via controller for info based on date range
-        try {
-
-            // Getting exercise entries in range
-            List<ExerciseEntry> entries = controller.getExerciseEntriesByDateRange(currStartDate, currEndDate);
-            if (entries.isEmpty()) { return barChart; }
-
-            // Getting all exercises (for names)
-            List<Exercise> exercises = controller.getAllExercises();
-            Map<Integer, String> exerciseNames = new HashMap<>();
-            for (Exercise exercise : exercises) {
-
-                exerciseNames.put(exercise.getExerciseID(), exercise.getExerciseName());
-            }
+        // Using the before and after statistics per exercise prepared for the range, the chart is filled in once they are ready
+        UiTask.whenDone(datasets.getExerciseMoodStats(), allStats -> {
 
-            // Getting all moods for y-axis labels (1-15) and putting in hash map
-            List<Mood> allMoods = controller.getMoodList();
-            Map<Integer, String> moodNames = new HashMap<>();
-            for (Mood mood : allMoods) {
-                moodNames.put(mood.getMoodID(), mood.getMoodName());
-            }
+            if (allStats.isEmpty()) { return; }
 
             // Setting custom y-axis tick labels to show mood names instead of integer values via override of default formatter
             yAxis.setTickLabelFormatter(new NumberAxis.DefaultFormatter(yAxis) {
@@ -480,37 +587,34 @@ public class DataVisualizationView {
                 @Override
                 public String toString(Number object) {
                     int moodId = object.intValue();
-                    if (moodId >= 1 && moodId <= 15 && moodNames.containsKey(moodId)) {
-                        return moodNames.get(moodId);
-                    }
-                    return "";
+                    String moodName = moodId >= 1 && moodId <= 15 ? catalog.getMoodName(moodId) : null;
+                    return moodName != null ? moodName : "";
                 }
             });
 
-            // Grouping entries by exercise type for distribution
-            Map<Integer, List<ExerciseEntry>> entriesByExercise = new HashMap<>();
-            for (ExerciseEntry entry : entries) {
-                entriesByExercise.computeIfAbsent(entry.getExerciseID(), i -> new ArrayList<>()).add(entry);
-            }
-
             // Creating a data series for before and after exercise moods
             XYChart.Series<String, Number> beforeSeries = new XYChart.Series<>();
             beforeSeries.setName("Before Exercise");
             XYChart.Series<String, Number> afterSeries = new XYChart.Series<>();
             afterSeries.setName("After Exercise");
 
-            // Calculating the avg mood ratings for each exercise using the mood ids
-            for (Map.Entry<Integer, List<ExerciseEntry>> exerciseEntry : entriesByExercise.entrySet()) {
-
-                int exerciseId = exerciseEntry.getKey();
-                List<ExerciseEntry> exerciseEntries = exerciseEntry.getValue();
-                String exerciseName = exerciseNames.getOrDefault(exerciseId, "Unknown Exercise");
+            // Adding the avg mood ratings for each exercise as data points, with the spread and change shown on hover
+            for (ExerciseMoodStats stats : allStats) {
 
-                // Calculating the avgs and adding data points to series
-                double beforeAvg = exerciseEntries.stream().mapToInt(ExerciseEntry::getMoodBeforeID).average().orElse(0);
-                double afterAvg = exerciseEntries.stream().mapToInt(ExerciseEntry::getMoodAfterID).average().orElse(0);
+                Exercise exercise = catalog.getExercise(stats.getExerciseID());
+                String exerciseName = exercise != null ? exercise.getExerciseName() : "Unknown Exercise";
+                double beforeAvg = stats.getMoodBefore().getMean();
+                double afterAvg = stats.getMoodAfter().getMean();
                 XYChart.Data<String, Number> beforeData = new XYChart.Data<>(exerciseName, beforeAvg);
                 XYChart.Data<String, Number> afterData = new XYChart.Data<>(exerciseName, afterAvg);
+                String beforeDetails = String.format("Average Mood: %.1f (± %.1f)\nSessions: %d", beforeAvg, stats.getMoodBefore().getStandardDeviation(), stats.getSessions());
+                String afterDetails = String.format("Average Mood: %.1f (± %.1f)\nSessions: %d", afterAvg, stats.getMoodAfter().getStandardDeviation(), stats.getSessions());
+
+                // The change is only known for sessions with both moods
+                if (stats.getMoodChange().getCount() > 0) {
+                    afterDetails += String.format("\nAverage Change: %+.1f (95%% CI %+.1f to %+.1f)", stats.getMoodChange().getMean(), stats.getMoodChangeLow(), stats.getMoodChangeHigh());
+                }
+                String afterText = afterDetails;
 
 
                 // Mouse hover interactions for the before data series
@@ -518,7 +622,7 @@ public class DataVisualizationView {
                 beforeData.getNode().setOnMouseEntered(event -> {
 
                     beforeData.getNode().setStyle("-fx-background-color: #768894; -fx-opacity: 0.7;  -fx-padding: 5;");
-                    showTooltip(event, "Before " + exerciseName, String.format("Average Mood: %.1f\nSessions: %d", beforeAvg, exerciseEntries.size())); });
+                    showTooltip(event, "Before " + exerciseName, beforeDetails); });
 
                 beforeData.getNode().setOnMouseExited(event -> {
 
@@ -530,7 +634,7 @@ public class DataVisualizationView {
                 afterData.getNode().setOnMouseEntered(event -> {
 
                     afterData.getNode().setStyle("-fx-background-color: #738265; -fx-opacity: 0.7; -fx-padding: 5;");
-                    showTooltip(event, "After " + exerciseName, String.format("Average Mood: %.1f\nSessions: %d", afterAvg, exerciseEntries.size())); });
+                    showTooltip(event, "After " + exerciseName, afterText); });
 
                 afterData.getNode().setOnMouseExited(event -> {
 
@@ -544,9 +648,7 @@ public class DataVisualizationView {
 
             barChart.getData().addAll(beforeSeries, afterSeries);
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
+        }, this::showAlert);
         return barChart;
     }
 
@@ -623,25 +725,12 @@ public class DataVisualizationView {
         pieChart.setPadding(new Insets(0, 30, 10, 30));
         pieChart.setLabelLineLength(30);
 
-        // Attempting to access database via controller for info based on date range
-        try {
-
-            // Getting mood entries in range
-            List<MoodEntry> entries = controller.getMoodEntriesByDateRange(currStartDate, currEndDate);
-            if (entries.isEmpty()) { return pieChart; }
+        // Using the occurrences of each mood prepared for the range (counted in memory, not from the entries)
+        UiTask.whenDone(datasets.getMoodCounts(), moodCounts -> {
 
-            // Count occurrences of each mood w hash map and get names
-            Map<Integer, Integer> moodCounts = new HashMap<>();
-            for (MoodEntry entry : entries) {
+            if (moodCounts.isEmpty()) { return; }
 
-                moodCounts.put(entry.getMoodID(), moodCounts.getOrDefault(entry.getMoodID(), 0) + 1);
-            }
-
-            Map<Integer, Mood> moodMap = new HashMap<>();
-            for (Mood mood : controller.getMoodList()) {
-
-                moodMap.put(mood.getMoodID(), mood);
-            }
+            int total = moodCounts.values().stream().mapToInt(Integer::intValue).sum();
 
             String[] colors = { "#d6cfc4", "#a8b2a1", "#a3b0b9", "#c1b6aa", "#9aa78d", "#8c9ca9", "#b8a99a", "#859374", "#768894",
                                 "#a89f96", "#738265", "#617482", "#9c9186", "#5f6e52", "#4d5f6d" };
@@ -652,11 +741,10 @@ public class DataVisualizationView {
 
                 int moodId = entry.getKey();
                 int count = entry.getValue();
-                Mood mood = moodMap.get(moodId);
-                String moodName = mood != null ? mood.getMoodName() : "Unknown";
+                String moodName = Objects.requireNonNullElse(catalog.getMoodName(moodId), "Unknown");
 
                 // Create pie slice w %
-                double percentage = (double) count / entries.size() * 100;
+                double percentage = (double) count / total * 100;
                 PieChart.Data slice = new PieChart.Data(String.format("%s (%.1f%%)", moodName, percentage), count);
                 final int currentColorIndex = colorIndex;
 
@@ -684,9 +772,7 @@ public class DataVisualizationView {
                 pieChart.getData().add(slice);
                 colorIndex++;
             }
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
+        }, this::showAlert);
         return pieChart;
     }
 
@@ -765,55 +851,31 @@ public class DataVisualizationView {
         barChart.setPrefHeight(700);
         barChart.setPrefWidth(600);
 
-        // Attempting to access database via controller for info based on date range
-        try {
-
-            // Getting mood entries in range
-            List<MoodEntry> entries = controller.getMoodEntriesByDateRange(currStartDate, currEndDate);
-            if (entries.isEmpty()) { return barChart; }
-
-            // Getting all moods (for names)
-            List<Mood> moods = controller.getMoodList();
-            Map<Integer, String> moodNames = new HashMap<>();
-            for (Mood mood : moods) {
-
-                moodNames.put(mood.getMoodID(), mood.getMoodName());
-            }
+        // Using the day and night counts per mood category prepared for the range, the chart is filled in once they are ready
+        UiTask.whenDone(datasets.getMoodCategoryCounts(), categoryCounts -> {
 
-            // Grouping moods into categories based on id ordering
-            Map<String, List<Integer>> moodCategories = new LinkedHashMap<>();
-            moodCategories.put("Hopeless - Anxious", Arrays.asList(1, 2, 3, 4, 5));
-            moodCategories.put("Distracted - Tired", Arrays.asList(6, 7, 8, 9, 10));
-            moodCategories.put("Hopeful - Elated", Arrays.asList(11, 12, 13, 14, 15));
+            int totalEntries = 0;
+            for (MoodCategoryCount categoryCount : categoryCounts) { totalEntries += categoryCount.getDayCount() + categoryCount.getNightCount(); }
+            if (totalEntries == 0) { return; }
 
+            // Naming each category by its first and last mood
             // Creating data series for day and night
             XYChart.Series<String, Number> morningSeries = new XYChart.Series<>();
             morningSeries.setName("Day (6AM-6PM)");
             XYChart.Series<String, Number> eveningSeries = new XYChart.Series<>();
             eveningSeries.setName("Night (6PM-6AM)");
 
-            // Counting moods by category and time of day
-            for (Map.Entry<String, List<Integer>> category : moodCategories.entrySet()) {
+            // Adding each category's counts
+            for (MoodCategoryCount categoryCount : categoryCounts) {
 
-                String categoryName = category.getKey();
-                List<Integer> moodIds = category.getValue();
-                int morningCount = 0;
-                int eveningCount = 0;
-
-                for (MoodEntry entry : entries) {
-
-                    if (moodIds.contains(entry.getMoodID())) {
-
-                        LocalDateTime time = entry.getDateAndTime();
-                        int hour = time.getHour();
-                        if (hour >= 6 && hour < 18) { morningCount++; } else { eveningCount++; }
-                    }
-                }
+                String categoryName = catalog.getMoodName(categoryCount.getFirstMoodID()) + " - " + catalog.getMoodName(categoryCount.getLastMoodID());
+                int morningCount = categoryCount.getDayCount();
+                int eveningCount = categoryCount.getNightCount();
 
                 // Adding data points
                 final int finalMorningCount = morningCount;
                 final int finalEveningCount = eveningCount;
-                final int totalEntries = entries.size();
+                final int finalTotalEntries = totalEntries;
                 XYChart.Data<String, Number> morningData = new XYChart.Data<>(categoryName, finalMorningCount);
                 XYChart.Data<String, Number> eveningData = new XYChart.Data<>(categoryName, finalEveningCount);
 
@@ -822,7 +884,7 @@ public class DataVisualizationView {
                 morningData.getNode().setOnMouseEntered(event -> {
 
                     morningData.getNode().setStyle("-fx-background-color: #768894; -fx-opacity: 0.7;  -fx-padding: 5;");
-                    showTooltip(event, "Day: " + categoryName, String.format("Count: %d\nPercentage: %.1f%%", finalMorningCount, totalEntries == 0 ? 0 : (double) finalMorningCount / totalEntries * 100));});
+                    showTooltip(event, "Day: " + categoryName, String.format("Count: %d\nPercentage: %.1f%%", finalMorningCount, finalTotalEntries == 0 ? 0 : (double) finalMorningCount / finalTotalEntries * 100));});
 
                 morningData.getNode().setOnMouseExited(event -> {
                     morningData.getNode().setStyle("");
@@ -833,7 +895,7 @@ public class DataVisualizationView {
                 eveningData.getNode().setOnMouseEntered(event -> {
 
                     eveningData.getNode().setStyle("-fx-background-color: #738265; -fx-opacity: 0.7; -fx-padding: 5;");
-                    showTooltip(event, "Night: " + categoryName, String.format("Count: %d\nPercentage: %.1f%%", finalEveningCount, totalEntries == 0 ? 0 : (double) finalEveningCount / totalEntries * 100)); });
+                    showTooltip(event, "Night: " + categoryName, String.format("Count: %d\nPercentage: %.1f%%", finalEveningCount, finalTotalEntries == 0 ? 0 : (double) finalEveningCount / finalTotalEntries * 100)); });
 
                 eveningData.getNode().setOnMouseExited(event -> {
 
@@ -847,9 +909,7 @@ public class DataVisualizationView {
 
             barChart.getData().addAll(morningSeries, eveningSeries);
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
+        }, this::showAlert);
         return barChart;
     }
 
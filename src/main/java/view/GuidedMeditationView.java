@@ -9,9 +9,9 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
 import javafx.util.Duration;
-import java.sql.*;
 import java.util.*;
 
+import dao.ReferenceCatalog;
 import models.Exercise;
 import models.Mood;
 import controller.GuidedMeditationController;
@@ -27,14 +27,18 @@ public class GuidedMeditationView {
     private final VBox root = new VBox(20);
     private final Label title = new Label("Guided Meditation");
     private final HBox exerciseButtonContainer = new HBox(20);
-    private List<Mood> moods = Collections.emptyList();
+    private final ReferenceCatalog catalog;
     private Exercise selectedExercise;
 
 
     /**
      * Creates the view and initializes the layout.
+     *
+     * @param catalog The predefined moods and exercises, loaded before the view is built.
      */
-    public GuidedMeditationView() {
+    public GuidedMeditationView(ReferenceCatalog catalog) {
+
+        this.catalog = catalog;
 
         // Setting root and title styling
         root.setPadding(new Insets(40));
@@ -50,15 +54,6 @@ public class GuidedMeditationView {
         // Building the initial layout
         root.getChildren().addAll(title, card);
         loadExerciseList();
-
-        // Loading in moods
-        try {
-
-            moods = controller.getMoodList();
-
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
     }
 
 
@@ -75,36 +70,29 @@ public class GuidedMeditationView {
         exerciseButtonContainer.setFillHeight(true);
         HBox.setHgrow(exerciseButtonContainer, Priority.ALWAYS);
 
-        try {
-
-            // Creating box for titles
-            List<Exercise> exercises = controller.getAllExercises();
-            VBox titleBox = new VBox(10);
-            titleBox.setAlignment(Pos.CENTER);
+        // Creating box for titles
+        VBox titleBox = new VBox(10);
+        titleBox.setAlignment(Pos.CENTER);
 
-            // Creating subtitle label with styling
-            Label subtitle = new Label("Select an exercise to begin");
-            subtitle.getStyleClass().add("subtitle-label");
-            subtitle.setStyle("-fx-font-size: 22px; -fx-font-weight: bold;");
+        // Creating subtitle label with styling
+        Label subtitle = new Label("Select an exercise to begin");
+        subtitle.getStyleClass().add("subtitle-label");
+        subtitle.setStyle("-fx-font-size: 22px; -fx-font-weight: bold;");
 
-            root.getChildren().clear();
-            root.getChildren().addAll(title, subtitle);
-
-            // Adding the buttons to the container
-            for (Exercise exercise : exercises) {
-                exerciseButtonContainer.getChildren().add(createExerciseButton(exercise));
-            }
-
-            // Adding the button container to a card then to the root
-            StackPane card = new StackPane(exerciseButtonContainer);
-            card.getStyleClass().add("card");
-            card.setMaxWidth(Double.MAX_VALUE);
-            VBox.setVgrow(card, Priority.ALWAYS);
-            root.getChildren().add(card);
+        root.getChildren().clear();
+        root.getChildren().addAll(title, subtitle);
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
+        // Adding the buttons to the container
+        for (Exercise exercise : catalog.getExercises()) {
+            exerciseButtonContainer.getChildren().add(createExerciseButton(exercise));
         }
+
+        // Adding the button container to a card then to the root
+        StackPane card = new StackPane(exerciseButtonContainer);
+        card.getStyleClass().add("card");
+        card.setMaxWidth(Double.MAX_VALUE);
+        VBox.setVgrow(card, Priority.ALWAYS);
+        root.getChildren().add(card);
     }
 
 
@@ -183,7 +171,7 @@ public class GuidedMeditationView {
         before.setMaxWidth(Double.MAX_VALUE);
 
         // Populating moods
-        for (Mood mood : moods) {
+        for (Mood mood : catalog.getMoods()) {
             before.getItems().add(mood.getMoodName());
         }
 
@@ -247,12 +235,13 @@ public class GuidedMeditationView {
 
         // Resetting style upon valid selection
         before.setStyle("");
-        int moodID = moods.stream().filter(mood -> mood.getMoodName().equals(moodName)).findFirst().map(Mood::getMoodID).orElse(-1);
+        int moodID = catalog.getMoodID(moodName);
+        if (moodID == -1) { showAlert("Invalid mood selection."); return; }
 
-        // Beginning exercise
-        try {
+        // Beginning exercise in the background
+        UiTask.whenDone(controller.startExerciseAsync(selectedExercise.getExerciseID(), moodID), started -> {
 
-            if (!controller.startExercise(selectedExercise.getExerciseID(), moodID)) {
+            if (!started) {
                 showAlert("Error: Could not start exercise.");
                 return;
             }
@@ -269,9 +258,7 @@ public class GuidedMeditationView {
             start.setDisable(true);
             stop.setDisable(false);
 
-        } catch (SQLException ex) {
-            showAlert("Error: " + ex.getMessage());
-        }
+        }, this::showAlert);
     }
 
 
@@ -303,7 +290,7 @@ public class GuidedMeditationView {
         moodCombo.setMaxWidth(Double.MAX_VALUE);
 
         // Populating moods
-        for (Mood mood : moods) {
+        for (Mood mood : catalog.getMoods()) {
             moodCombo.getItems().add(mood.getMoodName());
         }
 
@@ -336,11 +323,12 @@ public class GuidedMeditationView {
 
             // Resetting style upon valid selection
             moodCombo.setStyle("");
-            int moodID = moods.stream().filter(mood -> mood.getMoodName().equals(moodName)).findFirst().map(Mood::getMoodID).orElse(-1);
+            int moodID = catalog.getMoodID(moodName);
+            if (moodID == -1) { showAlert("Invalid mood selection."); return; }
 
-            try {
+            UiTask.whenDone(controller.stopExerciseAsync(moodID), stopped -> {
 
-                if (!controller.stopExercise(moodID)) {
+                if (!stopped) {
                     showAlert("Error: Could not stop exercise.");
                     return;
                 }
@@ -348,9 +336,7 @@ public class GuidedMeditationView {
                 // Returning to the main guided meditation tab upon completion
                 loadExerciseList();
 
-            } catch (SQLException ex) {
-                showAlert("Error: " + ex.getMessage());
-            } });
+            }, this::showAlert); });
 
         // Displaying
         afterMoodPane.getChildren().addAll(completionTitle, exerciseName, moodCard, submit);
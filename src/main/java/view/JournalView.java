@@ -1,6 +1,7 @@
 package view;
 
 import javafx.animation.*;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
@@ -9,15 +10,18 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
+import javafx.scene.text.*;
 import javafx.scene.web.HTMLEditor;
 import javafx.stage.*;
 import javafx.util.Duration;
-import java.sql.*;
 import java.time.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.time.format.DateTimeFormatter;
 
 import models.JournalEntry;
+import models.JournalSearchResult;
+import models.JournalSummary;
 import controller.JournalController;
 
 
@@ -39,9 +43,22 @@ public class JournalView {
     private HTMLEditor htmlEditor;
     private Button saveButton;
 
-    private TableView<JournalEntry> journalTable;
+    private TableView<JournalSummary> journalTable;
     private boolean showingSearchResults = false;
-    private JournalEntry selectedEntry;
+    private boolean fullTextResults = false;
+    private JournalSummary selectedEntry;
+
+    // Counts the reloads of the journal table started since its list was last installed (only the latest one installs it), and whether a change was committed while counting
+    private int reloadCount;
+    private boolean changedDuringReload;
+
+    // Results are updated once typing pauses for this long, so a fast typist doesn't start a search per keystroke
+    private static final int SEARCH_DELAY_MS = 120;
+    private static final int SEARCH_LIMIT = 200;
+    private final PauseTransition searchDelay = new PauseTransition(Duration.millis(SEARCH_DELAY_MS));
+
+    // The order of the journal table (newest first), matching the order pages are loaded in
+    private static final Comparator<JournalSummary> NEWEST_FIRST = Comparator.comparing(JournalSummary::getEntryDateTime).thenComparingInt(JournalSummary::getJournalID).reversed();
 
 
     /**
@@ -60,6 +77,20 @@ public class JournalView {
 
         // Building the initial layout
         root.getChildren().addAll(title, journalInputPane);
+
+        // Keeping the journal table current by applying each committed write to it (instead of loading it again)
+        controller.subscribeToJournalEntryChanges(UiTask.onFxThread(event -> {
+
+            if (reloadCount > 0) {
+                changedDuringReload = true;
+            } else if (journalTable.getItems() instanceof PagedEntryList<JournalSummary> summaries) {
+                summaries.apply(event.getType(), toSummary(event.getEntity()));
+            } else if (showingSearchResults && !searchField.getText().isBlank()) {
+
+                // Search results are ranked, so the same search is run again (the index it reads already has the change)
+                searchEntries(fullTextResults, false);
+            }
+        }));
     }
 
 
@@ -168,7 +199,7 @@ public class JournalView {
         journalTable.getStyleClass().add("mood-log-table");
 
         // Creating table "date" column and setting up how we should update the item
-        TableColumn<JournalEntry, LocalDateTime> dateColumn = new TableColumn<>("Date & Time");
+        TableColumn<JournalSummary, LocalDateTime> dateColumn = new TableColumn<>("Date & Time");
         dateColumn.setCellValueFactory(new PropertyValueFactory<>("entryDateTime"));
         dateColumn.setCellFactory(column -> new TableCell<>() {
 
@@ -190,7 +221,7 @@ public class JournalView {
             }});
 
         // Creating table "title" column and setting up how we should update the item
-        TableColumn<JournalEntry, String> titleColumn = new TableColumn<>("Title");
+        TableColumn<JournalSummary, String> titleColumn = new TableColumn<>("Title");
         titleColumn.setCellValueFactory(new PropertyValueFactory<>("title"));
         titleColumn.setCellFactory(column -> new TableCell<>() {
 
@@ -204,8 +235,26 @@ public class JournalView {
                 setStyle("-fx-text-fill: #E0E0E0;");
             }});
 
+        // Creating table "preview" column, showing the start of each entry or, for a full-text search, a snippet with the matches in bold
+        TableColumn<JournalSummary, String> previewColumn = new TableColumn<>("Preview");
+        previewColumn.setCellValueFactory(new PropertyValueFactory<>("preview"));
+        previewColumn.setCellFactory(column -> new TableCell<>() {
+
+            // Overriding the updateItem method in TableCell (JavaFX) so matched words can be styled apart from the rest of the snippet
+            @Override
+            protected void updateItem(String item, boolean empty) {
+
+                super.updateItem(item, empty);
+
+                setText(null);
+                setGraphic(empty || item == null ? null : highlightMatches(item));
+            }});
+
         // Adding table and content to card
-        journalTable.getColumns().addAll(dateColumn, titleColumn);
+        journalTable.getColumns().addAll(dateColumn, titleColumn, previewColumn);
+
+        // Rows are paged in newest first from the database (only a few pages are ever in memory), so the columns can't be sorted by clicking them
+        journalTable.getColumns().forEach(column -> column.setSortable(false));
         journalSearchContent.getChildren().addAll(subtitleBox, searchLabelBox, searchBox, journalTable);
         StackPane journalSearchCard = new StackPane(journalSearchContent);
         journalSearchCard.getStyleClass().addAll("card", "exercise-detail-card");
@@ -247,7 +296,10 @@ public class JournalView {
             deleteButton.setDisable(newSelection == null);
         });
 
-        performSearchButton.setOnAction(event -> searchEntries());
+        // Searching the in-memory index as the user types (once they pause), and running the full-text search when they press search
+        searchDelay.setOnFinished(event -> searchEntries(false, false));
+        searchField.textProperty().addListener((obs, oldText, newText) -> searchDelay.playFromStart());
+        performSearchButton.setOnAction(event -> { searchDelay.stop(); searchEntries(true, true); });
         editButton.setOnAction(event -> handleEdit());
         deleteButton.setOnAction(event -> handleDelete());
     }
@@ -272,9 +324,9 @@ public class JournalView {
 
         } else {
 
-            // Switching to search results view with animation (and call to update entries for dynamic updating)
+            // Switching to search results view with animation (entries are only loaded the first time, changes since are applied as they're committed)
             root.getChildren().remove(journalInputPane);
-            loadAllJournalEntries();
+            if (!(journalTable.getItems() instanceof PagedEntryList)) { loadAllJournalEntries(); }
             FadeTransition fadeIn = new FadeTransition(Duration.millis(1000), journalSearchPane);
             fadeIn.setFromValue(0);
             fadeIn.setToValue(1);
@@ -288,23 +340,31 @@ public class JournalView {
 
     /**
      * Performs a search for journal entries based on a keyword.
+     * While typing, the in-memory index is searched with the last word matched as a prefix. Pressing search runs the
+     * ranked full-text search instead, which also matches "quoted phrases" and shows a snippet around each entry's matches.
+     *
+     * @param fullText     True for the full-text search (when search is pressed), false for the in-memory index (while typing).
+     * @param alertIfEmpty True to tell the user when nothing matches (left off while they are still typing).
      */
-    private void searchEntries() {
+    private void searchEntries(boolean fullText, boolean alertIfEmpty) {
 
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) { loadAllJournalEntries(); return; }
+        String keyword = searchField.getText();
+        if (keyword.isBlank()) { loadAllJournalEntries(); return; }
 
-        // Searching entries via keyword in database, display popup error if results are empty
-        try {
+        // Searching entries via keyword in the background, display popup error if results are empty
+        CompletableFuture<List<JournalSummary>> search = fullText
+                ? controller.searchJournalAsync(keyword, SEARCH_LIMIT).thenApply(results -> results.stream().map(JournalView::toSummary).toList())
+                : controller.quickSearchJournalAsync(keyword, SEARCH_LIMIT);
+        UiTask.whenDone(search, results -> {
 
-            List<JournalEntry> results = controller.searchJournalEntries(keyword);
-            journalTable.getItems().clear();
-            journalTable.getItems().addAll(results);
-            if (results.isEmpty()) { showAlert("No journal entries found matching '" + keyword + "', please try another keyword."); }
+            // Skipping results for a keyword the user has already changed
+            if (!keyword.equals(searchField.getText())) { return; }
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
+            fullTextResults = fullText;
+            journalTable.setItems(FXCollections.observableArrayList(results));
+            if (results.isEmpty() && alertIfEmpty) { showAlert("No journal entries found matching '" + keyword.trim() + "', please try another keyword."); }
+
+        }, this::showAlert);
     }
 
 
@@ -337,10 +397,10 @@ public class JournalView {
         // Attempting to add new journal entry
         JournalEntry entry = new JournalEntry(0, title, htmlContent, LocalDateTime.now());
 
-        try {
+        UiTask.whenDone(controller.insertJournalEntryAsync(entry), inserted -> {
 
             // Displaying proper alert/error
-            if (controller.insertJournalEntry(entry)) {
+            if (inserted) {
 
                 showAlert("Journal entry saved successfully!");
                 titleField.clear();
@@ -349,9 +409,7 @@ public class JournalView {
             } else {
                 showAlert("Failed to save journal entry.");
             }
-        } catch (SQLException ex) {
-            showAlert("Error: " + ex.getMessage());
-        }
+        }, this::showAlert);
     }
 
 
@@ -362,61 +420,67 @@ public class JournalView {
 
         if (selectedEntry == null) { return; }
 
-        // Switching to journal input view
-        toggleJournalInputOrSearchView();
-        titleField.setText(selectedEntry.getTitle());
-        htmlEditor.setHtmlText(selectedEntry.getTextEntry());
+        // Table rows are only summaries, so the body is loaded for the editor when an entry is opened
+        JournalSummary opened = selectedEntry;
+        UiTask.whenDone(controller.getJournalBodyAsync(opened.getJournalID()), body -> {
 
-        // Changing save button to update when editing an entry and handling the update
-        saveButton.setText("Update Entry");
-        saveButton.setOnAction(event -> {
+            if (body == null) { showAlert("This journal entry no longer exists."); return; }
+            selectedEntry = opened;
 
-            if (selectedEntry == null) { return; }
+            // Switching to journal input view
+            toggleJournalInputOrSearchView();
+            titleField.setText(selectedEntry.getTitle());
+            htmlEditor.setHtmlText(body);
 
-            String title = titleField.getText().trim();
-            String htmlContent = htmlEditor.getHtmlText().trim();
+            // Changing save button to update when editing an entry and handling the update
+            saveButton.setText("Update Entry");
+            saveButton.setOnAction(event -> {
 
-            // Grabbing attention to blank field upon attempted submission
-            if (title.isEmpty()) {
+                if (selectedEntry == null) { return; }
 
-                titleField.setStyle("-fx-border-color: red; -fx-border-width: 2px; -fx-background-color: rgba(255, 0, 0, 0.1);");
+                String title = titleField.getText().trim();
+                String htmlContent = htmlEditor.getHtmlText().trim();
 
-                // Shake animation
-                Timeline timeline = new Timeline(new KeyFrame(Duration.millis(0), new KeyValue(titleField.translateXProperty(), 0)),
-                        new KeyFrame(Duration.millis(50), new KeyValue(titleField.translateXProperty(), -5)),
-                        new KeyFrame(Duration.millis(100), new KeyValue(titleField.translateXProperty(), 5)),
-                        new KeyFrame(Duration.millis(150), new KeyValue(titleField.translateXProperty(), -5)),
-                        new KeyFrame(Duration.millis(200), new KeyValue(titleField.translateXProperty(), 0)));
-                timeline.setCycleCount(2);
-                timeline.play();
+                // Grabbing attention to blank field upon attempted submission
+                if (title.isEmpty()) {
 
-                return;
-            }
-            titleField.setStyle("");
+                    titleField.setStyle("-fx-border-color: red; -fx-border-width: 2px; -fx-background-color: rgba(255, 0, 0, 0.1);");
 
-            // Attempting to edit journal entry
-            JournalEntry updatedEntry = new JournalEntry(selectedEntry.getJournalID(), title, htmlContent, selectedEntry.getEntryDateTime());
+                    // Shake animation
+                    Timeline timeline = new Timeline(new KeyFrame(Duration.millis(0), new KeyValue(titleField.translateXProperty(), 0)),
+                            new KeyFrame(Duration.millis(50), new KeyValue(titleField.translateXProperty(), -5)),
+                            new KeyFrame(Duration.millis(100), new KeyValue(titleField.translateXProperty(), 5)),
+                            new KeyFrame(Duration.millis(150), new KeyValue(titleField.translateXProperty(), -5)),
+                            new KeyFrame(Duration.millis(200), new KeyValue(titleField.translateXProperty(), 0)));
+                    timeline.setCycleCount(2);
+                    timeline.play();
 
-            try {
+                    return;
+                }
+                titleField.setStyle("");
 
-                // Displaying proper alert and resseting button
-                if (controller.updateJournalEntry(updatedEntry)) {
+                // Attempting to edit journal entry
+                JournalEntry updatedEntry = new JournalEntry(selectedEntry.getJournalID(), title, htmlContent, selectedEntry.getEntryDateTime());
 
-                    showAlert("Journal entry updated successfully!");
-                    titleField.clear();
-                    htmlEditor.setHtmlText("");
+                UiTask.whenDone(controller.updateJournalEntryAsync(updatedEntry), updated -> {
 
-                    saveButton.setText("Save Entry");
-                    saveButton.setOnAction(event2 -> handleSave());
-                    selectedEntry = null;
+                    // Displaying proper alert and resseting button
+                    if (updated) {
 
-                } else {
-                    showAlert("Failed to update journal entry.");
-                }
-            } catch (SQLException ex) {
-                showAlert("Error: " + ex.getMessage());
-            }
-        });
+                        showAlert("Journal entry updated successfully!");
+                        titleField.clear();
+                        htmlEditor.setHtmlText("");
+
+                        saveButton.setText("Save Entry");
+                        saveButton.setOnAction(event2 -> handleSave());
+                        selectedEntry = null;
+
+                    } else {
+                        showAlert("Failed to update journal entry.");
+                    }
+                }, this::showAlert);
+            });
+        }, this::showAlert);
     }
 
 
@@ -495,26 +559,18 @@ public class JournalView {
             cancelButton.setOnAction(event -> dialogStage.close());
             confirmButton.setOnAction(event -> {
 
-                try {
+                UiTask.whenDone(controller.deleteJournalEntryAsync(selectedEntry.getJournalID()), deleted -> {
 
-                    // Displaying proper alerts and refreshing table (dynamic updating)
-                    if (controller.deleteJournalEntry(selectedEntry.getJournalID())) {
+                    // Displaying proper alerts (the row is removed from the table by the delete's change event)
+                    if (deleted) {
 
                         dialogStage.close();
-                        if (searchField.getText().trim().isEmpty()) {
-                            loadAllJournalEntries();
-                        } else {
-                            searchEntries();
-                        }
-
                         showAlert("Journal entry deleted successfully!");
 
                     } else {
                         showAlert("Failed to delete journal entry.");
                     }
-                } catch (SQLException e) {
-                    showAlert("Error: " + e.getMessage());
-                }
+                }, this::showAlert);
             });
 
             // Preventing outside interaction and display
@@ -531,16 +587,102 @@ public class JournalView {
      */
     private void loadAllJournalEntries() {
 
-        // Accessing controller which accesses the DAO to retrieve journal entries in database
-        try {
+        int reload = ++reloadCount;
+        changedDuringReload = false;
+
+        // Accessing controller which accesses the DAO in the background, only the count is read up front and pages of entries are loaded as the table scrolls to them
+        UiTask.whenDone(controller.countJournalEntriesAsync(), count -> {
+
+            // Skipping counts a newer reload (or a search typed meanwhile) has replaced, and counting again if an entry changed meanwhile (the count may or may not include it)
+            if (reload != reloadCount) { return; }
+            if (!searchField.getText().isBlank()) {
+                reloadCount = 0;
+                if (changedDuringReload) { searchEntries(fullTextResults, false); }
+                return;
+            }
+            if (changedDuringReload) { loadAllJournalEntries(); return; }
+
+            reloadCount = 0;
+            journalTable.setItems(new PagedEntryList<>(controller::getJournalSummaryPageAsync, NEWEST_FIRST, count, this::showAlert));
+
+        }, message -> {
+
+            if (reload == reloadCount) { reloadCount = 0; }
+            showAlert(message);
+        });
+    }
+
+
+    /**
+     * Makes the summary shown in the journal table of an entry, with the same preview the database keeps.
+     *
+     * @param  entry          The journal entry as stored.
+     * @return JournalSummary Returns the entry's summary.
+     */
+    private static JournalSummary toSummary(JournalEntry entry) {
+
+        String text = entry.getTextPlain();
+        String preview = text == null || text.codePointCount(0, text.length()) <= JournalSummary.PREVIEW_LENGTH
+                ? text : text.substring(0, text.offsetByCodePoints(0, JournalSummary.PREVIEW_LENGTH));
+        return new JournalSummary(entry.getJournalID(), entry.getTitle(), preview, entry.getEntryDateTime());
+    }
+
+
+    /**
+     * Makes the summary shown in the journal table of a full-text search result, with the result's snippet as its preview.
+     *
+     * @param  result         The search result.
+     * @return JournalSummary Returns the matching entry's summary.
+     */
+    private static JournalSummary toSummary(JournalSearchResult result) {
+
+        JournalEntry entry = result.getEntry();
+        return new JournalSummary(entry.getJournalID(), entry.getTitle(), result.getSnippet(), entry.getEntryDateTime());
+    }
+
+
+    /**
+     * Builds the text of a preview or snippet, with the matched words (between the search result markers) shown in bold.
+     *
+     * @param  preview  The preview, or a snippet with its matches wrapped in JournalSearchResult.MATCH_START and MATCH_END.
+     * @return TextFlow Returns the styled text.
+     */
+    private static TextFlow highlightMatches(String preview) {
+
+        TextFlow flow = new TextFlow();
+        int start = 0;
 
-            List<JournalEntry> entries = controller.getAllJournalEntries();
-            journalTable.getItems().clear();
-            journalTable.getItems().addAll(entries);
+        // Splitting the snippet on each pair of markers, so the words between them are bold and the markers themselves aren't shown
+        while (start < preview.length()) {
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
+            int matchStart = preview.indexOf(JournalSearchResult.MATCH_START, start);
+            int matchEnd = matchStart < 0 ? -1 : preview.indexOf(JournalSearchResult.MATCH_END, matchStart);
+            if (matchEnd < 0) {
+                flow.getChildren().add(styledText(preview.substring(start), false));
+                break;
+            }
+
+            flow.getChildren().add(styledText(preview.substring(start, matchStart), false));
+            flow.getChildren().add(styledText(preview.substring(matchStart + JournalSearchResult.MATCH_START.length(), matchEnd), true));
+            start = matchEnd + JournalSearchResult.MATCH_END.length();
         }
+        return flow;
+    }
+
+
+    /**
+     * Makes one piece of a table preview, in the table's text colour.
+     *
+     * @param  text The text.
+     * @param  bold True for a matched word.
+     * @return Text Returns the styled text.
+     */
+    private static Text styledText(String text, boolean bold) {
+
+        Text piece = new Text(text);
+        piece.setFill(Color.web("#E0E0E0"));
+        if (bold) { piece.setStyle("-fx-font-weight: bold;"); }
+        return piece;
     }
 
 
@@ -11,11 +11,11 @@ import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.stage.*;
 import javafx.util.Duration;
-import java.sql.*;
 import java.time.*;
 import java.util.*;
 import java.time.format.DateTimeFormatter;
 
+import dao.ReferenceCatalog;
 import models.Mood;
 import models.MoodEntry;
 import controller.MoodTrackerController;
@@ -37,16 +37,27 @@ public class MoodTrackerView {
     private TextField tagField;
     private Button submitButton;
 
-    private List<Mood> moods;
+    private final ReferenceCatalog catalog;
     private TableView<MoodEntry> moodLogTable;
     private boolean showingMoodLog = false;
     private MoodEntry selectedEntry;
 
+    // Counts the reloads of the mood log started since its list was last installed (only the latest one installs it), and whether a change was committed while counting
+    private int reloadCount;
+    private boolean changedDuringReload;
+
+    // The order of the mood log (newest first), matching the order pages are loaded in
+    private static final Comparator<MoodEntry> NEWEST_FIRST = Comparator.comparing(MoodEntry::getDateAndTime).thenComparingInt(MoodEntry::getEntryID).reversed();
+
 
     /**
      * Creates the view and initializes the layout.
+     *
+     * @param catalog The predefined moods, loaded before the view is built (for the dropdown and the mood log).
      */
-    public MoodTrackerView() {
+    public MoodTrackerView(ReferenceCatalog catalog) {
+
+        this.catalog = catalog;
 
         // Setting root and title styling
         root.setPadding(new Insets(40));
@@ -59,6 +70,16 @@ public class MoodTrackerView {
 
         // Building the initial layout
         root.getChildren().addAll(title, moodInputPane);
+
+        // Keeping the mood log current by applying each committed write to it (instead of loading it again)
+        controller.subscribeToMoodEntryChanges(UiTask.onFxThread(event -> {
+
+            if (reloadCount > 0) {
+                changedDuringReload = true;
+            } else if (moodLogTable.getItems() instanceof PagedEntryList<MoodEntry> entries) {
+                entries.apply(event.getType(), event.getEntity());
+            }
+        }));
     }
 
 
@@ -114,16 +135,9 @@ public class MoodTrackerView {
         moodInputPane = new VBox(detailCard);
         moodInputPane.setAlignment(Pos.CENTER);
 
-        // Loading moods
-        try {
-            moods = controller.getMoodList();
-
-            // Populating dropdown
-            for (Mood mood : moods) {
-                moodChoice.getItems().add(mood.getMoodName());
-            }
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
+        // Populating dropdown
+        for (Mood mood : catalog.getMoods()) {
+            moodChoice.getItems().add(mood.getMoodName());
         }
 
         // Setting up actions for handling when user pressures "submit" and "view logs"
@@ -192,13 +206,8 @@ public class MoodTrackerView {
                     setText(null);
 
                 } else {
-
-                    try {
-                        Mood mood = controller.getMoodByID(item);
-                        setText(mood != null ? mood.getMoodName() : "Unknown");
-                    } catch (SQLException e) {
-                        setText("Error");
-                    }
+                    String moodName = catalog.getMoodName(item);
+                    setText(moodName != null ? moodName : "Unknown");
                 }
 
                 setStyle("-fx-text-fill: #E0E0E0;");
@@ -221,6 +230,9 @@ public class MoodTrackerView {
 
         // Adding mood log table and content and putting on card
         moodLogTable.getColumns().addAll(dateColumn, moodColumn, tagColumn);
+
+        // Rows are paged in newest first from the database (only a few pages are ever in memory), so the columns can't be sorted by clicking them
+        moodLogTable.getColumns().forEach(column -> column.setSortable(false));
         moodLogContent.getChildren().addAll(subtitle, moodLogTable);
         StackPane moodLogCard = new StackPane(moodLogContent);
         moodLogCard.getStyleClass().addAll("card", "exercise-detail-card");
@@ -286,9 +298,9 @@ public class MoodTrackerView {
 
         } else {
 
-            // Switching to mood log view with animation (and call to update entries for dynamic updating)
+            // Switching to mood log view with animation (entries are only loaded the first time, changes since are applied as they're committed)
             root.getChildren().remove(moodInputPane);
-            loadMoodEntries();
+            if (!(moodLogTable.getItems() instanceof PagedEntryList)) { loadMoodEntries(); }
             FadeTransition fadeIn = new FadeTransition(Duration.millis(1000), moodLogPane);
             fadeIn.setFromValue(0);
             fadeIn.setToValue(1);
@@ -326,24 +338,16 @@ public class MoodTrackerView {
         moodChoice.setStyle("");
 
         // Finding the mood ID from the name
-        int moodID = -1;
-        for (Mood mood : moods) {
-
-            if (mood.getMoodName().equals(selected)) {
-                moodID = mood.getMoodID();
-                break;
-            }
-        }
-
+        int moodID = catalog.getMoodID(selected);
         if (moodID == -1) { showAlert("Invalid mood selection."); return; }
 
         // Attempting to add new mood entry
         String tagText = tagField.getText().trim();
         MoodEntry entry = new MoodEntry(0, moodID, tagText, LocalDateTime.now());
 
-        try {
+        UiTask.whenDone(controller.insertMoodEntryAsync(entry), inserted -> {
 
-            if (controller.insertMoodEntry(entry)) {
+            if (inserted) {
 
                 showAlert("Mood logged successfully!");
                 moodChoice.getSelectionModel().clearSelection();
@@ -368,9 +372,7 @@ public class MoodTrackerView {
             } else {
                 showAlert("Failed to log mood.");
             }
-        } catch (SQLException ex) {
-            showAlert("Error submitting mood entry: " + ex.getMessage());
-        }
+        }, this::showAlert);
     }
 
     /**
@@ -383,75 +385,60 @@ public class MoodTrackerView {
         // Swapping back to input view and try to update
         toggleMoodInputOrLogView();
 
-        try {
-
-            Mood mood = controller.getMoodByID(selectedEntry.getMoodID());
-            if (mood != null) { moodChoice.setValue(mood.getMoodName()); }
-            tagField.setText(selectedEntry.getTag());
+        moodChoice.setValue(catalog.getMoodName(selectedEntry.getMoodID()));
+        tagField.setText(selectedEntry.getTag());
 
-            // Changing submit button to update when editing an entry and handling the update
-            submitButton.setText("Update Mood");
-            submitButton.setOnAction(event -> {
+        // Changing submit button to update when editing an entry and handling the update
+        submitButton.setText("Update Mood");
+        submitButton.setOnAction(event -> {
 
-                if (selectedEntry == null) { return; }
+            if (selectedEntry == null) { return; }
 
-                // Grabbing attention to blank field upon attempted submission
-                String selected = moodChoice.getValue();
-                if (selected == null) {
+            // Grabbing attention to blank field upon attempted submission
+            String selected = moodChoice.getValue();
+            if (selected == null) {
 
-                    moodChoice.setStyle("-fx-border-color: red; -fx-border-width: 2px; -fx-background-color: rgba(255, 0, 0, 0.1);");
+                moodChoice.setStyle("-fx-border-color: red; -fx-border-width: 2px; -fx-background-color: rgba(255, 0, 0, 0.1);");
 
-                    // Shake animation
-                    Timeline timeline = new Timeline(new KeyFrame(Duration.millis(0), new KeyValue(moodChoice.translateXProperty(), 0)),
-                            new KeyFrame(Duration.millis(50), new KeyValue(moodChoice.translateXProperty(), -5)),
-                            new KeyFrame(Duration.millis(100), new KeyValue(moodChoice.translateXProperty(), 5)),
-                            new KeyFrame(Duration.millis(150), new KeyValue(moodChoice.translateXProperty(), -5)),
-                            new KeyFrame(Duration.millis(200), new KeyValue(moodChoice.translateXProperty(), 0)));
-                    timeline.setCycleCount(2);
-                    timeline.play();
+                // Shake animation
+                Timeline timeline = new Timeline(new KeyFrame(Duration.millis(0), new KeyValue(moodChoice.translateXProperty(), 0)),
+                        new KeyFrame(Duration.millis(50), new KeyValue(moodChoice.translateXProperty(), -5)),
+                        new KeyFrame(Duration.millis(100), new KeyValue(moodChoice.translateXProperty(), 5)),
+                        new KeyFrame(Duration.millis(150), new KeyValue(moodChoice.translateXProperty(), -5)),
+                        new KeyFrame(Duration.millis(200), new KeyValue(moodChoice.translateXProperty(), 0)));
+                timeline.setCycleCount(2);
+                timeline.play();
 
-                    return;
-                }
-                moodChoice.setStyle("");
-
-                // Finding the mood ID from the name
-                int moodID = -1;
-                for (Mood moodCheck : moods) {
-                    if (moodCheck.getMoodName().equals(selected)) {
-                        moodID = moodCheck.getMoodID();
-                        break;
-                    }
-                }
+                return;
+            }
+            moodChoice.setStyle("");
 
-                if (moodID == -1) { showAlert("Invalid mood selection."); return; }
+            // Finding the mood ID from the name
+            int moodID = catalog.getMoodID(selected);
+            if (moodID == -1) { showAlert("Invalid mood selection."); return; }
 
-                // Attempting to update (display confirmation or failure)
-                String tagText = tagField.getText().trim();
-                MoodEntry updatedEntry = new MoodEntry(selectedEntry.getEntryID(), moodID, tagText, selectedEntry.getDateAndTime());
+            // Attempting to update (display confirmation or failure)
+            String tagText = tagField.getText().trim();
+            MoodEntry updatedEntry = new MoodEntry(selectedEntry.getEntryID(), moodID, tagText, selectedEntry.getDateAndTime());
 
-                try {
+            UiTask.whenDone(controller.updateMoodEntryAsync(updatedEntry), updated -> {
 
-                    // Displaying proper alert and resetting button
-                    if (controller.updateMoodEntry(updatedEntry)) {
+                // Displaying proper alert and resetting button
+                if (updated) {
 
-                        showAlert("Mood updated successfully!");
-                        moodChoice.setValue(null);
-                        tagField.clear();
+                    showAlert("Mood updated successfully!");
+                    moodChoice.setValue(null);
+                    tagField.clear();
 
-                        submitButton.setText("Submit Mood");
-                        submitButton.setOnAction(event2 -> handleSubmit());
-                        selectedEntry = null;
+                    submitButton.setText("Submit Mood");
+                    submitButton.setOnAction(event2 -> handleSubmit());
+                    selectedEntry = null;
 
-                    } else {
-                        showAlert("Failed to update mood.");
-                    }
-                } catch (SQLException ex) {
-                    showAlert("Error: " + ex.getMessage());
-                }});
-
-        } catch (SQLException e) {
-            showAlert("Error loading mood data: " + e.getMessage());
-        }
+                } else {
+                    showAlert("Failed to update mood.");
+                }
+            }, this::showAlert);
+        });
     }
 
 
@@ -530,20 +517,18 @@ public class MoodTrackerView {
             cancelButton.setOnAction(event -> dialogStage.close());
             confirmButton.setOnAction(event -> {
 
-                try {
+                UiTask.whenDone(controller.deleteMoodEntryAsync(selectedEntry.getEntryID()), deleted -> {
 
-                    if (controller.deleteMoodEntry(selectedEntry.getEntryID())) {
+                    // The row is removed from the log by the delete's change event
+                    if (deleted) {
 
                         dialogStage.close();
-                        loadMoodEntries();
                         showAlert("Mood entry deleted successfully");
 
                     } else {
                         showAlert("Failed to delete mood entry");
                     }
-                } catch (SQLException e) {
-                    showAlert("Error deleting mood entry: " + e.getMessage());
-                }
+                }, this::showAlert);
             });
 
             // Preventing outside interaction and display
@@ -560,16 +545,24 @@ public class MoodTrackerView {
      */
     private void loadMoodEntries() {
 
-        // Accessing controller which accesses the DAO to retrieve mood entries in database
-        try {
+        int reload = ++reloadCount;
+        changedDuringReload = false;
 
-            List<MoodEntry> entries = controller.getAllMoodEntries();
-            moodLogTable.getItems().clear();
-            moodLogTable.getItems().addAll(entries);
+        // Accessing controller which accesses the DAO in the background, only the count is read up front and pages of entries are loaded as the table scrolls to them
+        UiTask.whenDone(controller.countMoodEntriesAsync(), count -> {
 
-        } catch (SQLException e) {
-            showAlert("Error: " + e.getMessage());
-        }
+            // Skipping counts a newer reload has replaced, and counting again if an entry changed meanwhile (the count may or may not include it)
+            if (reload != reloadCount) { return; }
+            if (changedDuringReload) { loadMoodEntries(); return; }
+
+            reloadCount = 0;
+            moodLogTable.setItems(new PagedEntryList<>(controller::getMoodEntryPageAsync, NEWEST_FIRST, count, this::showAlert));
+
+        }, message -> {
+
+            if (reload == reloadCount) { reloadCount = 0; }
+            showAlert(message);
+        });
     }
 
 
@@ -0,0 +1,146 @@
+package view;
+
+import javafx.collections.ObservableListBase;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import dao.ChangeEvent;
+
+/**
+ * Read-only list for TableViews that loads entries from the database a page at a time as rows are shown.
+ * The TableView only asks for the rows it is drawing, so only those pages are fetched (in the background, through the
+ * controller's async calls, so scrolling never waits on the database), and pages far from the
+ * last one viewed are dropped again, keeping memory bounded whatever the size of the history.
+ * Single inserts, edits and deletes (from ChangeEvents) are applied to just the one page they fall in with apply,
+ * so the table is kept current without being loaded again. Which pages are loaded and where each one starts is kept by PagedRows,
+ * this class only fetches the pages it asks for and tells the table which rows changed.
+ * Rows come in the one order the pages are loaded in (newest first), so the tables using it don't offer sorting by column.
+ * @author Isabella Castillo
+ */
+final class PagedEntryList<T> extends ObservableListBase<T> {
+
+    /**
+     * Loads the page of entries that comes right after the given entry (or the first page when it's null).
+     */
+    @FunctionalInterface
+    interface PageLoader<T> {
+        CompletableFuture<List<T>> load(T after, int limit);
+    }
+
+    // Defaults sized so a page covers a few screens of rows and a handful of pages is a few hundred entries
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int DEFAULT_MAX_PAGES = 5;
+
+    private final PageLoader<T> loader;
+    private final Consumer<String> onError;
+    private final PagedRows<T> rows;
+
+
+    /**
+     * Creates the list with the default page size and page limit.
+     *
+     * @param loader  Loads a page after a given entry.
+     * @param order   The order the loader returns entries in (entries that compare as equal must be the same entry).
+     * @param size    The number of entries in the table (from a COUNT query).
+     * @param onError Called with the message of any database error hit while loading a page.
+     */
+    PagedEntryList(PageLoader<T> loader, Comparator<? super T> order, int size, Consumer<String> onError) { this(loader, order, size, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, onError); }
+
+
+    /**
+     * Creates the list, nothing is loaded until a row is first asked for.
+     *
+     * @param loader   Loads a page after a given entry.
+     * @param order    The order the loader returns entries in (entries that compare as equal must be the same entry).
+     * @param size     The number of entries in the table (from a COUNT query).
+     * @param pageSize The number of entries per page.
+     * @param maxPages The max number of pages kept in memory at once.
+     * @param onError  Called with the message of any database error hit while loading a page (those rows stay blank).
+     */
+    PagedEntryList(PageLoader<T> loader, Comparator<? super T> order, int size, int pageSize, int maxPages, Consumer<String> onError) {
+
+        this.loader = loader;
+        this.onError = onError;
+        this.rows = new PagedRows<>(order, size, pageSize, maxPages);
+    }
+
+
+    /**
+     * Gets the entry at an index, starting a background load of its page if it isn't in memory.
+     * Rows of a page still loading show as blank and are filled in when it arrives.
+     *
+     * @param  index The row index.
+     * @return T     Returns the entry, or null if its page is still loading (or it was deleted since the table was sized).
+     */
+    @Override
+    public T get(int index) {
+
+        T entry = rows.get(index);
+        if (entry == null) {
+
+            PagedRows.Load<T> load = rows.loadFor(index);
+            if (load != null) { load(load); }
+        }
+        return entry;
+    }
+
+
+    /**
+     * Gets the number of rows in the table, counted when the list was created and kept up to date by the changes applied since.
+     *
+     * @return int Returns the number of rows.
+     */
+    @Override
+    public int size() { return rows.size(); }
+
+
+    /**
+     * Applies a committed change of one entry (must be called on the JavaFX thread).
+     *
+     * @param type  What happened to the entry.
+     * @param entry The entry as stored.
+     */
+    void apply(ChangeEvent.Type type, T entry) {
+
+        PagedRows.Change<T> change = rows.apply(type, entry);
+        if (change == null) { return; }
+
+        beginChange();
+        switch (change.kind()) {
+            case ADDED -> nextAdd(change.index(), change.index() + 1);
+            case REMOVED -> nextRemove(change.index(), change.entry());
+            case REPLACED -> nextSet(change.index(), change.entry());
+        }
+        endChange();
+    }
+
+
+    /**
+     * Fetches a page in the background, then hands it to the bookkeeping and fetches the next one on the way to the target page.
+     */
+    private void load(PagedRows.Load<T> load) {
+
+        UiTask.whenDone(loader.load(load.after(), load.limit()), page -> {
+
+            PagedRows.Loaded<T> loaded = rows.finishLoad(load, page);
+            if (loaded.next() != null) {
+                load(loaded.next());
+                return;
+            }
+
+            // Telling the table the rows of this page changed so it redraws them
+            if (loaded.from() >= loaded.to()) { return; }
+            beginChange();
+            for (int i = loaded.from(); i < loaded.to(); i++) {
+                nextSet(i, null);
+            }
+            endChange();
+
+        }, message -> {
+
+            rows.failLoad(load);
+            onError.accept(message);
+        });
+    }
+}
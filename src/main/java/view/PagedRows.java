@@ -0,0 +1,366 @@
+package view;
+
+import java.util.*;
+
+import dao.ChangeEvent;
+
+/**
+ * Page bookkeeping behind PagedEntryList, kept apart from JavaFX so it can be tested on its own.
+ * Tracks which pages are in memory, where each page reached so far starts and ends, and which are loading, and works out
+ * the row each inserted, edited or deleted entry lands on. It never loads anything itself: loadFor hands back the page to fetch,
+ * and the caller passes what came back to finishLoad.
+ * Pages are fetched with keyset pagination, each page starting right after the last entry of the page before it,
+ * and pages grow and shrink with the changes applied, each keeping its own count.
+ * @author Isabella Castillo
+ */
+final class PagedRows<T> {
+
+    /**
+     * A page to fetch: the entries after 'after' (the first page when it's null), at most 'limit' of them.
+     * Page 'number' is fetched on the way to page 'target', as every page before the target must have been reached once.
+     */
+    record Load<T>(int number, int target, T after, int limit, int version) {}
+
+    /**
+     * What a finished load leads to: the next page to fetch on the way to the target (or null),
+     * and the rows from 'from' up to 'to' that now have their entries and should be redrawn.
+     */
+    record Loaded<T>(Load<T> next, int from, int to) {}
+
+    /**
+     * A change to the rows as the table needs to hear of it: the row, and the entry added, removed or replaced there (for REPLACED, the old one).
+     */
+    record Change<T>(Kind kind, int index, T entry) {}
+    enum Kind { ADDED, REMOVED, REPLACED }
+
+    private final Comparator<? super T> order;
+    private final int pageSize;
+    private final int maxPages;
+    private int size;
+
+    // Loaded pages by page number. For every page reached so far: its last entry (the keyset cursor for the next page), its first row and its count
+    private final Map<Integer, List<T>> pages = new HashMap<>();
+    private final List<T> pageEnds = new ArrayList<>();
+    private final List<Integer> pageStarts = new ArrayList<>();
+    private final List<Integer> pageCounts = new ArrayList<>();
+    private final Set<Integer> loading = new HashSet<>();
+    private int lastPage = Integer.MAX_VALUE;
+
+    // Bumped by every change, a page that was loading while one was applied may be missing it and is thrown away
+    private int version = 0;
+
+
+    /**
+     * Creates the bookkeeping for a table with nothing loaded yet.
+     *
+     * @param order    The order pages are loaded in (entries that compare as equal must be the same entry).
+     * @param size     The number of entries in the table (from a COUNT query).
+     * @param pageSize The number of entries per page.
+     * @param maxPages The max number of pages kept in memory at once (at least 2).
+     */
+    PagedRows(Comparator<? super T> order, int size, int pageSize, int maxPages) {
+
+        this.order = order;
+        this.size = size;
+        this.pageSize = pageSize;
+        this.maxPages = Math.max(2, maxPages);
+    }
+
+
+    /**
+     * Gets the number of rows, counted when the table was sized and kept up to date by the changes applied since.
+     *
+     * @return int Returns the number of rows.
+     */
+    int size() { return size; }
+
+
+    /**
+     * Gets the entry at a row if its page is in memory.
+     *
+     * @param  index The row index.
+     * @return T     Returns the entry, or null if its page isn't in memory (or it was deleted since the table was sized).
+     */
+    T get(int index) {
+
+        Objects.checkIndex(index, size);
+        int pageNumber = pageAt(index);
+
+        List<T> page = pages.get(pageNumber);
+        if (page == null) { return null; }
+
+        int offset = index - startOf(pageNumber);
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+
+    /**
+     * Starts loading the page holding a row, unless it is in memory, already on its way or past the last entry.
+     *
+     * @param  index   The row index.
+     * @return Load<T> Returns the first page to fetch, or null if there's nothing to fetch.
+     */
+    Load<T> loadFor(int index) {
+
+        int pageNumber = pageAt(index);
+        if (pages.containsKey(pageNumber) || pageNumber > lastPage || !loading.add(pageNumber)) { return null; }
+        return nextLoad(Math.min(pageEnds.size(), pageNumber), pageNumber);
+    }
+
+
+    /**
+     * Takes in a fetched page.
+     * A page fetched while a change was applied is thrown away (the table asks for it again when it redraws).
+     *
+     * @param  load      The load the page was fetched for.
+     * @param  page      The entries fetched.
+     * @return Loaded<T> Returns the next page to fetch and the rows to redraw.
+     */
+    Loaded<T> finishLoad(Load<T> load, List<T> page) {
+
+        int number = load.number();
+        int target = load.target();
+
+        if (load.version() != version) {
+            loading.remove(target);
+            return new Loaded<>(null, 0, 0);
+        }
+
+        if (number == pageEnds.size() && !page.isEmpty()) {
+            pageStarts.add(startOf(number));
+            pageCounts.add(page.size());
+            pageEnds.add(page.get(page.size() - 1));
+        }
+        if (page.size() < load.limit()) { lastPage = Math.min(lastPage, number); }
+
+        // Walking forward towards the target page (stopping if the entries ran out first)
+        if (number < target) {
+
+            if (number >= lastPage) {
+                loading.remove(target);
+                return new Loaded<>(null, 0, 0);
+            }
+            return new Loaded<>(nextLoad(Math.min(pageEnds.size(), target), target), 0, 0);
+        }
+
+        loading.remove(target);
+        pages.put(target, new ArrayList<>(page));
+        dropFarPages(target);
+
+        int from = startOf(target);
+        return new Loaded<>(null, from, Math.min(from + load.limit(), size));
+    }
+
+
+    /**
+     * Marks a load as failed, so the page can be asked for again.
+     *
+     * @param load The load that failed.
+     */
+    void failLoad(Load<T> load) { loading.remove(load.target()); }
+
+
+    /**
+     * Applies a committed change of one entry.
+     *
+     * @param  type      What happened to the entry.
+     * @param  entry     The entry as stored.
+     * @return Change<T> Returns the change to the rows, or null if no row changed.
+     */
+    Change<T> apply(ChangeEvent.Type type, T entry) {
+
+        return switch (type) {
+            case INSERTED -> inserted(entry);
+            case UPDATED -> updated(entry);
+            case DELETED -> removed(entry);
+        };
+    }
+
+
+    /**
+     * Adds a newly inserted entry to the page it falls in.
+     */
+    private Change<T> inserted(T entry) {
+
+        version++;
+        int pageNumber = pageOf(entry);
+
+        // Past every page reached so far, it is picked up when the pages after them are first loaded
+        if (pageNumber == pageEnds.size()) {
+
+            if (lastPage == Integer.MAX_VALUE) { return changeSize(startOf(pageNumber), 1, entry); }
+
+            // The end of the table was already reached, so it joins the last page (or starts the table over if it was empty)
+            if (pageEnds.isEmpty()) {
+                pages.clear();
+                lastPage = Integer.MAX_VALUE;
+                return changeSize(0, 1, entry);
+            }
+            pageNumber = pageEnds.size() - 1;
+            pageEnds.set(pageNumber, entry);
+        }
+
+        List<T> page = pages.get(pageNumber);
+        int position = page == null ? 0 : Collections.binarySearch(page, entry, order);
+
+        // A page that finished loading after the insert already holds it (and is missing the entry pushed out of its count), so it's loaded again
+        if (position >= 0 && page != null) {
+            pages.remove(pageNumber);
+            position = 0;
+        } else if (page != null) {
+            position = -position - 1;
+            page.add(position, entry);
+        }
+
+        resizePage(pageNumber, 1);
+        return changeSize(startOf(pageNumber) + position, 1, entry);
+    }
+
+
+    /**
+     * Replaces an edited entry in its page if that page is in memory.
+     * Edits must keep the entry's place in the order, which holds as entries are ordered by time and edits never change it.
+     */
+    private Change<T> updated(T entry) {
+
+        version++;
+        int pageNumber = pageOf(entry);
+        List<T> page = pages.get(pageNumber);
+        if (page == null) { return null; }
+
+        int position = Collections.binarySearch(page, entry, order);
+        if (position < 0) { return null; }
+
+        T old = page.set(position, entry);
+        return new Change<>(Kind.REPLACED, startOf(pageNumber) + position, old);
+    }
+
+
+    /**
+     * Removes a deleted entry from its page.
+     */
+    private Change<T> removed(T entry) {
+
+        version++;
+        int pageNumber = pageOf(entry);
+
+        // Past every page reached so far, it only changes the count (unless the end was reached, then it isn't in the table)
+        if (pageNumber == pageEnds.size()) {
+            return lastPage == Integer.MAX_VALUE && startOf(pageNumber) < size ? changeSize(startOf(pageNumber), -1, entry) : null;
+        }
+
+        List<T> page = pages.get(pageNumber);
+        int position = page == null ? 0 : Collections.binarySearch(page, entry, order);
+
+        // A page that finished loading after the delete is already missing it (and holds an entry from the next page instead), so it's loaded again
+        if (position < 0) {
+            pages.remove(pageNumber);
+            position = 0;
+        } else if (page != null) {
+            page.remove(position);
+        }
+
+        if (pageCounts.get(pageNumber) == 0) { return null; }
+        resizePage(pageNumber, -1);
+        return changeSize(startOf(pageNumber) + position, -1, entry);
+    }
+
+
+    /**
+     * Finds the page an entry falls in: the first page reached whose last entry isn't before it (or the page after every page reached).
+     */
+    private int pageOf(T entry) {
+
+        int low = 0;
+        int high = pageEnds.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(pageEnds.get(middle), entry) < 0) { low = middle + 1; }
+            else { high = middle; }
+        }
+        return low;
+    }
+
+
+    /**
+     * Finds the page holding a row. Pages reached so far are found by their first row, the ones after them are pageSize rows each.
+     */
+    private int pageAt(int index) {
+
+        int reached = pageEnds.size();
+        int reachedEnd = startOf(reached);
+        if (index >= reachedEnd) { return reached + (index - reachedEnd) / pageSize; }
+
+        // The last reached page starting at or before the row
+        int low = 0;
+        int high = reached - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (pageStarts.get(middle) <= index) { low = middle; }
+            else { high = middle - 1; }
+        }
+        return low;
+    }
+
+
+    /**
+     * Gets the first row of a page.
+     */
+    private int startOf(int pageNumber) {
+
+        int reached = pageEnds.size();
+        if (pageNumber < reached) { return pageStarts.get(pageNumber); }
+
+        int reachedEnd = reached == 0 ? 0 : pageStarts.get(reached - 1) + pageCounts.get(reached - 1);
+        return reachedEnd + (pageNumber - reached) * pageSize;
+    }
+
+
+    /**
+     * Changes a reached page's count, moving the first row of every page after it.
+     */
+    private void resizePage(int pageNumber, int delta) {
+
+        pageCounts.set(pageNumber, pageCounts.get(pageNumber) + delta);
+        for (int i = pageNumber + 1; i < pageStarts.size(); i++) {
+            pageStarts.set(i, pageStarts.get(i) + delta);
+        }
+    }
+
+
+    /**
+     * Adds or removes one row.
+     */
+    private Change<T> changeSize(int index, int delta, T entry) {
+
+        size += delta;
+        return delta > 0 ? new Change<>(Kind.ADDED, index, entry) : new Change<>(Kind.REMOVED, Math.min(index, size), entry);
+    }
+
+
+    /**
+     * Builds the load of page 'number' on the way to the target. A reached page is loaded with its own count, a new one with pageSize.
+     */
+    private Load<T> nextLoad(int number, int target) {
+
+        T after = number == 0 ? null : pageEnds.get(number - 1);
+        int limit = number < pageEnds.size() ? pageCounts.get(number) : pageSize;
+        return new Load<>(number, target, after, limit, version);
+    }
+
+
+    /**
+     * Drops the pages furthest from the one just viewed until at most maxPages are kept.
+     */
+    private void dropFarPages(int current) {
+
+        while (pages.size() > maxPages) {
+
+            int furthest = current;
+            for (int number : pages.keySet()) {
+                if (Math.abs(number - current) > Math.abs(furthest - current)) { furthest = number; }
+            }
+            pages.remove(furthest);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package view;
+
+import javafx.application.Platform;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Helper for the views to hand the result of a controller's async call back to the JavaFX thread.
+ * @author Isabella Castillo
+ */
+final class UiTask {
+
+    // To prevent accidental object instantiation
+    private UiTask() {}
+
+
+    /**
+     * Runs the callback with the result on the JavaFX thread once the future completes.
+     * If the call fails, the error is passed on as an "Error: ..." message, ready for a view's showAlert.
+     * A cancelled call runs neither.
+     *
+     * @param future    The controller's async call.
+     * @param onSuccess Called with the result on the JavaFX thread.
+     * @param onError   Called with the error message on the JavaFX thread.
+     */
+    static <T> void whenDone(CompletableFuture<T> future, Consumer<? super T> onSuccess, Consumer<String> onError) {
+
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+
+            // Cancelled work was replaced by newer work, so there's nothing to show or report
+            if (error != null) {
+                if (!(unwrap(error) instanceof CancellationException)) { onError.accept("Error: " + unwrap(error).getMessage()); }
+                return;
+            }
+
+            onSuccess.accept(result);
+        }));
+    }
+
+
+    /**
+     * Wraps a listener called from background threads (such as a ChangeEvents subscriber) so it runs on the JavaFX thread instead.
+     *
+     * @param  action      The listener, run on the JavaFX thread.
+     * @return Consumer<T> Returns the wrapped listener.
+     */
+    static <T> Consumer<T> onFxThread(Consumer<T> action) { return value -> Platform.runLater(() -> action.accept(value)); }
+
+
+    /**
+     * Gets the original exception out of the CompletionException wrappers CompletableFuture adds.
+     */
+    private static Throwable unwrap(Throwable error) {
+
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
@@ -0,0 +1,68 @@
+package controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ControllerExecutor.java.
+ * @author Isabella Castillo
+ */
+class ControllerExecutorTest {
+
+    @AfterEach
+    void tearDown() {
+
+        System.clearProperty("mindscape.executor");
+        System.clearProperty("mindscape.executor.threads");
+        ControllerExecutor.shutdown();
+    }
+
+
+    @Test
+    void submit() {
+
+        try {
+            assertEquals(42, ControllerExecutor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            fail("Error in submit: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void submitPassesExceptionToFuture() {
+
+        // A SQLException thrown by the task should be the cause the future fails with
+        CompletableFuture<Integer> future = ControllerExecutor.submit(() -> { throw new SQLException("Database is locked"); });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(SQLException.class, e.getCause());
+        assertEquals("Database is locked", e.getCause().getMessage());
+
+        // Unchecked exceptions should reach the future the same way rather than being lost on the executor's thread
+        CompletableFuture<Integer> failed = ControllerExecutor.submit(() -> { throw new IllegalStateException("No mood selected"); });
+        e = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+
+    @Test
+    void invalidThreadCountFallsBackToDefault() {
+
+        // A thread count that isn't a number should fall back to the default rather than fail the executor's setup
+        ControllerExecutor.shutdown();
+        System.setProperty("mindscape.executor", "platform");
+        System.setProperty("mindscape.executor.threads", "four");
+
+        try {
+            assertEquals("done", ControllerExecutor.submit(() -> "done").get(5, TimeUnit.SECONDS));
+        } catch (InterruptedException | ExecutionException | TimeoutException e) {
+            fail("Error in invalidThreadCountFallsBackToDefault: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+import models.ExerciseEntry;
+import models.ExerciseMoodStats;
+import models.MoodCategoryCount;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for AnalyticsDAO.java.
+ * Each test matches the name of the method in the AnalyticsDAO class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class AnalyticsDAOTest {
+
+
+    private final AnalyticsDAO analyticsDAO = new AnalyticsDAO();
+    private final ExerciseDAO exerciseDAO = new ExerciseDAO();
+
+
+    @AfterEach
+    void tearDown() {
+
+        try {
+
+            // Deleting test entries after each test as to not corrupt database
+            for (ExerciseEntry entry : exerciseDAO.getAllExerciseEntries()) { exerciseDAO.deleteExerciseEntry(entry.getLogID()); }
+
+        } catch (SQLException e) {
+            System.err.println("tearDown failed: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void groupByCategory() {
+
+        // Day and night counts indexed by mood ID (index 0 is unused, IDs run from 1 to 15)
+        int[] dayCounts = new int[16];
+        int[] nightCounts = new int[16];
+        dayCounts[2] = 1;
+        dayCounts[4] = 1;
+        nightCounts[5] = 1;
+        nightCounts[12] = 1;
+
+        // Every category should be returned in order, adding up the moods it covers
+        List<MoodCategoryCount> counts = AnalyticsDAO.groupByCategory(dayCounts, nightCounts, 15);
+        assertEquals(3, counts.size(), "All three mood categories should be returned");
+        assertEquals(1, counts.get(0).getFirstMoodID());
+        assertEquals(5, counts.get(0).getLastMoodID());
+        assertEquals(2, counts.get(0).getDayCount(), "Moods 2 and 4 should be added into the first category's day count");
+        assertEquals(1, counts.get(0).getNightCount(), "Mood 5 should be added into the first category's night count");
+        assertEquals(0, counts.get(1).getDayCount() + counts.get(1).getNightCount(), "The middle category should be empty");
+        assertEquals(1, counts.get(2).getNightCount(), "Mood 12 should be added into the last category");
+        assertEquals(15, counts.get(2).getLastMoodID());
+    }
+
+
+    @Test
+    void getExerciseMoodStats() {
+
+        try {
+
+            LocalDateTime time = LocalDateTime.of(2031, 3, 10, 9, 0);
+
+            // Three sessions of one exercise (one without an after mood) and one of another, plus one outside the range
+            exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 4, 10, time, time.plusMinutes(5)));
+            exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 6, null, time.plusDays(1), time.plusDays(1).plusMinutes(5)));
+            exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 2, 8, time.plusDays(1), time.plusDays(1).plusMinutes(5)));
+            exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 2, 3, 9, time, time.plusMinutes(5)));
+            exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 2, 1, 1, time.minusDays(30), time.minusDays(30).plusMinutes(5)));
+
+            List<ExerciseMoodStats> allStats = analyticsDAO.getExerciseMoodStats(time.minusDays(1), time.plusDays(2));
+            assertEquals(2, allStats.size(), "Both exercises should have statistics");
+
+            // Checking the before and after moods are counted separately, leaving out the missing after mood
+            ExerciseMoodStats first = allStats.get(0);
+            assertEquals(1, first.getExerciseID());
+            assertEquals(3, first.getSessions(), "Sessions without an after mood should still be counted");
+            assertEquals(3, first.getMoodBefore().getCount());
+            assertEquals(4.0, first.getMoodBefore().getMean(), 1e-9);
+            assertEquals(2.0, first.getMoodBefore().getStandardDeviation(), 1e-9);
+            assertEquals(2, first.getMoodAfter().getCount(), "Missing after moods should be left out");
+            assertEquals(9.0, first.getMoodAfter().getMean(), 1e-9);
+
+            // Checking the change only uses sessions with both moods, and an unvarying change has an interval of just its mean
+            assertEquals(2, first.getMoodChange().getCount());
+            assertEquals(6.0, first.getMoodChange().getMean(), 1e-9);
+            assertEquals(6.0, first.getMoodChangeLow(), 1e-9);
+            assertEquals(6.0, first.getMoodChangeHigh(), 1e-9);
+            assertEquals(1, allStats.get(1).getSessions(), "Sessions outside the range should be left out");
+
+            // Checking the statistics stop once cancelled
+            Cancellation cancellation = new Cancellation();
+            cancellation.cancel();
+            assertThrows(CancellationException.class, () -> analyticsDAO.getExerciseMoodStats(time.minusDays(1), time.plusDays(2), cancellation));
+
+        } catch (SQLException e) {
+            fail("SQL error in getExerciseMoodStats: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CancellationException;
+
+import models.DatabaseConnection;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Cancellation.java.
+ * Each test matches the name of the method in the Cancellation class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class CancellationTest {
+
+
+    @Test
+    void cancel() {
+
+        // A query counting to a billion, far longer than the test waits
+        String query = "WITH RECURSIVE counter(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM counter LIMIT 1000000000) SELECT COUNT(*) FROM counter";
+        Cancellation cancellation = new Cancellation();
+
+        // Checking cancel() stops a registered query while it runs, well before it could finish
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+
+            try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+                cancellation.register(pstmt);
+                Thread canceller = Thread.ofVirtual().start(() -> {
+                    try { Thread.sleep(200); } catch (InterruptedException ignored) {}
+                    cancellation.cancel();
+                });
+
+                assertThrows(SQLException.class, pstmt::executeQuery, "The running query should be stopped");
+                cancellation.unregister(pstmt);
+                canceller.join();
+            }
+        });
+        assertTrue(cancellation.isCancelled());
+
+        // Checking work that starts after the cancel doesn't run at all
+        assertThrows(CancellationException.class, cancellation::throwIfCancelled);
+        assertThrows(CancellationException.class, () -> new AnalyticsDAO().getExerciseMoodStats(LocalDateTime.of(2031, 1, 1, 0, 0), LocalDateTime.of(2031, 2, 1, 0, 0), cancellation),
+                "A query shouldn't start once cancelled");
+
+        // Checking a cancellation that's never used doesn't get in the way
+        assertDoesNotThrow(() -> new AnalyticsDAO().getExerciseMoodStats(LocalDateTime.of(2031, 1, 1, 0, 0), LocalDateTime.of(2031, 2, 1, 0, 0), new Cancellation()));
+    }
+
+
+    @Test
+    void unregister() {
+
+        Cancellation cancellation = new Cancellation();
+
+        // Checking a statement that finished and was unregistered is out of reach of a later cancel(), so its connection keeps working
+        assertDoesNotThrow(() -> {
+
+            try (Connection conn = DatabaseConnection.connectReadOnly()) {
+
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1")) {
+
+                    cancellation.register(pstmt);
+                    try (ResultSet rs = pstmt.executeQuery()) { rs.next(); }
+                    cancellation.unregister(pstmt);
+                }
+                cancellation.cancel();
+
+                try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("SELECT 2")) {
+                    assertTrue(rs.next());
+                    assertEquals(2, rs.getInt(1), "The next query on the connection shouldn't be interrupted");
+                }
+            }
+        });
+    }
+}
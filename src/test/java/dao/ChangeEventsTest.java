@@ -0,0 +1,165 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import models.DatabaseConnection;
+import models.ExerciseEntry;
+import models.JournalEntry;
+import models.MoodEntry;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChangeEvents.java and the DAO writes that publish to it.
+ * Each test matches the name of the method in the ChangeEvents class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class ChangeEventsTest {
+
+
+    private final MoodDAO moodDAO = new MoodDAO();
+    private final JournalDAO journalDAO = new JournalDAO();
+    private final ExerciseDAO exerciseDAO = new ExerciseDAO();
+    private final List<ChangeEvents.Subscription> subscriptions = new ArrayList<>();
+
+
+    @AfterEach
+    void tearDown() {
+
+        subscriptions.forEach(ChangeEvents.Subscription::unsubscribe);
+
+        try {
+
+            // Deleting test entries after each test as to not corrupt database
+            for (MoodEntry entry : moodDAO.getAllMoodEntries()) { moodDAO.deleteMoodEntry(entry.getEntryID()); }
+            for (JournalEntry entry : journalDAO.getAllJournalEntries()) { journalDAO.deleteJournalEntry(entry.getJournalID()); }
+            for (ExerciseEntry entry : exerciseDAO.getAllExerciseEntries()) { exerciseDAO.deleteExerciseEntry(entry.getLogID()); }
+
+        } catch (SQLException e) {
+            System.err.println("tearDown failed: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void subscribe() {
+
+        try {
+
+            List<ChangeEvent<MoodEntry>> moodEvents = new ArrayList<>();
+            List<ChangeEvent<JournalEntry>> journalEvents = new ArrayList<>();
+            List<ChangeEvent<ExerciseEntry>> exerciseEvents = new ArrayList<>();
+            subscriptions.add(ChangeEvents.subscribe(MoodEntry.class, moodEvents::add));
+            subscriptions.add(ChangeEvents.subscribe(JournalEntry.class, journalEvents::add));
+            subscriptions.add(ChangeEvents.subscribe(ExerciseEntry.class, exerciseEvents::add));
+
+            // Checking a subscriber that throws doesn't fail the write or keep the others from hearing of it
+            subscriptions.add(ChangeEvents.subscribe(MoodEntry.class, event -> { throw new IllegalStateException("Subscriber failed"); }));
+
+            // Checking an insert publishes the entry as stored, with its generated key and its time to the second
+            LocalDateTime time = LocalDateTime.of(2032, 8, 1, 10, 15, 30, 999);
+            assertTrue(moodDAO.insertMoodEntry(new MoodEntry(0, 4, "Event test", time)));
+            assertEquals(1, moodEvents.size());
+            MoodEntry inserted = moodEvents.get(0).getEntity();
+            assertEquals(ChangeEvent.Type.INSERTED, moodEvents.get(0).getType());
+            assertEquals(moodDAO.getAllMoodEntries().get(0).getEntryID(), inserted.getEntryID(), "The event should hold the generated ID");
+            assertEquals(time.withNano(0), inserted.getDateAndTime());
+
+            // Checking an edit publishes the row as stored (its time comes from the database, not the entry passed in)
+            assertTrue(moodDAO.updateMoodEntry(new MoodEntry(inserted.getEntryID(), 9, "Edited", LocalDateTime.of(2000, 1, 1, 0, 0))));
+            MoodEntry updated = moodEvents.get(1).getEntity();
+            assertEquals(ChangeEvent.Type.UPDATED, moodEvents.get(1).getType());
+            assertEquals(9, updated.getMoodID());
+            assertEquals("Edited", updated.getTag());
+            assertEquals(time.withNano(0), updated.getDateAndTime());
+
+            // Checking a delete publishes the deleted row, and deleting a missing entry publishes nothing
+            assertTrue(moodDAO.deleteMoodEntry(inserted.getEntryID()));
+            assertFalse(moodDAO.deleteMoodEntry(inserted.getEntryID()));
+            assertEquals(3, moodEvents.size());
+            assertEquals(ChangeEvent.Type.DELETED, moodEvents.get(2).getType());
+            assertEquals(inserted.getEntryID(), moodEvents.get(2).getEntity().getEntryID());
+            assertEquals(9, moodEvents.get(2).getEntity().getMoodID());
+
+            // Checking journal writes publish entries holding their plain text, and only to journal subscribers
+            journalDAO.insertJournalEntry(new JournalEntry(0, "Event test", "<p>Hello <b>there</b></p>", time));
+            assertEquals(1, journalEvents.size());
+            assertEquals("Hello there", journalEvents.get(0).getEntity().getTextPlain().trim());
+            assertTrue(journalEvents.get(0).getEntity().getJournalID() > 0);
+            assertEquals(3, moodEvents.size(), "Mood subscribers shouldn't hear of journal writes");
+
+            int journalID = journalEvents.get(0).getEntity().getJournalID();
+            journalDAO.updateJournalEntry(new JournalEntry(journalID, "Edited", "<p>Bye</p>", time));
+            journalDAO.deleteJournalEntry(journalID);
+            assertEquals(List.of(ChangeEvent.Type.INSERTED, ChangeEvent.Type.UPDATED, ChangeEvent.Type.DELETED), journalEvents.stream().map(ChangeEvent::getType).toList());
+            assertEquals("Edited", journalEvents.get(2).getEntity().getTitle(), "The deleted row should be as last stored");
+
+            // Checking exercise writes publish the row, including updates that only set one column
+            int logID = exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 3, null, time, time.plusMinutes(10)));
+            assertEquals(logID, exerciseEvents.get(0).getEntity().getLogID());
+            assertTrue(exerciseDAO.updateMoodAfterExercise(logID, 8));
+            assertEquals(ChangeEvent.Type.UPDATED, exerciseEvents.get(1).getType());
+            assertEquals(8, exerciseEvents.get(1).getEntity().getMoodAfterID());
+            assertEquals(time.withNano(0), exerciseEvents.get(1).getEntity().getStartTime());
+
+            // Checking an unsubscribed subscriber hears nothing more
+            subscriptions.get(0).unsubscribe();
+            moodDAO.insertMoodEntry(new MoodEntry(0, 4, "Event test", time));
+            assertEquals(3, moodEvents.size());
+
+        } catch (SQLException e) {
+            fail("SQL error in subscribe: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void publishAfterCommit() {
+
+        try {
+
+            // Subscribers reading from another connection should already see each write, as it is only published once committed
+            List<Integer> moodRows = new ArrayList<>();
+            List<Integer> exerciseRows = new ArrayList<>();
+            subscriptions.add(ChangeEvents.subscribe(MoodEntry.class, event ->
+                    moodRows.add(countCommitted("SELECT COUNT(*) FROM mood_entries WHERE entry_id = ? AND mood_id = 9", event.getEntity().getEntryID()))));
+            subscriptions.add(ChangeEvents.subscribe(ExerciseEntry.class, event ->
+                    exerciseRows.add(countCommitted("SELECT COUNT(*) FROM exercise_entries WHERE log_id = ?", event.getEntity().getLogID()))));
+
+            LocalDateTime time = LocalDateTime.of(2032, 8, 1, 10, 15, 30);
+            moodDAO.insertMoodEntry(new MoodEntry(0, 4, "Commit test", time));
+            int entryID = moodDAO.getAllMoodEntries().get(0).getEntryID();
+            moodDAO.updateMoodEntry(new MoodEntry(entryID, 9, "Commit test", time));
+            moodDAO.deleteMoodEntry(entryID);
+            assertEquals(List.of(0, 1, 0), moodRows, "The edit and the delete should be committed before they are published");
+
+            int logID = exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 3, null, time, time.plusMinutes(10)));
+            exerciseDAO.deleteExerciseEntry(logID);
+            assertEquals(List.of(1, 0), exerciseRows, "The delete should be committed before it is published");
+
+        } catch (SQLException e) {
+            fail("SQL error in publishAfterCommit: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Counts matching rows on a reader connection, which only sees committed writes (-1 if the query failed).
+     */
+    private static int countCommitted(String query, int id) {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement(query)) {
+
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        } catch (SQLException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+import models.ExerciseEntry;
+import models.MoodEntry;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ChartCache.java and the DAO writes that invalidate it.
+ * Each test matches the name of the method in the ChartCache class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class ChartCacheTest {
+
+
+    private final MoodDAO moodDAO = new MoodDAO();
+    private final ExerciseDAO exerciseDAO = new ExerciseDAO();
+    private final LocalDateTime start = LocalDateTime.of(2032, 4, 1, 0, 0);
+    private final LocalDateTime end = LocalDateTime.of(2032, 4, 30, 23, 59, 59);
+
+
+    @AfterEach
+    void tearDown() {
+
+        try {
+
+            // Deleting test entries after each test as to not corrupt database
+            for (MoodEntry entry : moodDAO.getAllMoodEntries()) {
+                moodDAO.deleteMoodEntry(entry.getEntryID());
+            }
+            for (ExerciseEntry entry : exerciseDAO.getAllExerciseEntries()) {
+                exerciseDAO.deleteExerciseEntry(entry.getLogID());
+            }
+        } catch (SQLException e) {
+            System.err.println("tearDown failed: " + e.getMessage());
+        }
+        ChartCache.get().clear();
+    }
+
+
+    @Test
+    void get() {
+
+        try {
+
+            ChartCache cache = new ChartCache(2);
+            int[] loads = new int[1];
+
+            // Checking the second get of the same chart and window is a hit and doesn't load again
+            assertEquals("april", cache.get("test", ChartCache.Source.MOODS, start, end, () -> { loads[0]++; return "april"; }));
+            assertEquals("april", cache.get("test", ChartCache.Source.MOODS, start, end, () -> { loads[0]++; return "other"; }));
+            assertEquals(1, loads[0], "A hit shouldn't load the dataset again");
+            assertEquals(1, cache.getHits());
+            assertEquals(1, cache.getMisses());
+
+            // Checking a different window or chart is its own entry
+            assertEquals("may", cache.get("test", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "may"));
+            assertEquals("april", cache.get("test", ChartCache.Source.MOODS, start, end, () -> "other"), "April should still be cached");
+
+            // Checking the least recently used entry (May, as April was just read) is dropped once past capacity
+            cache.get("other", ChartCache.Source.EXERCISES, start, end, () -> "exercises");
+            assertEquals(2, cache.size());
+            assertEquals("reloaded", cache.get("test", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "reloaded"), "May should have been evicted");
+
+            // Checking a failed load isn't cached
+            assertThrows(SQLException.class, () -> cache.get("failing", ChartCache.Source.MOODS, start, end, () -> { throw new SQLException("Load failed"); }));
+            assertEquals("loaded", cache.get("failing", ChartCache.Source.MOODS, start, end, () -> "loaded"));
+
+        } catch (SQLException e) {
+            fail("SQL error in get: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void invalidate() {
+
+        try {
+
+            ChartCache cache = ChartCache.get();
+            cache.clear();
+            cache.get("moods", ChartCache.Source.MOODS, start, end, () -> "april moods");
+            cache.get("moods", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "may moods");
+            cache.get("exercises", ChartCache.Source.EXERCISES, start, end, () -> "april exercises");
+
+            // Checking a mood logged in May only drops the May moods
+            moodDAO.insertMoodEntry(new MoodEntry(0, 5, "Cache test", start.plusMonths(1).plusDays(2)));
+            assertEquals("april moods", cache.get("moods", ChartCache.Source.MOODS, start, end, () -> "reloaded"), "April moods should still be cached");
+            assertEquals("reloaded", cache.get("moods", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "reloaded"), "May moods should be dropped");
+            assertEquals("april exercises", cache.get("exercises", ChartCache.Source.EXERCISES, start, end, () -> "reloaded"), "Exercises shouldn't be dropped by a mood write");
+
+            // Checking editing and deleting the May entry (whose time the DAO reads back from the row) drops the May moods again
+            int entryID = moodDAO.getAllMoodEntries().get(0).getEntryID();
+            moodDAO.updateMoodEntry(new MoodEntry(entryID, 6, "Edited", start));
+            assertEquals("edited", cache.get("moods", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "edited"), "An edit should drop the window the entry is in");
+            assertEquals("april moods", cache.get("moods", ChartCache.Source.MOODS, start, end, () -> "reloaded"), "An edit shouldn't drop other windows");
+
+            assertTrue(moodDAO.deleteMoodEntry(entryID), "Delete should still report the deleted row");
+            assertFalse(moodDAO.deleteMoodEntry(entryID), "Deleting a missing entry should report nothing deleted");
+            assertEquals("deleted", cache.get("moods", ChartCache.Source.MOODS, start.plusMonths(1), end.plusMonths(1), () -> "deleted"), "A delete should drop the window the entry was in");
+
+            // Checking exercise writes drop the windows their start time is in
+            int logID = exerciseDAO.insertExerciseEntry(new ExerciseEntry(0, 1, 3, null, start.plusDays(3), start.plusDays(3).plusMinutes(10)));
+            assertEquals("inserted", cache.get("exercises", ChartCache.Source.EXERCISES, start, end, () -> "inserted"), "An exercise insert should drop its window");
+
+            assertTrue(exerciseDAO.updateMoodAfterExercise(logID, 9), "Update should still report the updated row");
+            assertEquals("updated", cache.get("exercises", ChartCache.Source.EXERCISES, start, end, () -> "updated"), "An exercise update should drop its window");
+
+            assertTrue(exerciseDAO.deleteExerciseEntry(logID), "Delete should still report the deleted row");
+            assertEquals("deleted", cache.get("exercises", ChartCache.Source.EXERCISES, start, end, () -> "deleted"), "An exercise delete should drop its window");
+
+        } catch (SQLException e) {
+            fail("SQL error in invalidate: " + e.getMessage());
+        }
+    }
+}
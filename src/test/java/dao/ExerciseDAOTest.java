@@ -8,6 +8,7 @@ import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.stream.Stream;
 
 import models.DatabaseConnection;
 import models.Exercise;
@@ -161,6 +162,31 @@ class ExerciseDAOTest {
     }
 
 
+    @Test
+    void streamExerciseEntries() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+            dao.insertExerciseEntries(List.of(new ExerciseEntry(0, 1, 2, 6, currTime.minusHours(2), currTime.minusHours(1)),
+                    new ExerciseEntry(0, 3, 4, 8, currTime.minusMinutes(30), currTime.minusMinutes(20))));
+
+            // Summing mood changes straight off the stream without keeping the entries
+            try (Stream<ExerciseEntry> entries = dao.streamExerciseEntries()) {
+                assertEquals(8, entries.mapToInt(entry -> entry.getMoodAfterID() - entry.getMoodBeforeID()).sum(), "Stream should see every entry");
+            }
+
+            // forEach should visit the newest entry first
+            List<Integer> exerciseIDs = new ArrayList<>();
+            dao.forEachExerciseEntry(entry -> exerciseIDs.add(entry.getExerciseID()));
+            assertEquals(List.of(3, 1), exerciseIDs, "Entries should be visited newest first");
+
+        } catch (SQLException e) {
+            fail("SQL error in streamExerciseEntries: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void getExerciseEntriesByDateRange() {
 
@@ -224,6 +250,34 @@ class ExerciseDAOTest {
     }
 
 
+    @Test
+    void insertExerciseEntries() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Creating entries with and without moods to make sure nulls survive the batch
+            List<ExerciseEntry> batch = new ArrayList<>();
+            batch.add(new ExerciseEntry(0, 1, 3, 5, currTime.minusMinutes(30), currTime.minusMinutes(20)));
+            batch.add(new ExerciseEntry(0, 2, null, null, currTime.minusMinutes(15), currTime.minusMinutes(5)));
+
+            // Inserting and checking the keys line up with the entries they were returned for
+            List<Integer> keys = dao.insertExerciseEntries(batch);
+            assertEquals(2, keys.size(), "Every entry should get a generated key");
+
+            ExerciseEntry first = dao.getExerciseEntryByID(keys.get(0));
+            ExerciseEntry second = dao.getExerciseEntryByID(keys.get(1));
+            assertEquals(1, first.getExerciseID(), "First key should belong to the first entry");
+            assertEquals(5, first.getMoodAfterID(), "Mood after should be stored");
+            assertEquals(2, second.getExerciseID(), "Second key should belong to the second entry");
+
+        } catch (SQLException e) {
+            fail("SQL error in insertExerciseEntries: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void updateMoodBeforeExercise() {
 
@@ -7,8 +7,11 @@ import org.junit.jupiter.api.Test;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import models.JournalEntry;
+import models.JournalSearchResult;
+import models.JournalSummary;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -76,6 +79,121 @@ class JournalDAOTest {
     }
 
 
+    @Test
+    void forEachJournalEntry() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+            dao.insertJournalEntries(List.of(new JournalEntry(0, "Older", "Text", currTime.minusDays(1)), new JournalEntry(0, "Newer", "Text", currTime)));
+
+            // Collecting titles as they stream past and checking they come newest first
+            List<String> titles = new ArrayList<>();
+            dao.forEachJournalEntry(entry -> titles.add(entry.getTitle()));
+            assertEquals(List.of("Newer", "Older"), titles, "Entries should be visited newest first");
+
+            // The stream version should see the same entries
+            try (Stream<JournalEntry> entries = dao.streamJournalEntries()) {
+                assertEquals(titles, entries.map(JournalEntry::getTitle).toList(), "Stream should match forEach");
+            }
+
+        } catch (SQLException e) {
+            fail("SQL error in forEachJournalEntry: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getJournalEntryPage() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now().withNano(0);
+
+            // Inserting five entries and paging through them two at a time
+            List<JournalEntry> batch = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                batch.add(new JournalEntry(0, "Page " + i, "Text " + i, currTime.minusHours(i)));
+            }
+            dao.insertJournalEntries(batch);
+            assertEquals(5, dao.countJournalEntries(), "Count should include every entry");
+
+            List<JournalEntry> first = dao.getJournalEntryPage(null, 2);
+            List<JournalEntry> second = dao.getJournalEntryPage(first.get(1), 2);
+            List<JournalEntry> third = dao.getJournalEntryPage(second.get(1), 2);
+
+            assertEquals(List.of("Page 0", "Page 1"), first.stream().map(JournalEntry::getTitle).toList(), "First page should hold the newest entries");
+            assertEquals(List.of("Page 2", "Page 3"), second.stream().map(JournalEntry::getTitle).toList(), "Second page should continue after the first");
+            assertEquals(List.of("Page 4"), third.stream().map(JournalEntry::getTitle).toList(), "Last page should hold what is left");
+            assertTrue(dao.getJournalEntryPage(third.get(0), 2).isEmpty(), "Paging past the end should return nothing");
+
+        } catch (SQLException e) {
+            fail("SQL error in getJournalEntryPage: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getJournalSummaryPage() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now().withNano(0);
+
+            // Inserting entries with long HTML bodies and paging through their summaries
+            List<JournalEntry> batch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                batch.add(new JournalEntry(0, "Summary " + i, "<p>" + "Long entry text. ".repeat(200) + "</p>", currTime.minusHours(i)));
+            }
+            dao.insertJournalEntries(batch);
+
+            List<JournalSummary> first = dao.getJournalSummaryPage(null, 2);
+            List<JournalSummary> second = dao.getJournalSummaryPage(first.get(1), 2);
+            assertEquals(List.of("Summary 0", "Summary 1"), first.stream().map(JournalSummary::getTitle).toList(), "First page should hold the newest entries");
+            assertEquals(List.of("Summary 2"), second.stream().map(JournalSummary::getTitle).toList(), "Second page should continue after the first");
+
+            // Checking the preview is the start of the plain text, cut short
+            String preview = first.get(0).getPreview();
+            assertTrue(preview.startsWith("Long entry text."), "Preview should be the plain text without markup");
+            assertTrue(preview.length() <= 120, "Preview should be cut down to a short length");
+
+            assertEquals(3, dao.getAllJournalSummaries().size(), "Every entry should have a summary");
+
+        } catch (SQLException e) {
+            fail("SQL error in getJournalSummaryPage: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getJournalBody() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Inserting an entry and reading its body twice (the second read comes from the cache)
+            dao.insertJournalEntry(new JournalEntry(0, "Body", "<p>First draft</p>", currTime));
+            int id = dao.getAllJournalSummaries().get(0).getJournalID();
+            assertEquals("<p>First draft</p>", dao.getJournalBody(id), "Body should be the stored HTML");
+            assertEquals("<p>First draft</p>", dao.getJournalBody(id), "Cached body should match");
+
+            // Editing the entry (directly and through the queue) should never leave the old body cached
+            dao.updateJournalEntry(new JournalEntry(id, "Body", "<p>Second draft</p>", currTime));
+            assertEquals("<p>Second draft</p>", dao.getJournalBody(id), "Body should be updated after an edit");
+            dao.enqueueUpdateJournalEntry(new JournalEntry(id, "Body", "<p>Third draft</p>", currTime)).join();
+            assertEquals("<p>Third draft</p>", dao.getJournalBody(id), "Body should be updated after a queued edit");
+
+            // Deleting the entry should drop its body too
+            dao.deleteJournalEntry(id);
+            assertNull(dao.getJournalBody(id), "Deleted entry should have no body");
+
+        } catch (SQLException e) {
+            fail("SQL error in getJournalBody: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void getJournalEntryByID() {
 
@@ -144,6 +262,59 @@ class JournalDAOTest {
     }
 
 
+    @Test
+    void searchJournal() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Creating entries where the search words appear in the title of one and only the text of another
+            dao.insertJournalEntry(new JournalEntry(0, "Meditation notes", "Sat quietly for ten minutes.", currTime));
+            dao.insertJournalEntry(new JournalEntry(0, "Evening", "Tried a short meditation before bed and felt calm afterwards.", currTime));
+            dao.insertJournalEntry(new JournalEntry(0, "Work day", "Calm felt far away today.", currTime));
+
+            // Title matches are weighted higher, so the entry titled with the word should rank first
+            List<JournalSearchResult> results = dao.searchJournal("meditation", 10);
+            assertEquals(2, results.size(), "Both entries mentioning meditation should be found");
+            assertEquals("Meditation notes", results.get(0).getEntry().getTitle(), "The title match should rank first");
+
+            // Snippets should highlight the matched word
+            String snippet = results.get(1).getSnippet();
+            assertTrue(snippet.contains(JournalSearchResult.MATCH_START + "meditation" + JournalSearchResult.MATCH_END), "The snippet should highlight the match");
+
+            // Prefix queries should match the start of words, and bare words should not
+            assertEquals(2, dao.searchJournal("medit*", 10).size(), "Prefix search should match 'meditation'");
+            assertTrue(dao.searchJournal("medit", 10).isEmpty(), "A bare word should only match whole words");
+
+            // Phrase queries should only match the words next to each other in order
+            List<JournalSearchResult> phraseResults = dao.searchJournal("\"felt calm\"", 10);
+            assertEquals(1, phraseResults.size(), "Only one entry has the exact phrase");
+            assertEquals("Evening", phraseResults.get(0).getEntry().getTitle(), "The phrase should be found in the right entry");
+
+            // Input with FTS syntax characters should be searched as plain text instead of failing
+            assertTrue(dao.searchJournal("title: AND (", 10).isEmpty(), "Syntax characters should not cause an error");
+            assertTrue(dao.searchJournal("  ", 10).isEmpty(), "Blank input should return no results");
+
+            // HTML bodies should be searched (and shown in snippets) as plain text, never as markup
+            dao.insertJournalEntry(new JournalEntry(0, "Garden", "<p><font face=\"Segoe UI\">Planted <b>tomatoes</b></font></p>", currTime));
+            assertTrue(dao.searchJournal("font", 10).isEmpty(), "Tag names should not be indexed");
+            List<JournalSearchResult> htmlResults = dao.searchJournal("tomatoes", 10);
+            assertEquals(1, htmlResults.size(), "Text inside markup should be found");
+            assertEquals("Planted " + JournalSearchResult.MATCH_START + "tomatoes" + JournalSearchResult.MATCH_END, htmlResults.get(0).getSnippet(), "The snippet should come from the plain text");
+            assertNull(htmlResults.get(0).getEntry().getTextEntry(), "Search results should not load the HTML");
+
+            // Deleting an entry should remove it from the index
+            JournalEntry evening = phraseResults.get(0).getEntry();
+            dao.deleteJournalEntry(evening.getJournalID());
+            assertTrue(dao.searchJournal("\"felt calm\"", 10).isEmpty(), "A deleted entry should not be found");
+
+        } catch (SQLException e) {
+            fail("SQL error in searchJournal: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void getJournalEntriesByDateRange() {
 
@@ -204,6 +375,36 @@ class JournalDAOTest {
     }
 
 
+    @Test
+    void insertJournalEntries() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Creating a few entries to insert in one batch
+            List<JournalEntry> batch = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                batch.add(new JournalEntry(0, "Batch Entry " + i, "Batch text " + i, currTime.minusHours(i)));
+            }
+
+            // Inserting and checking the keys line up with the entries they were returned for
+            List<Integer> keys = dao.insertJournalEntries(batch);
+            assertEquals(batch.size(), keys.size(), "Every entry should get a generated key");
+
+            for (int i = 0; i < keys.size(); i++) {
+
+                JournalEntry retrieved = dao.getJournalEntryByID(keys.get(i));
+                assertNotNull(retrieved, "Inserted entry should exist");
+                assertEquals("Batch Entry " + i, retrieved.getTitle(), "Key should belong to the matching entry");
+            }
+
+        } catch (SQLException e) {
+            fail("SQL error in insertJournalEntries: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void updateJournalEntry() {
 
@@ -238,6 +439,31 @@ class JournalDAOTest {
     }
 
 
+    @Test
+    void enqueueUpdateJournalEntry() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Queueing an insert, then an update of it once committed
+            assertTrue(dao.enqueueInsertJournalEntry(new JournalEntry(0, "Queued Entry", "Before.", currTime)).join(), "The queued insert should be committed");
+            JournalEntry inserted = dao.getAllJournalEntries().stream().filter(entry -> entry.getTitle().equals("Queued Entry")).findFirst().orElseThrow(() -> new AssertionError("Failed to find queued entry"));
+            boolean updated = dao.enqueueUpdateJournalEntry(new JournalEntry(inserted.getJournalID(), "Queued Entry", "After.", currTime)).join();
+            assertTrue(updated, "The queued update should be committed");
+
+            // Checking the update is visible after its future completed
+            assertEquals("After.", dao.getJournalEntryByID(inserted.getJournalID()).getTextEntry(), "The entry text should be updated");
+
+            // Queueing an update of an entry that doesn't exist, should complete with false rather than fail
+            assertFalse(dao.enqueueUpdateJournalEntry(new JournalEntry(-1, "None", "None.", currTime)).join(), "Updating a missing entry should report false");
+
+        } catch (SQLException e) {
+            fail("SQL error in enqueueUpdateJournalEntry: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void deleteJournalEntry() {
 
@@ -0,0 +1,149 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import models.JournalEntry;
+import models.JournalSummary;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JournalIndex.java.
+ * Each test matches the name of the method in the JournalIndex class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class JournalIndexTest {
+
+
+    private final JournalDAO dao = new JournalDAO();
+
+
+    @AfterEach
+    void tearDown() {
+
+        try {
+
+            // Deleting test entries after each test as to not corrupt database
+            for (JournalEntry entry : dao.getAllJournalEntries()) {
+
+                dao.deleteJournalEntry(entry.getJournalID());
+            }
+        } catch (SQLException e) {
+            System.err.println("tearDown failed: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void stem() {
+
+        // Different forms of a word should share a stem, and short words should be left alone
+        assertEquals("walk", JournalIndex.stem("walking"));
+        assertEquals("walk", JournalIndex.stem("walked"));
+        assertEquals("walk", JournalIndex.stem("walks"));
+        assertEquals("stop", JournalIndex.stem("stopped"));
+        assertEquals("worry", JournalIndex.stem("worries"));
+        assertEquals("calm", JournalIndex.stem("calmly"));
+        assertEquals("fell", JournalIndex.stem("fell"));
+        assertEquals("stress", JournalIndex.stem("stress"));
+        assertEquals("bus", JournalIndex.stem("bus"));
+    }
+
+
+    @Test
+    void search() {
+
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 9, 0);
+        JournalIndex index = new JournalIndex();
+
+        // Indexing a few entries directly, without the database
+        index.put(1, "Morning walk", "Walked through the park before work.", time);
+        index.put(2, "Rainy day", "Stayed in and read, felt anxious about the meeting.", time.plusDays(1));
+        index.put(3, "Work", "Long meeting at work, walking home helped.", time.plusDays(2));
+
+        // Word forms should match each other and the title should outweigh the text
+        List<JournalSummary> walks = index.search("walks ", 10);
+        assertEquals(List.of(1, 3), walks.stream().map(JournalSummary::getJournalID).toList());
+        assertEquals("Walked through the park before work.", walks.get(0).getPreview());
+
+        // The last word should match as a prefix while it is typed, and every word should be required
+        assertEquals(List.of(2), index.search("anxious mee", 10).stream().map(JournalSummary::getJournalID).toList());
+        assertEquals(2, index.search("mee", 10).size());
+        assertTrue(index.search("anxious walk", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+
+        // Only the best results should be returned when the limit is lower than the matches
+        assertEquals(List.of(3), index.search("work", 1).stream().map(JournalSummary::getJournalID).toList());
+
+        // Replacing and removing entries should update their terms
+        index.put(2, "Sunny day", "Felt calm.", time.plusDays(1));
+        assertTrue(index.search("anxious", 10).isEmpty());
+        assertEquals(1, index.search("calm", 10).size());
+
+        index.remove(1);
+        assertEquals(List.of(3), index.search("walk", 10).stream().map(JournalSummary::getJournalID).toList());
+        assertTrue(index.search("park", 10).isEmpty());
+        assertTrue(index.search("pa", 10).isEmpty(), "Terms only the removed entry used should be gone");
+        assertEquals(2, index.size());
+    }
+
+
+    @Test
+    void searchWhileTyping() {
+
+        LocalDateTime time = LocalDateTime.of(2024, 5, 1, 9, 0);
+        JournalIndex index = new JournalIndex();
+        index.put(1, "Evening", "Walked along the river.", time);
+        index.put(2, "Exam week", "Studied for hours.", time.plusDays(1));
+
+        // Every prefix of a word should keep finding its entry, including ones that stop partway through a stemmed suffix
+        for (String word : List.of("walked", "studied")) {
+
+            int id = word.equals("walked") ? 1 : 2;
+            for (int length = 1; length <= word.length(); length++) {
+
+                String typed = word.substring(0, length);
+                List<Integer> results = index.search(typed, 10).stream().map(JournalSummary::getJournalID).toList();
+                assertTrue(results.contains(id), "'" + typed + "' should find entry " + id);
+            }
+        }
+
+        // Once a word is finished it matches by stem, so other forms of it still match
+        assertEquals(List.of(1), index.search("walking ", 10).stream().map(JournalSummary::getJournalID).toList());
+        assertEquals(List.of(2), index.search("studied ", 10).stream().map(JournalSummary::getJournalID).toList());
+        assertTrue(index.search("walkers", 10).isEmpty());
+    }
+
+
+    @Test
+    void get() {
+
+        try {
+
+            LocalDateTime time = LocalDateTime.now().withNano(0);
+            JournalIndex index = JournalIndex.get();
+
+            // Entries written through the DAO should be searchable from the index straight away
+            dao.insertJournalEntry(new JournalEntry(0, "Index test", "<p>Practiced <b>breathing</b> exercises</p>", time));
+            List<JournalSummary> results = index.search("breath", 10);
+            assertEquals(1, results.size());
+            assertEquals("Index test", results.get(0).getTitle());
+
+            // Edits should replace the old words but keep the entry's date, and deletes should remove it
+            int id = results.get(0).getJournalID();
+            dao.enqueueUpdateJournalEntry(new JournalEntry(id, "Index test", "<p>Went stargazing</p>", null)).join();
+            assertTrue(index.search("breathing", 10).isEmpty());
+            assertEquals(time, index.search("stargaz", 10).get(0).getEntryDateTime());
+
+            dao.deleteJournalEntry(id);
+            assertTrue(index.search("stargazing", 10).isEmpty());
+
+        } catch (SQLException e) {
+            fail("SQL error in get: " + e.getMessage());
+        }
+    }
+}
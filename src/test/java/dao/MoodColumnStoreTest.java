@@ -0,0 +1,141 @@
+package dao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.IntStream;
+
+import models.MoodEntry;
+import models.MoodSeries;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MoodColumnStore.java.
+ * Each test matches the name of the method in the MoodColumnStore class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class MoodColumnStoreTest {
+
+
+    private final MoodDAO dao = new MoodDAO();
+    private final LocalDateTime day = LocalDateTime.of(2031, 3, 10, 0, 0);
+
+
+    @AfterEach
+    void tearDown() {
+
+        try {
+
+            // Deleting test entries after each test as to not corrupt database
+            for (MoodEntry entry : dao.getAllMoodEntries()) {
+
+                dao.deleteMoodEntry(entry.getEntryID());
+            }
+        } catch (SQLException e) {
+            System.err.println("tearDown failed: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void slice() {
+
+        MoodColumnStore store = new MoodColumnStore();
+
+        // Adding entries out of order, they should come back sorted by time
+        store.put(3, TimeColumns.toEpoch(day.withHour(20)), 7, "Evening");
+        store.put(1, TimeColumns.toEpoch(day.withHour(8)), 2, "Morning");
+        store.put(2, TimeColumns.toEpoch(day.withHour(12)), 5, null);
+        store.put(4, TimeColumns.toEpoch(day.plusDays(3)), 9, "Morning");
+
+        MoodSeries series = store.slice(day, day.plusDays(1));
+        assertEquals(3, series.size(), "Only entries inside the range should be sliced");
+        assertEquals(1, series.getEntryID(0));
+        assertEquals(day.withHour(12), series.getDateAndTime(1));
+        assertNull(series.getTag(1), "Entries without a tag should have a null tag");
+        assertEquals("Evening", series.getEntry(2).getTag());
+
+        // Editing should change the mood and tag in place, and removing should close the gap
+        store.update(2, TimeColumns.toEpoch(day.withHour(12)), 6, "Lunch");
+        store.remove(1, TimeColumns.toEpoch(day.withHour(8)));
+        store.remove(4, TimeColumns.toEpoch(day)); // Not at that time, so nothing is removed
+        series = store.slice(day, day.plusDays(5));
+        assertEquals(3, series.size());
+        assertEquals(6, series.getMoodID(0));
+        assertEquals("Lunch", series.getTag(0));
+        assertEquals("Morning", series.getTag(2), "Tags should still resolve after others were added");
+        assertEquals(0, store.slice(day.plusDays(1), day).size(), "A range ending before it starts should be empty");
+    }
+
+
+    @Test
+    void sort() {
+
+        MoodColumnStore store = new MoodColumnStore();
+
+        // Rows appended while loading come in any order, ties on time should be broken by entry ID
+        long[] hours = {20, 8, 12, 8, 3, 12, 8};
+        for (int i = 0; i < hours.length; i++) {
+            store.append(hours.length - i, TimeColumns.toEpoch(day.withHour((int) hours[i])), i + 1, "Row " + (i + 1));
+        }
+        store.sort();
+
+        MoodSeries series = store.slice(day, day.withHour(23));
+        assertEquals(List.of(3, 1, 4, 6, 2, 5, 7), IntStream.range(0, series.size()).map(series::getEntryID).boxed().toList());
+        assertEquals("Row 5", series.getTag(0), "Every column should move with its row");
+        assertEquals(7, series.getMoodID(1));
+    }
+
+
+    @Test
+    void countMoods() {
+
+        MoodColumnStore store = new MoodColumnStore();
+        store.put(1, TimeColumns.toEpoch(day.withHour(7)), 3, null);
+        store.put(2, TimeColumns.toEpoch(day.withHour(19)), 3, null);
+        store.put(3, TimeColumns.toEpoch(day.withHour(13)), 11, null);
+
+        // Counting per mood ID, with the range ends included
+        int[] counts = new int[16];
+        assertEquals(3, store.countMoods(day.withHour(7), day.withHour(19), counts));
+        assertEquals(2, counts[3]);
+        assertEquals(1, counts[11]);
+
+        // 6AM to 6PM should count as day, everything else as night
+        int[] dayCounts = new int[16];
+        int[] nightCounts = new int[16];
+        store.countMoodsByTimeOfDay(day, day.withHour(23), 6, 18, dayCounts, nightCounts);
+        assertEquals(1, dayCounts[3]);
+        assertEquals(1, nightCounts[3]);
+        assertEquals(1, dayCounts[11]);
+    }
+
+
+    @Test
+    void get() {
+
+        try {
+
+            MoodColumnStore store = MoodColumnStore.get();
+
+            // Writes through the DAO should show up in the loaded store once committed
+            dao.insertMoodEntry(new MoodEntry(0, 4, "Store test", day.withHour(9)));
+            MoodSeries series = store.slice(day, day.withHour(23));
+            assertEquals(1, series.size(), "Inserted entry should be in the store");
+            assertEquals("Store test", series.getTag(0));
+
+            int id = series.getEntryID(0);
+            dao.enqueueUpdateMoodEntry(new MoodEntry(id, 8, "Edited", day.withHour(9))).join();
+            assertEquals(8, store.slice(day, day.withHour(23)).getMoodID(0), "Queued edit should be applied once committed");
+
+            dao.deleteMoodEntry(id);
+            assertEquals(0, store.slice(day, day.withHour(23)).size(), "Deleted entry should be removed from the store");
+
+        } catch (SQLException e) {
+            fail("SQL error in get: " + e.getMessage());
+        }
+    }
+}
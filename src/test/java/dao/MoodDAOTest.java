@@ -7,9 +7,14 @@ import org.junit.jupiter.api.Test;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
+import models.DatabaseConnection;
+import models.MoodBucket;
 import models.MoodEntry;
 import models.Mood;
+import models.TimeBucket;
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -151,6 +156,91 @@ class MoodDAOTest {
     }
 
 
+    @Test
+    void forEachMoodEntry() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Inserting a few entries to walk over
+            dao.insertMoodEntries(List.of(new MoodEntry(0, 1, "Oldest", currTime.minusHours(2)), new MoodEntry(0, 2, "Middle", currTime.minusHours(1)),
+                    new MoodEntry(0, 3, "Newest", currTime)));
+
+            // Collecting tags as they stream past and checking they come newest first, same as getAllMoodEntries
+            List<String> tags = new ArrayList<>();
+            dao.forEachMoodEntry(entry -> tags.add(entry.getTag()));
+            assertEquals(List.of("Newest", "Middle", "Oldest"), tags, "Entries should be visited newest first");
+
+        } catch (SQLException e) {
+            fail("SQL error in forEachMoodEntry: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void streamMoodEntries() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+            dao.insertMoodEntries(List.of(new MoodEntry(0, 4, "Stream A", currTime.minusMinutes(1)), new MoodEntry(0, 5, "Stream B", currTime)));
+
+            // Reading only part of the stream with a tiny fetch size, closing it should hand the connection back
+            try (Stream<MoodEntry> entries = dao.streamMoodEntries(1)) {
+                assertEquals("Stream B", entries.findFirst().orElseThrow().getTag(), "Newest entry should come first");
+            }
+
+            // Streaming repeatedly to make sure closed streams don't leak pooled connections
+            for (int i = 0; i < 10; i++) {
+
+                try (Stream<MoodEntry> entries = dao.streamMoodEntries()) {
+                    assertEquals(2, entries.count(), "Stream should see every entry");
+                }
+            }
+
+        } catch (SQLException e) {
+            fail("SQL error in streamMoodEntries: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getMoodEntryPage() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now().withNano(0);
+
+            // Inserting entries where two share the same time, so the entry ID tie break is needed to not skip or repeat any
+            List<MoodEntry> batch = new ArrayList<>();
+            for (int i = 0; i < 7; i++) {
+                batch.add(new MoodEntry(0, (i % 15) + 1, "Page " + i, currTime.minusMinutes(i == 4 ? 3 : i)));
+            }
+            dao.insertMoodEntries(batch);
+            assertEquals(7, dao.countMoodEntries(), "Count should include every entry");
+
+            // Walking pages of 3 and checking every entry comes back exactly once, newest first
+            List<MoodEntry> seen = new ArrayList<>();
+            List<MoodEntry> page = dao.getMoodEntryPage(null, 3);
+            while (!page.isEmpty()) {
+
+                seen.addAll(page);
+                page = dao.getMoodEntryPage(page.get(page.size() - 1), 3);
+            }
+
+            assertEquals(7, seen.size(), "Every entry should be paged through once");
+            assertEquals(7, seen.stream().map(MoodEntry::getEntryID).distinct().count(), "No entry should repeat");
+            for (int i = 1; i < seen.size(); i++) {
+                assertFalse(seen.get(i).getDateAndTime().isAfter(seen.get(i - 1).getDateAndTime()), "Pages should run newest first");
+            }
+
+        } catch (SQLException e) {
+            fail("SQL error in getMoodEntryPage: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void getMoodEntriesByDateRange() {
 
@@ -246,6 +336,129 @@ class MoodDAOTest {
     }
 
 
+    @Test
+    void getMoodBuckets() {
+
+        try {
+
+            // Inserting entries across two weeks of May 2032 (the 6th is a Thursday, the week starts Monday the 3rd)
+            dao.insertMoodEntry(new MoodEntry(0, 4, "Bucket test", LocalDateTime.of(2032, 5, 6, 9, 10)));
+            dao.insertMoodEntry(new MoodEntry(0, 8, "Bucket test", LocalDateTime.of(2032, 5, 6, 9, 50)));
+            dao.insertMoodEntry(new MoodEntry(0, 10, "Bucket test", LocalDateTime.of(2032, 5, 8, 20, 0)));
+            dao.insertMoodEntry(new MoodEntry(0, 2, "Bucket test", LocalDateTime.of(2032, 5, 20, 12, 0)));
+
+            // Checking a two week range with room for 20 buckets is split by day, matched to the hour at each end (the last entry is after 11AM)
+            LocalDateTime start = LocalDateTime.of(2032, 5, 6, 9, 30);
+            LocalDateTime end = LocalDateTime.of(2032, 5, 20, 11, 0);
+            List<MoodBucket> days = dao.getMoodBuckets(start, end, 20);
+            assertEquals(2, days.size(), "Only days with entries should be returned");
+            assertEquals(TimeBucket.DAY, days.get(0).getSize());
+            assertEquals(LocalDateTime.of(2032, 5, 6, 0, 0), days.get(0).getBucketStart());
+            assertEquals(2, days.get(0).getEntryCount());
+            assertEquals(6.0, days.get(0).getAverageMoodID(), 0.001);
+            assertEquals(4, days.get(0).getLowestMoodID());
+            assertEquals(8, days.get(0).getHighestMoodID());
+            assertEquals(LocalDateTime.of(2032, 5, 8, 0, 0), days.get(1).getBucketStart());
+
+            // Checking less room gives week and then month buckets
+            List<MoodBucket> weeks = dao.getMoodBuckets(start, end, 5);
+            assertEquals(1, weeks.size());
+            assertEquals(TimeBucket.WEEK, weeks.get(0).getSize());
+            assertEquals(LocalDateTime.of(2032, 5, 3, 0, 0), weeks.get(0).getBucketStart(), "Weeks should start on Monday");
+            assertEquals(3, weeks.get(0).getEntryCount());
+            assertEquals(22.0 / 3, weeks.get(0).getAverageMoodID(), 0.001);
+
+            List<MoodBucket> months = dao.getMoodBuckets(start, end, 2);
+            assertEquals(TimeBucket.MONTH, months.get(0).getSize());
+            assertEquals(LocalDateTime.of(2032, 5, 1, 0, 0), months.get(0).getBucketStart(), "Months should start on the 1st");
+
+            // Checking a short range is split by hour
+            List<MoodBucket> hours = dao.getMoodBuckets(LocalDateTime.of(2032, 5, 6, 9, 0), LocalDateTime.of(2032, 5, 6, 21, 0), 100);
+            assertEquals(1, hours.size());
+            assertEquals(TimeBucket.HOUR, hours.get(0).getSize());
+            assertEquals(LocalDateTime.of(2032, 5, 6, 9, 0), hours.get(0).getBucketStart());
+            assertEquals(2, hours.get(0).getEntryCount());
+
+        } catch (SQLException e) {
+            fail("SQL error in getMoodBuckets: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void enqueueInsertMoodEntry() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Queueing a burst of inserts, they should all be acknowledged with a future before any is committed
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                results.add(dao.enqueueInsertMoodEntry(new MoodEntry(0, (i % 15) + 1, "Queued " + i, currTime.minusMinutes(i))));
+            }
+
+            // Waiting on every future, each should report the insert went through
+            for (CompletableFuture<Boolean> result : results) {
+                assertTrue(result.join(), "Each queued insert should be committed successfully");
+            }
+
+            // Checking every queued entry can be read back once the futures completed
+            long found = dao.getAllMoodEntries().stream().filter(entry -> entry.getTag().startsWith("Queued ")).count();
+            assertEquals(50, found, "All queued entries should be in the database");
+
+        } catch (SQLException e) {
+            fail("SQL error in enqueueInsertMoodEntry: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void insertMoodEntries() {
+
+        try {
+
+            LocalDateTime currTime = LocalDateTime.now();
+
+            // Creating more entries than one batch chunk holds so the chunking is exercised too
+            List<MoodEntry> batch = new ArrayList<>();
+            for (int i = 0; i < BatchInsert.CHUNK_SIZE + 10; i++) {
+                batch.add(new MoodEntry(0, (i % 15) + 1, "Batch " + i, currTime.minusMinutes(i)));
+            }
+
+            // Inserting and checking a key came back for every entry
+            List<Integer> keys = dao.insertMoodEntries(batch);
+            assertEquals(batch.size(), keys.size(), "Every entry should get a generated key");
+
+            // Checking the keys line up with the entries they were returned for
+            MoodEntry first = dao.getMoodEntryByID(keys.get(0));
+            MoodEntry last = dao.getMoodEntryByID(keys.get(keys.size() - 1));
+            assertEquals("Batch 0", first.getTag(), "First key should belong to the first entry");
+            assertEquals("Batch " + (batch.size() - 1), last.getTag(), "Last key should belong to the last entry");
+
+            // Checking a batch refuses to run inside an open transaction, so nothing is published for rows that could still roll back
+            List<MoodEntry> published = new ArrayList<>();
+            ChangeEvents.Subscription subscription = ChangeEvents.subscribe(MoodEntry.class, event -> published.add(event.getEntity()));
+            try (Connection conn = DatabaseConnection.connect()) {
+
+                conn.setAutoCommit(false);
+                try {
+                    assertThrows(SQLException.class, () -> dao.insertMoodEntries(List.of(new MoodEntry(0, 1, "Outer", currTime))));
+                } finally {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+            } finally {
+                subscription.unsubscribe();
+            }
+            assertTrue(published.isEmpty(), "No entries should be published from a refused batch");
+
+        } catch (SQLException e) {
+            fail("SQL error in insertMoodEntries: " + e.getMessage());
+        }
+    }
+
+
     @Test
     void updateMoodEntry() {
 
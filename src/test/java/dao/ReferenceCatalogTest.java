@@ -0,0 +1,95 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import models.Exercise;
+import models.Mood;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ReferenceCatalog.java.
+ * Each test matches the name of the method in the ReferenceCatalog class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class ReferenceCatalogTest {
+
+
+    @Test
+    void get() {
+
+        try {
+
+            // The catalog should be loaded once and shared
+            assertSame(ReferenceCatalog.get(), ReferenceCatalog.get(), "Catalog should only be loaded once");
+
+            // It should hold the same moods and exercises as the database
+            assertEquals(new MoodDAO().getMoodList().size(), ReferenceCatalog.get().getMoods().size(), "Catalog should hold every mood");
+            assertEquals(new ExerciseDAO().getExerciseList().size(), ReferenceCatalog.get().getExercises().size(), "Catalog should hold every exercise");
+
+        } catch (SQLException e) {
+            fail("SQL error in get: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getMood() {
+
+        try {
+
+            ReferenceCatalog catalog = ReferenceCatalog.get();
+
+            // Every mood name should be found by its ID and every ID by its name
+            for (Mood mood : new MoodDAO().getMoodList()) {
+
+                assertEquals(mood.getMoodName(), catalog.getMoodName(mood.getMoodID()), "Mood name should be found by ID");
+                assertEquals(mood.getMoodID(), catalog.getMoodID(mood.getMoodName()), "Mood ID should be found by name");
+            }
+
+            // Unknown IDs and names should give null or -1 rather than throwing
+            assertNull(catalog.getMoodName(-1), "Negative ID should have no name");
+            assertNull(catalog.getMoodName(999), "Out of range ID should have no name");
+            assertEquals(-1, catalog.getMoodID("Not a mood"), "Unknown name should give -1");
+            assertEquals(-1, catalog.getMoodID(null), "Null name should give -1");
+
+        } catch (SQLException e) {
+            fail("SQL error in getMood: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void getExercise() {
+
+        try {
+
+            ReferenceCatalog catalog = ReferenceCatalog.get();
+
+            // Every exercise should be found by its ID
+            for (Exercise exercise : new ExerciseDAO().getExerciseList()) {
+
+                assertEquals(exercise.getExerciseName(), catalog.getExercise(exercise.getExerciseID()).getExerciseName(), "Exercise should be found by ID");
+            }
+
+            assertNull(catalog.getExercise(999), "Out of range ID should not be found");
+
+        } catch (SQLException e) {
+            fail("SQL error in getExercise: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void empty() {
+
+        // An empty catalog should hold nothing and find nothing
+        ReferenceCatalog catalog = ReferenceCatalog.empty();
+        assertTrue(catalog.getMoods().isEmpty(), "Empty catalog should have no moods");
+        assertTrue(catalog.getExercises().isEmpty(), "Empty catalog should have no exercises");
+        assertNull(catalog.getMoodName(1), "No mood name should be found");
+        assertEquals(-1, catalog.getMoodID("Happy"), "No mood ID should be found");
+        assertNull(catalog.getExercise(1), "No exercise should be found");
+    }
+}
@@ -0,0 +1,49 @@
+package dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+
+import models.DatabaseConnection;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimeColumns.java.
+ * Each test matches the name of the method in the TimeColumns class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class TimeColumnsTest {
+
+
+    @Test
+    void column() {
+
+        LocalDateTime time = LocalDateTime.of(2024, 3, 9, 14, 30, 5);
+
+        // Each column should bind its parameters as its own type, so comparing against it matches by value
+        TimeColumns.Column epoch = new TimeColumns.Column("entry_epoch", true);
+        TimeColumns.Column text = new TimeColumns.Column("entry_date_and_time", false);
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); PreparedStatement pstmt = conn.prepareStatement("SELECT typeof(?)")) {
+
+            epoch.bind(pstmt, 1, time);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("integer", rs.getString(1));
+            }
+
+            text.bind(pstmt, 1, time);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next());
+                assertEquals("text", rs.getString(1));
+            }
+        } catch (SQLException e) {
+            fail("SQL error in column: " + e.getMessage());
+        }
+
+        // The column picked should agree with how its parameters are bound
+        TimeColumns.Column picked = TimeColumns.column("entry_epoch", "entry_date_and_time");
+        assertEquals(picked.epoch() ? "entry_epoch" : "entry_date_and_time", picked.name());
+    }
+}
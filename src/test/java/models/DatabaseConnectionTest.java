@@ -25,4 +25,103 @@ class DatabaseConnectionTest {
             fail("SQLException occurred: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+
+    @Test
+    void connectReusesPooledConnection() {
+
+        try {
+
+            // Leasing the writer twice in a row should hand back the same physical connection
+            Connection first;
+            try (Connection conn = DatabaseConnection.connect()) {
+                first = conn.unwrap(Connection.class);
+            }
+
+            try (Connection conn = DatabaseConnection.connect()) {
+                assertSame(first, conn.unwrap(Connection.class), "Writer connection should be reused.");
+                assertFalse(first.isClosed(), "Closing a lease should not close the physical connection.");
+            }
+        } catch (SQLException e) {
+
+            fail("SQLException occurred: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void connectReadOnly() {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement()) {
+
+            // Reads should work while writes are rejected on reader connections
+            assertTrue(conn.isValid(2), "Reader connection should be valid.");
+            stmt.executeQuery("SELECT COUNT(*) FROM moods").close();
+            assertThrows(SQLException.class, () -> stmt.executeUpdate("DELETE FROM moods WHERE mood_id = -1"), "Reader connections should be read-only.");
+
+        } catch (SQLException e) {
+
+            fail("SQLException occurred: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void closedLeaseRejectsCalls() {
+
+        try {
+
+            // A lease that has been handed back must not be usable anymore
+            Connection conn = DatabaseConnection.connectReadOnly();
+            conn.close();
+            assertTrue(conn.isClosed(), "Lease should report closed after being returned.");
+            assertThrows(SQLException.class, conn::createStatement, "Returned lease should reject calls.");
+
+        } catch (SQLException e) {
+
+            fail("SQLException occurred: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void connectAppliesStorageProfile() {
+
+        try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+
+            // Checking that the configured profile's PRAGMAs are in effect on the pooled connection
+            StorageProfile profile = DatabaseConnection.getProfile();
+
+            try (ResultSet rs = stmt.executeQuery("PRAGMA journal_mode")) {
+                assertTrue(rs.next());
+                assertEquals(profile.getJournalMode().toLowerCase(), rs.getString(1).toLowerCase(), "Journal mode should match the profile.");
+            }
+
+            try (ResultSet rs = stmt.executeQuery("PRAGMA busy_timeout")) {
+                assertTrue(rs.next());
+                assertEquals(profile.getBusyTimeoutMs(), rs.getInt(1), "Busy timeout should match the profile.");
+            }
+        } catch (SQLException e) {
+
+            fail("SQLException occurred: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void storageProfileFromName() {
+
+        assertEquals(StorageProfile.BULK_LOAD, StorageProfile.fromName("bulk-load"));
+        assertEquals(StorageProfile.DURABLE, StorageProfile.fromName("DURABLE"));
+        assertThrows(IllegalArgumentException.class, () -> StorageProfile.fromName("fastest"));
+    }
+
+
+    @Test
+    void unknownProfileFallsBackToDefault() {
+
+        // A mistyped profile setting should fall back rather than fail class initialization
+        assertEquals(StorageProfile.DURABLE, DatabaseConnection.profileNamed("durable"));
+        assertEquals(StorageProfile.BALANCED, DatabaseConnection.profileNamed("fastest"));
+    }
+}
@@ -0,0 +1,43 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Downsampling.java.
+ * Each test matches the name of the method in the Downsampling class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class DownsamplingTest {
+
+
+    @Test
+    void largestTriangleThreeBuckets() {
+
+        // Creating a flat series of 1000 points with a single spike and a single dip
+        double[] ys = new double[1000];
+        Arrays.fill(ys, 8);
+        ys[333] = 15;
+        ys[777] = 1;
+
+        int[] kept = Downsampling.largestTriangleThreeBuckets(ys.length, i -> i, i -> ys[i], 50);
+        assertEquals(50, kept.length, "Should keep exactly the number of points asked for");
+        assertEquals(0, kept[0], "Should always keep the first point");
+        assertEquals(999, kept[kept.length - 1], "Should always keep the last point");
+
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1], "Kept indexes should be in ascending order");
+        }
+
+        // The spike and dip are what the line's shape depends on, so they must survive
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 333), "Should keep the spike");
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 777), "Should keep the dip");
+
+        // Checking a series that already fits is kept whole
+        assertArrayEquals(new int[] { 0, 1, 2 }, Downsampling.largestTriangleThreeBuckets(3, i -> i, i -> ys[i], 50), "A short series should be kept whole");
+        assertEquals(0, Downsampling.largestTriangleThreeBuckets(0, i -> i, i -> 0, 50).length, "An empty series should stay empty");
+    }
+}
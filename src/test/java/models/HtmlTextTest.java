@@ -0,0 +1,34 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HtmlText.java.
+ * Each test matches the name of the method in the HtmlText class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class HtmlTextTest {
+
+
+    @Test
+    void toPlainText() {
+
+        // Checking a document as saved by the HTMLEditor comes back as just its text, one line per paragraph
+        String html = "<html dir=\"ltr\"><head><style>p { color: red; }</style></head><body contenteditable=\"true\">"
+                + "<p>Felt <b>much</b> calmer today.</p><p><font face=\"Segoe UI\">Walked&nbsp;for   an hour</font><br></p></body></html>";
+        assertEquals("Felt much calmer today.\nWalked for an hour", HtmlText.toPlainText(html), "Markup and style content should be stripped");
+
+        // Checking entities are decoded (and unknown ones left as they are)
+        assertEquals("Tom & Jerry <3 \"quotes\" it's é", HtmlText.toPlainText("Tom &amp; Jerry &lt;3 &quot;quotes&quot; it&#39;s &#xE9;"), "Entities should be decoded");
+        assertEquals("Fish &chips; & more", HtmlText.toPlainText("Fish &chips; & more"), "Unknown entities should stay as text");
+
+        // Checking comments, scripts and odd input are handled
+        assertEquals("Before after", HtmlText.toPlainText("Before <!-- a > b --> <script>if (a < b) {}</script>after"), "Comments and scripts should be dropped");
+        assertEquals("Plain text only", HtmlText.toPlainText("  Plain \n text   only "), "Text without markup should only have whitespace tidied");
+        assertEquals("Cut off", HtmlText.toPlainText("Cut off<p class=\"x"), "An unclosed tag at the end should be dropped");
+        assertEquals("", HtmlText.toPlainText("<html><body></body></html>"), "An empty document should give empty text");
+        assertNull(HtmlText.toPlainText(null), "Null should give null");
+    }
+}
@@ -0,0 +1,55 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for JournalTextBackfill.java and the plain text column it fills in.
+ * @author Isabella Castillo
+ */
+class JournalTextBackfillTest {
+
+
+    @Test
+    void start() {
+
+        try {
+
+            // Inserting an entry the old way (HTML only) to simulate data written before the column existed
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO journal (title, text_entry, entry_date_and_time) VALUES ('Backfill pending', '<p>Old <i>styled</i> entry</p>', '2024-12-31 23:59:59')");
+            }
+
+            // Starting the backfill should notice the entry and strip its HTML in the background
+            JournalTextBackfill.start();
+            String plain = null;
+            long deadline = System.currentTimeMillis() + 10_000;
+
+            while (plain == null && System.currentTimeMillis() < deadline) {
+
+                try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT text_plain FROM journal WHERE title = 'Backfill pending'")) {
+                    plain = rs.next() ? rs.getString(1) : null;
+                }
+                if (plain == null) { Thread.sleep(20); }
+            }
+            assertEquals("Old styled entry", plain, "Backfill should store the stripped text");
+
+            // Checking the converted text is searchable through the full-text index
+            try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM journal_fts WHERE journal_fts MATCH 'styled'")) {
+                assertTrue(rs.next() && rs.getInt(1) == 1, "The backfilled text should be indexed");
+            }
+
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM journal WHERE title = 'Backfill pending'");
+            }
+
+        } catch (SQLException | InterruptedException e) {
+            fail("Error in start: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MoodRollups.java and the triggers that keep the rollup tables current.
+ * @author Isabella Castillo
+ */
+class MoodRollupsTest {
+
+
+    @Test
+    void rebuild() {
+
+        try {
+
+            // Inserting entries and then throwing away their counts to simulate rollups that fell out of step
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+
+                stmt.executeUpdate("INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (6, 'Rollup test', '2032-01-05 10:15:00'), "
+                                 + "(6, 'Rollup test', '2032-01-05 10:45:00'), (7, 'Rollup test', '2032-01-05 18:00:00')");
+                stmt.executeUpdate("DELETE FROM mood_daily WHERE day = '2032-01-05'");
+            }
+
+            // Rebuilding should restore the daily and hourly counts from the entries
+            MoodRollups.rebuild();
+            assertEquals(2, count("SELECT entry_count FROM mood_daily WHERE day = '2032-01-05' AND mood_id = 6"), "Daily count should be rebuilt");
+            assertEquals(2, count("SELECT entry_count FROM mood_hourly WHERE day = '2032-01-05' AND hour = 10 AND mood_id = 6"), "Hourly count should be rebuilt");
+            assertEquals(1, count("SELECT entry_count FROM mood_hourly WHERE day = '2032-01-05' AND hour = 18 AND mood_id = 7"), "Hourly count should be rebuilt");
+
+            // Deleting the entries should remove their counts entirely
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM mood_entries WHERE tag = 'Rollup test'");
+            }
+            assertEquals(0, count("SELECT COUNT(*) FROM mood_hourly WHERE day = '2032-01-05'"), "Counts for deleted entries should be removed");
+
+        } catch (SQLException e) {
+            fail("SQL error in rebuild: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Runs a query returning a single number (0 when it returns no rows).
+     */
+    private int count(String query) throws SQLException {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
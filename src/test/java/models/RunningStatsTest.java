@@ -0,0 +1,64 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RunningStats.java and the Bootstrap intervals built alongside it.
+ * Each test matches the name of the method it covers and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class RunningStatsTest {
+
+
+    @Test
+    void add() {
+
+        // Checking nothing added reads as 0 rather than NaN
+        RunningStats stats = new RunningStats();
+        assertEquals(0, stats.getCount());
+        assertEquals(0, stats.getMean());
+        assertEquals(0, stats.getVariance());
+
+        // Checking one value has a mean but no spread yet
+        stats.add(7);
+        assertEquals(7, stats.getMean(), 1e-12);
+        assertEquals(0, stats.getVariance(), "A single value has no sample variance");
+
+        // Checking values with a large offset (where summing squares loses every digit) still give the exact sample variance
+        RunningStats offset = new RunningStats();
+        for (double value : new double[] { 4, 7, 13, 16 }) { offset.add(1e9 + value); }
+        assertEquals(4, offset.getCount());
+        assertEquals(1e9 + 10, offset.getMean(), 1e-6);
+        assertEquals(30, offset.getVariance(), 1e-6);
+        assertEquals(Math.sqrt(30), offset.getStandardDeviation(), 1e-6);
+
+        // Checking a long run of the same value keeps its mean exactly
+        RunningStats repeated = new RunningStats();
+        for (int i = 0; i < 1_000_000; i++) { repeated.add(0.1); }
+        assertEquals(0.1, repeated.getMean(), 1e-15);
+        assertEquals(0, repeated.getVariance(), 1e-15);
+    }
+
+
+    @Test
+    void meanInterval() {
+
+        // A sample of fifty 0s and fifty 1s, whose mean of 0.5 has a standard error of 0.05
+        int[] values = { 0, 1 };
+        int[] counts = { 50, 50 };
+
+        // Checking the 95% interval is around the mean and about two standard errors wide on each side
+        double[] interval = Bootstrap.meanInterval(values, counts, 1000, 0.95, 42);
+        assertTrue(interval[0] < 0.5 && 0.5 < interval[1], "The interval should hold the mean");
+        assertTrue(interval[0] > 0.35 && interval[1] < 0.65, "The interval should be about ± 0.1");
+
+        // Checking the same seed gives the same interval, even though resamples are drawn in parallel
+        assertArrayEquals(interval, Bootstrap.meanInterval(values, counts, 1000, 0.95, 42));
+
+        // Checking a sample that can't vary gives the mean at both ends
+        assertArrayEquals(new double[] { 3, 3 }, Bootstrap.meanInterval(new int[] { 3 }, new int[] { 20 }, 1000, 0.95, 42));
+        assertArrayEquals(new double[] { 0, 0 }, Bootstrap.meanInterval(new int[0], new int[0], 1000, 0.95, 42));
+    }
+}
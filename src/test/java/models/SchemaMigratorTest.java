@@ -0,0 +1,90 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SchemaMigrator.java.
+ * Each test matches the name of the method in the SchemaMigrator class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class SchemaMigratorTest {
+
+
+    @Test
+    void migrate() {
+
+        try (Connection conn = DatabaseConnection.connect()) {
+
+            // Connecting runs the migrations, so the database should already be at the latest version
+            assertEquals(SchemaMigrator.getLatestVersion(), SchemaMigrator.getCurrentVersion(conn), "Schema should be at the latest version.");
+
+            // Running again should be a no-op that leaves the version unchanged
+            assertEquals(SchemaMigrator.getLatestVersion(), SchemaMigrator.migrate(conn), "Re-running migrations should not change the version.");
+
+        } catch (SQLException e) {
+            fail("SQL error in migrate: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void rangeQueriesUseIndexes() {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly()) {
+
+            // Checking the query planner picks the new indexes instead of scanning the tables
+            assertTrue(queryPlan(conn, "SELECT * FROM mood_entries WHERE entry_date_and_time BETWEEN '2025-01-01 00:00:00' AND '2025-02-01 00:00:00'").contains("idx_mood_entries_time"),
+                    "Mood range query should use the time index.");
+
+            assertTrue(queryPlan(conn, "SELECT * FROM exercise_entries WHERE start_time BETWEEN '2025-01-01 00:00:00' AND '2025-02-01 00:00:00'").contains("idx_exercise_entries_start"),
+                    "Exercise range query should use the start time index.");
+
+            assertTrue(queryPlan(conn, "SELECT * FROM journal WHERE entry_date_and_time BETWEEN '2025-01-01 00:00:00' AND '2025-02-01 00:00:00'").contains("idx_journal_time"),
+                    "Journal range query should use the time index.");
+
+            assertTrue(queryPlan(conn, "SELECT * FROM mood_entries WHERE entry_epoch BETWEEN 1735689600 AND 1738368000").contains("idx_mood_entries_epoch"),
+                    "Mood epoch range query should use the epoch index.");
+
+        } catch (SQLException e) {
+            fail("SQL error in rangeQueriesUseIndexes: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void journalListUsesCoveringIndex() {
+
+        try (Connection conn = DatabaseConnection.connectReadOnly()) {
+
+            // Checking a page of journal summaries is read from the index alone, without touching the rows holding the bodies
+            String plan = queryPlan(conn, "SELECT journal_id, title, text_preview, entry_date_and_time, entry_epoch FROM journal "
+                    + "WHERE (entry_epoch, journal_id) < (1738368000, 100) ORDER BY entry_epoch DESC, journal_id DESC LIMIT 100");
+            assertTrue(plan.contains("COVERING INDEX idx_journal_summary"), "Journal summaries should come from the covering index.");
+            assertFalse(plan.contains("TEMP B-TREE"), "Journal summaries should not need sorting.");
+
+        } catch (SQLException e) {
+            fail("SQL error in journalListUsesCoveringIndex: " + e.getMessage());
+        }
+    }
+
+
+    /**
+     * Gets the query plan details for a query as one string.
+     */
+    private String queryPlan(Connection conn, String query) throws SQLException {
+
+        StringBuilder plan = new StringBuilder();
+
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN " + query)) {
+
+            while (rs.next()) {
+                plan.append(rs.getString("detail")).append('\n');
+            }
+        }
+        return plan.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package models;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Settings.java.
+ * @author Isabella Castillo
+ */
+class SettingsTest {
+
+    private static final String PROPERTY = "mindscape.test.setting";
+    private static final String ENVIRONMENT = "MINDSCAPE_TEST_SETTING";
+
+
+    @AfterEach
+    void tearDown() { System.clearProperty(PROPERTY); }
+
+
+    @Test
+    void get() {
+
+        assertEquals("fallback", Settings.get(PROPERTY, ENVIRONMENT, "fallback"));
+
+        System.setProperty(PROPERTY, "  durable ");
+        assertEquals("durable", Settings.get(PROPERTY, ENVIRONMENT, "fallback"), "Set values should be trimmed");
+
+        System.setProperty(PROPERTY, " ");
+        assertEquals("fallback", Settings.get(PROPERTY, ENVIRONMENT, "fallback"), "Blank values should count as unset");
+    }
+
+
+    @Test
+    void getInt() {
+
+        assertEquals(4, Settings.getInt(PROPERTY, ENVIRONMENT, 4));
+
+        System.setProperty(PROPERTY, "16");
+        assertEquals(16, Settings.getInt(PROPERTY, ENVIRONMENT, 4));
+
+        // Values that aren't whole numbers (or don't fit an int) should fall back rather than throw
+        System.setProperty(PROPERTY, "sixteen");
+        assertEquals(4, Settings.getInt(PROPERTY, ENVIRONMENT, 4));
+        System.setProperty(PROPERTY, "1.5");
+        assertEquals(4, Settings.getInt(PROPERTY, ENVIRONMENT, 4));
+        System.setProperty(PROPERTY, "99999999999");
+        assertEquals(4, Settings.getInt(PROPERTY, ENVIRONMENT, 4));
+    }
+
+
+    @Test
+    void getLong() {
+
+        System.setProperty(PROPERTY, "99999999999");
+        assertEquals(99_999_999_999L, Settings.getLong(PROPERTY, ENVIRONMENT, 10));
+
+        System.setProperty(PROPERTY, "10ms");
+        assertEquals(10, Settings.getLong(PROPERTY, ENVIRONMENT, 10));
+    }
+}
@@ -0,0 +1,112 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimestampBackfill.java and the epoch time columns it fills in.
+ * @author Isabella Castillo
+ */
+class TimestampBackfillTest {
+
+
+    @Test
+    void triggerFillsEpochForTextOnlyInsert() {
+
+        LocalDateTime time = LocalDateTime.of(2025, 3, 9, 2, 30, 15);
+
+        try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+
+            // Inserting a row the old way (TEXT time only) and checking the trigger filled in the epoch
+            stmt.executeUpdate("INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (1, 'Backfill test', '2025-03-09 02:30:15')");
+
+            try (ResultSet rs = stmt.executeQuery("SELECT entry_epoch FROM mood_entries WHERE tag = 'Backfill test'")) {
+                assertTrue(rs.next(), "Inserted row should exist");
+                assertEquals(time.toEpochSecond(ZoneOffset.UTC), rs.getLong(1), "Epoch should match the TEXT time read as UTC");
+            }
+
+            stmt.executeUpdate("DELETE FROM mood_entries WHERE tag = 'Backfill test'");
+
+        } catch (SQLException e) {
+            fail("SQL error in triggerFillsEpochForTextOnlyInsert: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void start() {
+
+        try {
+
+            // Clearing the epoch on a row to simulate data written before the column existed
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (2, 'Backfill pending', '2024-12-31 23:59:59')");
+                stmt.executeUpdate("UPDATE mood_entries SET entry_epoch = NULL WHERE tag = 'Backfill pending'");
+            }
+
+            // Starting the backfill should notice the pending row and convert it in the background
+            TimestampBackfill.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!TimestampBackfill.isComplete() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(TimestampBackfill.isComplete(), "Backfill should finish");
+
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+
+                try (ResultSet rs = stmt.executeQuery("SELECT entry_epoch FROM mood_entries WHERE tag = 'Backfill pending'")) {
+                    assertTrue(rs.next(), "Row should exist");
+                    assertEquals(LocalDateTime.of(2024, 12, 31, 23, 59, 59).toEpochSecond(ZoneOffset.UTC), rs.getLong(1), "Epoch should be filled in");
+                }
+                stmt.executeUpdate("DELETE FROM mood_entries WHERE tag = 'Backfill pending'");
+            }
+
+        } catch (SQLException | InterruptedException e) {
+            fail("Error in start: " + e.getMessage());
+        }
+    }
+
+
+    @Test
+    void startSkipsUnparseableTime() {
+
+        try {
+
+            // A row whose TEXT time doesn't parse next to one still waiting for its epoch
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (2, 'Backfill malformed', 'not a time')");
+                stmt.executeUpdate("INSERT INTO mood_entries (mood_id, tag, entry_date_and_time) VALUES (2, 'Backfill pending', '2024-06-01 08:00:00')");
+                stmt.executeUpdate("UPDATE mood_entries SET entry_epoch = NULL WHERE tag IN ('Backfill malformed', 'Backfill pending')");
+            }
+
+            // The backfill should convert the valid row and still finish, rather than picking the malformed one up forever
+            TimestampBackfill.start();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (!TimestampBackfill.isComplete() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(TimestampBackfill.isComplete(), "Backfill should finish despite the malformed row");
+
+            try (Connection conn = DatabaseConnection.connect(); Statement stmt = conn.createStatement()) {
+
+                try (ResultSet rs = stmt.executeQuery("SELECT tag, entry_epoch FROM mood_entries WHERE tag IN ('Backfill malformed', 'Backfill pending') ORDER BY tag")) {
+
+                    assertTrue(rs.next(), "Malformed row should exist");
+                    rs.getLong(2);
+                    assertTrue(rs.wasNull(), "Malformed row should be skipped");
+
+                    assertTrue(rs.next(), "Pending row should exist");
+                    assertEquals(LocalDateTime.of(2024, 6, 1, 8, 0).toEpochSecond(ZoneOffset.UTC), rs.getLong(2), "Epoch should be filled in");
+                }
+                stmt.executeUpdate("DELETE FROM mood_entries WHERE tag IN ('Backfill malformed', 'Backfill pending')");
+            }
+
+        } catch (SQLException | InterruptedException e) {
+            fail("Error in startSkipsUnparseableTime: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package models;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TimestampCodec.java.
+ * Each test matches the name of the method in the TimestampCodec class and has descriptive comments.
+ * @author Isabella Castillo
+ */
+class TimestampCodecTest {
+
+    private static final DateTimeFormatter DB_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+
+    @Test
+    void parse() {
+
+        // Checking the codec agrees with the formatter it replaces on a spread of random times
+        Random random = new Random(7);
+        LocalDateTime start = LocalDateTime.of(1999, 12, 31, 23, 59, 59);
+
+        for (int i = 0; i < 10_000; i++) {
+            String text = start.plusSeconds(random.nextInt(Integer.MAX_VALUE)).format(DB_DATE_FORMAT);
+            assertEquals(LocalDateTime.parse(text, DB_DATE_FORMAT), TimestampCodec.parse(text), "Codec should parse " + text + " like the formatter");
+        }
+
+        // Checking badly formed text and impossible dates are rejected
+        assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse("2025-01-01T10:00:00"), "Wrong separator should be rejected");
+        assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse("2025-01-01 10:00"), "Missing seconds should be rejected");
+        assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse("2025-0a-01 10:00:00"), "Non digits should be rejected");
+        assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse("2025-02-30 10:00:00"), "Impossible dates should be rejected");
+        assertThrows(DateTimeParseException.class, () -> TimestampCodec.parse(null), "Null should be rejected");
+    }
+
+
+    @Test
+    void format() {
+
+        // Checking the codec agrees with the formatter, including truncating nanoseconds
+        Random random = new Random(11);
+        LocalDateTime start = LocalDateTime.of(2001, 1, 1, 0, 0);
+
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime time = start.plusSeconds(random.nextInt(Integer.MAX_VALUE)).withNano(random.nextInt(1_000_000_000));
+            assertEquals(time.format(DB_DATE_FORMAT), TimestampCodec.format(time), "Codec should format " + time + " like the formatter");
+        }
+
+        assertEquals("0987-06-05 04:03:02", TimestampCodec.format(LocalDateTime.of(987, 6, 5, 4, 3, 2)), "Fields should be zero padded");
+    }
+}
@@ -0,0 +1,263 @@
+package view;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import dao.ChangeEvent;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PagedRows.java, with a sorted set standing in for the database the pages are fetched from.
+ * Pages hold 3 rows and the table starts with the entries 10, 20, ... 120 (pages 0-3).
+ * @author Isabella Castillo
+ */
+class PagedRowsTest {
+
+    private static final int PAGE_SIZE = 3;
+
+    private TreeSet<Integer> database;
+    private PagedRows<Integer> rows;
+
+
+    @BeforeEach
+    void setUp() {
+
+        database = new TreeSet<>();
+        for (int entry = 10; entry <= 120; entry += 10) {
+            database.add(entry);
+        }
+        rows = new PagedRows<>(Comparator.naturalOrder(), database.size(), PAGE_SIZE, 2);
+    }
+
+
+    @Test
+    void loadForWalksToPage() {
+
+        // Nothing is in memory until a row is asked for, then every page before it is walked through once
+        assertNull(rows.get(7));
+        show(7);
+        assertEquals(80, rows.get(7));
+        assertEquals(90, rows.get(8));
+
+        // Only the target page is kept, and a page in memory has nothing to load
+        assertNull(rows.get(0), "Pages walked through should not be kept");
+        assertNull(rows.loadFor(7), "A page in memory should not be loaded again");
+    }
+
+
+    @Test
+    void pagesFarAwayAreDropped() {
+
+        show(0);
+        show(4);
+        show(9);
+        assertNull(rows.get(0), "The page furthest from the last one viewed should be dropped");
+        assertEquals(50, rows.get(4));
+        assertEquals(100, rows.get(9));
+    }
+
+
+    @Test
+    void lastPageStopsLoading() {
+
+        show(11);
+        assertEquals(120, rows.get(11));
+
+        // The entries ran out, so there is nothing past them to load
+        database.add(130);
+        rows.apply(ChangeEvent.Type.INSERTED, 130);
+        assertEquals(13, rows.size());
+        show(12);
+        assertEquals(130, rows.get(12));
+    }
+
+
+    @Test
+    void insertBeforeLoadedPage() {
+
+        show(7);
+        PagedRows.Change<Integer> change = insert(15);
+
+        assertEquals(PagedRows.Kind.ADDED, change.kind());
+        assertEquals(0, change.index(), "Insert into a page not in memory should land at the page's first row");
+        assertEquals(13, rows.size());
+        assertEquals(80, rows.get(8), "Rows after the insert should move down one");
+
+        show(1);
+        assertEquals(15, rows.get(1));
+        assertEquals(30, rows.get(3), "The page holding the insert should grow rather than push a row onto the next page");
+    }
+
+
+    @Test
+    void insertInsideLoadedPage() {
+
+        show(7);
+        PagedRows.Change<Integer> change = insert(75);
+
+        assertEquals(PagedRows.Kind.ADDED, change.kind());
+        assertEquals(7, change.index());
+        assertEquals(70, rows.get(6));
+        assertEquals(75, rows.get(7));
+        assertEquals(90, rows.get(9));
+
+        show(10);
+        assertEquals(100, rows.get(10), "The page after should start one row later");
+    }
+
+
+    @Test
+    void insertAfterReachedPages() {
+
+        show(7);
+        PagedRows.Change<Integer> change = insert(115);
+
+        assertEquals(PagedRows.Kind.ADDED, change.kind());
+        assertEquals(9, change.index(), "Insert past every reached page should land at the first row after them");
+        assertEquals(13, rows.size());
+
+        show(11);
+        assertEquals(115, rows.get(11));
+        show(12);
+        assertEquals(120, rows.get(12));
+    }
+
+
+    @Test
+    void deleteBeforeLoadedPage() {
+
+        show(7);
+        PagedRows.Change<Integer> change = delete(20);
+
+        assertEquals(PagedRows.Kind.REMOVED, change.kind());
+        assertEquals(0, change.index());
+        assertEquals(11, rows.size());
+        assertEquals(70, rows.get(5), "Rows after the delete should move up one");
+
+        show(0);
+        assertEquals(10, rows.get(0));
+        assertEquals(30, rows.get(1));
+    }
+
+
+    @Test
+    void deleteInsideLoadedPage() {
+
+        show(7);
+        PagedRows.Change<Integer> change = delete(80);
+
+        assertEquals(PagedRows.Kind.REMOVED, change.kind());
+        assertEquals(7, change.index());
+        assertEquals(70, rows.get(6));
+        assertEquals(90, rows.get(7));
+
+        show(8);
+        assertEquals(100, rows.get(8), "The page after should start one row earlier");
+    }
+
+
+    @Test
+    void deleteAfterReachedPages() {
+
+        show(7);
+        PagedRows.Change<Integer> change = delete(110);
+
+        assertEquals(PagedRows.Kind.REMOVED, change.kind());
+        assertEquals(9, change.index());
+        assertEquals(11, rows.size());
+
+        show(10);
+        assertEquals(100, rows.get(9));
+        assertEquals(120, rows.get(10));
+    }
+
+
+    @Test
+    void updateReplacesEntryInLoadedPage() {
+
+        show(7);
+        PagedRows.Change<Integer> change = rows.apply(ChangeEvent.Type.UPDATED, 80);
+
+        assertEquals(PagedRows.Kind.REPLACED, change.kind());
+        assertEquals(7, change.index());
+        assertNull(rows.apply(ChangeEvent.Type.UPDATED, 10), "Edits to a page not in memory change no row");
+    }
+
+
+    @Test
+    void staleLoadIsThrownAway() {
+
+        // The page is fetched, then an insert is applied before it is handed over
+        PagedRows.Load<Integer> load = rows.loadFor(1);
+        List<Integer> page = fetch(load);
+        insert(5);
+
+        PagedRows.Loaded<Integer> loaded = rows.finishLoad(load, page);
+        assertNull(loaded.next());
+        assertTrue(loaded.from() >= loaded.to(), "A stale page should redraw no rows");
+        assertNull(rows.get(1), "A stale page should not be kept");
+
+        // Asking for the rows again loads the page as it is now
+        show(1);
+        assertEquals(5, rows.get(0));
+        assertEquals(10, rows.get(1));
+    }
+
+
+    @Test
+    void pageLoadedBeforeInsertEventIsReloaded() {
+
+        // The insert is committed (and so in the fetched page) before its event is applied
+        database.add(75);
+        show(7);
+        assertEquals(75, rows.get(7));
+
+        PagedRows.Change<Integer> change = rows.apply(ChangeEvent.Type.INSERTED, 75);
+        assertEquals(PagedRows.Kind.ADDED, change.kind());
+        assertEquals(13, rows.size());
+        assertNull(rows.get(7), "A page already holding the insert should be loaded again");
+
+        show(7);
+        assertEquals(75, rows.get(7));
+        assertEquals(90, rows.get(9), "The reloaded page should hold the entry pushed out of its old count");
+    }
+
+
+    /**
+     * Loads the page holding a row the way PagedEntryList does, walking through every page fetch handed back.
+     */
+    private void show(int index) {
+
+        PagedRows.Load<Integer> load = rows.loadFor(index);
+        while (load != null) {
+            load = rows.finishLoad(load, fetch(load)).next();
+        }
+    }
+
+
+    /**
+     * Fetches a page from the stand-in database: the entries after the load's cursor, up to its limit.
+     */
+    private List<Integer> fetch(PagedRows.Load<Integer> load) {
+
+        SortedSet<Integer> after = load.after() == null ? database : database.tailSet(load.after(), false);
+        return after.stream().limit(load.limit()).toList();
+    }
+
+
+    private PagedRows.Change<Integer> insert(int entry) {
+
+        database.add(entry);
+        return rows.apply(ChangeEvent.Type.INSERTED, entry);
+    }
+
+
+    private PagedRows.Change<Integer> delete(int entry) {
+
+        database.remove(entry);
+        return rows.apply(ChangeEvent.Type.DELETED, entry);
+    }
+}